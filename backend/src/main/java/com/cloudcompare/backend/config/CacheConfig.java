@@ -1,31 +1,114 @@
 package com.cloudcompare.backend.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * One Caffeine policy per cache, read from cloudcompare.cache.&lt;name&gt;.*: a size or
+ * weight limit, a ttl spread by a random jitter so entries loaded together don't all
+ * expire together, and optionally refresh-after-write, which serves the cached value
+ * while a {@link RefreshableCache} reloads it in the background. Stats are recorded so
+ * Boot's cache metrics (cache.gets, cache.evictions, ...) are exported per cache name.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = List.of("templates", "calculations");
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "pricing", "templates", "calculations"
-        );
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(Environment environment,
+                                     ObjectProvider<RefreshableCache> refreshableCaches,
+                                     ThreadPoolTaskExecutor cacheRefreshExecutor) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        for (String name : CACHE_NAMES) {
+            cacheManager.registerCustomCache(name,
+                    buildCache(name, environment, refreshableCaches, cacheRefreshExecutor));
+        }
         return cacheManager;
     }
 
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(1, TimeUnit.HOURS)
+    private Cache<Object, Object> buildCache(String name, Environment environment,
+                                             ObjectProvider<RefreshableCache> refreshableCaches,
+                                             ThreadPoolTaskExecutor cacheRefreshExecutor) {
+        String prefix = "cloudcompare.cache." + name + ".";
+        Duration ttl = environment.getProperty(prefix + "ttl", Duration.class, Duration.ofHours(1));
+        double jitter = environment.getProperty(prefix + "jitter", Double.class, 0.1);
+        Long maximumWeight = environment.getProperty(prefix + "maximum-weight", Long.class);
+        Duration refreshAfterWrite = environment.getProperty(prefix + "refresh-after-write", Duration.class);
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfter(new JitteredExpiry(ttl, jitter))
+                .executor(cacheRefreshExecutor)
                 .recordStats();
+        if (maximumWeight != null) {
+            builder.maximumWeight(maximumWeight).weigher(CacheConfig::weigh);
+        } else {
+            builder.maximumSize(environment.getProperty(prefix + "maximum-size", Long.class, 1000L));
+        }
+
+        if (refreshAfterWrite == null) {
+            return builder.build();
+        }
+        // Resolved on first load: the loaders are services that are created after the cache manager
+        return builder.refreshAfterWrite(refreshAfterWrite).build(key -> refreshableCaches.orderedStream()
+                .filter(loader -> loader.cacheName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No RefreshableCache for cache " + name))
+                .load(key));
+    }
+
+    // Lists and maps weigh one per element, anything else one
+    private static int weigh(Object key, Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
+    }
+
+    // ttl +/- jitter (a fraction of the ttl) on every write; reads leave the expiry alone
+    static final class JitteredExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+        private final double jitter;
+
+        JitteredExpiry(Duration ttl, double jitter) {
+            this.ttlNanos = ttl.toNanos();
+            this.jitter = Math.max(0, Math.min(jitter, 1));
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            double spread = jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+            return (long) (ttlNanos * (1 + spread));
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
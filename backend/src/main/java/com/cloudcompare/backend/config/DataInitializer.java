@@ -112,16 +112,22 @@ public class DataInitializer implements CommandLineRunner {
         functions.put("minMemoryMb", 128);
         functions.put("maxMemoryMb", 10240);
         functions.put("estimatedRequestsPerMonth", 1000000);
+        functions.put("minEstimatedRequestsPerMonth", 0);
+        functions.put("maxEstimatedRequestsPerMonth", 10000000000L);
         config.put("functions", functions);
 
         Map<String, Object> apiGateway = new HashMap<>();
         apiGateway.put("enabled", true);
         apiGateway.put("estimatedRequestsPerMonth", 1000000);
+        apiGateway.put("minEstimatedRequestsPerMonth", 0);
+        apiGateway.put("maxEstimatedRequestsPerMonth", 10000000000L);
         config.put("apiGateway", apiGateway);
 
         Map<String, Object> database = new HashMap<>();
         database.put("type", "nosql");
         database.put("defaultStorageGb", 25);
+        database.put("minStorageGb", 1);
+        database.put("maxStorageGb", 10000);
         config.put("database", database);
 
         return Template.builder()
@@ -143,6 +149,10 @@ public class DataInitializer implements CommandLineRunner {
         compute.put("maxGpus", 8);
         compute.put("defaultVcpus", 4);
         compute.put("defaultMemoryGb", 16);
+        compute.put("minVcpus", 4);
+        compute.put("maxVcpus", 96);
+        compute.put("minMemoryGb", 16);
+        compute.put("maxMemoryGb", 768);
         config.put("compute", compute);
 
         Map<String, Object> storage = new HashMap<>();
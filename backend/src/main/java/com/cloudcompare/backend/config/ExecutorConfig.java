@@ -0,0 +1,81 @@
+package com.cloudcompare.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Fans out per-provider cost evaluation; a full queue rejects instead of blocking the request thread
+    @Bean
+    public ThreadPoolTaskExecutor providerEvaluationExecutor(
+            @Value("${cloudcompare.pricing.evaluation-threads:16}") int threads,
+            @Value("${cloudcompare.pricing.evaluation-queue-capacity:256}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("provider-eval-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Runs batch compare items. The queue is unbounded: each batch caps its own queued items
+    // at max-in-flight, so a busy pool makes batches wait instead of rejecting their items
+    @Bean
+    public ThreadPoolTaskExecutor bulkPricingExecutor(
+            @Value("${cloudcompare.batch.concurrency:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("bulk-pricing-");
+        return executor;
+    }
+
+    // Runs region sweeps, apart from batches so a long batch doesn't hold sweeps up; bounded like the batch pool
+    @Bean
+    public ThreadPoolTaskExecutor regionSweepExecutor(
+            @Value("${cloudcompare.sweep.region-concurrency:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("region-sweep-");
+        return executor;
+    }
+
+    // Imports price lists dropped in the inbox, one at a time and off the scheduler thread that every
+    // @Scheduled job shares; a multi-GB import would otherwise hold up flushes and partition upkeep
+    @Bean
+    public ThreadPoolTaskExecutor priceListImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("price-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Reloads cache entries past refresh-after-write while callers keep getting the stale value
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(
+            @Value("${cloudcompare.cache.refresh-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Work-stealing pool for the deployment optimizer's branch-and-bound search
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool optimizerPool(
+            @Value("${cloudcompare.optimizer.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
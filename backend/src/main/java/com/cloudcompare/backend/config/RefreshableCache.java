@@ -0,0 +1,13 @@
+package com.cloudcompare.backend.config;
+
+/**
+ * Loads values for a cache configured with refresh-after-write. The cache calls
+ * {@link #load(Object)} with the same key the {@code @Cacheable} method would have
+ * produced, on a miss and again in the background once an entry is due for refresh.
+ */
+public interface RefreshableCache {
+
+    String cacheName();
+
+    Object load(Object key);
+}
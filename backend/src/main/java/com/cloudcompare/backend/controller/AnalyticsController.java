@@ -0,0 +1,71 @@
+package com.cloudcompare.backend.controller;
+
+import com.cloudcompare.backend.model.RollupGranularity;
+import com.cloudcompare.backend.model.dto.CalculationCountPoint;
+import com.cloudcompare.backend.model.dto.ProviderShare;
+import com.cloudcompare.backend.model.dto.TemplatePopularity;
+import com.cloudcompare.backend.service.analytics.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_DAILY_RANGE = Duration.ofDays(3 * 366);
+    private static final int MAX_DAYS = 3 * 366;
+
+    private final AnalyticsService analyticsService;
+
+    // Calculations per hour or day; defaults to the last 24 hours
+    @GetMapping("/calculations")
+    public ResponseEntity<List<CalculationCountPoint>> getCalculationCounts(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        Duration maxRange = granularity == RollupGranularity.HOUR ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE;
+        if (!start.isBefore(end) || Duration.between(start, end).compareTo(maxRange) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "from must be before to and the range at most " + maxRange.toDays() + " days");
+        }
+        return ResponseEntity.ok(analyticsService.getCalculationCounts(granularity, start, end));
+    }
+
+    @GetMapping("/templates/popular")
+    public ResponseEntity<List<TemplatePopularity>> getPopularTemplates(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+        checkDays(days);
+        if (limit < 1 || limit > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and 100");
+        }
+        return ResponseEntity.ok(analyticsService.getPopularTemplates(days, limit));
+    }
+
+    // How often each provider came out cheapest
+    @GetMapping("/providers/cheapest")
+    public ResponseEntity<List<ProviderShare>> getCheapestProviders(@RequestParam(defaultValue = "30") int days) {
+        checkDays(days);
+        return ResponseEntity.ok(analyticsService.getCheapestProviders(days));
+    }
+
+    private void checkDays(int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 1 and " + MAX_DAYS);
+        }
+    }
+}
@@ -1,33 +1,156 @@
 package com.cloudcompare.backend.controller;
 
+import com.cloudcompare.backend.model.TrendBucket;
+import com.cloudcompare.backend.model.dto.InstanceMatchResponse;
+import com.cloudcompare.backend.model.dto.OptimizeRequest;
+import com.cloudcompare.backend.model.dto.OptimizeResponse;
+import com.cloudcompare.backend.model.dto.ParameterSweepRequest;
+import com.cloudcompare.backend.model.dto.ParameterSweepResponse;
+import com.cloudcompare.backend.model.dto.PriceTrendResponse;
 import com.cloudcompare.backend.model.dto.PricingRequest;
 import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.model.dto.RegionSweepRequest;
+import com.cloudcompare.backend.service.BatchCalculationService;
 import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.ParameterSweepService;
+import com.cloudcompare.backend.service.PricingService;
+import com.cloudcompare.backend.service.RegionSweepService;
+import com.cloudcompare.backend.service.metrics.CompareStage;
+import com.cloudcompare.backend.service.metrics.CompareTrace;
+import com.cloudcompare.backend.service.optimize.DeploymentOptimizer;
+import com.cloudcompare.backend.service.rules.CostEngine;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/pricing")
 @RequiredArgsConstructor
 public class PricingController {
 
+    private static final long MAX_TREND_DAYS = 5 * 366;
+
     private final CalculationService calculationService;
+    private final BatchCalculationService batchCalculationService;
+    private final RegionSweepService regionSweepService;
+    private final ParameterSweepService parameterSweepService;
+    private final CostEngine costEngine;
+    private final PricingService pricingService;
+    private final DeploymentOptimizer deploymentOptimizer;
 
+    // The trace is started by CompareTimingInterceptor before the body is read
     @PostMapping("/compare")
     public ResponseEntity<PricingResponse> comparePricing(
             @Valid @RequestBody PricingRequest request,
+            @RequestAttribute(CompareTrace.ATTRIBUTE) CompareTrace trace,
             HttpServletRequest httpRequest) {
+        trace.record(CompareStage.PARSE, trace.getStarted());
 
         String ipAddress = getClientIp(httpRequest);
         String userAgent = httpRequest.getHeader("User-Agent");
 
-        PricingResponse response = calculationService.calculateCosts(request, ipAddress, userAgent);
+        PricingResponse response = calculationService.calculateCosts(request, ipAddress, userAgent, trace);
+        trace.handled();
         return ResponseEntity.ok(response);
     }
 
+    // Body is a JSON array or NDJSON of PricingRequests; results stream back as NDJSON in completion order
+    @PostMapping(value = "/compare/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> compareBatch(HttpServletRequest httpRequest) throws IOException {
+        String ipAddress = getClientIp(httpRequest);
+        String userAgent = httpRequest.getHeader("User-Agent");
+        InputStream input = httpRequest.getInputStream();
+
+        StreamingResponseBody body = output ->
+                batchCalculationService.calculateBatch(input, output, ipAddress, userAgent);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Provider x region cost matrix for one configuration, streamed as NDJSON rows
+    @PostMapping(value = "/sweep/regions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> sweepRegions(@Valid @RequestBody RegionSweepRequest request) {
+        // Fail before the response is committed if the template does not exist or the configuration doesn't fit it
+        calculationService.findTemplate(request.getTemplateId()).resolve(request.getConfiguration());
+        if (request.getRegions() != null) {
+            request.getRegions().forEach(costEngine::regionSlot);
+        }
+
+        StreamingResponseBody body = output -> regionSweepService.sweep(request, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Cost curve per provider over one parameter, e.g. storage.sizeGb from 10 to 10000; nothing is recorded
+    @PostMapping("/sweep/parameter")
+    public ResponseEntity<ParameterSweepResponse> sweepParameter(@Valid @RequestBody ParameterSweepRequest request) {
+        return ResponseEntity.ok(parameterSweepService.sweep(request));
+    }
+
+    // Cheapest provider/region/instance mixes that meet the given minimums, best first
+    @PostMapping("/optimize")
+    public ResponseEntity<OptimizeResponse> optimize(@Valid @RequestBody OptimizeRequest request) {
+        return ResponseEntity.ok(deploymentOptimizer.optimize(request));
+    }
+
+    // Price history of one service downsampled to weekly or monthly min/avg/max; defaults to the last year
+    @GetMapping("/trend")
+    public ResponseEntity<PriceTrendResponse> getPriceTrend(
+            @RequestParam String provider,
+            @RequestParam String serviceName,
+            @RequestParam String region,
+            @RequestParam String instanceType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "WEEK") TrendBucket bucket) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) > MAX_TREND_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Trend range is limited to 5 years");
+        }
+
+        return ResponseEntity.ok(pricingService.getPriceTrend(
+                provider.toUpperCase(Locale.ROOT), serviceName, region, instanceType, start, end, bucket));
+    }
+
+    // Cheapest instance of a service in a region with at least the given vCPUs, memory and GPUs
+    @GetMapping("/instances/cheapest")
+    public ResponseEntity<InstanceMatchResponse> getCheapestInstance(
+            @RequestParam String provider,
+            @RequestParam String serviceName,
+            @RequestParam String region,
+            @RequestParam(required = false) Double vcpus,
+            @RequestParam(required = false) Double memoryGb,
+            @RequestParam(required = false) Double gpus) {
+
+        return pricingService.findCheapestInstance(provider.toUpperCase(Locale.ROOT), serviceName, region,
+                        vcpus, memoryGb, gpus)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "No instance in the catalog meets the requirement"));
+    }
+
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
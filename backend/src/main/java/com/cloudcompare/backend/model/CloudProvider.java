@@ -0,0 +1,11 @@
+package com.cloudcompare.backend.model;
+
+/**
+ * Providers priced by every compare. The enum name matches the provider
+ * column stored in pricing_snapshots.
+ */
+public enum CloudProvider {
+    AWS,
+    AZURE,
+    GCP
+}
@@ -0,0 +1,76 @@
+package com.cloudcompare.backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point USD amounts as a long count of micro-cents (1e-8 dollars), used for cost
+ * arithmetic on the compare path so it allocates nothing. Amounts are converted to and
+ * from {@link BigDecimal} only where they are read from the catalog, persisted or
+ * written as JSON.
+ *
+ * <p>Eight decimals hold every catalog hourly and monthly price exactly; finer unit
+ * prices (e.g. per GB-second) are rounded half-up to the nearest micro-cent. Costs are
+ * rounded half-up to cents exactly as numeric(10,2) columns store them.
+ */
+public final class Money {
+
+    public static final int SCALE = 8;
+    public static final long ONE_CENT = 1_000_000L;
+    public static final long ONE_DOLLAR = 100 * ONE_CENT;
+
+    // Hours in a month as every provider bills them
+    public static final int HOURS_PER_MONTH = 730;
+
+    // Largest cents amount a numeric(10,2) column holds: 99,999,999.99
+    public static final long MAX_COLUMN = 9_999_999_999L * ONE_CENT;
+
+    private Money() {
+    }
+
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Multiplies an amount by a quantity such as hours or GB, rounding half-up to the
+     * nearest micro-cent. Exact for whole quantities while the product stays below 2^53
+     * micro-cents (about $90M, roughly the largest cost column value); fractional
+     * quantities carry the usual double error of about one part in 10^16.
+     */
+    public static long times(long amount, double quantity) {
+        double product = amount * quantity;
+        if (Math.abs(product) >= 0x1p63) {
+            throw new ArithmeticException("Money overflow: " + amount + " x " + quantity);
+        }
+        return product >= 0 ? (long) Math.floor(product + 0.5) : -(long) Math.floor(-product + 0.5);
+    }
+
+    // Half-up to whole cents, i.e. away from zero on an exact half, like BigDecimal.setScale(2, HALF_UP)
+    public static long roundToCents(long amount) {
+        if (amount >= 0) {
+            return (amount + ONE_CENT / 2) / ONE_CENT * ONE_CENT;
+        }
+        return -((-amount + ONE_CENT / 2) / ONE_CENT * ONE_CENT);
+    }
+
+    public static BigDecimal toDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    /**
+     * The amount as a numeric(10,2) column value: rounded to cents, scale 2, and
+     * rejected if it doesn't fit the column's precision.
+     */
+    public static BigDecimal toCents(long amount) {
+        long cents = roundToCents(amount);
+        if (Math.abs(cents) > MAX_COLUMN) {
+            throw new ArithmeticException("Amount exceeds numeric(10,2): " + toDecimal(amount).toPlainString());
+        }
+        return BigDecimal.valueOf(cents / ONE_CENT, 2);
+    }
+}
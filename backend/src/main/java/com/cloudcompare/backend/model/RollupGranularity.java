@@ -0,0 +1,9 @@
+package com.cloudcompare.backend.model;
+
+/**
+ * Bucket size of the calculation rollup tables.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,19 @@
+package com.cloudcompare.backend.model;
+
+/**
+ * Bucket size for downsampled price trends. The value is the PostgreSQL date_trunc field.
+ */
+public enum TrendBucket {
+    WEEK("week"),
+    MONTH("month");
+
+    private final String dateTruncField;
+
+    TrendBucket(String dateTruncField) {
+        this.dateTruncField = dateTruncField;
+    }
+
+    public String dateTruncField() {
+        return dateTruncField;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cloudcompare.backend.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One NDJSON line of a batch compare. Lines are written in completion order,
+ * so index ties each result back to its position in the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPricingResult {
+
+    private Integer index;
+    private PricingResponse result;
+    private String error; // Set instead of result when this item failed
+}
@@ -0,0 +1,18 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalculationCountPoint {
+
+    private LocalDateTime bucketStart;
+    private long calculations;
+}
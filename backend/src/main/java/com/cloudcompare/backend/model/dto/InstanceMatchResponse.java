@@ -0,0 +1,30 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The cheapest instance of a service in a region that meets a vCPU, memory and GPU
+ * requirement, as found in the instance index of one catalog version.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceMatchResponse {
+
+    private String provider;
+    private String serviceName;
+    private String region;
+    private String instanceType;
+    private Double vcpus;
+    private Double memoryGb;
+    private Double gpus;
+    private BigDecimal pricePerHour;
+    private BigDecimal monthlyCost; // pricePerHour x 730, rounded to cents
+    private Long catalogVersion;
+}
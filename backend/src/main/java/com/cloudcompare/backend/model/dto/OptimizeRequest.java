@@ -0,0 +1,35 @@
+package com.cloudcompare.backend.model.dto;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizeRequest {
+
+    @NotNull(message = "Template ID is required")
+    private Long templateId;
+
+    // Per component, the least each parameter must be, e.g. {"compute": {"vcpus": 8}, "database": {"storageGb": 500}};
+    // unlisted parameters start at the template's minimum. Settings such as compute.type are taken as given.
+    private Map<String, Object> minimums;
+
+    private List<CloudProvider> providers; // Defaults to every provider
+
+    private List<String> regions; // Defaults to every region the pricing rules cover
+
+    @Positive(message = "topK must be positive")
+    @Max(value = 50, message = "topK must be at most 50")
+    private Integer topK; // Defaults to 5
+}
@@ -0,0 +1,37 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizeResponse {
+
+    private Long templateId;
+    private Map<String, Object> configuration; // The minimums filled in with the template's lower bounds
+    private List<Candidate> candidates; // Cheapest first
+    private boolean complete; // false when the time limit cut the search short; candidates are the best found
+    private long evaluated;
+    private long pruned;
+    private Long catalogVersion;
+    private long elapsedMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private String provider;
+        private String region;
+        private String instanceType; // Null where the provider is priced from the rules' size ladder
+        private Integer instanceCount;
+        private PricingResponse.CloudCost cost;
+    }
+}
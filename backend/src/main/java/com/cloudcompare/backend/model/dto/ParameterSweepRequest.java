@@ -0,0 +1,47 @@
+package com.cloudcompare.backend.model.dto;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParameterSweepRequest {
+
+    @NotNull(message = "Template ID is required")
+    private Long templateId;
+
+    private Map<String, Object> configuration; // Values of everything else; template defaults if absent
+
+    @NotBlank(message = "Region is required")
+    private String region;
+
+    @NotBlank(message = "Component is required")
+    private String component; // e.g. storage
+
+    @NotBlank(message = "Parameter is required")
+    private String parameter; // e.g. sizeGb
+
+    @NotNull(message = "from is required")
+    private BigDecimal from;
+
+    @NotNull(message = "to is required")
+    private BigDecimal to;
+
+    @NotNull(message = "step is required")
+    @Positive(message = "step must be positive")
+    private BigDecimal step;
+
+    private List<CloudProvider> providers; // Defaults to every provider
+}
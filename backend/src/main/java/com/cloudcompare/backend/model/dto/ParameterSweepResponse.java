@@ -0,0 +1,38 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Monthly cost per provider at each value of one parameter, everything else held at the
+ * request's configuration. Each curve has one point per entry of values, in order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParameterSweepResponse {
+
+    private Long templateId;
+    private String region;
+    private String component;
+    private String parameter;
+    private List<BigDecimal> values;
+    private List<Curve> curves;
+    private Long catalogVersion;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Curve {
+        private String provider;
+        private List<BigDecimal> totalMonthlyCost;
+        private List<BigDecimal> componentCost; // The swept component's share of the total
+    }
+}
@@ -0,0 +1,30 @@
+package com.cloudcompare.backend.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Daily prices within one trend bucket, summarized. The average weights every day equally,
+ * so a price that held for most of the bucket dominates it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceTrendPoint {
+
+    private LocalDate bucketStart;
+    private BigDecimal minPricePerHour;
+    private BigDecimal avgPricePerHour;
+    private BigDecimal maxPricePerHour;
+    private BigDecimal minPricePerMonth;
+    private BigDecimal avgPricePerMonth;
+    private BigDecimal maxPricePerMonth;
+}
@@ -0,0 +1,26 @@
+package com.cloudcompare.backend.model.dto;
+
+import com.cloudcompare.backend.model.TrendBucket;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceTrendResponse {
+
+    private String provider;
+    private String serviceName;
+    private String region;
+    private String instanceType;
+    private LocalDate from;
+    private LocalDate to;
+    private TrendBucket bucket;
+    private List<PriceTrendPoint> points; // Buckets with no price are left out
+}
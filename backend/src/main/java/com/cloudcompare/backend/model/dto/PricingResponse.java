@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -23,6 +24,8 @@ public class PricingResponse {
     private String cheapestProvider;
     private BigDecimal maxSavings;
     private String region;
+    private Long catalogVersion; // Price catalog version the costs were computed against
+    private List<String> warnings; // e.g. "GCP unavailable" when a provider missed its deadline
 
     @Data
     @Builder
@@ -0,0 +1,19 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How often a provider came out cheapest.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderShare {
+
+    private String provider;
+    private long calculations;
+}
@@ -0,0 +1,27 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a region sweep: the monthly cost of each provider in a region.
+ * A provider without prices for the region is left null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionCostRow {
+
+    private String region;
+    private BigDecimal aws;
+    private BigDecimal azure;
+    private BigDecimal gcp;
+    private String cheapestProvider;
+    private BigDecimal cheapestCost;
+    private Long catalogVersion;
+}
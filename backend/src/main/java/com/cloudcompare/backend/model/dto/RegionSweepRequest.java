@@ -0,0 +1,29 @@
+package com.cloudcompare.backend.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionSweepRequest {
+
+    @NotNull(message = "Template ID is required")
+    private Long templateId;
+
+    @NotNull(message = "Configuration is required")
+    private Map<String, Object> configuration;
+
+    private List<String> regions; // Defaults to every region the pricing rules cover
+
+    @Positive(message = "topN must be positive")
+    private Integer topN; // Only return the N cheapest regions
+}
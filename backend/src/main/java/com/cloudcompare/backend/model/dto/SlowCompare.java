@@ -0,0 +1,30 @@
+package com.cloudcompare.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One of the slowest recent compares, as listed by /actuator/slowcompares.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowCompare {
+
+    private Instant startedAt;
+    private String endpoint; // compare or batch
+    private Long calculationId;
+    private Long templateId;
+    private String category;
+    private String region;
+    private boolean cacheHit;
+    private double totalMs;
+    private Map<String, Double> stagesMs; // Stages that ran, in pipeline order
+    private Map<String, Double> providersMs; // Providers priced for this request; none on a cache hit
+}
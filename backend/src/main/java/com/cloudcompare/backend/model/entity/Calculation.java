@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -24,8 +25,10 @@ import java.util.Map;
 @AllArgsConstructor
 public class Calculation {
 
+    // Pooled sequence so ids can be handed out up front, before the row is written
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calculations_seq")
+    @SequenceGenerator(name = "calculations_seq", sequenceName = "calculations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -45,6 +48,8 @@ public class Calculation {
     @Column(name = "gcp_cost", precision = 10, scale = 2)
     private BigDecimal gcpCost;
 
+    // Partitioned by month on calculationDate (see db/calculation_partitions.sql)
+    @PartitionKey
     @Column(name = "calculation_date", nullable = false)
     private LocalDateTime calculationDate;
 
@@ -56,6 +61,8 @@ public class Calculation {
 
     @PrePersist
     protected void onCreate() {
-        calculationDate = LocalDateTime.now();
+        if (calculationDate == null) {
+            calculationDate = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.cloudcompare.backend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row per completed price-list import; unchanged prices write nothing to pricing_snapshots
+@Entity
+@Table(name = "pricing_imports",
+        indexes = {
+                @Index(name = "idx_pricing_imports_provider_date", columnList = "provider,import_date")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String provider;
+
+    @Column(name = "import_date", nullable = false)
+    private LocalDate importDate;
+
+    @Column(name = "source_file", length = 255)
+    private String sourceFile;
+
+    @Column(name = "rows_parsed", nullable = false)
+    private long rowsParsed;
+
+    @Column(name = "rows_changed", nullable = false)
+    private long rowsChanged;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (completedAt == null) {
+            completedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -16,11 +17,11 @@ import java.util.Map;
 @Entity
 @Table(name = "pricing_snapshots",
         uniqueConstraints = @UniqueConstraint(
-                columnNames = {"provider", "service_name", "region", "instance_type", "snapshot_date"}
+                name = "uk_pricing_snapshots_effective_from",
+                columnNames = {"provider", "service_name", "region", "instance_type", "effective_from"}
         ),
         indexes = {
-                @Index(name = "idx_provider_service_region", columnList = "provider,service_type,region"),
-                @Index(name = "idx_snapshot_date", columnList = "snapshot_date")
+                @Index(name = "idx_provider_service_region", columnList = "provider,service_type,region")
         })
 @Data
 @Builder
@@ -47,10 +48,11 @@ public class PricingSnapshot {
     @Column(name = "instance_type", length = 100)
     private String instanceType; // t3.medium, Standard_D2s_v3, n1-standard-1
 
-    @Column(name = "price_per_hour", precision = 10, scale = 4)
+    // Stored at Money.SCALE so per-GB and per-core list prices (0.023, 0.021811) are kept exactly
+    @Column(name = "price_per_hour", precision = 18, scale = 8)
     private BigDecimal pricePerHour;
 
-    @Column(name = "price_per_month", precision = 10, scale = 2)
+    @Column(name = "price_per_month", precision = 18, scale = 8)
     private BigDecimal pricePerMonth;
 
     @Column(length = 3)
@@ -60,8 +62,14 @@ public class PricingSnapshot {
     @Column(name = "pricing_data", columnDefinition = "jsonb")
     private Map<String, Object> pricingData; // Full pricing details as JSON
 
-    @Column(name = "snapshot_date", nullable = false)
-    private LocalDate snapshotDate;
+    // A row holds one price over [effectiveFrom, effectiveTo); effectiveTo is null while it is current.
+    // The table is partitioned by month on effectiveFrom (see db/pricing_partitions.sql).
+    @PartitionKey
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    @Column(name = "effective_to")
+    private LocalDate effectiveTo;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -69,8 +77,8 @@ public class PricingSnapshot {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (snapshotDate == null) {
-            snapshotDate = LocalDate.now();
+        if (effectiveFrom == null) {
+            effectiveFrom = LocalDate.now();
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cloudcompare.backend.model.entity;
 
+import com.cloudcompare.backend.service.invalidation.TemplateChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.util.Map;
 
 @Entity
 @Table(name = "templates")
+@EntityListeners(TemplateChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
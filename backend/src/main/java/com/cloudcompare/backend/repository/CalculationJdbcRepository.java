@@ -0,0 +1,64 @@
+package com.cloudcompare.backend.repository;
+
+import com.cloudcompare.backend.model.entity.Calculation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the calculations table for the paths where JPA gets in the way:
+ * sequence block allocation and batched inserts with pre-assigned ids.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CalculationJdbcRepository {
+
+    // Must match allocationSize on Calculation's @SequenceGenerator
+    public static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO calculations (id, template_id, user_config, aws_cost, azure_cost, gcp_cost, " +
+                    "calculation_date, ip_address, user_agent) VALUES (?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    // Returns the low end of a block of ID_BLOCK_SIZE ids (pooled-lo semantics)
+    public long allocateIdBlock() {
+        Long low = jdbcTemplate.queryForObject("SELECT nextval('calculations_seq')", Long.class);
+        if (low == null) {
+            throw new IllegalStateException("calculations_seq returned no value");
+        }
+        return low;
+    }
+
+    // With reWriteBatchedInserts the driver sends each batch as multi-row INSERTs
+    @Transactional
+    public void insertBatch(List<Calculation> calculations) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, calculations, calculations.size(), (ps, calculation) -> {
+            ps.setLong(1, calculation.getId());
+            ps.setObject(2, calculation.getTemplate() != null ? calculation.getTemplate().getId() : null);
+            ps.setString(3, toJson(calculation));
+            ps.setBigDecimal(4, calculation.getAwsCost());
+            ps.setBigDecimal(5, calculation.getAzureCost());
+            ps.setBigDecimal(6, calculation.getGcpCost());
+            ps.setTimestamp(7, Timestamp.valueOf(calculation.getCalculationDate()));
+            ps.setString(8, calculation.getIpAddress());
+            ps.setString(9, calculation.getUserAgent());
+        });
+    }
+
+    private String toJson(Calculation calculation) {
+        try {
+            return jsonMapper.writeValueAsString(calculation.getUserConfig());
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Unserializable user config for calculation " + calculation.getId(), e);
+        }
+    }
+}
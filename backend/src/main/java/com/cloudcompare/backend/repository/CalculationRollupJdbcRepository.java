@@ -0,0 +1,101 @@
+package com.cloudcompare.backend.repository;
+
+import com.cloudcompare.backend.model.RollupGranularity;
+import com.cloudcompare.backend.model.dto.CalculationCountPoint;
+import com.cloudcompare.backend.model.dto.ProviderShare;
+import com.cloudcompare.backend.model.dto.TemplatePopularity;
+import com.cloudcompare.backend.service.analytics.RollupCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hourly and daily calculation rollups. Writes add to existing buckets, so flushes from
+ * several nodes, or several flushes of the same hour, simply accumulate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CalculationRollupJdbcRepository {
+
+    private static final String ADD_HOURLY_SQL =
+            "INSERT INTO calculation_rollups_hourly AS r " +
+                    "(bucket_start, template_id, region, cheapest_provider, calculations) VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket_start, template_id, region, cheapest_provider) " +
+                    "DO UPDATE SET calculations = r.calculations + EXCLUDED.calculations";
+
+    private static final String ADD_DAILY_SQL =
+            "INSERT INTO calculation_rollups_daily AS r " +
+                    "(bucket_start, template_id, region, cheapest_provider, calculations) VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket_start, template_id, region, cheapest_provider) " +
+                    "DO UPDATE SET calculations = r.calculations + EXCLUDED.calculations";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void addCounts(Collection<RollupCount> hourly, Collection<RollupCount> daily) {
+        jdbcTemplate.batchUpdate(ADD_HOURLY_SQL, hourly, hourly.size(), (ps, count) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(count.bucketStart()));
+            ps.setLong(2, count.templateId());
+            ps.setString(3, count.region());
+            ps.setString(4, count.cheapestProvider());
+            ps.setLong(5, count.calculations());
+        });
+        jdbcTemplate.batchUpdate(ADD_DAILY_SQL, daily, daily.size(), (ps, count) -> {
+            ps.setObject(1, count.bucketStart().toLocalDate());
+            ps.setLong(2, count.templateId());
+            ps.setString(3, count.region());
+            ps.setString(4, count.cheapestProvider());
+            ps.setLong(5, count.calculations());
+        });
+    }
+
+    public List<CalculationCountPoint> countByBucket(RollupGranularity granularity, LocalDateTime from,
+                                                     LocalDateTime to) {
+        String table = granularity == RollupGranularity.HOUR ? "calculation_rollups_hourly" : "calculation_rollups_daily";
+        return jdbcTemplate.query(
+                "SELECT bucket_start::timestamp AS bucket_start, SUM(calculations) AS calculations FROM " + table +
+                        " WHERE bucket_start >= ? AND bucket_start < ? GROUP BY 1 ORDER BY 1",
+                (rs, rowNum) -> CalculationCountPoint.builder()
+                        .bucketStart(rs.getTimestamp("bucket_start").toLocalDateTime())
+                        .calculations(rs.getLong("calculations"))
+                        .build(),
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public List<TemplatePopularity> findPopularTemplatesSince(LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                "SELECT r.template_id, t.name, SUM(r.calculations) AS calculations " +
+                        "FROM calculation_rollups_daily r LEFT JOIN templates t ON t.id = r.template_id " +
+                        "WHERE r.bucket_start >= ? GROUP BY r.template_id, t.name " +
+                        "ORDER BY calculations DESC LIMIT ?",
+                (rs, rowNum) -> TemplatePopularity.builder()
+                        .templateId(rs.getLong("template_id"))
+                        .templateName(rs.getString("name"))
+                        .calculations(rs.getLong("calculations"))
+                        .build(),
+                since, limit);
+    }
+
+    public List<ProviderShare> countCheapestProvidersSince(LocalDate since) {
+        return jdbcTemplate.query(
+                "SELECT cheapest_provider, SUM(calculations) AS calculations FROM calculation_rollups_daily " +
+                        "WHERE bucket_start >= ? GROUP BY cheapest_provider ORDER BY calculations DESC",
+                (rs, rowNum) -> ProviderShare.builder()
+                        .provider(rs.getString("cheapest_provider"))
+                        .calculations(rs.getLong("calculations"))
+                        .build(),
+                since);
+    }
+
+    public int deleteHourlyBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM calculation_rollups_hourly WHERE bucket_start < ?",
+                Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,13 @@
+package com.cloudcompare.backend.repository;
+
+import com.cloudcompare.backend.model.entity.PricingImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface PricingImportRepository extends JpaRepository<PricingImport, Long> {
+
+    boolean existsByProviderAndImportDate(String provider, LocalDate importDate);
+}
@@ -0,0 +1,259 @@
+package com.cloudcompare.backend.repository;
+
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.TrendBucket;
+import com.cloudcompare.backend.model.dto.PriceTrendPoint;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk loading of pricing snapshots through PostgreSQL COPY. Rows are streamed into a
+ * transaction-scoped temp table in CSV chunks and then merged into the range model with
+ * a few set-based statements: a key whose price is unchanged is not written at all, a
+ * changed price closes the current row and opens a new one. Memory use does not depend
+ * on the size of the load.
+ *
+ * <p>Also serves price trends, which are aggregated in the database so only one row per
+ * bucket leaves it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PricingSnapshotJdbcRepository {
+
+    private static final int COPY_CHUNK_CHARS = 1 << 20;
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE pricing_snapshots_staging (" +
+                    "provider varchar(20), service_type varchar(50), service_name varchar(100), " +
+                    "region varchar(50), instance_type varchar(100), price_per_hour numeric(18,8), " +
+                    "price_per_month numeric(18,8), currency varchar(3), pricing_data jsonb, " +
+                    "effective_from date, line bigint GENERATED ALWAYS AS IDENTITY) ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+            "COPY pricing_snapshots_staging (provider, service_type, service_name, region, instance_type, " +
+                    "price_per_hour, price_per_month, currency, pricing_data, effective_from) " +
+                    "FROM STDIN WITH (FORMAT csv)";
+
+    // One row per key; a file can list the same key more than once. The lowest hourly price wins,
+    // then the lowest unit price, then the first row in the file, so a reimport picks the same one.
+    private static final String CREATE_INCOMING_SQL =
+            "CREATE TEMP TABLE pricing_snapshots_incoming ON COMMIT DROP AS " +
+                    "SELECT DISTINCT ON (provider, service_name, region, instance_type) * " +
+                    "FROM pricing_snapshots_staging " +
+                    "ORDER BY provider, service_name, region, instance_type, price_per_hour NULLS LAST, " +
+                    "price_per_month NULLS LAST, line";
+
+    private static final String SAME_KEY =
+            "p.provider = i.provider AND p.service_name = i.service_name AND p.region = i.region " +
+                    "AND p.instance_type IS NOT DISTINCT FROM i.instance_type";
+
+    private static final String PRICE_CHANGED =
+            "(p.price_per_hour, p.price_per_month, p.currency) " +
+                    "IS DISTINCT FROM (i.price_per_hour, i.price_per_month, i.currency)";
+
+    // A second import on the day a row opened corrects that row instead of adding a one-day range
+    private static final String CORRECT_SQL =
+            "UPDATE pricing_snapshots p SET service_type = i.service_type, price_per_hour = i.price_per_hour, " +
+                    "price_per_month = i.price_per_month, currency = i.currency, pricing_data = i.pricing_data " +
+                    "FROM pricing_snapshots_incoming i WHERE " + SAME_KEY + " " +
+                    "AND p.effective_to IS NULL AND p.effective_from = i.effective_from AND " + PRICE_CHANGED;
+
+    // Imports dated before the current row are ignored; ranges are only ever appended
+    private static final String CLOSE_SQL =
+            "UPDATE pricing_snapshots p SET effective_to = i.effective_from " +
+                    "FROM pricing_snapshots_incoming i WHERE " + SAME_KEY + " " +
+                    "AND p.effective_to IS NULL AND p.effective_from < i.effective_from AND " + PRICE_CHANGED;
+
+    // New keys, plus every key whose current row was just closed
+    private static final String OPEN_SQL =
+            "INSERT INTO pricing_snapshots (provider, service_type, service_name, region, instance_type, " +
+                    "price_per_hour, price_per_month, currency, pricing_data, effective_from, created_at) " +
+                    "SELECT i.provider, i.service_type, i.service_name, i.region, i.instance_type, " +
+                    "i.price_per_hour, i.price_per_month, i.currency, i.pricing_data, i.effective_from, now() " +
+                    "FROM pricing_snapshots_incoming i WHERE NOT EXISTS (" +
+                    "SELECT 1 FROM pricing_snapshots p WHERE " + SAME_KEY + " AND p.effective_to IS NULL) " +
+                    "ON CONFLICT (provider, service_name, region, instance_type, effective_from) DO NOTHING";
+
+    // One row per day in the range joined to the price in force that day, then grouped by bucket.
+    // The effective_from bound lets the planner skip partitions that start after the range.
+    private static final String TREND_SQL =
+            "SELECT date_trunc(?, d.day::timestamp)::date AS bucket_start, " +
+                    "MIN(p.price_per_hour) AS min_hour, AVG(p.price_per_hour) AS avg_hour, " +
+                    "MAX(p.price_per_hour) AS max_hour, MIN(p.price_per_month) AS min_month, " +
+                    "AVG(p.price_per_month) AS avg_month, MAX(p.price_per_month) AS max_month " +
+                    "FROM (SELECT generate_series(?::timestamp, ?::timestamp, interval '1 day')::date AS day) d " +
+                    "JOIN pricing_snapshots p ON p.effective_from <= d.day " +
+                    "AND (p.effective_to IS NULL OR p.effective_to > d.day) " +
+                    "WHERE p.provider = ? AND p.service_name = ? AND p.region = ? AND p.instance_type = ? " +
+                    "AND p.effective_from <= ?::date AND (p.effective_to IS NULL OR p.effective_to > ?::date) " +
+                    "GROUP BY 1 ORDER BY 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Source of snapshots for a bulk load; called once with a sink that streams each row to COPY.
+     */
+    @FunctionalInterface
+    public interface SnapshotSource {
+        void emit(Consumer<PricingSnapshot> sink) throws IOException;
+    }
+
+    public record BulkLoadResult(long rowsCopied, long rowsOpened, long rowsClosed, long rowsCorrected) {
+
+        public long rowsChanged() {
+            return rowsOpened + rowsCorrected;
+        }
+    }
+
+    @Transactional
+    public BulkLoadResult bulkMerge(SnapshotSource source) throws IOException {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+
+        long copied;
+        try {
+            copied = copyIntoStaging(source);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        jdbcTemplate.execute(CREATE_INCOMING_SQL);
+        jdbcTemplate.execute("ANALYZE pricing_snapshots_incoming");
+        int corrected = jdbcTemplate.update(CORRECT_SQL);
+        int closed = jdbcTemplate.update(CLOSE_SQL);
+        int opened = jdbcTemplate.update(OPEN_SQL);
+        return new BulkLoadResult(copied, opened, closed, corrected);
+    }
+
+    public List<PriceTrendPoint> findTrend(String provider, String serviceName, String region,
+                                           String instanceType, LocalDate from, LocalDate to,
+                                           TrendBucket bucket) {
+        return jdbcTemplate.query(TREND_SQL, (rs, rowNum) -> PriceTrendPoint.builder()
+                        .bucketStart(rs.getObject("bucket_start", LocalDate.class))
+                        .minPricePerHour(rs.getBigDecimal("min_hour"))
+                        .avgPricePerHour(scaled(rs.getBigDecimal("avg_hour"), Money.SCALE))
+                        .maxPricePerHour(rs.getBigDecimal("max_hour"))
+                        .minPricePerMonth(rs.getBigDecimal("min_month"))
+                        .avgPricePerMonth(scaled(rs.getBigDecimal("avg_month"), Money.SCALE))
+                        .maxPricePerMonth(rs.getBigDecimal("max_month"))
+                        .build(),
+                bucket.dateTruncField(), from, to, provider, serviceName, region, instanceType, to, from);
+    }
+
+    private static BigDecimal scaled(BigDecimal value, int scale) {
+        return value == null ? null : value.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private long copyIntoStaging(SnapshotSource source) {
+        Long copied = jdbcTemplate.execute((Connection connection) -> {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            CsvChunkWriter writer = new CsvChunkWriter(copy, jsonMapper);
+            try {
+                source.emit(writer::append);
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    /**
+     * Buffers CSV lines and hands them to COPY in roughly 1 MB chunks.
+     */
+    private static final class CsvChunkWriter {
+
+        private final CopyIn copy;
+        private final JsonMapper jsonMapper;
+        private final StringBuilder buffer = new StringBuilder(COPY_CHUNK_CHARS + 4096);
+
+        CsvChunkWriter(CopyIn copy, JsonMapper jsonMapper) {
+            this.copy = copy;
+            this.jsonMapper = jsonMapper;
+        }
+
+        void append(PricingSnapshot snapshot) {
+            field(snapshot.getProvider()).append(',');
+            field(snapshot.getServiceType()).append(',');
+            field(snapshot.getServiceName()).append(',');
+            field(snapshot.getRegion()).append(',');
+            field(snapshot.getInstanceType()).append(',');
+            number(snapshot.getPricePerHour()).append(',');
+            number(snapshot.getPricePerMonth()).append(',');
+            field(snapshot.getCurrency()).append(',');
+            field(toJson(snapshot)).append(',');
+            buffer.append(snapshot.getEffectiveFrom()).append('\n');
+
+            if (buffer.length() >= COPY_CHUNK_CHARS) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.setLength(0);
+            try {
+                copy.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new IllegalStateException("COPY into pricing_snapshots_staging failed", e);
+            }
+        }
+
+        // Unquoted empty is NULL in CSV COPY; anything else is quoted
+        private StringBuilder field(String value) {
+            if (value == null) {
+                return buffer;
+            }
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    buffer.append('"');
+                }
+                buffer.append(c);
+            }
+            return buffer.append('"');
+        }
+
+        private StringBuilder number(BigDecimal value) {
+            return value == null ? buffer : buffer.append(value.toPlainString());
+        }
+
+        private String toJson(PricingSnapshot snapshot) {
+            if (snapshot.getPricingData() == null) {
+                return null;
+            }
+            try {
+                return jsonMapper.writeValueAsString(snapshot.getPricingData());
+            } catch (JacksonException e) {
+                throw new IllegalArgumentException("Unserializable pricing data for " + snapshot.getInstanceType(), e);
+            }
+        }
+    }
+}
@@ -7,27 +7,47 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PricingSnapshotRepository extends JpaRepository<PricingSnapshot, Long> {
 
-    // Find latest pricing for a specific service
-    Optional<PricingSnapshot> findFirstByProviderAndServiceNameAndRegionAndInstanceTypeOrderBySnapshotDateDesc(
+    // Current price for a specific service
+    Optional<PricingSnapshot> findByProviderAndServiceNameAndRegionAndInstanceTypeAndEffectiveToIsNull(
             String provider, String serviceName, String region, String instanceType);
 
-    // Find all pricing for a service type in a region
-    List<PricingSnapshot> findByProviderAndServiceTypeAndRegionAndSnapshotDate(
-            String provider, String serviceType, String region, LocalDate snapshotDate);
+    // All pricing for a service type in a region as it stood on the given date
+    @Query("SELECT p FROM PricingSnapshot p WHERE p.provider = :provider AND p.serviceType = :serviceType " +
+            "AND p.region = :region AND p.effectiveFrom <= :date " +
+            "AND (p.effectiveTo IS NULL OR p.effectiveTo > :date)")
+    List<PricingSnapshot> findEffectiveOn(@Param("provider") String provider,
+                                          @Param("serviceType") String serviceType,
+                                          @Param("region") String region,
+                                          @Param("date") LocalDate date);
 
-    // Find latest snapshots for all providers for comparison
-    @Query("SELECT p FROM PricingSnapshot p WHERE p.snapshotDate = " +
-            "(SELECT MAX(p2.snapshotDate) FROM PricingSnapshot p2 WHERE " +
-            "p2.provider = p.provider AND p2.serviceName = p.serviceName AND " +
-            "p2.region = p.region AND p2.instanceType = p.instanceType)")
+    // Current prices for all providers, read from the latest_pricing projection rather than history
+    @Query(value = "SELECT snapshot_id AS id, provider, service_type, service_name, region, instance_type, " +
+            "price_per_hour, price_per_month, currency, pricing_data, effective_from, " +
+            "CAST(NULL AS date) AS effective_to, created_at FROM latest_pricing", nativeQuery = true)
     List<PricingSnapshot> findLatestSnapshots();
 
-    // Check if pricing exists for today
-    boolean existsByProviderAndSnapshotDate(String provider, LocalDate snapshotDate);
-}
\ No newline at end of file
+    // Every price a service has had, oldest first; one row per change
+    @Query("SELECT p FROM PricingSnapshot p WHERE p.provider = :provider AND p.serviceName = :serviceName " +
+            "AND p.region = :region AND p.instanceType = :instanceType ORDER BY p.effectiveFrom")
+    List<PricingSnapshot> findHistory(@Param("provider") String provider,
+                                      @Param("serviceName") String serviceName,
+                                      @Param("region") String region,
+                                      @Param("instanceType") String instanceType);
+
+    // Size and last change of latest_pricing, used to detect when the in-memory catalog is stale
+    @Query(value = "SELECT COUNT(*) FROM latest_pricing", nativeQuery = true)
+    long countLatest();
+
+    @Query(value = "SELECT MAX(updated_at) FROM latest_pricing", nativeQuery = true)
+    Optional<LocalDateTime> findLatestUpdatedAt();
+
+    // Price changes recorded on a date (manual saves); imports are tracked in pricing_imports
+    boolean existsByProviderAndEffectiveFrom(String provider, LocalDate effectiveFrom);
+}
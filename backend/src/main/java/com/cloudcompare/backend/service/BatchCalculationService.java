@@ -0,0 +1,130 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.dto.BatchPricingResult;
+import com.cloudcompare.backend.model.dto.PricingRequest;
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.metrics.CompareMetrics;
+import com.cloudcompare.backend.service.metrics.CompareTrace;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Prices a stream of {@link PricingRequest}s and streams one NDJSON line per item back
+ * as soon as it is ready. Requests are read incrementally and at most
+ * {@code cloudcompare.batch.max-in-flight} are held at once, so memory stays flat
+ * regardless of batch size. The catalog version and template lookups are shared
+ * across the whole batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchCalculationService {
+
+    private final CalculationService calculationService;
+    private final PriceCatalogService priceCatalogService;
+    private final ThreadPoolTaskExecutor bulkPricingExecutor;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final CompareMetrics compareMetrics;
+
+    @Value("${cloudcompare.batch.max-in-flight:32}")
+    private int maxInFlight;
+
+    // Accepts either a JSON array or whitespace/newline separated JSON objects (NDJSON)
+    public void calculateBatch(InputStream input, OutputStream output, String ipAddress, String userAgent) {
+        NdjsonWriter writer = new NdjsonWriter(output, jsonMapper);
+        PriceCatalog catalog = priceCatalogService.current();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // Set by the first worker whose write fails; the client is gone, so nothing more is read or priced
+        AtomicReference<UncheckedIOException> disconnected = new AtomicReference<>();
+        int count = 0;
+
+        try (MappingIterator<PricingRequest> requests = jsonMapper.readerFor(PricingRequest.class).readValues(input)) {
+            while (disconnected.get() == null && requests.hasNextValue()) {
+                PricingRequest request = requests.nextValue();
+                int index = count++;
+                inFlight.acquire();
+                try {
+                    bulkPricingExecutor.execute(() -> {
+                        try {
+                            if (disconnected.get() != null) {
+                                return;
+                            }
+                            // Each item is timed like a single compare; serialization is its NDJSON line
+                            CompareTrace trace = compareMetrics.start("batch");
+                            BatchPricingResult result = evaluate(index, request, catalog, ipAddress, userAgent, trace);
+                            trace.handled();
+                            writer.write(result);
+                            compareMetrics.finish(trace);
+                        } catch (UncheckedIOException e) {
+                            disconnected.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (JacksonException e) {
+            // The input stream is unusable past a parse error, so report it and stop reading
+            log.warn("Malformed batch input after {} items", count, e);
+            if (disconnected.get() == null) {
+                writer.write(BatchPricingResult.builder().index(count).error("Malformed request: " + e.getOriginalMessage()).build());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        if (disconnected.get() != null) {
+            log.info("Batch compare stopped after {} items on catalog version {}: {}", count, catalog.getVersion(),
+                    disconnected.get().getMessage());
+            return;
+        }
+        log.info("Batch compare finished with {} items on catalog version {}", count, catalog.getVersion());
+    }
+
+    private BatchPricingResult evaluate(int index, PricingRequest request, PriceCatalog catalog,
+                                        String ipAddress, String userAgent, CompareTrace trace) {
+        Set<ConstraintViolation<PricingRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            return BatchPricingResult.builder().index(index).error(message).build();
+        }
+
+        try {
+            CompiledTemplate template = calculationService.findTemplate(request.getTemplateId());
+            PricingResponse response = calculationService.calculateCosts(request, template, catalog, ipAddress,
+                    userAgent, trace);
+            return BatchPricingResult.builder().index(index).result(response).build();
+        } catch (RuntimeException e) {
+            log.debug("Batch item {} failed", index, e);
+            return BatchPricingResult.builder().index(index).error(e.getMessage()).build();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.repository.CalculationJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out calculation ids from blocks reserved on calculations_seq, so a compare
+ * can return its calculationId before the row is actually written. Uses the same
+ * pooled-lo layout Hibernate uses for the entity, so both paths can coexist.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalculationIdAllocator {
+
+    private final CalculationJdbcRepository calculationJdbcRepository;
+
+    private long next;
+    private long limit;
+
+    public synchronized long nextId() {
+        if (next >= limit) {
+            next = calculationJdbcRepository.allocateIdBlock();
+            limit = next + CalculationJdbcRepository.ID_BLOCK_SIZE;
+        }
+        return next++;
+    }
+}
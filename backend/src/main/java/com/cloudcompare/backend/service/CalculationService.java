@@ -1,96 +1,247 @@
 package com.cloudcompare.backend.service;
 
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
 import com.cloudcompare.backend.model.dto.PricingRequest;
 import com.cloudcompare.backend.model.dto.PricingResponse;
 import com.cloudcompare.backend.model.entity.Calculation;
 import com.cloudcompare.backend.model.entity.Template;
-import com.cloudcompare.backend.repository.CalculationRepository;
-import com.cloudcompare.backend.repository.TemplateRepository;
+import com.cloudcompare.backend.service.analytics.CalculationRollups;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.compare.CompareKey;
+import com.cloudcompare.backend.service.compare.CompareResultCache;
+import com.cloudcompare.backend.service.metrics.CompareStage;
+import com.cloudcompare.backend.service.metrics.CompareTrace;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CalculationService {
 
-    private final CalculationRepository calculationRepository;
-    private final TemplateRepository templateRepository;
-    private final PricingService pricingService;
-
-    @Transactional
-    public PricingResponse calculateCosts(PricingRequest request, String ipAddress, String userAgent) {
+    private final CalculationIdAllocator calculationIdAllocator;
+    private final CalculationWriteBehind calculationWriteBehind;
+    private final CalculationRollups calculationRollups;
+    private final CompareResultCache compareResultCache;
+    private final TemplateRegistry templateRegistry;
+    private final PriceCatalogService priceCatalogService;
+    private final CostEngine costEngine;
+    private final ThreadPoolTaskExecutor providerEvaluationExecutor;
+
+    @Value("${cloudcompare.pricing.provider-timeout:PT2S}")
+    private Duration providerTimeout;
+
+    // No database access: templates come from the in-memory registry and the insert happens
+    // later on the write-behind thread
+    public PricingResponse calculateCosts(PricingRequest request, String ipAddress, String userAgent,
+                                          CompareTrace trace) {
         log.info("Calculating costs for template {} in region {}", request.getTemplateId(), request.getRegion());
 
-        Template template = templateRepository.findById(request.getTemplateId())
+        // Pin one catalog version so every provider is priced from the same data
+        return calculateCosts(request, findTemplate(request.getTemplateId()), priceCatalogService.current(),
+                ipAddress, userAgent, trace);
+    }
+
+    public CompiledTemplate findTemplate(Long templateId) {
+        return templateRegistry.find(templateId)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
+    }
 
-        BigDecimal awsCost = calculateCloudCost("AWS", request);
-        BigDecimal azureCost = calculateCloudCost("AZURE", request);
-        BigDecimal gcpCost = calculateCloudCost("GCP", request);
+    // Core of a compare for callers that already resolved the template and pinned a catalog,
+    // e.g. batch requests that share one catalog across many items. Stage timings go to the
+    // trace; the caller finishes it once the response is written.
+    public PricingResponse calculateCosts(PricingRequest request, CompiledTemplate template, PriceCatalog catalog,
+                                          String ipAddress, String userAgent, CompareTrace trace) {
+        long started = System.nanoTime();
+        List<String> warnings = new ArrayList<>();
+        int region = costEngine.regionSlot(request.getRegion());
+        // us-east-1, eastus and us-east1 are one region; key and record by its canonical name
+        String regionName = costEngine.regions().get(region);
+        ResolvedConfiguration configuration = template.resolve(request.getConfiguration());
+        trace.describe(template, regionName);
+        started = trace.record(CompareStage.TEMPLATE, started);
+
+        CompareKey key = CompareKey.of(catalog.getVersion(), template.getId(), regionName, configuration);
+        Map<CloudProvider, CostEstimate> costs = compareResultCache.get(key);
+        trace.cacheHit(costs != null);
+        started = trace.record(CompareStage.CACHE, started);
+        if (costs == null) {
+            costs = evaluateProviders(configuration, region, catalog, warnings, trace);
+            started = trace.record(CompareStage.PRICING, started);
+            if (costs.isEmpty()) {
+                throw new RuntimeException("Pricing is unavailable for all providers");
+            }
+            // Partial results (a provider timed out) are not worth repeating
+            if (warnings.isEmpty()) {
+                compareResultCache.put(key, costs);
+            }
+        }
 
         Calculation calculation = Calculation.builder()
-                .template(template)
+                .id(calculationIdAllocator.nextId())
+                .template(Template.builder().id(template.getId()).build()) // only the id is written
                 .userConfig(request.getConfiguration())
-                .awsCost(awsCost)
-                .azureCost(azureCost)
-                .gcpCost(gcpCost)
+                .awsCost(total(costs.get(CloudProvider.AWS)))
+                .azureCost(total(costs.get(CloudProvider.AZURE)))
+                .gcpCost(total(costs.get(CloudProvider.GCP)))
                 .ipAddress(ipAddress)
                 .userAgent(userAgent)
+                .calculationDate(LocalDateTime.now())
                 .build();
 
-        calculation = calculationRepository.save(calculation);
+        // Cache hits are recorded too, so calculation history and rollups count every compare
+        calculationWriteBehind.enqueue(calculation);
+        String cheapestProvider = determineCheapestProvider(costs);
+        calculationRollups.record(template.getId(), regionName, cheapestProvider);
+        trace.record(CompareStage.RECORD, started);
+        trace.completed(calculation.getId());
 
-        String cheapestProvider = determineCheapestProvider(awsCost, azureCost, gcpCost);
-        BigDecimal maxSavings = calculateMaxSavings(awsCost, azureCost, gcpCost);
+        return buildResponse(calculation.getId(), request, catalog, costs, warnings);
+    }
+
+    // Runs a compare end to end without the result cache and without recording anything;
+    // used to warm up a new node before it takes traffic
+    public PricingResponse simulate(PricingRequest request, PriceCatalog catalog) {
+        List<String> warnings = new ArrayList<>();
+        int region = costEngine.regionSlot(request.getRegion());
+        ResolvedConfiguration configuration = findTemplate(request.getTemplateId()).resolve(request.getConfiguration());
+        Map<CloudProvider, CostEstimate> costs = evaluateProviders(configuration, region, catalog, warnings, null);
+        if (costs.isEmpty()) {
+            throw new RuntimeException("Pricing is unavailable for all providers");
+        }
+        return buildResponse(null, request, catalog, costs, warnings);
+    }
 
+    private PricingResponse buildResponse(Long calculationId, PricingRequest request, PriceCatalog catalog,
+                                          Map<CloudProvider, CostEstimate> costs, List<String> warnings) {
         return PricingResponse.builder()
-                .calculationId(calculation.getId())
-                .aws(buildCloudCost(awsCost))
-                .azure(buildCloudCost(azureCost))
-                .gcp(buildCloudCost(gcpCost))
-                .cheapestProvider(cheapestProvider)
-                .maxSavings(maxSavings)
+                .calculationId(calculationId)
+                .aws(buildCloudCost(costs.get(CloudProvider.AWS)))
+                .azure(buildCloudCost(costs.get(CloudProvider.AZURE)))
+                .gcp(buildCloudCost(costs.get(CloudProvider.GCP)))
+                .cheapestProvider(determineCheapestProvider(costs))
+                .maxSavings(calculateMaxSavings(costs))
                 .region(request.getRegion())
+                .catalogVersion(catalog.getVersion())
+                .warnings(warnings.isEmpty() ? null : warnings)
                 .build();
     }
 
-    private BigDecimal calculateCloudCost(String provider, PricingRequest request) {
-        return BigDecimal.valueOf(100.00);
+    // Prices every provider concurrently against one shared deadline. Providers that fail,
+    // time out or cannot be scheduled are left out of the result and reported as warnings.
+    // Each provider's pricing time goes to the trace, if there is one.
+    private Map<CloudProvider, CostEstimate> evaluateProviders(ResolvedConfiguration configuration, int region,
+                                                               PriceCatalog catalog, List<String> warnings,
+                                                               CompareTrace trace) {
+        Map<CloudProvider, Future<CostEstimate>> pending = new EnumMap<>(CloudProvider.class);
+        for (CloudProvider provider : CloudProvider.values()) {
+            try {
+                pending.put(provider, providerEvaluationExecutor.submit(() -> {
+                    long started = System.nanoTime();
+                    CostEstimate estimate = calculateCloudCost(provider, configuration, region, catalog);
+                    if (trace != null) {
+                        trace.recordProvider(provider, System.nanoTime() - started);
+                    }
+                    return estimate;
+                }));
+            } catch (TaskRejectedException e) {
+                log.warn("Provider evaluation queue full, skipping {}", provider);
+                warnings.add(provider + " unavailable");
+            }
+        }
+
+        long deadline = System.nanoTime() + providerTimeout.toNanos();
+        Map<CloudProvider, CostEstimate> costs = new EnumMap<>(CloudProvider.class);
+        for (Map.Entry<CloudProvider, Future<CostEstimate>> entry : pending.entrySet()) {
+            CloudProvider provider = entry.getKey();
+            Future<CostEstimate> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                costs.put(provider, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("{} pricing timed out after {}", provider, providerTimeout);
+                warnings.add(provider + " unavailable");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InvalidConfigurationException invalid) {
+                    // The request is at fault, not the provider: no other provider will price it either
+                    pending.values().forEach(f -> f.cancel(true));
+                    throw invalid;
+                }
+                log.warn("{} pricing failed", provider, e.getCause());
+                warnings.add(provider + " unavailable");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.values().forEach(f -> f.cancel(true));
+                throw new RuntimeException("Interrupted while pricing providers", e);
+            }
+        }
+        return costs;
     }
 
-    private PricingResponse.CloudCost buildCloudCost(BigDecimal totalCost) {
-        Map<String, BigDecimal> breakdown = new HashMap<>();
-        breakdown.put("compute", totalCost.multiply(BigDecimal.valueOf(0.5)));
-        breakdown.put("database", totalCost.multiply(BigDecimal.valueOf(0.3)));
-        breakdown.put("storage", totalCost.multiply(BigDecimal.valueOf(0.2)));
+    // Region is a slot from CostEngine.regionSlot, so callers validate the region once up front
+    public CostEstimate calculateCloudCost(CloudProvider provider, ResolvedConfiguration configuration, int region,
+                                           PriceCatalog catalog) {
+        return costEngine.estimate(provider, configuration, region, catalog);
+    }
 
+    private PricingResponse.CloudCost buildCloudCost(CostEstimate estimate) {
+        if (estimate == null) {
+            return null;
+        }
         return PricingResponse.CloudCost.builder()
-                .totalMonthlyCost(totalCost)
-                .breakdown(breakdown)
+                .totalMonthlyCost(estimate.totalInCents())
+                .breakdown(estimate.breakdown())
                 .currency("USD")
                 .build();
     }
 
-    private String determineCheapestProvider(BigDecimal aws, BigDecimal azure, BigDecimal gcp) {
-        if (aws.compareTo(azure) <= 0 && aws.compareTo(gcp) <= 0) {
-            return "AWS";
-        } else if (azure.compareTo(gcp) <= 0) {
-            return "AZURE";
-        } else {
-            return "GCP";
+    private static BigDecimal total(CostEstimate estimate) {
+        return estimate != null ? estimate.totalInCents() : null;
+    }
+
+    // Ties go to the provider declared first, matching the previous AWS > AZURE > GCP order
+    private String determineCheapestProvider(Map<CloudProvider, CostEstimate> costs) {
+        CloudProvider cheapest = null;
+        for (Map.Entry<CloudProvider, CostEstimate> entry : costs.entrySet()) {
+            if (cheapest == null || entry.getValue().total() < costs.get(cheapest).total()) {
+                cheapest = entry.getKey();
+            }
         }
+        return cheapest.name();
     }
 
-    private BigDecimal calculateMaxSavings(BigDecimal aws, BigDecimal azure, BigDecimal gcp) {
-        BigDecimal max = aws.max(azure).max(gcp);
-        BigDecimal min = aws.min(azure).min(gcp);
-        return max.subtract(min);
+    private BigDecimal calculateMaxSavings(Map<CloudProvider, CostEstimate> costs) {
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (CostEstimate estimate : costs.values()) {
+            max = Math.max(max, estimate.total());
+            min = Math.min(min, estimate.total());
+        }
+        return Money.toCents(max - min);
     }
-}
\ No newline at end of file
+}
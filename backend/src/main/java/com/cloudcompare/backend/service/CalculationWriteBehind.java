@@ -0,0 +1,308 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.entity.Calculation;
+import com.cloudcompare.backend.repository.CalculationJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind pipeline for {@link Calculation} rows. Compares enqueue and return
+ * immediately; a single background writer drains the bounded queue and inserts in
+ * JDBC batches. When the queue fills up the configured {@link OverflowPolicy}
+ * decides whether callers wait, records are dropped, or only a sample is kept.
+ * A batch that fails to insert is retried with a doubling backoff before it is given
+ * up on, so a database restart or failover doesn't lose the calculations in flight. A
+ * batch that violates a constraint is split in halves down to single rows, so one bad
+ * row only costs itself.
+ * Whatever is queued at shutdown is flushed before the datasource closes.
+ */
+@Service
+@Slf4j
+public class CalculationWriteBehind implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        BLOCK,  // wait up to offer-timeout for space, then drop
+        DROP,   // drop immediately when the queue is full
+        SAMPLE  // above the high-water mark keep one record in sample-rate
+    }
+
+    private final CalculationJdbcRepository calculationJdbcRepository;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration maxLinger;
+    private final Duration shutdownTimeout;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration offerTimeout;
+    private final int highWatermark;
+    private final int sampleRate;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedFullCounter;
+    private final Counter droppedSampledCounter;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public CalculationWriteBehind(
+            CalculationJdbcRepository calculationJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cloudcompare.calculations.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${cloudcompare.calculations.write-behind.batch-size:500}") int batchSize,
+            @Value("${cloudcompare.calculations.write-behind.max-linger:PT0.2S}") Duration maxLinger,
+            @Value("${cloudcompare.calculations.write-behind.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+            @Value("${cloudcompare.calculations.write-behind.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${cloudcompare.calculations.write-behind.offer-timeout:PT0.05S}") Duration offerTimeout,
+            @Value("${cloudcompare.calculations.write-behind.sample-high-watermark:0.8}") double sampleHighWatermark,
+            @Value("${cloudcompare.calculations.write-behind.sample-rate:10}") int sampleRate,
+            @Value("${cloudcompare.calculations.write-behind.retry-attempts:5}") int retryAttempts,
+            @Value("${cloudcompare.calculations.write-behind.retry-backoff:PT0.2S}") Duration retryBackoff) {
+        this.calculationJdbcRepository = calculationJdbcRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxLinger = maxLinger;
+        this.shutdownTimeout = shutdownTimeout;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeout = offerTimeout;
+        this.highWatermark = (int) (queueCapacity * sampleHighWatermark);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.retryAttempts = Math.max(1, retryAttempts);
+        this.retryBackoff = retryBackoff;
+
+        Gauge.builder("calculations.writebehind.queue.depth", queue, BlockingQueue::size)
+                .description("Calculations waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("calculations.writebehind.lag", this, writer -> writer.oldestPendingAgeMillis())
+                .description("Age of the oldest queued calculation")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("calculations.writebehind.written").register(meterRegistry);
+        this.failedCounter = Counter.builder("calculations.writebehind.failed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("calculations.writebehind.retried")
+                .description("Batch inserts that failed and were tried again")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("calculations.writebehind.rejected")
+                .description("Calculations dropped because the database rejected the row itself")
+                .register(meterRegistry);
+        this.droppedFullCounter = Counter.builder("calculations.writebehind.dropped")
+                .tag("reason", "full").register(meterRegistry);
+        this.droppedSampledCounter = Counter.builder("calculations.writebehind.dropped")
+                .tag("reason", "sampled").register(meterRegistry);
+        this.batchTimer = Timer.builder("calculations.writebehind.batch").register(meterRegistry);
+        this.lagTimer = Timer.builder("calculations.writebehind.enqueue.to.write").register(meterRegistry);
+    }
+
+    /**
+     * Queues a calculation for insertion. Returns false if it was dropped by the overflow policy.
+     */
+    public boolean enqueue(Calculation calculation) {
+        if (!running) {
+            log.warn("Write-behind not running, dropping calculation {}", calculation.getId());
+            droppedFullCounter.increment();
+            return false;
+        }
+
+        Pending pending = new Pending(calculation, System.nanoTime());
+        boolean accepted;
+        switch (overflowPolicy) {
+            case BLOCK -> accepted = offerWithTimeout(pending);
+            case SAMPLE -> {
+                if (queue.size() >= highWatermark && sampleSequence.incrementAndGet() % sampleRate != 0) {
+                    droppedSampledCounter.increment();
+                    return false;
+                }
+                accepted = queue.offer(pending);
+            }
+            default -> accepted = queue.offer(pending);
+        }
+
+        if (!accepted) {
+            droppedFullCounter.increment();
+            log.debug("Write-behind queue full, dropped calculation {}", calculation.getId());
+        }
+        return accepted;
+    }
+
+    private boolean offerWithTimeout(Pending pending) {
+        try {
+            return queue.offer(pending, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(maxLinger.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger briefly so low traffic still produces multi-row batches
+                long lingerUntil = System.nanoTime() + maxLinger.toNanos();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        long remaining = lingerUntil - System.nanoTime();
+                        Pending next = remaining > 0 && running
+                                ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        long started = System.nanoTime();
+        List<Pending> written = insert(batch);
+        if (written.isEmpty()) {
+            return;
+        }
+
+        long finished = System.nanoTime();
+        batchTimer.record(finished - started, TimeUnit.NANOSECONDS);
+        writtenCounter.increment(written.size());
+        for (Pending pending : written) {
+            lagTimer.record(finished - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // A constraint violation rejects the whole batch, so it is halved until the offending rows are on their own
+    private List<Pending> insert(List<Pending> batch) {
+        try {
+            return insertWithRetry(batch) ? batch : List.of();
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                // The same row would violate the same constraint again
+                log.error("Dropping calculation {} rejected by the database", batch.get(0).calculation().getId(), e);
+                rejectedCounter.increment();
+                failedCounter.increment();
+                return List.of();
+            }
+            log.warn("Batch of {} calculations violates a constraint, splitting it: {}", batch.size(), e.toString());
+            int half = batch.size() / 2;
+            List<Pending> written = new ArrayList<>(insert(batch.subList(0, half)));
+            written.addAll(insert(batch.subList(half, batch.size())));
+            return written;
+        }
+    }
+
+    // insertBatch is one transaction, so a failed attempt leaves nothing behind to collide with the retry
+    private boolean insertWithRetry(List<Pending> batch) {
+        List<Calculation> calculations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            calculations.add(pending.calculation());
+        }
+
+        long backoff = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                calculationJdbcRepository.insertBatch(calculations);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (attempt >= retryAttempts) {
+                    log.error("Failed to write batch of {} calculations after {} attempts", calculations.size(),
+                            attempt, e);
+                    failedCounter.increment(calculations.size());
+                    return false;
+                }
+                log.warn("Writing batch of {} calculations failed (attempt {} of {}), retrying in {} ms: {}",
+                        calculations.size(), attempt, retryAttempts, backoff, e.toString());
+                retriedCounter.increment();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    log.error("Interrupted while retrying, dropping batch of {} calculations", calculations.size());
+                    failedCounter.increment(calculations.size());
+                    return false;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+
+    private double oldestPendingAgeMillis() {
+        Pending head = queue.peek();
+        return head == null ? 0 : (System.nanoTime() - head.enqueuedAt()) / 1_000_000.0;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "calculation-write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Stops accepting new work and waits for the queue to drain
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            writerThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutdown timeout reached with {} calculations still queued", queue.size());
+        } else {
+            log.info("Write-behind queue flushed");
+        }
+    }
+
+    // Stop strictly after the web server, whose graceful shutdown lets compares still in flight enqueue
+    @Override
+    public int getPhase() {
+        return WebServerApplicationContext.START_STOP_LIFECYCLE_PHASE - 1024;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Pending(Calculation calculation, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.cloudcompare.backend.service;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Thread-safe newline-delimited JSON writer for streamed responses. Each value is
+ * serialized outside the lock and flushed immediately so clients see it right away.
+ */
+public class NdjsonWriter {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final OutputStream output;
+    private final JsonMapper jsonMapper;
+
+    public NdjsonWriter(OutputStream output, JsonMapper jsonMapper) {
+        this.output = output;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public void write(Object value) {
+        byte[] line = jsonMapper.writeValueAsBytes(value);
+        synchronized (output) {
+            try {
+                output.write(line);
+                output.write(NEWLINE);
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Client went away during streamed response", e);
+            }
+        }
+    }
+}
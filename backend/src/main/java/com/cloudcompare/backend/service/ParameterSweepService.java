@@ -0,0 +1,106 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.dto.ParameterSweepRequest;
+import com.cloudcompare.backend.model.dto.ParameterSweepResponse;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost curves over one template parameter, e.g. storage.sizeGb from 10 to 10000, for the
+ * sliders on the compare page. Every point is priced from the same catalog version and
+ * only the swept component is re-evaluated per point (see {@link CostEngine#estimate(
+ * CloudProvider, ResolvedConfiguration, int, List, int, PriceCatalog)}). Points are not
+ * recorded as calculations; a user who settles on a value runs a regular compare.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParameterSweepService {
+
+    private final CalculationService calculationService;
+    private final PriceCatalogService priceCatalogService;
+    private final CostEngine costEngine;
+
+    @Value("${cloudcompare.sweep.max-points:1000}")
+    private int maxPoints;
+
+    public ParameterSweepResponse sweep(ParameterSweepRequest request) {
+        CompiledTemplate template = calculationService.findTemplate(request.getTemplateId());
+        ResolvedConfiguration base = template.resolve(request.getConfiguration());
+        int region = costEngine.regionSlot(request.getRegion());
+        int component = template.componentIndex(request.getComponent());
+        int parameter = component < 0 ? -1
+                : template.getComponents().get(component).parameterIndex(request.getParameter());
+        if (parameter < 0) {
+            throw new InvalidConfigurationException("Template has no parameter "
+                    + request.getComponent() + "." + request.getParameter());
+        }
+
+        List<BigDecimal> values = steps(request.getFrom(), request.getTo(), request.getStep());
+        List<ResolvedConfiguration> points = new ArrayList<>(values.size());
+        for (BigDecimal value : values) {
+            points.add(base.withValue(component, parameter, value));
+        }
+
+        PriceCatalog catalog = priceCatalogService.current();
+        List<CloudProvider> providers = request.getProviders() != null && !request.getProviders().isEmpty()
+                ? request.getProviders()
+                : List.of(CloudProvider.values());
+        List<ParameterSweepResponse.Curve> curves = new ArrayList<>(providers.size());
+        for (CloudProvider provider : providers) {
+            CostEstimate[] estimates = costEngine.estimate(provider, base, component, points, region, catalog);
+            List<BigDecimal> totals = new ArrayList<>(estimates.length);
+            List<BigDecimal> componentCosts = new ArrayList<>(estimates.length);
+            int part = estimates.length > 0 ? estimates[0].parts().indexOf(request.getComponent()) : -1;
+            for (CostEstimate estimate : estimates) {
+                totals.add(estimate.totalInCents());
+                componentCosts.add(Money.toCents(part >= 0 ? estimate.amounts()[part] : 0));
+            }
+            curves.add(ParameterSweepResponse.Curve.builder()
+                    .provider(provider.name())
+                    .totalMonthlyCost(totals)
+                    .componentCost(componentCosts)
+                    .build());
+        }
+
+        return ParameterSweepResponse.builder()
+                .templateId(template.getId())
+                .region(request.getRegion())
+                .component(request.getComponent())
+                .parameter(request.getParameter())
+                .values(values)
+                .curves(curves)
+                .catalogVersion(catalog.getVersion())
+                .build();
+    }
+
+    // from, from + step, ... up to and including to
+    private List<BigDecimal> steps(BigDecimal from, BigDecimal to, BigDecimal step) {
+        if (from.compareTo(to) > 0) {
+            throw new InvalidConfigurationException("from must not be greater than to");
+        }
+        BigDecimal count = to.subtract(from).divide(step, 0, RoundingMode.FLOOR).add(BigDecimal.ONE);
+        if (count.compareTo(BigDecimal.valueOf(maxPoints)) > 0) {
+            throw new InvalidConfigurationException("A sweep is limited to " + maxPoints + " points");
+        }
+        List<BigDecimal> values = new ArrayList<>(count.intValue());
+        for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+            values.add(value);
+        }
+        return values;
+    }
+}
@@ -1,16 +1,32 @@
 package com.cloudcompare.backend.service;
 
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.TrendBucket;
+import com.cloudcompare.backend.model.dto.InstanceMatchResponse;
+import com.cloudcompare.backend.model.dto.PriceTrendResponse;
 import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.repository.PricingImportRepository;
+import com.cloudcompare.backend.repository.PricingSnapshotJdbcRepository;
 import com.cloudcompare.backend.repository.PricingSnapshotRepository;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.catalog.PricingChangedEvent;
+import com.cloudcompare.backend.service.partition.PartitionManager;
+import com.cloudcompare.backend.service.partition.PricingHistoryPartitions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,44 +36,161 @@ import java.util.Optional;
 public class PricingService {
 
     private final PricingSnapshotRepository pricingSnapshotRepository;
+    private final PricingSnapshotJdbcRepository pricingSnapshotJdbcRepository;
+    private final PricingImportRepository pricingImportRepository;
+    private final PriceCatalogService priceCatalogService;
+    private final InstanceIndexService instanceIndexService;
+    private final PartitionManager partitionManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Cacheable(value = "pricing", key = "#provider + '-' + #serviceName + '-' + #region + '-' + #instanceType")
+    // Served from the in-memory catalog, so no transaction (and no pooled connection) is needed
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<PricingSnapshot> getLatestPricing(String provider, String serviceName,
                                                       String region, String instanceType) {
-        log.debug("Fetching latest pricing for {}/{}/{}/{}", provider, serviceName, region, instanceType);
-        return pricingSnapshotRepository
-                .findFirstByProviderAndServiceNameAndRegionAndInstanceTypeOrderBySnapshotDateDesc(
-                        provider, serviceName, region, instanceType);
+        return priceCatalogService.current().find(provider, serviceName, region, instanceType);
+    }
+
+    // Served from the instance index over the in-memory catalog; null requirements match anything
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<InstanceMatchResponse> findCheapestInstance(String provider, String serviceName, String region,
+                                                                Double vcpus, Double memoryGb, Double gpus) {
+        PriceCatalog catalog = priceCatalogService.current();
+        InstanceIndex.Partition partition = instanceIndexService.forCatalog(catalog)
+                .partition(provider, serviceName, region);
+        int instance = partition == null ? -1 : partition.cheapest(
+                vcpus != null ? vcpus : Double.NaN,
+                memoryGb != null ? memoryGb : Double.NaN,
+                gpus != null ? gpus : Double.NaN);
+        if (instance < 0) {
+            return Optional.empty();
+        }
+
+        PricingSnapshot snapshot = partition.instance(instance);
+        long hourly = partition.pricePerHour(instance);
+        return Optional.of(InstanceMatchResponse.builder()
+                .provider(provider)
+                .serviceName(serviceName)
+                .region(region)
+                .instanceType(snapshot.getInstanceType())
+                .vcpus(InstanceIndex.vcpus(snapshot))
+                .memoryGb(InstanceIndex.memoryGb(snapshot))
+                .gpus(InstanceIndex.gpus(snapshot))
+                .pricePerHour(snapshot.getPricePerHour())
+                .monthlyCost(Money.toCents(Money.times(hourly, Money.HOURS_PER_MONTH)))
+                .catalogVersion(catalog.getVersion())
+                .build());
     }
 
     public List<PricingSnapshot> getPricingByServiceType(String provider, String serviceType,
                                                          String region, LocalDate date) {
         log.debug("Fetching pricing for {}/{}/{} on {}", provider, serviceType, region, date);
-        return pricingSnapshotRepository.findByProviderAndServiceTypeAndRegionAndSnapshotDate(
-                provider, serviceType, region, date);
+        return pricingSnapshotRepository.findEffectiveOn(provider, serviceType, region, date);
     }
 
+    public List<PricingSnapshot> getPriceHistory(String provider, String serviceName,
+                                                 String region, String instanceType) {
+        return pricingSnapshotRepository.findHistory(provider, serviceName, region, instanceType);
+    }
+
+    public PriceTrendResponse getPriceTrend(String provider, String serviceName, String region,
+                                            String instanceType, LocalDate from, LocalDate to,
+                                            TrendBucket bucket) {
+        return PriceTrendResponse.builder()
+                .provider(provider)
+                .serviceName(serviceName)
+                .region(region)
+                .instanceType(instanceType)
+                .from(from)
+                .to(to)
+                .bucket(bucket)
+                .points(pricingSnapshotJdbcRepository.findTrend(
+                        provider, serviceName, region, instanceType, from, to, bucket))
+                .build();
+    }
+
+    // Unchanged prices write no rows, so a completed import is recorded separately
     public boolean hasPricingForToday(String provider) {
-        return pricingSnapshotRepository.existsByProviderAndSnapshotDate(provider, LocalDate.now());
+        LocalDate today = LocalDate.now();
+        return pricingImportRepository.existsByProviderAndImportDate(provider, today)
+                || pricingSnapshotRepository.existsByProviderAndEffectiveFrom(provider, today);
     }
 
     @Transactional
     public PricingSnapshot savePricingSnapshot(PricingSnapshot snapshot) {
         log.info("Saving pricing snapshot for {}/{}/{}",
                 snapshot.getProvider(), snapshot.getServiceName(), snapshot.getRegion());
-        return pricingSnapshotRepository.save(snapshot);
+        AppliedPrice applied = applyPrice(snapshot);
+        if (applied.changed()) {
+            eventPublisher.publishEvent(new PricingChangedEvent(1));
+        }
+        return applied.row();
     }
 
     @Transactional
     public void savePricingSnapshots(List<PricingSnapshot> snapshots) {
         log.info("Saving {} pricing snapshots", snapshots.size());
-        pricingSnapshotRepository.saveAll(snapshots);
+        long changed = snapshots.stream().map(this::applyPrice).filter(AppliedPrice::changed).count();
+        if (changed > 0) {
+            eventPublisher.publishEvent(new PricingChangedEvent((int) changed));
+        }
+    }
+
+    private record AppliedPrice(PricingSnapshot row, boolean changed) {
+    }
+
+    // Writes only when the price differs from the current row: a later date closes that row and
+    // opens a new one, the same date corrects it in place, and an earlier date is ignored
+    private AppliedPrice applyPrice(PricingSnapshot snapshot) {
+        if (snapshot.getEffectiveFrom() == null) {
+            snapshot.setEffectiveFrom(LocalDate.now());
+        }
+        Optional<PricingSnapshot> current = pricingSnapshotRepository
+                .findByProviderAndServiceNameAndRegionAndInstanceTypeAndEffectiveToIsNull(
+                        snapshot.getProvider(), snapshot.getServiceName(),
+                        snapshot.getRegion(), snapshot.getInstanceType());
+        if (current.isEmpty()) {
+            partitionManager.ensurePartition(PricingHistoryPartitions.TABLE, snapshot.getEffectiveFrom());
+            return new AppliedPrice(pricingSnapshotRepository.save(snapshot), true);
+        }
+
+        PricingSnapshot existing = current.get();
+        if (samePrice(existing, snapshot) || snapshot.getEffectiveFrom().isBefore(existing.getEffectiveFrom())) {
+            return new AppliedPrice(existing, false);
+        }
+        if (snapshot.getEffectiveFrom().equals(existing.getEffectiveFrom())) {
+            existing.setServiceType(snapshot.getServiceType());
+            existing.setPricePerHour(snapshot.getPricePerHour());
+            existing.setPricePerMonth(snapshot.getPricePerMonth());
+            existing.setCurrency(snapshot.getCurrency());
+            existing.setPricingData(snapshot.getPricingData());
+            return new AppliedPrice(pricingSnapshotRepository.save(existing), true);
+        }
+
+        existing.setEffectiveTo(snapshot.getEffectiveFrom());
+        pricingSnapshotRepository.saveAndFlush(existing);
+        partitionManager.ensurePartition(PricingHistoryPartitions.TABLE, snapshot.getEffectiveFrom());
+        return new AppliedPrice(pricingSnapshotRepository.save(snapshot), true);
+    }
+
+    // Compared at the precision the columns store, so sub-cent noise does not open new rows
+    private boolean samePrice(PricingSnapshot current, PricingSnapshot incoming) {
+        return sameAmount(current.getPricePerHour(), incoming.getPricePerHour(), Money.SCALE)
+                && sameAmount(current.getPricePerMonth(), incoming.getPricePerMonth(), Money.SCALE)
+                && Objects.equals(current.getCurrency(), incoming.getCurrency());
+    }
+
+    private boolean sameAmount(BigDecimal current, BigDecimal incoming, int scale) {
+        if (current == null || incoming == null) {
+            return current == incoming;
+        }
+        return current.compareTo(incoming.setScale(scale, RoundingMode.HALF_UP)) == 0;
     }
 
+    // Rounded to cents like the price_per_month column
     public BigDecimal calculateMonthlyCost(BigDecimal hourlyRate) {
         if (hourlyRate == null) {
             return BigDecimal.ZERO;
         }
-        return hourlyRate.multiply(BigDecimal.valueOf(730));
+        return Money.toCents(Money.times(Money.of(hourlyRate), Money.HOURS_PER_MONTH));
     }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.dto.RegionCostRow;
+import com.cloudcompare.backend.model.dto.RegionSweepRequest;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices one template configuration in every region of a single catalog version and
+ * streams a provider x region cost matrix back as NDJSON rows. Without topN rows are
+ * written as each region finishes; with topN only the N cheapest rows are kept and
+ * written, cheapest first, once all regions are done.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegionSweepService {
+
+    private static final Comparator<RegionCostRow> BY_CHEAPEST_COST =
+            Comparator.comparing(RegionCostRow::getCheapestCost);
+
+    private final CalculationService calculationService;
+    private final PriceCatalogService priceCatalogService;
+    private final CostEngine costEngine;
+    private final ThreadPoolTaskExecutor regionSweepExecutor;
+    private final JsonMapper jsonMapper;
+
+    @Value("${cloudcompare.sweep.max-in-flight:32}")
+    private int maxInFlight;
+
+    public void sweep(RegionSweepRequest request, OutputStream output) {
+        PriceCatalog catalog = priceCatalogService.current();
+        ResolvedConfiguration configuration = calculationService.findTemplate(request.getTemplateId())
+                .resolve(request.getConfiguration());
+        List<String> regions = request.getRegions() != null ? distinctRegions(request.getRegions()) : costEngine.regions();
+        NdjsonWriter writer = new NdjsonWriter(output, jsonMapper);
+        Integer topN = request.getTopN();
+
+        // Max-heap on cost so the most expensive of the current top N is evicted first
+        PriorityQueue<RegionCostRow> cheapest = new PriorityQueue<>(BY_CHEAPEST_COST.reversed());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // Set by the first worker whose write fails; the client is gone, so no more regions are priced
+        AtomicReference<UncheckedIOException> disconnected = new AtomicReference<>();
+
+        try {
+            for (String region : regions) {
+                if (disconnected.get() != null) {
+                    break;
+                }
+                inFlight.acquire();
+                try {
+                    regionSweepExecutor.execute(() -> {
+                        try {
+                            if (disconnected.get() != null) {
+                                return;
+                            }
+                            RegionCostRow row = priceRegion(configuration, region, catalog);
+                            if (row == null) {
+                                return;
+                            }
+                            if (topN == null) {
+                                writer.write(row);
+                            } else {
+                                synchronized (cheapest) {
+                                    cheapest.offer(row);
+                                    if (cheapest.size() > topN) {
+                                        cheapest.poll();
+                                    }
+                                }
+                            }
+                        } catch (UncheckedIOException e) {
+                            disconnected.compareAndSet(null, e);
+                        } catch (RuntimeException e) {
+                            log.warn("Region sweep failed for {}", region, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        if (disconnected.get() != null) {
+            log.info("Region sweep stopped: {}", disconnected.get().getMessage());
+            return;
+        }
+        if (topN != null) {
+            List<RegionCostRow> rows = new ArrayList<>(cheapest);
+            rows.sort(BY_CHEAPEST_COST);
+            rows.forEach(writer::write);
+        }
+    }
+
+    // Repeated regions, and aliases of one region, are priced once under the first name given
+    private List<String> distinctRegions(List<String> requested) {
+        Set<Integer> slots = new HashSet<>();
+        List<String> regions = new ArrayList<>();
+        for (String region : new LinkedHashSet<>(requested)) {
+            try {
+                if (!slots.add(costEngine.regionSlot(region))) {
+                    continue;
+                }
+            } catch (InvalidConfigurationException e) {
+                // Kept so the worker reports it like any other region that can't be priced
+            }
+            regions.add(region);
+        }
+        return regions;
+    }
+
+    private RegionCostRow priceRegion(ResolvedConfiguration configuration, String region, PriceCatalog catalog) {
+        int slot = costEngine.regionSlot(region);
+        long[] costs = new long[CloudProvider.values().length];
+        CloudProvider cheapest = null;
+        for (CloudProvider provider : CloudProvider.values()) {
+            CostEstimate estimate = calculationService.calculateCloudCost(provider, configuration, slot, catalog);
+            costs[provider.ordinal()] = estimate != null ? estimate.total() : -1;
+            if (estimate != null && (cheapest == null || estimate.total() < costs[cheapest.ordinal()])) {
+                cheapest = provider;
+            }
+        }
+        if (cheapest == null) {
+            return null;
+        }
+
+        return RegionCostRow.builder()
+                .region(region)
+                .aws(cost(costs, CloudProvider.AWS))
+                .azure(cost(costs, CloudProvider.AZURE))
+                .gcp(cost(costs, CloudProvider.GCP))
+                .cheapestProvider(cheapest.name())
+                .cheapestCost(cost(costs, cheapest))
+                .catalogVersion(catalog.getVersion())
+                .build();
+    }
+
+    // -1 marks a provider without a cost for the region
+    private static BigDecimal cost(long[] costs, CloudProvider provider) {
+        long cost = costs[provider.ordinal()];
+        return cost >= 0 ? Money.toCents(cost) : null;
+    }
+}
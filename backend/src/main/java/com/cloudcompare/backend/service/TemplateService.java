@@ -1,8 +1,11 @@
 package com.cloudcompare.backend.service;
 
+import com.cloudcompare.backend.config.RefreshableCache;
 import com.cloudcompare.backend.model.dto.TemplateResponse;
 import com.cloudcompare.backend.model.entity.Template;
 import com.cloudcompare.backend.repository.TemplateRepository;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -16,9 +19,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
-public class TemplateService {
+public class TemplateService implements RefreshableCache {
 
     private final TemplateRepository templateRepository;
+    private final TemplateRegistry templateRegistry;
 
     @Cacheable("templates")
     public List<TemplateResponse> getAllActiveTemplates() {
@@ -38,11 +42,29 @@ public class TemplateService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public String cacheName() {
+        return "templates";
+    }
+
+    // Keys as the @Cacheable methods above produce them: a category, or the empty key for all
+    @Override
+    public Object load(Object key) {
+        return key instanceof String category ? getTemplatesByCategory(category) : getAllActiveTemplates();
+    }
+
     public TemplateResponse getTemplateById(Long id) {
         log.info("Fetching template by id: {}", id);
-        Template template = templateRepository.findById(id)
+        CompiledTemplate template = templateRegistry.find(id)
                 .orElseThrow(() -> new RuntimeException("Template not found with id: " + id));
-        return toResponse(template);
+        return TemplateResponse.builder()
+                .id(template.getId())
+                .name(template.getName())
+                .description(template.getDescription())
+                .category(template.getCategory())
+                .templateConfig(template.getTemplateConfig())
+                .isActive(template.isActive())
+                .build();
     }
 
     private TemplateResponse toResponse(Template template) {
@@ -0,0 +1,37 @@
+package com.cloudcompare.backend.service.analytics;
+
+import com.cloudcompare.backend.model.RollupGranularity;
+import com.cloudcompare.backend.model.dto.CalculationCountPoint;
+import com.cloudcompare.backend.model.dto.ProviderShare;
+import com.cloudcompare.backend.model.dto.TemplatePopularity;
+import com.cloudcompare.backend.repository.CalculationRollupJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Calculation analytics read from the rollup tables only; cost follows the number of
+ * buckets asked for, never the number of compares. Counts lag by up to a flush interval.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private final CalculationRollupJdbcRepository calculationRollupJdbcRepository;
+
+    public List<CalculationCountPoint> getCalculationCounts(RollupGranularity granularity,
+                                                            LocalDateTime from, LocalDateTime to) {
+        return calculationRollupJdbcRepository.countByBucket(granularity, from, to);
+    }
+
+    public List<TemplatePopularity> getPopularTemplates(int days, int limit) {
+        return calculationRollupJdbcRepository.findPopularTemplatesSince(LocalDate.now().minusDays(days - 1L), limit);
+    }
+
+    public List<ProviderShare> getCheapestProviders(int days) {
+        return calculationRollupJdbcRepository.countCheapestProvidersSince(LocalDate.now().minusDays(days - 1L));
+    }
+}
@@ -0,0 +1,143 @@
+package com.cloudcompare.backend.service.analytics;
+
+import com.cloudcompare.backend.repository.CalculationRollupJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process calculation counters per minute, template, region and cheapest provider.
+ * Regions are the canonical names, so one region isn't split across provider spellings.
+ * Recording is a map lookup and an add, so compares never wait on the database; a
+ * scheduled flush folds closed minutes into hourly and daily buckets and adds them to
+ * the rollup tables. Counts that fail to flush are kept for the next attempt.
+ */
+@Component
+@Slf4j
+public class CalculationRollups {
+
+    private final CalculationRollupJdbcRepository calculationRollupJdbcRepository;
+    private final ConcurrentHashMap<MinuteKey, LongAdder> minutes = new ConcurrentHashMap<>();
+    private final Counter flushedCounter;
+    private final Clock clock;
+
+    @Value("${cloudcompare.analytics.hourly-retention:P90D}")
+    private Duration hourlyRetention;
+
+    @Autowired
+    public CalculationRollups(CalculationRollupJdbcRepository calculationRollupJdbcRepository,
+                              MeterRegistry meterRegistry) {
+        this(calculationRollupJdbcRepository, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    CalculationRollups(CalculationRollupJdbcRepository calculationRollupJdbcRepository,
+                       MeterRegistry meterRegistry, Clock clock) {
+        this.calculationRollupJdbcRepository = calculationRollupJdbcRepository;
+        this.clock = clock;
+        Gauge.builder("calculations.rollup.pending.keys", minutes, Map::size)
+                .description("Minute buckets not yet flushed to the rollup tables")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("calculations.rollup.flushed")
+                .description("Calculations added to the rollup tables")
+                .register(meterRegistry);
+    }
+
+    public void record(long templateId, String region, String cheapestProvider) {
+        MinuteKey key = new MinuteKey(clock.millis() / 60_000, templateId,
+                region != null ? region : "", cheapestProvider);
+        LongAdder adder = minutes.get(key);
+        if (adder == null) {
+            adder = minutes.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${cloudcompare.analytics.flush-interval:PT1M}")
+    public void flush() {
+        // Leave the current and previous minute alone: a compare may still be adding to them
+        flush(clock.millis() / 60_000 - 1);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(Long.MAX_VALUE);
+    }
+
+    @Scheduled(cron = "${cloudcompare.analytics.cleanup-cron:0 30 3 * * *}")
+    public void deleteExpiredHourly() {
+        int deleted = calculationRollupJdbcRepository.deleteHourlyBefore(
+                LocalDateTime.now(clock).minus(hourlyRetention).truncatedTo(ChronoUnit.HOURS));
+        if (deleted > 0) {
+            log.info("Deleted {} hourly calculation rollups older than {}", deleted, hourlyRetention);
+        }
+    }
+
+    private synchronized void flush(long beforeMinute) {
+        Map<MinuteKey, Long> drained = new HashMap<>();
+        for (MinuteKey key : minutes.keySet()) {
+            if (key.epochMinute() < beforeMinute) {
+                LongAdder adder = minutes.remove(key);
+                if (adder != null) {
+                    drained.put(key, adder.sum());
+                }
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, Long> hourly = new HashMap<>();
+        Map<BucketKey, Long> daily = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<MinuteKey, Long> entry : drained.entrySet()) {
+            MinuteKey key = entry.getKey();
+            LocalDateTime minute = LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(key.epochMinute() * 60), clock.getZone());
+            hourly.merge(key.bucket(minute.truncatedTo(ChronoUnit.HOURS)), entry.getValue(), Long::sum);
+            daily.merge(key.bucket(minute.truncatedTo(ChronoUnit.DAYS)), entry.getValue(), Long::sum);
+            total += entry.getValue();
+        }
+
+        try {
+            calculationRollupJdbcRepository.addCounts(toCounts(hourly), toCounts(daily));
+            flushedCounter.increment(total);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} calculation rollup counts, will retry", total, e);
+            drained.forEach((key, count) -> minutes.computeIfAbsent(key, k -> new LongAdder()).add(count));
+        }
+    }
+
+    private static List<RollupCount> toCounts(Map<BucketKey, Long> buckets) {
+        return buckets.entrySet().stream()
+                .map(entry -> new RollupCount(entry.getKey().bucketStart(), entry.getKey().templateId(),
+                        entry.getKey().region(), entry.getKey().cheapestProvider(), entry.getValue()))
+                .toList();
+    }
+
+    private record MinuteKey(long epochMinute, long templateId, String region, String cheapestProvider) {
+
+        BucketKey bucket(LocalDateTime bucketStart) {
+            return new BucketKey(bucketStart, templateId, region, cheapestProvider);
+        }
+    }
+
+    private record BucketKey(LocalDateTime bucketStart, long templateId, String region, String cheapestProvider) {
+    }
+}
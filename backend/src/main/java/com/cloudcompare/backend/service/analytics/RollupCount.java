@@ -0,0 +1,10 @@
+package com.cloudcompare.backend.service.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Calculations counted in one bucket for one template, region and cheapest provider.
+ */
+public record RollupCount(LocalDateTime bucketStart, long templateId, String region,
+                          String cheapestProvider, long calculations) {
+}
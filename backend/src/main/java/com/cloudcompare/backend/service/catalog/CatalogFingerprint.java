@@ -0,0 +1,9 @@
+package com.cloudcompare.backend.service.catalog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cheap summary of latest_pricing used to detect whether a rebuild is needed.
+ */
+public record CatalogFingerprint(long entryCount, LocalDateTime lastUpdatedAt) {
+}
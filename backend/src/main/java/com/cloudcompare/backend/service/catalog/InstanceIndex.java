@@ -0,0 +1,291 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheapest-instance lookups over the COMPUTE entries of one {@link PriceCatalog} version
+ * that carry vcpus/memoryGb (and optionally gpus) in their pricingData. There is one
+ * {@link Partition} per provider, service and region; {@link InstanceIndexService}
+ * reuses unchanged partitions from the previous version when the catalog is rebuilt.
+ */
+public final class InstanceIndex {
+
+    private static final InstanceIndex EMPTY = new InstanceIndex(0, Map.of());
+
+    private final long catalogVersion;
+    private final Map<String, Partition> partitions;
+
+    InstanceIndex(long catalogVersion, Map<String, Partition> partitions) {
+        this.catalogVersion = catalogVersion;
+        this.partitions = partitions;
+    }
+
+    public static InstanceIndex empty() {
+        return EMPTY;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    // Null when the catalog has no sized instances for the provider, service and region
+    public Partition partition(String provider, String serviceName, String region) {
+        return partitions.get(key(provider, serviceName, region));
+    }
+
+    Map<String, Partition> partitions() {
+        return partitions;
+    }
+
+    static String key(String provider, String serviceName, String region) {
+        return provider + '|' + serviceName + '|' + region;
+    }
+
+    /**
+     * Instances of one provider/service/region in a three-level grid. Distinct GPU counts
+     * and vCPU counts are sorted, and cell [g][v] holds every instance with at least
+     * gpuLevels[g] GPUs and vcpuLevels[v] vCPUs, reduced to its memory/price frontier:
+     * memory ascending, price strictly ascending, so the first entry with enough memory
+     * is the cheapest. A lookup is three binary searches.
+     */
+    public static final class Partition {
+
+        private final long fingerprint;
+        private final PricingSnapshot[] instances;
+        private final long[] prices; // per hour, Money micro-cents
+        private final double[] vcpus;
+        private final double[] memory;
+        private final double[] gpus;
+        private final int[] byPrice;
+        private final double[] floors; // lowest hourly price per vCPU, per GB and per GPU
+        private final double[] gpuLevels;
+        private final double[] vcpuLevels;
+        private final double[][][] memories; // [gpu level][vcpu level][frontier entry]
+        private final int[][][] cheapest;    // instance per frontier entry
+
+        private Partition(long fingerprint, PricingSnapshot[] instances, long[] prices, double[] vcpus,
+                          double[] memory, double[] gpus, int[] byPrice, double[] floors, double[] gpuLevels,
+                          double[] vcpuLevels, double[][][] memories, int[][][] cheapest) {
+            this.fingerprint = fingerprint;
+            this.instances = instances;
+            this.prices = prices;
+            this.vcpus = vcpus;
+            this.memory = memory;
+            this.gpus = gpus;
+            this.byPrice = byPrice;
+            this.floors = floors;
+            this.gpuLevels = gpuLevels;
+            this.vcpuLevels = vcpuLevels;
+            this.memories = memories;
+            this.cheapest = cheapest;
+        }
+
+        static Partition build(long fingerprint, List<PricingSnapshot> snapshots) {
+            int n = snapshots.size();
+            PricingSnapshot[] instances = snapshots.toArray(PricingSnapshot[]::new);
+            long[] prices = new long[n];
+            double[] vcpus = new double[n];
+            double[] memory = new double[n];
+            double[] gpus = new double[n];
+            for (int i = 0; i < n; i++) {
+                prices[i] = Money.of(instances[i].getPricePerHour());
+                vcpus[i] = InstanceIndex.vcpus(instances[i]);
+                memory[i] = InstanceIndex.memoryGb(instances[i]);
+                gpus[i] = InstanceIndex.gpus(instances[i]);
+            }
+            double[] gpuLevels = Arrays.stream(gpus).distinct().sorted().toArray();
+            double[] vcpuLevels = Arrays.stream(vcpus).distinct().sorted().toArray();
+
+            // Largest memory first, ties cheapest first, so one pass per cell yields the frontier
+            Integer[] byMemory = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                byMemory[i] = i;
+            }
+            Arrays.sort(byMemory, Comparator.<Integer>comparingDouble(i -> -memory[i])
+                    .thenComparingLong(i -> prices[i]));
+
+            double[][][] memories = new double[gpuLevels.length][vcpuLevels.length][];
+            int[][][] cheapest = new int[gpuLevels.length][vcpuLevels.length][];
+            for (int g = 0; g < gpuLevels.length; g++) {
+                for (int v = 0; v < vcpuLevels.length; v++) {
+                    List<Integer> frontier = new ArrayList<>();
+                    long best = Long.MAX_VALUE;
+                    for (int i : byMemory) {
+                        if (gpus[i] >= gpuLevels[g] && vcpus[i] >= vcpuLevels[v] && prices[i] < best) {
+                            best = prices[i];
+                            frontier.add(i);
+                        }
+                    }
+                    // Collected from the largest memory down; store memory ascending
+                    int size = frontier.size();
+                    memories[g][v] = new double[size];
+                    cheapest[g][v] = new int[size];
+                    for (int k = 0; k < size; k++) {
+                        int instance = frontier.get(size - 1 - k);
+                        memories[g][v][k] = memory[instance];
+                        cheapest[g][v][k] = instance;
+                    }
+                }
+            }
+
+            int[] byPrice = Arrays.stream(byMemory).sorted(Comparator.comparingLong(i -> prices[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            double[] floors = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+            for (int i = 0; i < n; i++) {
+                floors[0] = Math.min(floors[0], prices[i] / vcpus[i]);
+                floors[1] = Math.min(floors[1], prices[i] / memory[i]);
+                if (gpus[i] > 0) {
+                    floors[2] = Math.min(floors[2], prices[i] / gpus[i]);
+                }
+            }
+            return new Partition(fingerprint, instances, prices, vcpus, memory, gpus, byPrice, floors, gpuLevels,
+                    vcpuLevels, memories, cheapest);
+        }
+
+        long getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Index of the cheapest instance with at least the given vCPUs, memory and GPUs,
+         * or -1 if none qualifies. NaN means no requirement.
+         */
+        public int cheapest(double vcpus, double memoryGb, double gpus) {
+            int g = atLeast(gpuLevels, gpus);
+            int v = atLeast(vcpuLevels, vcpus);
+            if (g < 0 || v < 0) {
+                return -1;
+            }
+            int m = atLeast(memories[g][v], memoryGb);
+            return m < 0 ? -1 : cheapest[g][v][m];
+        }
+
+        public PricingSnapshot instance(int index) {
+            return instances[index];
+        }
+
+        public long pricePerHour(int index) {
+            return prices[index];
+        }
+
+        public int size() {
+            return instances.length;
+        }
+
+        public double vcpus(int index) {
+            return vcpus[index];
+        }
+
+        public double memoryGb(int index) {
+            return memory[index];
+        }
+
+        public double gpus(int index) {
+            return gpus[index];
+        }
+
+        // Instance indexes, cheapest first
+        public int byPrice(int rank) {
+            return byPrice[rank];
+        }
+
+        /**
+         * A lower bound on the hourly price of any set of these instances that together has
+         * the given vCPUs, memory and GPUs (NaN for none), from the lowest price per unit of
+         * each resource.
+         */
+        public double floorPerHour(double vcpus, double memoryGb, double gpus) {
+            double floor = 0;
+            if (vcpus > 0) {
+                floor = Math.max(floor, vcpus * floors[0]);
+            }
+            if (memoryGb > 0) {
+                floor = Math.max(floor, memoryGb * floors[1]);
+            }
+            if (gpus > 0) {
+                floor = Math.max(floor, gpus * floors[2]);
+            }
+            return floor;
+        }
+
+        // First position whose value is >= minimum, -1 if there is none
+        private static int atLeast(double[] sorted, double minimum) {
+            if (sorted.length == 0) {
+                return -1;
+            }
+            if (Double.isNaN(minimum)) {
+                return 0;
+            }
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < minimum) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < sorted.length ? low : -1;
+        }
+    }
+
+    static boolean isSized(PricingSnapshot snapshot) {
+        return "COMPUTE".equals(snapshot.getServiceType())
+                && snapshot.getPricePerHour() != null
+                && !Double.isNaN(vcpus(snapshot))
+                && !Double.isNaN(memoryGb(snapshot));
+    }
+
+    public static double vcpus(PricingSnapshot snapshot) {
+        return attribute(snapshot, "vcpus", Double.NaN);
+    }
+
+    public static double memoryGb(PricingSnapshot snapshot) {
+        return attribute(snapshot, "memoryGb", Double.NaN);
+    }
+
+    public static double gpus(PricingSnapshot snapshot) {
+        return attribute(snapshot, "gpus", 0);
+    }
+
+    // pricingData holds numbers when parsed and may hold strings after a round trip through jsonb
+    private static double attribute(PricingSnapshot snapshot, String name, double missing) {
+        Map<String, Object> data = snapshot.getPricingData();
+        Object value = data != null ? data.get(name) : null;
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return missing;
+            }
+        }
+        return missing;
+    }
+
+    static Map<String, List<PricingSnapshot>> group(PriceCatalog catalog) {
+        Map<String, List<PricingSnapshot>> groups = new HashMap<>();
+        for (PricingSnapshot snapshot : catalog.snapshots()) {
+            if (isSized(snapshot)) {
+                groups.computeIfAbsent(key(snapshot.getProvider(), snapshot.getServiceName(), snapshot.getRegion()),
+                        k -> new ArrayList<>()).add(snapshot);
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link InstanceIndex} in step with the price catalog. The index is derived
+ * the first time a newer catalog version is asked for; partitions whose instances and
+ * prices are unchanged are carried over from the previous version, so an import that
+ * touches one region only rebuilds that region.
+ */
+@Service
+@Slf4j
+public class InstanceIndexService {
+
+    private volatile InstanceIndex current = InstanceIndex.empty();
+
+    public InstanceIndex forCatalog(PriceCatalog catalog) {
+        InstanceIndex index = current;
+        if (index.getCatalogVersion() == catalog.getVersion()) {
+            return index;
+        }
+        return update(catalog);
+    }
+
+    private synchronized InstanceIndex update(PriceCatalog catalog) {
+        InstanceIndex previous = current;
+        if (previous.getCatalogVersion() == catalog.getVersion()) {
+            return previous;
+        }
+
+        long started = System.nanoTime();
+        Map<String, InstanceIndex.Partition> partitions = new HashMap<>();
+        int rebuilt = 0;
+        for (Map.Entry<String, List<PricingSnapshot>> group : InstanceIndex.group(catalog).entrySet()) {
+            long fingerprint = fingerprint(group.getValue());
+            InstanceIndex.Partition partition = previous.partitions().get(group.getKey());
+            if (partition == null || partition.getFingerprint() != fingerprint) {
+                partition = InstanceIndex.Partition.build(fingerprint, group.getValue());
+                rebuilt++;
+            }
+            partitions.put(group.getKey(), partition);
+        }
+
+        InstanceIndex index = new InstanceIndex(catalog.getVersion(), Map.copyOf(partitions));
+        // A request pinned to an older catalog gets its own index without replacing the newer one
+        if (catalog.getVersion() > previous.getCatalogVersion()) {
+            current = index;
+        }
+        log.info("Instance index for catalog version {}: {} partitions, {} rebuilt in {} ms",
+                catalog.getVersion(), partitions.size(), rebuilt, (System.nanoTime() - started) / 1_000_000);
+        return index;
+    }
+
+    // Changes whenever an instance is added, removed or repriced; entries come in catalog key order
+    private static long fingerprint(List<PricingSnapshot> snapshots) {
+        long hash = snapshots.size();
+        for (PricingSnapshot snapshot : snapshots) {
+            hash = 31 * hash + Objects.hash(snapshot.getInstanceType(), snapshot.getPricePerHour(),
+                    snapshot.getPricingData() != null ? snapshot.getPricingData().get("vcpus") : null,
+                    snapshot.getPricingData() != null ? snapshot.getPricingData().get("memoryGb") : null,
+                    snapshot.getPricingData() != null ? snapshot.getPricingData().get("gpus") : null);
+        }
+        return hash;
+    }
+}
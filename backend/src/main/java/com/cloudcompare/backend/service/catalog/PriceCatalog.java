@@ -0,0 +1,170 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of the latest price per provider/service/region/instance.
+ * Keys are dictionary-encoded and packed into a sorted long[] so lookups are a
+ * binary search with no allocation. A catalog is never modified after it is built;
+ * {@link PriceCatalogService} swaps in a new instance when pricing changes.
+ */
+public final class PriceCatalog {
+
+    // Bit layout of a packed key: provider(8) | service(14) | region(14) | instanceType(27)
+    private static final int INSTANCE_BITS = 27;
+    private static final int REGION_BITS = 14;
+    private static final int SERVICE_BITS = 14;
+    private static final int PROVIDER_BITS = 8;
+
+    private static final PriceCatalog EMPTY = new PriceCatalog(0, Instant.EPOCH,
+            new Dictionary(), new Dictionary(), new Dictionary(), new Dictionary(),
+            new long[0], new PricingSnapshot[0]);
+
+    private final long version;
+    private final Instant builtAt;
+    private final Dictionary providers;
+    private final Dictionary services;
+    private final Dictionary regions;
+    private final Dictionary instanceTypes;
+    private final long[] keys;
+    private final PricingSnapshot[] entries;
+
+    private PriceCatalog(long version, Instant builtAt,
+                         Dictionary providers, Dictionary services, Dictionary regions, Dictionary instanceTypes,
+                         long[] keys, PricingSnapshot[] entries) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.providers = providers;
+        this.services = services;
+        this.regions = regions;
+        this.instanceTypes = instanceTypes;
+        this.keys = keys;
+        this.entries = entries;
+    }
+
+    public static PriceCatalog empty() {
+        return EMPTY;
+    }
+
+    public static PriceCatalog build(long version, Collection<PricingSnapshot> snapshots) {
+        Dictionary providers = new Dictionary();
+        Dictionary services = new Dictionary();
+        Dictionary regions = new Dictionary();
+        Dictionary instanceTypes = new Dictionary();
+
+        // Encode every row first, keeping the newest snapshot when a key appears twice
+        Map<Long, PricingSnapshot> byKey = new HashMap<>(snapshots.size() * 2);
+        for (PricingSnapshot snapshot : snapshots) {
+            long key = pack(
+                    providers.encode(snapshot.getProvider(), PROVIDER_BITS),
+                    services.encode(snapshot.getServiceName(), SERVICE_BITS),
+                    regions.encode(snapshot.getRegion(), REGION_BITS),
+                    instanceTypes.encode(snapshot.getInstanceType(), INSTANCE_BITS));
+            byKey.merge(key, snapshot, (existing, candidate) ->
+                    candidate.getEffectiveFrom().isAfter(existing.getEffectiveFrom()) ? candidate : existing);
+        }
+
+        List<Map.Entry<Long, PricingSnapshot>> sorted = new ArrayList<>(byKey.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+        long[] keys = new long[sorted.size()];
+        PricingSnapshot[] entries = new PricingSnapshot[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            keys[i] = sorted.get(i).getKey();
+            entries[i] = sorted.get(i).getValue();
+        }
+
+        return new PriceCatalog(version, Instant.now(), providers, services, regions, instanceTypes, keys, entries);
+    }
+
+    public Optional<PricingSnapshot> find(String provider, String serviceName, String region, String instanceType) {
+        int providerId = providers.lookup(provider);
+        int serviceId = services.lookup(serviceName);
+        int regionId = regions.lookup(region);
+        int instanceId = instanceTypes.lookup(instanceType);
+        if (providerId < 0 || serviceId < 0 || regionId < 0 || instanceId < 0) {
+            return Optional.empty();
+        }
+
+        int index = Arrays.binarySearch(keys, pack(providerId, serviceId, regionId, instanceId));
+        return index >= 0 ? Optional.of(entries[index]) : Optional.empty();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    // Every entry in key order, for indexes derived from the catalog
+    public List<PricingSnapshot> snapshots() {
+        return Collections.unmodifiableList(Arrays.asList(entries));
+    }
+
+    // Every region that has at least one price, across all providers
+    public List<String> getRegions() {
+        return regions.values();
+    }
+
+    private static long pack(int provider, int service, int region, int instanceType) {
+        return ((long) provider << (SERVICE_BITS + REGION_BITS + INSTANCE_BITS))
+                | ((long) service << (REGION_BITS + INSTANCE_BITS))
+                | ((long) region << INSTANCE_BITS)
+                | instanceType;
+    }
+
+    /**
+     * String-to-id dictionary. Id 0 is reserved for null so nullable columns
+     * such as instance_type can still be part of a key.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value, int bits) {
+            if (value == null) {
+                return 0;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size() + 1;
+                if (id >= (1 << bits)) {
+                    throw new IllegalStateException("Price catalog dictionary overflow for value: " + value);
+                }
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        List<String> values() {
+            return Collections.unmodifiableList(values);
+        }
+
+        int lookup(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer id = ids.get(value);
+            return id != null ? id : -1;
+        }
+    }
+}
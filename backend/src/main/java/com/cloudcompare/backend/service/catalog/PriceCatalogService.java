@@ -0,0 +1,105 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.repository.PricingSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link PriceCatalog} and rebuilds it in the background when
+ * new snapshots land. Readers always see a complete catalog: the new version is
+ * built off to the side and published with a single volatile write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceCatalogService {
+
+    private final PricingSnapshotRepository pricingSnapshotRepository;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-catalog-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private volatile PriceCatalog current = PriceCatalog.empty();
+    private volatile CatalogFingerprint loadedFingerprint;
+
+    public PriceCatalog current() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent event) {
+        log.debug("{} pricing snapshots saved, scheduling catalog rebuild", event.snapshotCount());
+        requestRebuild();
+    }
+
+    // Safety net for snapshots written by another node or directly in the database
+    @Scheduled(fixedDelayString = "${cloudcompare.catalog.refresh-interval:PT1M}",
+            initialDelayString = "${cloudcompare.catalog.refresh-interval:PT1M}")
+    public void refreshIfChanged() {
+        if (!Objects.equals(fingerprint(), loadedFingerprint)) {
+            requestRebuild();
+        }
+    }
+
+    public void requestRebuild() {
+        // Coalesce bursts of change events into a single rebuild
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Price catalog rebuild failed, keeping version {}", current.getVersion(), e);
+                }
+            });
+        }
+    }
+
+    public synchronized PriceCatalog rebuild() {
+        long started = System.nanoTime();
+        CatalogFingerprint fingerprint = fingerprint();
+        List<PricingSnapshot> snapshots = pricingSnapshotRepository.findLatestSnapshots();
+
+        PriceCatalog catalog = PriceCatalog.build(versionSequence.incrementAndGet(), snapshots);
+        current = catalog;
+        loadedFingerprint = fingerprint;
+
+        log.info("Price catalog version {} loaded with {} entries in {} ms",
+                catalog.getVersion(), catalog.size(), (System.nanoTime() - started) / 1_000_000);
+        return catalog;
+    }
+
+    private CatalogFingerprint fingerprint() {
+        return new CatalogFingerprint(
+                pricingSnapshotRepository.countLatest(),
+                pricingSnapshotRepository.findLatestUpdatedAt().orElse(null));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
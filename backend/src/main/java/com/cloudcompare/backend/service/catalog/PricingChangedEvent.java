@@ -0,0 +1,7 @@
+package com.cloudcompare.backend.service.catalog;
+
+/**
+ * Published whenever pricing snapshots are written so the catalog can be rebuilt.
+ */
+public record PricingChangedEvent(int snapshotCount) {
+}
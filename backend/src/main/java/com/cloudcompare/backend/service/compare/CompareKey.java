@@ -0,0 +1,33 @@
+package com.cloudcompare.backend.service.compare;
+
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Identity of a compare: the catalog version it was priced against plus a SHA-256 of
+ * templateId, region and the resolved configuration in canonical form. Two requests that
+ * only differ in key order, number formatting (2 vs 2.0) or in spelling out template
+ * defaults get the same key. The region is the canonical name
+ * ({@code CostEngine.regions()}), so provider spellings of one region share a key too.
+ */
+public record CompareKey(long catalogVersion, String digest) {
+
+    public static CompareKey of(long catalogVersion, long templateId, String region,
+                                ResolvedConfiguration configuration) {
+        String canonical = templateId + "|" + region + "|" + configuration.canonical();
+        return new CompareKey(catalogVersion, sha256(canonical));
+    }
+
+    private static String sha256(String canonical) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cloudcompare.backend.service.compare;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-provider cost estimates of recent compares, held in the "calculations" cache by
+ * {@link CompareKey}. Keys carry the catalog version, and the first lookup against a
+ * newer version clears the cache so entries priced from old data are dropped at once
+ * rather than left to expire.
+ */
+@Component
+public class CompareResultCache {
+
+    private final Cache cache;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CompareResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache("calculations");
+        this.hits = Counter.builder("calculations.cache.requests")
+                .description("Compare lookups in the result cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("calculations.cache.requests")
+                .description("Compare lookups in the result cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<CloudProvider, CostEstimate> get(CompareKey key) {
+        long previous = catalogVersion.getAndAccumulate(key.catalogVersion(), Math::max);
+        if (key.catalogVersion() > previous) {
+            cache.clear();
+        }
+        Map<CloudProvider, CostEstimate> costs = cache.get(key, Map.class);
+        (costs != null ? hits : misses).increment();
+        return costs;
+    }
+
+    public void put(CompareKey key, Map<CloudProvider, CostEstimate> costs) {
+        // A lookup against a newer catalog may already have cleared the cache; don't refill it
+        if (key.catalogVersion() == catalogVersion.get()) {
+            cache.put(key, Collections.unmodifiableMap(new EnumMap<>(costs)));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Parses AWS Price List offer files (e.g. AmazonEC2/current/index.json). Products come
+ * before terms in these files, so only the attributes of products we keep are held in
+ * memory; each OnDemand term is joined to its product and emitted as soon as it is read.
+ * Reserved terms are skipped without being materialized.
+ */
+@Component
+public class AwsPriceListParser implements PriceListParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // Usage types outside us-east-1 carry a region code: EUC1-TimedStorage-ByteHrs, EU-BoxUsage:t3.micro
+    private static final Pattern USAGE_TYPE_REGION = Pattern.compile("^[A-Z]{2,4}[0-9]{0,2}-(?=[A-Za-z])");
+
+    private static final Map<String, String> SERVICE_NAMES = Map.of(
+            "AmazonEC2", "EC2",
+            "AmazonRDS", "RDS",
+            "AmazonS3", "S3",
+            "AWSLambda", "Lambda",
+            "AmazonApiGateway", "API Gateway",
+            "AWSGlue", "Glue",
+            "AmazonRedshift", "Redshift",
+            "AmazonDynamoDB", "DynamoDB",
+            "AmazonSageMaker", "SageMaker");
+
+    @Override
+    public CloudProvider provider() {
+        return CloudProvider.AWS;
+    }
+
+    @Override
+    public void parse(InputStream input, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+            String offerCode = null;
+            Map<String, Product> products = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "offerCode" -> offerCode = parser.getText();
+                    case "products" -> readProducts(parser, offerCode, products);
+                    case "terms" -> {
+                        if (products.isEmpty()) {
+                            // Nothing to join against; either no matching products or terms came first
+                            parser.skipChildren();
+                        } else {
+                            readTerms(parser, products, effectiveFrom, sink);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readProducts(JsonParser parser, String offerCode, Map<String, Product> products) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            JsonNode node = OBJECT_MAPPER.readTree(parser);
+            Product product = toProduct(offerCode, node);
+            if (product != null) {
+                products.put(node.path("sku").asText(), product);
+            }
+        }
+    }
+
+    private void readTerms(JsonParser parser, Map<String, Product> products, LocalDate effectiveFrom,
+                           Consumer<PricingSnapshot> sink) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String termType = parser.currentName();
+            parser.nextToken();
+            if (!"OnDemand".equals(termType)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Product product = products.get(parser.currentName());
+                parser.nextToken();
+                if (product == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonNode offers = OBJECT_MAPPER.readTree(parser);
+                emitOffers(product, offers, effectiveFrom, sink);
+            }
+        }
+    }
+
+    private void emitOffers(Product product, JsonNode offers, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) {
+        for (JsonNode offer : offers) {
+            Iterator<JsonNode> dimensions = offer.path("priceDimensions").elements();
+            while (dimensions.hasNext()) {
+                JsonNode dimension = dimensions.next();
+                // Tiered prices: keep only the first tier
+                String beginRange = dimension.path("beginRange").asText("0");
+                if (!"0".equals(beginRange)) {
+                    continue;
+                }
+                String usd = dimension.path("pricePerUnit").path("USD").asText(null);
+                if (usd == null) {
+                    continue;
+                }
+                String unit = dimension.path("unit").asText();
+                BigDecimal price = new BigDecimal(usd);
+
+                Map<String, Object> pricingData = new HashMap<>(product.attributes());
+                pricingData.put("unit", unit);
+                pricingData.put("unitPrice", usd);
+                pricingData.put("description", dimension.path("description").asText());
+
+                sink.accept(PricingSnapshot.builder()
+                        .provider(CloudProvider.AWS.name())
+                        .serviceType(product.serviceType())
+                        .serviceName(product.serviceName())
+                        .region(product.region())
+                        .instanceType(product.instanceType())
+                        .pricePerHour(PriceUnits.isHourly(unit) ? price : null)
+                        .pricePerMonth(PriceUnits.isMonthly(unit) ? price : null)
+                        .currency("USD")
+                        .pricingData(pricingData)
+                        .effectiveFrom(effectiveFrom)
+                        .build());
+            }
+        }
+    }
+
+    // Returns null for products we do not price (other OSes, dedicated tenancy, global SKUs, ...)
+    private Product toProduct(String offerCode, JsonNode node) {
+        JsonNode attributes = node.path("attributes");
+        String region = attributes.path("regionCode").asText(null);
+        if (region == null) {
+            return null;
+        }
+
+        String family = node.path("productFamily").asText("");
+        if ("Compute Instance".equals(family)
+                && !(matches(attributes, "operatingSystem", "Linux")
+                && matches(attributes, "tenancy", "Shared")
+                && matches(attributes, "preInstalledSw", "NA")
+                && matches(attributes, "capacitystatus", "Used"))) {
+            return null;
+        }
+        if ("Database Instance".equals(family)
+                && !(matches(attributes, "databaseEngine", "PostgreSQL")
+                && matches(attributes, "deploymentOption", "Single-AZ"))) {
+            return null;
+        }
+
+        String instanceType = attributes.path("instanceType").asText(null);
+        if (instanceType == null) {
+            String usageType = attributes.path("usagetype").asText(null);
+            instanceType = usageType != null
+                    ? USAGE_TYPE_REGION.matcher(usageType).replaceFirst("")
+                    : node.path("sku").asText();
+        }
+
+        Map<String, Object> kept = new HashMap<>();
+        kept.put("sku", node.path("sku").asText());
+        kept.put("productFamily", family);
+        PriceUnits.putNumber(kept, "vcpus", attributes.path("vcpu").asText(null));
+        PriceUnits.putNumber(kept, "memoryGb", attributes.path("memory").asText(null));
+        PriceUnits.putNumber(kept, "gpus", attributes.path("gpu").asText(null));
+        copy(attributes, kept, "volumeApiName");
+        copy(attributes, kept, "storageClass");
+        copy(attributes, kept, "group");
+        copy(attributes, kept, "usagetype");
+
+        return new Product(
+                SERVICE_NAMES.getOrDefault(offerCode, offerCode),
+                serviceType(offerCode, family),
+                region,
+                instanceType,
+                Map.copyOf(kept));
+    }
+
+    private String serviceType(String offerCode, String family) {
+        if (family.startsWith("Compute")) {
+            return "COMPUTE";
+        }
+        if (family.startsWith("Database")) {
+            return "DATABASE";
+        }
+        if (family.contains("Storage")) {
+            return "STORAGE";
+        }
+        if (family.contains("Data Transfer") || family.contains("Load Balancer")) {
+            return "NETWORK";
+        }
+        return switch (offerCode == null ? "" : offerCode) {
+            case "AmazonRDS", "AmazonDynamoDB", "AmazonRedshift" -> "DATABASE";
+            case "AmazonS3" -> "STORAGE";
+            case "AmazonApiGateway" -> "NETWORK";
+            default -> "COMPUTE";
+        };
+    }
+
+    private static boolean matches(JsonNode attributes, String name, String expected) {
+        JsonNode value = attributes.get(name);
+        return value == null || expected.equals(value.asText());
+    }
+
+    private static void copy(JsonNode attributes, Map<String, Object> target, String name) {
+        JsonNode value = attributes.get(name);
+        if (value != null) {
+            target.put(name, value.asText());
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected AWS price list structure: expected " + expected + " but got " + actual);
+        }
+    }
+
+    private record Product(String serviceName, String serviceType, String region, String instanceType,
+                           Map<String, Object> attributes) {
+    }
+}
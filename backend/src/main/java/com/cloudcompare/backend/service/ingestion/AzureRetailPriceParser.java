@@ -0,0 +1,131 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parses Azure Retail Prices API responses: either a single page object with an
+ * "Items" array or a bare array of items (e.g. several pages concatenated by a
+ * download script). Items are self-contained, so each one is emitted as read.
+ */
+@Component
+public class AzureRetailPriceParser implements PriceListParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Override
+    public CloudProvider provider() {
+        return CloudProvider.AZURE;
+    }
+
+    @Override
+    public void parse(InputStream input, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input)) {
+            JsonToken root = parser.nextToken();
+            if (root == JsonToken.START_ARRAY) {
+                readItems(parser, effectiveFrom, sink);
+                return;
+            }
+            if (root != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Azure retail price structure: " + root);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("Items".equals(field) && value == JsonToken.START_ARRAY) {
+                    readItems(parser, effectiveFrom, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readItems(JsonParser parser, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            PricingSnapshot snapshot = toSnapshot(OBJECT_MAPPER.readTree(parser), effectiveFrom);
+            if (snapshot != null) {
+                sink.accept(snapshot);
+            }
+        }
+    }
+
+    // Returns null for reservations, savings plans, spot/low-priority and Windows meters
+    private PricingSnapshot toSnapshot(JsonNode item, LocalDate effectiveFrom) {
+        if (!"Consumption".equals(item.path("type").asText())) {
+            return null;
+        }
+        String skuName = item.path("skuName").asText("");
+        String productName = item.path("productName").asText("");
+        if (skuName.contains("Spot") || skuName.contains("Low Priority") || productName.contains("Windows")) {
+            return null;
+        }
+        String region = item.path("armRegionName").asText("");
+        if (region.isEmpty()) {
+            return null;
+        }
+
+        String serviceName = item.path("serviceName").asText();
+        String armSkuName = item.path("armSkuName").asText("");
+        // VM sizes are unique per region once filtered; other meters are keyed by the meter
+        // name the pricing rules use ("Hot LRS Data Stored"), falling back to the SKU id
+        String meterName = item.path("meterName").asText("");
+        String instanceType = "Virtual Machines".equals(serviceName) && !armSkuName.isEmpty()
+                ? armSkuName
+                : !meterName.isEmpty() ? meterName : item.path("skuId").asText(item.path("meterId").asText());
+
+        // unitOfMeasure looks like "1 Hour", "100 Hours" or "1 GB/Month"
+        String unitOfMeasure = item.path("unitOfMeasure").asText("");
+        BigDecimal quantity = PriceUnits.leadingNumber(unitOfMeasure);
+        String unit = unitOfMeasure.replaceFirst("^\\s*[0-9.,]+\\s*", "");
+        BigDecimal price = item.path("retailPrice").decimalValue();
+        if (quantity != null && quantity.compareTo(BigDecimal.ONE) > 0) {
+            price = price.divide(quantity, 10, RoundingMode.HALF_UP);
+        }
+
+        Map<String, Object> pricingData = new HashMap<>();
+        pricingData.put("meterId", item.path("meterId").asText());
+        pricingData.put("meterName", meterName);
+        pricingData.put("skuId", item.path("skuId").asText());
+        pricingData.put("productName", productName);
+        pricingData.put("skuName", skuName);
+        pricingData.put("unit", unit);
+        pricingData.put("unitPrice", price.toPlainString());
+
+        return PricingSnapshot.builder()
+                .provider(CloudProvider.AZURE.name())
+                .serviceType(serviceType(item.path("serviceFamily").asText()))
+                .serviceName(serviceName)
+                .region(region)
+                .instanceType(instanceType)
+                .pricePerHour(PriceUnits.isHourly(unit) ? price : null)
+                .pricePerMonth(PriceUnits.isMonthly(unit) ? price : null)
+                .currency(item.path("currencyCode").asText("USD"))
+                .pricingData(pricingData)
+                .effectiveFrom(effectiveFrom)
+                .build();
+    }
+
+    private String serviceType(String serviceFamily) {
+        return switch (serviceFamily) {
+            case "Databases" -> "DATABASE";
+            case "Storage" -> "STORAGE";
+            case "Networking" -> "NETWORK";
+            default -> "COMPUTE";
+        };
+    }
+}
@@ -0,0 +1,300 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses Cloud Billing Catalog API SKU listings ({"skus": [...]}, or a bare array of
+ * SKUs). A SKU priced in several regions is emitted once per region.
+ *
+ * <p>SKUs are keyed by the name the pricing rules use rather than the opaque skuId: the
+ * description without its location ("E2 Instance Core running in Belgium" becomes
+ * "E2 Instance Core"), with a few catalog names mapped onto the rule names. GCP bills
+ * machines per vCPU-hour and per GB-hour, so once every SKU is read the core, RAM and GPU
+ * prices of each family and region are combined into one sized row per machine type
+ * (e2-standard-4, g2-standard-48, db-custom-2-4096, ...) with vcpus, memoryGb and gpus
+ * in its pricingData.
+ */
+@Component
+public class GcpSkuParser implements PriceListParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final BigDecimal NANOS = BigDecimal.valueOf(1_000_000_000L);
+
+    private static final Pattern LOCATION = Pattern.compile("\\s+(?:running\\s+)?in\\s+\\p{Lu}[\\p{L}\\p{N} .-]*$");
+    private static final Pattern STORAGE_CLASS = Pattern.compile("^(?:Standard|Nearline|Coldline|Archive) Storage\\b");
+    private static final Pattern CACHE_EGRESS = Pattern.compile("\\bCache Egress from (.+) to (.+)$");
+    private static final Map<String, String> ALIASES = Map.of(
+            "Cloud SQL for PostgreSQL: Zonal - Standard storage", "Storage PD SSD",
+            "Network Load Balancing: Forwarding Rule Minimum Service Charge", "Network Load Balancing: Forwarding Rule",
+            "vCPU Time Batch", "Batch vCPU",
+            "Cloud Firestore Storage", "Stored Data");
+
+    // Per-unit SKUs that machine types are built from: the family and which part it prices
+    private static final Pattern INSTANCE_PART = Pattern.compile("\\b([A-Z][0-9][A-Z]?) (?:Predefined )?Instance (Core|Ram) running in ");
+    private static final Pattern CLOUD_SQL_PART = Pattern.compile("^Cloud SQL for PostgreSQL: Zonal - (vCPU|RAM) in ");
+    private static final Pattern GPU_PART = Pattern.compile("^Nvidia (\\S+) GPU running in ");
+    private static final Map<String, String> GPU_FAMILIES = Map.of("L4", "G2");
+
+    private static final Map<String, List<MachineType>> MACHINE_TYPES = machineTypes();
+
+    /**
+     * A machine type priced from its family's per-unit SKUs. E2 shared-core machines are
+     * billed for a fraction of their vCPUs, so cores (billed) and vcpus (usable) differ.
+     */
+    record MachineType(String name, double cores, double memoryGb, int vcpus, int gpus) {
+    }
+
+    @Override
+    public CloudProvider provider() {
+        return CloudProvider.GCP;
+    }
+
+    @Override
+    public void parse(InputStream input, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) throws IOException {
+        Map<String, UnitPrices> units = new LinkedHashMap<>();
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input)) {
+            JsonToken root = parser.nextToken();
+            if (root == JsonToken.START_ARRAY) {
+                readSkus(parser, effectiveFrom, sink, units);
+            } else if (root == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("skus".equals(field) && value == JsonToken.START_ARRAY) {
+                        readSkus(parser, effectiveFrom, sink, units);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                throw new IOException("Unexpected GCP SKU listing structure: " + root);
+            }
+        }
+        for (UnitPrices prices : units.values()) {
+            emitMachineTypes(prices, effectiveFrom, sink);
+        }
+    }
+
+    private void readSkus(JsonParser parser, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink,
+                          Map<String, UnitPrices> units) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            emit(OBJECT_MAPPER.readTree(parser), effectiveFrom, sink, units);
+        }
+    }
+
+    private void emit(JsonNode sku, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink,
+                      Map<String, UnitPrices> units) {
+        JsonNode category = sku.path("category");
+        if (!"OnDemand".equals(category.path("usageType").asText())) {
+            return;
+        }
+        JsonNode expression = sku.path("pricingInfo").path(0).path("pricingExpression");
+        JsonNode rates = expression.path("tieredRates");
+        if (rates.isEmpty()) {
+            return;
+        }
+
+        // The last tier is the steady-state rate once any free tier is used up
+        JsonNode unitPrice = rates.get(rates.size() - 1).path("unitPrice");
+        BigDecimal price = new BigDecimal(unitPrice.path("units").asText("0"))
+                .add(BigDecimal.valueOf(unitPrice.path("nanos").asLong()).divide(NANOS));
+        String unit = expression.path("usageUnit").asText();
+        String currency = unitPrice.path("currencyCode").asText("USD");
+        String skuId = sku.path("skuId").asText();
+        String description = sku.path("description").asText();
+        String serviceName = category.path("serviceDisplayName").asText();
+        String resourceGroup = category.path("resourceGroup").asText();
+
+        Map<String, Object> pricingData = new HashMap<>();
+        pricingData.put("skuId", skuId);
+        pricingData.put("description", description);
+        pricingData.put("resourceGroup", resourceGroup);
+        pricingData.put("unit", unit);
+        pricingData.put("unitPrice", price.toPlainString());
+
+        String instanceType = skuName(resourceGroup, description);
+        for (JsonNode node : sku.path("serviceRegions")) {
+            String region = node.asText();
+            sink.accept(PricingSnapshot.builder()
+                    .provider(CloudProvider.GCP.name())
+                    .serviceType(serviceType(category.path("resourceFamily").asText()))
+                    .serviceName(serviceName)
+                    .region(region)
+                    .instanceType(instanceType)
+                    .pricePerHour(PriceUnits.isHourly(unit) ? price : null)
+                    .pricePerMonth(PriceUnits.isMonthly(unit) ? price : null)
+                    .currency(currency)
+                    .pricingData(pricingData)
+                    .effectiveFrom(effectiveFrom)
+                    .build());
+            collectUnitPrice(units, serviceName, region, description, skuId, price, currency);
+        }
+    }
+
+    // The name the pricing rules look a SKU up by
+    static String skuName(String resourceGroup, String description) {
+        if ("RegionalStorage".equals(resourceGroup)) {
+            Matcher storageClass = STORAGE_CLASS.matcher(description);
+            if (storageClass.find()) {
+                return storageClass.group();
+            }
+        }
+        Matcher egress = CACHE_EGRESS.matcher(description);
+        if (egress.find() && egress.group(1).equals(egress.group(2))) {
+            return "Cache Egress";
+        }
+        String name = LOCATION.matcher(description).replaceFirst("");
+        return ALIASES.getOrDefault(name, name);
+    }
+
+    private void collectUnitPrice(Map<String, UnitPrices> units, String serviceName, String region, String description,
+                                  String skuId, BigDecimal price, String currency) {
+        String family;
+        String part;
+        Matcher instance = INSTANCE_PART.matcher(description);
+        Matcher cloudSql = CLOUD_SQL_PART.matcher(description);
+        Matcher gpu = GPU_PART.matcher(description);
+        if (instance.find()) {
+            family = instance.group(1);
+            part = instance.group(2).equals("Core") ? "core" : "ram";
+        } else if (cloudSql.find()) {
+            family = "db-custom";
+            part = cloudSql.group(1).equals("vCPU") ? "core" : "ram";
+        } else if (gpu.find() && GPU_FAMILIES.containsKey(gpu.group(1))) {
+            family = GPU_FAMILIES.get(gpu.group(1));
+            part = "gpu";
+        } else {
+            return;
+        }
+        if (!MACHINE_TYPES.containsKey(family)) {
+            return;
+        }
+        UnitPrices prices = units.computeIfAbsent(serviceName + '|' + family + '|' + region,
+                key -> new UnitPrices(serviceName, family, region, currency));
+        switch (part) {
+            case "core" -> prices.core = price;
+            case "ram" -> prices.ram = price;
+            default -> prices.gpu = price;
+        }
+        prices.skuIds.add(skuId);
+    }
+
+    private void emitMachineTypes(UnitPrices prices, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) {
+        if (prices.core == null || prices.ram == null) {
+            return;
+        }
+        for (MachineType machine : MACHINE_TYPES.get(prices.family)) {
+            if (machine.gpus() > 0 && prices.gpu == null) {
+                continue;
+            }
+            BigDecimal price = prices.core.multiply(BigDecimal.valueOf(machine.cores()))
+                    .add(prices.ram.multiply(BigDecimal.valueOf(machine.memoryGb())));
+            if (machine.gpus() > 0) {
+                price = price.add(prices.gpu.multiply(BigDecimal.valueOf(machine.gpus())));
+            }
+            price = price.setScale(Money.SCALE, RoundingMode.HALF_UP).stripTrailingZeros();
+
+            Map<String, Object> pricingData = new HashMap<>();
+            pricingData.put("vcpus", machine.vcpus());
+            pricingData.put("memoryGb", machine.memoryGb());
+            pricingData.put("gpus", machine.gpus());
+            pricingData.put("skuIds", List.copyOf(prices.skuIds));
+            pricingData.put("unit", "h");
+            pricingData.put("unitPrice", price.toPlainString());
+
+            sink.accept(PricingSnapshot.builder()
+                    .provider(CloudProvider.GCP.name())
+                    .serviceType("COMPUTE")
+                    .serviceName(prices.serviceName)
+                    .region(prices.region)
+                    .instanceType(machine.name())
+                    .pricePerHour(price)
+                    .currency(prices.currency)
+                    .pricingData(pricingData)
+                    .effectiveFrom(effectiveFrom)
+                    .build());
+        }
+    }
+
+    private String serviceType(String resourceFamily) {
+        return switch (resourceFamily) {
+            case "Storage" -> "STORAGE";
+            case "Network" -> "NETWORK";
+            default -> "COMPUTE";
+        };
+    }
+
+    private static Map<String, List<MachineType>> machineTypes() {
+        Map<String, List<MachineType>> types = new HashMap<>();
+        List<MachineType> e2 = new ArrayList<>();
+        e2.add(new MachineType("e2-micro", 0.25, 1, 2, 0));
+        e2.add(new MachineType("e2-small", 0.5, 2, 2, 0));
+        e2.add(new MachineType("e2-medium", 1, 4, 2, 0));
+        for (int vcpus : new int[]{2, 4, 8, 16, 32}) {
+            e2.add(new MachineType("e2-standard-" + vcpus, vcpus, 4.0 * vcpus, vcpus, 0));
+        }
+        types.put("E2", e2);
+
+        List<MachineType> n1 = new ArrayList<>();
+        for (int vcpus : new int[]{1, 2, 4, 8, 16}) {
+            n1.add(new MachineType("n1-standard-" + vcpus, vcpus, 3.75 * vcpus, vcpus, 0));
+        }
+        types.put("N1", n1);
+
+        // vCPUs, GB and L4 GPUs of each G2 shape
+        int[][] g2 = {{4, 16, 1}, {8, 32, 1}, {12, 48, 1}, {16, 64, 1}, {24, 96, 2}, {32, 128, 1}, {48, 192, 4}, {96, 384, 8}};
+        types.put("G2", Arrays.stream(g2)
+                .map(shape -> new MachineType("g2-standard-" + shape[0], shape[0], shape[1], shape[0], shape[2]))
+                .toList());
+
+        // Cloud SQL custom machines are named db-custom-{vCPUs}-{memory in MB}
+        int[][] custom = {{1, 3840}, {2, 4096}, {2, 7680}, {4, 15360}, {8, 30720}, {16, 61440}};
+        types.put("db-custom", Arrays.stream(custom)
+                .map(shape -> new MachineType("db-custom-" + shape[0] + "-" + shape[1], shape[0], shape[1] / 1024.0,
+                        shape[0], 0))
+                .toList());
+        return types;
+    }
+
+    // The per-unit prices of one family in one service and region, collected while streaming
+    private static final class UnitPrices {
+
+        private final String serviceName;
+        private final String family;
+        private final String region;
+        private final String currency;
+        private final List<String> skuIds = new ArrayList<>(3);
+        private BigDecimal core;
+        private BigDecimal ram;
+        private BigDecimal gpu;
+
+        private UnitPrices(String serviceName, String family, String region, String currency) {
+            this.serviceName = serviceName;
+            this.family = family;
+            this.region = region;
+            this.currency = currency;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.PricingImport;
+import com.cloudcompare.backend.repository.PricingImportRepository;
+import com.cloudcompare.backend.repository.PricingSnapshotJdbcRepository;
+import com.cloudcompare.backend.repository.PricingSnapshotJdbcRepository.BulkLoadResult;
+import com.cloudcompare.backend.service.catalog.PricingChangedEvent;
+import com.cloudcompare.backend.service.partition.PartitionManager;
+import com.cloudcompare.backend.service.partition.PricingHistoryPartitions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a provider price-list file from disk into pricing_snapshots: the provider's
+ * parser emits rows while reading and the repository COPYs them into staging and merges
+ * only the prices that changed. Nothing proportional to the file size is kept on the heap.
+ */
+@Service
+@Slf4j
+public class PriceListImportService {
+
+    private static final long PROGRESS_EVERY_ROWS = 100_000;
+
+    private final Map<CloudProvider, PriceListParser> parsers = new EnumMap<>(CloudProvider.class);
+    private final PricingSnapshotJdbcRepository pricingSnapshotJdbcRepository;
+    private final PricingImportRepository pricingImportRepository;
+    private final PartitionManager partitionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter rowsCounter;
+
+    public PriceListImportService(List<PriceListParser> parsers,
+                                  PricingSnapshotJdbcRepository pricingSnapshotJdbcRepository,
+                                  PricingImportRepository pricingImportRepository,
+                                  PartitionManager partitionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        parsers.forEach(parser -> this.parsers.put(parser.provider(), parser));
+        this.pricingSnapshotJdbcRepository = pricingSnapshotJdbcRepository;
+        this.pricingImportRepository = pricingImportRepository;
+        this.partitionManager = partitionManager;
+        this.eventPublisher = eventPublisher;
+        this.rowsCounter = Counter.builder("pricing.ingestion.rows")
+                .description("Price rows parsed from provider price-list files")
+                .register(meterRegistry);
+    }
+
+    public record ImportResult(CloudProvider provider, Path file, long rowsParsed, long rowsChanged,
+                               Duration elapsed) {
+
+        public double rowsPerSecond() {
+            long millis = Math.max(1, elapsed.toMillis());
+            return rowsParsed * 1000.0 / millis;
+        }
+    }
+
+    public ImportResult importFile(CloudProvider provider, Path file) throws IOException {
+        return importFile(provider, file, LocalDate.now());
+    }
+
+    public ImportResult importFile(CloudProvider provider, Path file, LocalDate effectiveFrom) throws IOException {
+        PriceListParser parser = parsers.get(provider);
+        if (parser == null) {
+            throw new IllegalArgumentException("No price-list parser for provider " + provider);
+        }
+
+        log.info("Importing {} price list from {}", provider, file);
+        partitionManager.ensurePartition(PricingHistoryPartitions.TABLE, effectiveFrom);
+        long started = System.nanoTime();
+        AtomicLong parsed = new AtomicLong();
+
+        BulkLoadResult result;
+        try (InputStream input = open(file)) {
+            result = pricingSnapshotJdbcRepository.bulkMerge(sink ->
+                    parser.parse(input, effectiveFrom, snapshot -> {
+                        sink.accept(snapshot);
+                        rowsCounter.increment();
+                        long count = parsed.incrementAndGet();
+                        if (count % PROGRESS_EVERY_ROWS == 0) {
+                            double seconds = (System.nanoTime() - started) / 1e9;
+                            log.info("{}: {} rows parsed ({} rows/sec)", file.getFileName(), count,
+                                    Math.round(count / Math.max(seconds, 0.001)));
+                        }
+                    }));
+        }
+
+        ImportResult importResult = new ImportResult(provider, file, parsed.get(), result.rowsChanged(),
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("Imported {} price list {}: {} rows parsed, {} new prices, {} superseded, {} corrected in {} ms ({} rows/sec)",
+                provider, file.getFileName(), importResult.rowsParsed(), result.rowsOpened(), result.rowsClosed(),
+                result.rowsCorrected(), importResult.elapsed().toMillis(), Math.round(importResult.rowsPerSecond()));
+
+        pricingImportRepository.save(PricingImport.builder()
+                .provider(provider.name())
+                .importDate(effectiveFrom)
+                .sourceFile(file.getFileName().toString())
+                .rowsParsed(importResult.rowsParsed())
+                .rowsChanged(importResult.rowsChanged())
+                .build());
+
+        if (result.rowsChanged() > 0) {
+            eventPublisher.publishEvent(new PricingChangedEvent((int) Math.min(Integer.MAX_VALUE, result.rowsChanged())));
+        }
+        return importResult;
+    }
+
+    private InputStream open(Path file) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+}
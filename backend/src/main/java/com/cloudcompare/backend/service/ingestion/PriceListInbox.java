@@ -0,0 +1,108 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Watches a local directory for provider price-list files and imports them one at a time.
+ * The provider is taken from the file name prefix (aws-, azure-, gcp-); files may be
+ * gzip-compressed. Imported files move to processed/, failures to failed/. Imports run on
+ * the price-list import executor; a poll while one is running is skipped.
+ *
+ * <p>Polling does nothing unless cloudcompare.ingestion.inbox-dir is set. That is checked
+ * at runtime rather than through a bean condition, which the aot build would fix at
+ * build time.
+ */
+@Component
+@Slf4j
+public class PriceListInbox {
+
+    private final PriceListImportService priceListImportService;
+    private final ThreadPoolTaskExecutor priceListImportExecutor;
+    private final Path inbox; // null when no inbox is configured
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    public PriceListInbox(PriceListImportService priceListImportService,
+                          ThreadPoolTaskExecutor priceListImportExecutor,
+                          @Value("${cloudcompare.ingestion.inbox-dir:}") String inboxDir) {
+        this.priceListImportService = priceListImportService;
+        this.priceListImportExecutor = priceListImportExecutor;
+        this.inbox = inboxDir.isBlank() ? null : Path.of(inboxDir);
+    }
+
+    @Scheduled(fixedDelayString = "${cloudcompare.ingestion.poll-interval:PT1M}")
+    public void poll() {
+        if (inbox == null || !importing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            priceListImportExecutor.execute(() -> {
+                try {
+                    importPending();
+                } finally {
+                    importing.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            importing.set(false);
+            log.warn("Price-list import executor is busy, skipping this poll");
+        }
+    }
+
+    void importPending() {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(inbox)) {
+            files = listing.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            log.warn("Cannot list price-list inbox {}", inbox, e);
+            return;
+        }
+
+        for (Path file : files) {
+            CloudProvider provider = providerOf(file);
+            if (provider == null) {
+                continue;
+            }
+            try {
+                priceListImportService.importFile(provider, file);
+                moveTo(file, "processed");
+            } catch (IOException | RuntimeException e) {
+                log.error("Price-list import failed for {}", file, e);
+                moveTo(file, "failed");
+            }
+        }
+    }
+
+    private CloudProvider providerOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (CloudProvider provider : CloudProvider.values()) {
+            if (name.startsWith(provider.name().toLowerCase(Locale.ROOT) + "-")) {
+                return provider;
+            }
+        }
+        return null;
+    }
+
+    private void moveTo(Path file, String folder) {
+        try {
+            Path target = Files.createDirectories(inbox.resolve(folder)).resolve(file.getFileName());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Could not move {} to {}", file, folder, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Token-level parser for one provider's price-list format. Implementations must emit
+ * snapshots while reading and never materialize the whole document.
+ */
+public interface PriceListParser {
+
+    CloudProvider provider();
+
+    void parse(InputStream input, LocalDate effectiveFrom, Consumer<PricingSnapshot> sink) throws IOException;
+}
@@ -0,0 +1,51 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unit handling shared by the price-list parsers. Only hourly and monthly units map onto
+ * the pricePerHour / pricePerMonth columns; everything else (requests, GB-seconds, ...)
+ * is kept as unit + unitPrice in pricingData.
+ */
+final class PriceUnits {
+
+    private static final Set<String> HOURLY = Set.of("hrs", "hr", "hour", "hours", "h");
+    private static final Set<String> MONTHLY = Set.of("gb-mo", "gib-mo", "gby.mo", "giby.mo", "gb/month", "gib/month", "/month", "month");
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^\\s*([0-9][0-9,]*(?:\\.[0-9]+)?)");
+
+    private PriceUnits() {
+    }
+
+    static boolean isHourly(String unit) {
+        return unit != null && HOURLY.contains(unit.trim().toLowerCase());
+    }
+
+    static boolean isMonthly(String unit) {
+        return unit != null && MONTHLY.contains(unit.trim().toLowerCase());
+    }
+
+    // Parses values like "2", "4 GiB" or "1,952 GiB"; leaves the map untouched for "NA"
+    static void putNumber(Map<String, Object> target, String key, String raw) {
+        BigDecimal number = leadingNumber(raw);
+        if (number == null) {
+            return;
+        }
+        if (number.signum() == 0 || number.stripTrailingZeros().scale() <= 0) {
+            target.put(key, number.longValue());
+        } else {
+            target.put(key, number.doubleValue());
+        }
+    }
+
+    static BigDecimal leadingNumber(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        Matcher matcher = LEADING_NUMBER.matcher(raw);
+        return matcher.find() ? new BigDecimal(matcher.group(1).replace(",", "")) : null;
+    }
+}
@@ -0,0 +1,233 @@
+package com.cloudcompare.backend.service.invalidation;
+
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.catalog.PricingChangedEvent;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Keeps the per-node caches of every task in step over PostgreSQL LISTEN/NOTIFY. Price
+ * and template changes are applied locally once committed and then broadcast on a
+ * channel; every other node evicts the same caches and rebuilds its price catalog or
+ * template registry.
+ *
+ * <p>Each node listens on its own connection outside the pool. Notifications sent while
+ * that connection is down are lost, so every reconnect starts with a full flush.
+ *
+ * <p>With cloudcompare.cache.invalidation.enabled=false changes are only applied locally:
+ * nothing is broadcast and no listener is started. The switch is read at startup rather
+ * than through a bean condition, which the aot build would fix at build time.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final Duration KEEPALIVE_INTERVAL = Duration.ofSeconds(10);
+
+    record Message(String origin, InvalidationScope scope) {
+    }
+
+    private final CacheManager cacheManager;
+    private final PriceCatalogService priceCatalogService;
+    private final TemplateRegistry templateRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${cloudcompare.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cloudcompare.cache.invalidation.channel:cloudcompare_cache}")
+    private String channel;
+
+    @Value("${cloudcompare.cache.invalidation.reconnect-delay:PT1S}")
+    private Duration reconnectDelay;
+
+    @Value("${cloudcompare.cache.invalidation.max-reconnect-delay:PT30S}")
+    private Duration maxReconnectDelay;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private volatile boolean running = true;
+    private volatile Connection connection;
+    private Thread listener;
+
+    public CacheInvalidationBus(CacheManager cacheManager, PriceCatalogService priceCatalogService,
+                                TemplateRegistry templateRegistry, JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+        this.cacheManager = cacheManager;
+        this.priceCatalogService = priceCatalogService;
+        this.templateRegistry = templateRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent event) {
+        publish(InvalidationScope.PRICING);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(TemplateChangedEvent event) {
+        publish(InvalidationScope.TEMPLATES);
+    }
+
+    public void publish(InvalidationScope scope) {
+        apply(scope);
+        if (!enabled) {
+            return;
+        }
+        try {
+            String payload = jsonMapper.writeValueAsString(new Message(nodeId, scope));
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+        } catch (RuntimeException e) {
+            // Other nodes catch up through their ttl or the catalog's fingerprint check
+            log.warn("Could not broadcast {} cache invalidation", scope, e);
+        }
+    }
+
+    private void apply(InvalidationScope scope) {
+        for (String name : scope.caches()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        if (scope.reloadCatalog()) {
+            priceCatalogService.requestRebuild();
+        }
+        if (scope.reloadTemplates()) {
+            try {
+                templateRegistry.reload();
+            } catch (RuntimeException e) {
+                log.error("Template registry reload failed, keeping the loaded templates", e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Cross-node cache invalidation is disabled");
+            return;
+        }
+        listener = new Thread(this::listen, "cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen() {
+        Duration delay = reconnectDelay;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN \"" + channel + "\"");
+                }
+                log.info("Listening for cache invalidations on {}", channel);
+                if (connectedBefore) {
+                    apply(InvalidationScope.ALL);
+                }
+                connectedBefore = true;
+                delay = reconnectDelay;
+                receive(conn);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {}", delay, e);
+            } finally {
+                connection = null;
+            }
+            sleep(delay);
+            delay = min(delay.multipliedBy(2), maxReconnectDelay);
+        }
+    }
+
+    private void receive(Connection conn) throws SQLException {
+        PGConnection pgConnection = conn.unwrap(PGConnection.class);
+        long lastCheck = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(500);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+            }
+            // getNotifications doesn't notice a dead socket; a round trip does
+            if (System.nanoTime() - lastCheck > KEEPALIVE_INTERVAL.toNanos()) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastCheck = System.nanoTime();
+            }
+        }
+    }
+
+    void handle(String payload) {
+        try {
+            Message message = jsonMapper.readValue(payload, Message.class);
+            if (!nodeId.equals(message.origin()) && message.scope() != null) {
+                log.debug("Cache invalidation {} from {}", message.scope(), message.origin());
+                apply(message.scope());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload, e);
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Connection conn = connection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                log.debug("Error closing cache invalidation connection", e);
+            }
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.cloudcompare.backend.service.invalidation;
+
+import java.util.List;
+
+/**
+ * What changed, and therefore which per-node caches have to go. Compare results depend on
+ * both prices and template defaults, so every scope clears them; prices themselves live in
+ * the price catalog, which is rebuilt rather than cleared.
+ */
+public enum InvalidationScope {
+    PRICING(List.of("calculations"), true, false),
+    TEMPLATES(List.of("templates", "calculations"), false, true),
+    // Sent to ourselves after a reconnect, when notifications may have been missed
+    ALL(List.of("templates", "calculations"), true, true);
+
+    private final List<String> caches;
+    private final boolean reloadCatalog;
+    private final boolean reloadTemplates;
+
+    InvalidationScope(List<String> caches, boolean reloadCatalog, boolean reloadTemplates) {
+        this.caches = caches;
+        this.reloadCatalog = reloadCatalog;
+        this.reloadTemplates = reloadTemplates;
+    }
+
+    public List<String> caches() {
+        return caches;
+    }
+
+    public boolean reloadCatalog() {
+        return reloadCatalog;
+    }
+
+    public boolean reloadTemplates() {
+        return reloadTemplates;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cloudcompare.backend.service.invalidation;
+
+import com.cloudcompare.backend.model.entity.Template;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener on Template; Hibernate gets it from the Spring context, so it can be injected
+@Component
+@RequiredArgsConstructor
+public class TemplateChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void templateChanged(Template template) {
+        eventPublisher.publishEvent(new TemplateChangedEvent(template.getId()));
+    }
+}
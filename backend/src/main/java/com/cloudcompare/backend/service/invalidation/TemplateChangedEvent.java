@@ -0,0 +1,7 @@
+package com.cloudcompare.backend.service.invalidation;
+
+/**
+ * Published when a template is inserted, updated or deleted.
+ */
+public record TemplateChangedEvent(Long templateId) {
+}
@@ -0,0 +1,124 @@
+package com.cloudcompare.backend.service.metrics;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.dto.SlowCompare;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records finished {@link CompareTrace}s as timers with percentile histograms:
+ * compare.request for the whole request, compare.stage per {@link CompareStage} and
+ * compare.provider per provider priced, all tagged by template category and region.
+ * Also keeps the slowest recent compares with their stage timings for
+ * /actuator/slowcompares.
+ */
+@Component
+public class CompareMetrics {
+
+    private static final CompareStage[] STAGES = CompareStage.values();
+    private static final CloudProvider[] PROVIDERS = CloudProvider.values();
+
+    private final Meter.MeterProvider<Timer> requestTimers;
+    private final Meter.MeterProvider<Timer> stageTimers;
+    private final Meter.MeterProvider<Timer> providerTimers;
+    private final SlowCompareLog slowCompares;
+
+    public CompareMetrics(MeterRegistry meterRegistry,
+                          @Value("${cloudcompare.metrics.slow-compares.size:50}") int slowComparesSize,
+                          @Value("${cloudcompare.metrics.slow-compares.window:PT5M}") Duration slowComparesWindow) {
+        this.requestTimers = Timer.builder("compare.request")
+                .description("Compares from the start of the request until the response is written")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.stageTimers = Timer.builder("compare.stage")
+                .description("Time spent in each stage of a compare")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.providerTimers = Timer.builder("compare.provider")
+                .description("Pricing one provider for a compare, on the evaluation executor")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.slowCompares = new SlowCompareLog(slowComparesSize, slowComparesWindow.toNanos());
+    }
+
+    // Endpoint is "compare" or "batch"
+    public CompareTrace start(String endpoint) {
+        return new CompareTrace(endpoint);
+    }
+
+    public void finish(CompareTrace trace) {
+        if (!trace.isCompleted()) {
+            return;
+        }
+        trace.finish();
+        String category = trace.getCategory();
+        String region = trace.getRegion();
+
+        requestTimers.withTags("endpoint", trace.getEndpoint(), "category", category, "region", region,
+                        "cache", trace.isCacheHit() ? "hit" : "miss")
+                .record(trace.getTotal(), TimeUnit.NANOSECONDS);
+        for (CompareStage stage : STAGES) {
+            long nanos = trace.stageNanos(stage);
+            if (nanos >= 0) {
+                stageTimers.withTags("stage", stage.tag(), "category", category, "region", region)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        for (CloudProvider provider : PROVIDERS) {
+            long nanos = trace.providerNanos(provider);
+            if (nanos > 0) {
+                providerTimers.withTags("provider", provider.name(), "category", category, "region", region)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        slowCompares.offer(trace);
+    }
+
+    public List<SlowCompare> slowest() {
+        return slowCompares.slowest().stream()
+                .map(CompareMetrics::toSlowCompare)
+                .toList();
+    }
+
+    private static SlowCompare toSlowCompare(CompareTrace trace) {
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (CompareStage stage : STAGES) {
+            long nanos = trace.stageNanos(stage);
+            if (nanos >= 0) {
+                stages.put(stage.tag(), millis(nanos));
+            }
+        }
+        Map<String, Double> providers = new LinkedHashMap<>();
+        for (CloudProvider provider : PROVIDERS) {
+            long nanos = trace.providerNanos(provider);
+            if (nanos > 0) {
+                providers.put(provider.name(), millis(nanos));
+            }
+        }
+        return SlowCompare.builder()
+                .startedAt(trace.getStartedAt())
+                .endpoint(trace.getEndpoint())
+                .calculationId(trace.getCalculationId())
+                .templateId(trace.getTemplateId())
+                .category(trace.getCategory())
+                .region(trace.getRegion())
+                .cacheHit(trace.isCacheHit())
+                .totalMs(millis(trace.getTotal()))
+                .stagesMs(stages)
+                .providersMs(providers)
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloudcompare.backend.service.metrics;
+
+import java.util.Locale;
+
+/**
+ * Steps of one compare, timed per request by {@link CompareTrace}. The per-provider
+ * pricing that runs inside PRICING is timed separately, per provider.
+ */
+public enum CompareStage {
+    // Request body read and validated (single compares only)
+    PARSE,
+    // Configuration resolved against the template; the lookup itself is an in-memory map get
+    TEMPLATE,
+    // Result cache lookup
+    CACHE,
+    // Provider fan-out, from submitting the first provider to the last result or the deadline
+    PRICING,
+    // Calculation id, write-behind enqueue and rollup counters; the insert itself is asynchronous
+    RECORD,
+    // Response written, from the handler returning until the body is out
+    SERIALIZATION;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cloudcompare.backend.service.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Brackets a single compare with a {@link CompareTrace}: started before the request body
+ * is read, so body parsing is timed, and finished after the response body is written, so
+ * serialization is. The controller picks the trace up from the request attribute.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompareTimingInterceptor implements HandlerInterceptor {
+
+    private final CompareMetrics compareMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(CompareTrace.ATTRIBUTE, compareMetrics.start("compare"));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(CompareTrace.ATTRIBUTE) instanceof CompareTrace trace) {
+            compareMetrics.finish(trace);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.cloudcompare.backend.service.metrics;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stage timings of one compare, filled in as it runs and handed to
+ * {@link CompareMetrics#finish} once the response is out. Stages are written by the
+ * request thread; provider times come from the evaluation threads. Only compares that
+ * produced a result are recorded, so a trace that is never completed costs nothing.
+ */
+public final class CompareTrace {
+
+    // Request attribute holding the trace of a single compare, see CompareTimingInterceptor
+    public static final String ATTRIBUTE = "com.cloudcompare.backend.service.metrics.CompareTrace";
+
+    private static final CompareStage[] STAGES = CompareStage.values();
+    private static final CloudProvider[] PROVIDERS = CloudProvider.values();
+
+    private final String endpoint;
+    private final Instant startedAt = Instant.now();
+    private final long started = System.nanoTime();
+    private final long[] stages = new long[STAGES.length];
+    private final AtomicLongArray providers = new AtomicLongArray(PROVIDERS.length);
+
+    private Long templateId;
+    private String category;
+    private String region;
+    private boolean cacheHit;
+    private Long calculationId;
+    private boolean completed;
+    private long handled;
+    private long total;
+
+    CompareTrace(String endpoint) {
+        this.endpoint = endpoint;
+        Arrays.fill(stages, -1);
+    }
+
+    // Adds the time since the given nanoTime to the stage and returns now, so stages chain
+    public long record(CompareStage stage, long since) {
+        long now = System.nanoTime();
+        stages[stage.ordinal()] = Math.max(0, stages[stage.ordinal()]) + now - since;
+        return now;
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public void recordProvider(CloudProvider provider, long nanos) {
+        providers.set(provider.ordinal(), nanos);
+    }
+
+    // Region is the canonical name, so metric tags stay bounded however requests spell it
+    public void describe(CompiledTemplate template, String region) {
+        this.templateId = template.getId();
+        this.category = template.getCategory() != null ? template.getCategory() : "none";
+        this.region = region;
+    }
+
+    public void cacheHit(boolean hit) {
+        this.cacheHit = hit;
+    }
+
+    public void completed(Long calculationId) {
+        this.calculationId = calculationId;
+        this.completed = true;
+    }
+
+    // The handler is done; whatever follows until finish is serialization
+    public void handled() {
+        this.handled = System.nanoTime();
+    }
+
+    void finish() {
+        long now = System.nanoTime();
+        if (handled > 0) {
+            record(CompareStage.SERIALIZATION, handled);
+        }
+        total = now - started;
+    }
+
+    boolean isCompleted() {
+        return completed;
+    }
+
+    // -1 if the stage did not run
+    long stageNanos(CompareStage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    // 0 if the provider was not priced (failed, timed out or served from the cache)
+    long providerNanos(CloudProvider provider) {
+        return providers.get(provider.ordinal());
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    Instant getStartedAt() {
+        return startedAt;
+    }
+
+    Long getTemplateId() {
+        return templateId;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    String getRegion() {
+        return region;
+    }
+
+    boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    Long getCalculationId() {
+        return calculationId;
+    }
+
+    long getTotal() {
+        return total;
+    }
+}
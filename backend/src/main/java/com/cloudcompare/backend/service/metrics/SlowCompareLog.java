@@ -0,0 +1,66 @@
+package com.cloudcompare.backend.service.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The slowest completed compares of the current and the previous window. Each window
+ * keeps its {@code size} slowest in a min-heap; once the current one is full, anything
+ * faster than its fastest entry is turned away with a volatile read and no lock, which
+ * is almost every request.
+ */
+final class SlowCompareLog {
+
+    private static final Comparator<CompareTrace> BY_TOTAL = Comparator.comparingLong(CompareTrace::getTotal);
+
+    private final int size;
+    private final long windowNanos;
+
+    private PriorityQueue<CompareTrace> current = new PriorityQueue<>(BY_TOTAL);
+    private PriorityQueue<CompareTrace> previous = new PriorityQueue<>(BY_TOTAL);
+    private volatile long windowStart = System.nanoTime();
+    private volatile long threshold;
+
+    SlowCompareLog(int size, long windowNanos) {
+        this.size = size;
+        this.windowNanos = windowNanos;
+    }
+
+    void offer(CompareTrace trace) {
+        if (trace.getTotal() <= threshold && System.nanoTime() - windowStart < windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            rotate(System.nanoTime());
+            current.add(trace);
+            if (current.size() > size) {
+                current.poll();
+            }
+            threshold = current.size() == size ? current.peek().getTotal() : 0;
+        }
+    }
+
+    // Slowest first
+    synchronized List<CompareTrace> slowest() {
+        rotate(System.nanoTime());
+        List<CompareTrace> traces = new ArrayList<>(current.size() + previous.size());
+        traces.addAll(current);
+        traces.addAll(previous);
+        traces.sort(BY_TOTAL.reversed());
+        return traces.subList(0, Math.min(size, traces.size()));
+    }
+
+    private void rotate(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < windowNanos) {
+            return;
+        }
+        // A window with no traffic in between leaves nothing recent to keep
+        previous = elapsed < 2 * windowNanos ? current : new PriorityQueue<>(BY_TOTAL);
+        current = new PriorityQueue<>(BY_TOTAL);
+        windowStart = now - elapsed % windowNanos;
+        threshold = 0;
+    }
+}
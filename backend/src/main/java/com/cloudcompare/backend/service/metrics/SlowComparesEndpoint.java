@@ -0,0 +1,24 @@
+package com.cloudcompare.backend.service.metrics;
+
+import com.cloudcompare.backend.model.dto.SlowCompare;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// /actuator/slowcompares: the slowest compares of the last few minutes, with per-stage
+// and per-provider timings (see cloudcompare.metrics.slow-compares.*)
+@Component
+@Endpoint(id = "slowcompares")
+@RequiredArgsConstructor
+public class SlowComparesEndpoint {
+
+    private final CompareMetrics compareMetrics;
+
+    @ReadOperation
+    public List<SlowCompare> slowCompares() {
+        return compareMetrics.slowest();
+    }
+}
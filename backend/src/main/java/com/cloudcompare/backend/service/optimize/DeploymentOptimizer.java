@@ -0,0 +1,306 @@
+package com.cloudcompare.backend.service.optimize;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.dto.OptimizeRequest;
+import com.cloudcompare.backend.model.dto.OptimizeResponse;
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.rules.ProviderEstimator;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import com.cloudcompare.backend.service.template.TemplateComponent;
+import com.cloudcompare.backend.service.template.TemplateParameter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the cheapest provider/region/instance mix that meets a set of minimums within a
+ * template's bounds. Every parameter not asked for starts at the template's minimum, since
+ * more of anything never costs less; what's left to search is how compute is met: one
+ * instance or several smaller ones of any size the catalog has in the region.
+ *
+ * <p>The search is branch-and-bound over provider x region subtrees, split across a
+ * {@link ForkJoinPool}. A subtree is pruned when the rest of the deployment plus the
+ * cheapest possible compute (lowest price per vCPU/GB/GPU in the region) can't beat the
+ * current k-th best; within a subtree instances are tried cheapest first and the scan
+ * stops once a single instance is already too expensive. At the time limit the best
+ * candidates found so far are returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeploymentOptimizer {
+
+    private static final Comparator<Candidate> BY_TOTAL = Comparator.comparingLong(c -> c.estimate().total());
+
+    private final CalculationService calculationService;
+    private final PriceCatalogService priceCatalogService;
+    private final CostEngine costEngine;
+    private final ForkJoinPool optimizerPool;
+
+    @Value("${cloudcompare.optimizer.time-limit:PT2S}")
+    private Duration timeLimit;
+
+    @Value("${cloudcompare.optimizer.max-instances:64}")
+    private int maxInstances;
+
+    public OptimizeResponse optimize(OptimizeRequest request) {
+        long started = System.nanoTime();
+        CompiledTemplate template = calculationService.findTemplate(request.getTemplateId());
+        Map<String, Object> configurationValues = cheapestWithin(template, request.getMinimums());
+        ResolvedConfiguration configuration = template.resolve(configurationValues);
+        List<CloudProvider> providers = request.getProviders() != null && !request.getProviders().isEmpty()
+                ? request.getProviders()
+                : List.of(CloudProvider.values());
+        List<String> regions = request.getRegions() != null && !request.getRegions().isEmpty()
+                ? request.getRegions()
+                : costEngine.regions();
+
+        List<Subtree> subtrees = new ArrayList<>();
+        for (CloudProvider provider : providers) {
+            for (String region : regions) {
+                subtrees.add(new Subtree(provider, region, costEngine.regionSlot(region)));
+            }
+        }
+
+        PriceCatalog catalog = priceCatalogService.current();
+        int topK = request.getTopK() != null ? request.getTopK() : 5;
+        Search search = new Search(template, configuration, catalog, topK, started + timeLimit.toNanos());
+        optimizerPool.invoke(new SearchTask(search, subtrees, 0, subtrees.size()));
+
+        List<OptimizeResponse.Candidate> candidates = search.best().stream()
+                .map(DeploymentOptimizer::toResponse)
+                .toList();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Optimized template {} over {} provider/region pairs in {} ms: {} evaluated, {} pruned{}",
+                template.getId(), subtrees.size(), elapsedMs, search.evaluated.sum(), search.pruned.sum(),
+                search.timedOut.get() ? " (time limit reached)" : "");
+
+        return OptimizeResponse.builder()
+                .templateId(template.getId())
+                .configuration(configurationValues)
+                .candidates(candidates)
+                .complete(!search.timedOut.get())
+                .evaluated(search.evaluated.sum())
+                .pruned(search.pruned.sum())
+                .catalogVersion(catalog.getVersion())
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    // Requested minimums, else the template's lower bound, else its default; settings pass through
+    private static Map<String, Object> cheapestWithin(CompiledTemplate template, Map<String, Object> minimums) {
+        Map<String, Object> requested = minimums != null ? minimums : Map.of();
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        for (TemplateComponent component : template.getComponents()) {
+            Object section = requested.get(component.name());
+            if (section != null && !(section instanceof Map)) {
+                throw new InvalidConfigurationException(component.name() + " must be an object");
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            if (section != null) {
+                ((Map<?, ?>) section).forEach((key, value) -> values.put(String.valueOf(key), value));
+            }
+            for (TemplateParameter parameter : component.parameters()) {
+                if (!values.containsKey(parameter.name())) {
+                    BigDecimal lowest = parameter.min() != null ? parameter.min() : parameter.defaultValue();
+                    if (lowest != null) {
+                        values.put(parameter.name(), lowest);
+                    }
+                }
+            }
+            configuration.put(component.name(), values);
+        }
+        requested.forEach(configuration::putIfAbsent);
+        return configuration;
+    }
+
+    private static OptimizeResponse.Candidate toResponse(Candidate candidate) {
+        return OptimizeResponse.Candidate.builder()
+                .provider(candidate.provider().name())
+                .region(candidate.region())
+                .instanceType(candidate.instanceType())
+                .instanceCount(candidate.instanceType() != null ? candidate.instanceCount() : null)
+                .cost(PricingResponse.CloudCost.builder()
+                        .totalMonthlyCost(candidate.estimate().totalInCents())
+                        .breakdown(candidate.estimate().breakdown())
+                        .currency("USD")
+                        .build())
+                .build();
+    }
+
+    private record Subtree(CloudProvider provider, String region, int slot) {
+    }
+
+    private record Candidate(CloudProvider provider, String region, String instanceType, int instanceCount,
+                             CostEstimate estimate) {
+    }
+
+    /**
+     * State shared by every task of one search: the inputs, the k best candidates so far
+     * and the counters. The k-th best total is published as a volatile threshold so tasks
+     * can prune without taking the lock.
+     */
+    private final class Search {
+
+        final CompiledTemplate template;
+        final ResolvedConfiguration configuration;
+        final PriceCatalog catalog;
+        final int topK;
+        final long deadline;
+        final PriorityQueue<Candidate> best = new PriorityQueue<>(BY_TOTAL.reversed());
+        final LongAdder evaluated = new LongAdder();
+        final LongAdder pruned = new LongAdder();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        volatile long threshold = Long.MAX_VALUE;
+
+        Search(CompiledTemplate template, ResolvedConfiguration configuration, PriceCatalog catalog, int topK,
+               long deadline) {
+            this.template = template;
+            this.configuration = configuration;
+            this.catalog = catalog;
+            this.topK = topK;
+            this.deadline = deadline;
+        }
+
+        boolean expired() {
+            if (System.nanoTime() - deadline > 0) {
+                timedOut.set(true);
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void offer(Candidate candidate) {
+            if (candidate.estimate().total() >= threshold) {
+                return;
+            }
+            best.offer(candidate);
+            if (best.size() > topK) {
+                best.poll();
+            }
+            if (best.size() == topK) {
+                threshold = best.peek().estimate().total();
+            }
+        }
+
+        synchronized List<Candidate> best() {
+            List<Candidate> sorted = new ArrayList<>(best);
+            sorted.sort(BY_TOTAL);
+            return sorted;
+        }
+
+        void explore(Subtree subtree) {
+            if (expired()) {
+                return;
+            }
+            CostEstimate estimate = costEngine.estimate(subtree.provider(), configuration, subtree.slot(), catalog);
+            evaluated.increment();
+            ProviderEstimator.InstanceLine line = costEngine.estimator(subtree.provider(), template, catalog)
+                    .instanceLine(configuration, subtree.slot());
+            if (line == null) {
+                offer(new Candidate(subtree.provider(), subtree.region(), null, 0, estimate));
+                return;
+            }
+
+            // Bound: everything but compute, plus compute at the region's lowest price per resource
+            InstanceIndex.Partition partition = line.partition();
+            long rest = estimate.total() - estimate.amounts()[line.part()];
+            double floor = partition.floorPerHour(line.vcpus(), line.memoryGb(), line.gpus()) * line.quantity();
+            if (rest + Money.roundToCents((long) Math.floor(floor)) >= threshold) {
+                pruned.add(partition.size());
+                return;
+            }
+
+            for (int rank = 0; rank < partition.size(); rank++) {
+                if ((rank & 63) == 0 && expired()) {
+                    return;
+                }
+                int instance = partition.byPrice(rank);
+                long one = Money.roundToCents(Money.times(partition.pricePerHour(instance), line.quantity()));
+                // Instances come cheapest first, so no later one can beat the threshold either
+                if (rest + one >= threshold) {
+                    pruned.add(partition.size() - rank);
+                    return;
+                }
+                int count = instancesNeeded(partition, instance, line);
+                if (count < 1) {
+                    continue;
+                }
+                long compute = Money.roundToCents(
+                        Money.times(partition.pricePerHour(instance), line.quantity() * count));
+                evaluated.increment();
+                if (rest + compute < threshold) {
+                    offer(new Candidate(subtree.provider(), subtree.region(),
+                            partition.instance(instance).getInstanceType(), count,
+                            estimate.withPart(line.part(), compute)));
+                }
+            }
+        }
+
+        // How many of the instance meet every requirement; 0 if it can't (no GPUs) or it takes too many
+        private int instancesNeeded(InstanceIndex.Partition partition, int instance,
+                                    ProviderEstimator.InstanceLine line) {
+            double count = 1;
+            double[] required = {line.vcpus(), line.memoryGb(), line.gpus()};
+            double[] capacity = {partition.vcpus(instance), partition.memoryGb(instance), partition.gpus(instance)};
+            for (int d = 0; d < required.length; d++) {
+                if (required[d] > 0) {
+                    if (capacity[d] <= 0) {
+                        return 0;
+                    }
+                    count = Math.max(count, Math.ceil(required[d] / capacity[d]));
+                }
+            }
+            return count <= maxInstances ? (int) count : 0;
+        }
+    }
+
+    // Splits the subtrees in halves until each task explores one provider/region pair
+    private static final class SearchTask extends RecursiveAction {
+
+        private final Search search;
+        private final List<Subtree> subtrees;
+        private final int from;
+        private final int to;
+
+        SearchTask(Search search, List<Subtree> subtrees, int from, int to) {
+            this.search = search;
+            this.subtrees = subtrees;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                search.explore(subtrees.get(from));
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SearchTask(search, subtrees, from, middle), new SearchTask(search, subtrees, middle, to));
+            }
+        }
+    }
+}
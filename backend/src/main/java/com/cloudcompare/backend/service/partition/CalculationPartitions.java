@@ -0,0 +1,71 @@
+package com.cloudcompare.backend.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Monthly partitions of calculations. A month past retention is streamed to
+ * {archive-dir}/{partition}.ndjson.gz in the detach transaction, so a failed archive
+ * leaves the partition attached for the next run, and dropped once detached.
+ */
+@Component
+@Slf4j
+public class CalculationPartitions implements MonthlyPartitionPolicy {
+
+    public static final String TABLE = "calculations";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionArchiver partitionArchiver;
+    private final int monthsAhead;
+    private final Period retention;
+    private final Path archiveDir;
+
+    public CalculationPartitions(JdbcTemplate jdbcTemplate, PartitionArchiver partitionArchiver,
+                                 @Value("${cloudcompare.partitions.calculations.months-ahead:3}") int monthsAhead,
+                                 @Value("${cloudcompare.partitions.calculations.retention:P12M}") Period retention,
+                                 @Value("${cloudcompare.partitions.calculations.archive-dir:archive/calculations}") Path archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionArchiver = partitionArchiver;
+        this.monthsAhead = monthsAhead;
+        this.retention = retention;
+        this.archiveDir = archiveDir;
+    }
+
+    @Override
+    public String table() {
+        return TABLE;
+    }
+
+    @Override
+    public int monthsAhead() {
+        return monthsAhead;
+    }
+
+    @Override
+    public Period retention() {
+        return retention;
+    }
+
+    @Override
+    public void beforeDetach(MonthlyPartition partition, LocalDate horizon) {
+        try {
+            partitionArchiver.archive(partition.name(), archiveDir.resolve(partition.name() + ".ndjson.gz"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive " + partition.name(), e);
+        }
+    }
+
+    @Override
+    public void afterDetach(MonthlyPartition partition) {
+        jdbcTemplate.execute("DROP TABLE " + partition.name());
+        log.info("Dropped archived partition {}", partition.name());
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloudcompare.backend.service.partition;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * One month of a partitioned table, covering [from, to).
+ */
+public record MonthlyPartition(String parentTable, String name, YearMonth month) {
+
+    public LocalDate from() {
+        return month.atDay(1);
+    }
+
+    public LocalDate to() {
+        return month.plusMonths(1).atDay(1);
+    }
+}
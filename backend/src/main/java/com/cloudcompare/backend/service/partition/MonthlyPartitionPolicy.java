@@ -0,0 +1,27 @@
+package com.cloudcompare.backend.service.partition;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * A table range-partitioned by calendar month whose partitions are maintained by
+ * {@link PartitionManager}. Partitions are named {table}_yYYYYmMM.
+ */
+public interface MonthlyPartitionPolicy {
+
+    String table();
+
+    // Partitions created ahead of the current month
+    int monthsAhead();
+
+    // Partitions ending before now minus retention are detached
+    Period retention();
+
+    // Runs in the same transaction as the detach
+    default void beforeDetach(MonthlyPartition partition, LocalDate horizon) {
+    }
+
+    // Runs once the partition is a standalone table
+    default void afterDetach(MonthlyPartition partition) {
+    }
+}
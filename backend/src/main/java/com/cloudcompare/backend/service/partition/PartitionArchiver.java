@@ -0,0 +1,103 @@
+package com.cloudcompare.backend.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a table to a gzip-compressed NDJSON file, one object per row. Rows are read
+ * through a server-side cursor, so memory use does not depend on the table size; this
+ * only happens inside a transaction, which callers must provide. The file is written
+ * under a temporary name and moved into place once complete.
+ */
+@Component
+@Slf4j
+public class PartitionArchiver {
+
+    private static final int FETCH_SIZE = 1000;
+    private final JdbcTemplate jdbcTemplate;
+    // Rows end with their own newline, so no separator between root values
+    private final ObjectWriter rowWriter;
+
+    public PartitionArchiver(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowWriter = jsonMapper.writer().withRootValueSeparator((String) null);
+    }
+
+    // Returns the number of rows written
+    public long archive(String table, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        AtomicLong rows = new AtomicLong();
+
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16);
+             GZIPOutputStream gzip = new GZIPOutputStream(file, 1 << 16);
+             JsonGenerator json = rowWriter.createGenerator(gzip)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + table,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (ResultSet rs) -> {
+                writeRow(json, rs);
+                rows.incrementAndGet();
+            });
+        } catch (JacksonException e) {
+            Files.deleteIfExists(partial);
+            throw new IOException("Could not write " + partial, e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} rows of {} to {} ({} bytes)", rows.get(), table, target, Files.size(target));
+        return rows.get();
+    }
+
+    private static void writeRow(JsonGenerator json, ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        json.writeStartObject();
+        for (int column = 1; column <= meta.getColumnCount(); column++) {
+            json.writeName(meta.getColumnLabel(column));
+            Object value = rs.getObject(column);
+            if (value == null) {
+                json.writeNull();
+            } else if ("jsonb".equals(meta.getColumnTypeName(column)) || "json".equals(meta.getColumnTypeName(column))) {
+                json.writeRawValue(rs.getString(column));
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                json.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Boolean bool) {
+                json.writeBoolean(bool);
+            } else if (meta.getColumnType(column) == Types.TIMESTAMP) {
+                json.writeString(((Timestamp) value).toLocalDateTime().toString());
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
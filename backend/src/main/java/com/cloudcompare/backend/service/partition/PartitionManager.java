@@ -0,0 +1,112 @@
+package com.cloudcompare.backend.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps monthly range partitions in place for every {@link MonthlyPartitionPolicy}:
+ * upcoming months are created ahead of time and months past retention are detached.
+ * Runs at startup and then daily.
+ */
+@Component
+@Slf4j
+public class PartitionManager {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<MonthlyPartitionPolicy> policies;
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public PartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            List<MonthlyPartitionPolicy> policies) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.policies = policies;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${cloudcompare.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        for (MonthlyPartitionPolicy policy : policies) {
+            try {
+                maintain(policy);
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance failed for {}", policy.table(), e);
+            }
+        }
+    }
+
+    // Cheap after the first call per month, so writers can call it before every insert
+    public void ensurePartition(String table, LocalDate date) {
+        ensurePartition(table, YearMonth.from(date));
+    }
+
+    private void maintain(MonthlyPartitionPolicy policy) {
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= policy.monthsAhead(); i++) {
+            ensurePartition(policy.table(), now.plusMonths(i));
+        }
+
+        YearMonth horizon = YearMonth.from(LocalDate.now().minus(policy.retention()));
+        ensurePartition(policy.table(), horizon);
+        for (MonthlyPartition partition : attachedPartitions(policy.table())) {
+            if (partition.month().isBefore(horizon)) {
+                detach(policy, partition, horizon.atDay(1));
+            }
+        }
+    }
+
+    private void ensurePartition(String table, YearMonth month) {
+        String name = table + month.format(SUFFIX);
+        if (knownPartitions.contains(name)) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        knownPartitions.add(name);
+    }
+
+    private List<MonthlyPartition> attachedPartitions(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(?)", String.class, table);
+
+        List<MonthlyPartition> partitions = new ArrayList<>();
+        for (String name : names) {
+            try {
+                partitions.add(new MonthlyPartition(table, name,
+                        YearMonth.parse(name.substring(table.length()), SUFFIX)));
+            } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+                log.debug("Ignoring partition {} of {}: not a monthly partition", name, table);
+            }
+        }
+        return partitions;
+    }
+
+    private void detach(MonthlyPartitionPolicy policy, MonthlyPartition partition, LocalDate horizon) {
+        transactionTemplate.executeWithoutResult(status -> {
+            policy.beforeDetach(partition, horizon);
+            jdbcTemplate.execute("ALTER TABLE " + partition.parentTable() + " DETACH PARTITION " + partition.name());
+        });
+        knownPartitions.remove(partition.name());
+        log.info("Detached partition {} from {} (retention {})", partition.name(), partition.parentTable(),
+                policy.retention());
+        policy.afterDetach(partition);
+    }
+}
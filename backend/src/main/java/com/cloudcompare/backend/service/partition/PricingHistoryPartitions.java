@@ -0,0 +1,61 @@
+package com.cloudcompare.backend.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Monthly partitions of pricing_snapshots. Prices still in force at the retention horizon
+ * are carried into the first retained month before an old partition is detached, so the
+ * current price of a key that has not changed for years is never lost.
+ */
+@Component
+@Slf4j
+public class PricingHistoryPartitions implements MonthlyPartitionPolicy {
+
+    public static final String TABLE = "pricing_snapshots";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final Period retention;
+
+    public PricingHistoryPartitions(JdbcTemplate jdbcTemplate,
+                                    @Value("${cloudcompare.partitions.pricing-snapshots.months-ahead:3}") int monthsAhead,
+                                    @Value("${cloudcompare.partitions.pricing-snapshots.retention:P3Y}") Period retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retention = retention;
+    }
+
+    @Override
+    public String table() {
+        return TABLE;
+    }
+
+    @Override
+    public int monthsAhead() {
+        return monthsAhead;
+    }
+
+    @Override
+    public Period retention() {
+        return retention;
+    }
+
+    @Override
+    public void beforeDetach(MonthlyPartition partition, LocalDate horizon) {
+        // Moves the rows across partitions; the latest_pricing trigger follows the move
+        int carried = jdbcTemplate.update(
+                "UPDATE pricing_snapshots SET effective_from = ? " +
+                        "WHERE effective_from >= ? AND effective_from < ? " +
+                        "AND (effective_to IS NULL OR effective_to > ?)",
+                horizon, partition.from(), partition.to(), horizon);
+        if (carried > 0) {
+            log.info("Carried {} prices in force from {} to {}", carried, partition.name(), horizon);
+        }
+    }
+}
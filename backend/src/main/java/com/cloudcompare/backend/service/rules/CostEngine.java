@@ -0,0 +1,200 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices a resolved configuration for one provider using the declarative rules in
+ * pricing/rules.json. Rules are compiled into a {@link ProviderEstimator} per template
+ * and catalog version the first time they are needed and reused until either changes;
+ * pricing.rules.cache.requests counts how often they are reused (hit) or compiled (miss).
+ */
+@Service
+@Slf4j
+public class CostEngine {
+
+    private final PricingRules rules;
+    private final InstanceIndexService instanceIndexService;
+    private final List<String> regions;
+    private final Map<String, Integer> regionSlots = new HashMap<>();
+    private final Map<CloudProvider, List<String>> providerRegions = new EnumMap<>(CloudProvider.class);
+    private final Map<Long, Versions> compiled = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CostEngine(@Value("${cloudcompare.pricing.rules:classpath:pricing/rules.json}") Resource rulesResource,
+                      InstanceIndexService instanceIndexService, MeterRegistry meterRegistry,
+                      JsonMapper jsonMapper) throws IOException {
+        this.instanceIndexService = instanceIndexService;
+        this.hits = Counter.builder("pricing.rules.cache.requests")
+                .description("Lookups of compiled pricing rules per template and catalog version")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("pricing.rules.cache.requests")
+                .description("Lookups of compiled pricing rules per template and catalog version")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        try (InputStream input = rulesResource.getInputStream()) {
+            this.rules = PricingRules.load(input, jsonMapper);
+        }
+        this.regions = List.copyOf(rules.regions().keySet());
+        for (CloudProvider provider : CloudProvider.values()) {
+            List<String> names = new ArrayList<>(regions.size());
+            regions.forEach(region -> names.add(rules.regions().get(region).get(provider)));
+            providerRegions.put(provider, List.copyOf(names));
+        }
+        // Requests may name a region the way any provider does; the canonical name wins a clash
+        for (int slot = 0; slot < regions.size(); slot++) {
+            regionSlots.put(regions.get(slot), slot);
+        }
+        for (int slot = 0; slot < regions.size(); slot++) {
+            for (String name : rules.regions().get(regions.get(slot)).values()) {
+                regionSlots.putIfAbsent(name, slot);
+            }
+        }
+        log.info("Loaded pricing rules for {} regions from {}", regions.size(), rulesResource.getDescription());
+    }
+
+    // Regions a compare can be priced in, by their canonical names
+    public List<String> regions() {
+        return regions;
+    }
+
+    public int regionSlot(String region) {
+        Integer slot = region != null ? regionSlots.get(region) : null;
+        if (slot == null) {
+            throw new InvalidConfigurationException("Unsupported region: " + region);
+        }
+        return slot;
+    }
+
+    public CostEstimate estimate(CloudProvider provider, ResolvedConfiguration configuration, int region,
+                                 PriceCatalog catalog) {
+        ProviderEstimator estimator = estimator(provider, configuration.getTemplate(), catalog);
+        long[] amounts = new long[estimator.getParts().size()];
+        try {
+            estimator.evaluate(configuration, region, amounts);
+            return CostEstimate.of(estimator.getParts(), amounts);
+        } catch (ArithmeticException e) {
+            throw tooLarge(provider, e);
+        }
+    }
+
+    /**
+     * Prices a series of configurations that differ from {@code base} only in one
+     * component, e.g. the points of a parameter sweep. The other components are priced
+     * once from the base; per point only the lines of the changed component run.
+     */
+    public CostEstimate[] estimate(CloudProvider provider, ResolvedConfiguration base, int component,
+                                   List<ResolvedConfiguration> points, int region, PriceCatalog catalog) {
+        ProviderEstimator estimator = estimator(provider, base.getTemplate(), catalog);
+        int parts = estimator.getParts().size();
+        long[] rest = new long[parts];
+        long[] changed = new long[parts];
+        CostEstimate[] estimates = new CostEstimate[points.size()];
+        try {
+            estimator.evaluate(base, region, rest);
+            estimator.evaluate(base, region, changed, component);
+            for (int i = 0; i < parts; i++) {
+                rest[i] -= changed[i];
+            }
+
+            for (int point = 0; point < estimates.length; point++) {
+                long[] amounts = rest.clone();
+                estimator.evaluate(points.get(point), region, amounts, component);
+                estimates[point] = CostEstimate.of(estimator.getParts(), amounts);
+            }
+        } catch (ArithmeticException e) {
+            throw tooLarge(provider, e);
+        }
+        return estimates;
+    }
+
+    // A cost past what a long of micro-cents holds comes from the configuration, not the catalog
+    private static InvalidConfigurationException tooLarge(CloudProvider provider, ArithmeticException e) {
+        log.debug("{} cost overflowed", provider, e);
+        return new InvalidConfigurationException("Configuration is too large to price");
+    }
+
+    public ProviderEstimator estimator(CloudProvider provider, CompiledTemplate template, PriceCatalog catalog) {
+        Versions versions = compiled.get(template.getId());
+        Compiled current = versions != null ? versions.find(template, catalog.getVersion()) : null;
+        if (current == null) {
+            misses.increment();
+            Compiled fresh = compile(template, catalog);
+            compiled.merge(template.getId(), new Versions(fresh, null), (old, added) -> old.with(fresh));
+            current = fresh;
+        } else {
+            hits.increment();
+        }
+        return current.estimators()[provider.ordinal()];
+    }
+
+    private Compiled compile(CompiledTemplate template, PriceCatalog catalog) {
+        CloudProvider[] providers = CloudProvider.values();
+        InstanceIndex instances = instanceIndexService.forCatalog(catalog);
+        ProviderEstimator[] estimators = new ProviderEstimator[providers.length];
+        for (CloudProvider provider : providers) {
+            estimators[provider.ordinal()] = ProviderEstimator.compile(rules.providers().getOrDefault(provider, List.of()),
+                    provider, providerRegions.get(provider), template, catalog, instances);
+        }
+        log.debug("Compiled pricing rules for template {} against catalog version {}",
+                template.getId(), catalog.getVersion());
+        return new Compiled(template, catalog.getVersion(), estimators);
+    }
+
+    private record Compiled(CompiledTemplate template, long catalogVersion, ProviderEstimator[] estimators) {
+    }
+
+    /**
+     * The newest catalog version a template was compiled against and the one before it,
+     * so a batch still pinned to the previous catalog and live compares on the new one
+     * don't keep evicting each other's compiled rules.
+     */
+    private record Versions(Compiled newest, Compiled previous) {
+
+        Compiled find(CompiledTemplate template, long catalogVersion) {
+            if (newest.template() == template && newest.catalogVersion() == catalogVersion) {
+                return newest;
+            }
+            if (previous != null && previous.template() == template && previous.catalogVersion() == catalogVersion) {
+                return previous;
+            }
+            return null;
+        }
+
+        Versions with(Compiled compiled) {
+            // A reloaded template makes whatever was compiled from the old one stale
+            if (compiled.template() != newest.template()) {
+                return new Versions(compiled, null);
+            }
+            if (compiled.catalogVersion() == newest.catalogVersion()) {
+                return new Versions(compiled, previous);
+            }
+            return compiled.catalogVersion() > newest.catalogVersion()
+                    ? new Versions(compiled, newest)
+                    : new Versions(newest, compiled);
+        }
+    }
+}
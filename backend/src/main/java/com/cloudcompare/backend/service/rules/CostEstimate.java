@@ -0,0 +1,52 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One provider's monthly cost for a compare, in {@link Money} micro-cents. Each part is
+ * rounded to cents and the total is their sum, so the breakdown always adds up to the
+ * total the response shows. {@link #totalInCents()} and {@link #breakdown()} convert to
+ * BigDecimal for persistence and JSON.
+ *
+ * @param parts   breakdown names, shared with the estimator that produced this
+ * @param amounts cost per part, indexed like parts; not modified after construction
+ */
+public record CostEstimate(long total, List<String> parts, long[] amounts) {
+
+    static CostEstimate of(List<String> parts, long[] amounts) {
+        long total = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = Money.roundToCents(amounts[i]);
+            total = Math.addExact(total, amounts[i]);
+        }
+        return new CostEstimate(total, parts, amounts);
+    }
+
+    // The same estimate with one part replaced, re-rounded and re-totalled
+    public CostEstimate withPart(int part, long amount) {
+        long[] replaced = amounts.clone();
+        replaced[part] = amount;
+        return of(parts, replaced);
+    }
+
+    public BigDecimal totalInCents() {
+        return Money.toCents(total);
+    }
+
+    // Parts that cost nothing (e.g. a disabled API gateway) are left out
+    public Map<String, BigDecimal> breakdown() {
+        Map<String, BigDecimal> breakdown = new LinkedHashMap<>();
+        for (int i = 0; i < amounts.length; i++) {
+            if (amounts[i] != 0) {
+                breakdown.put(parts.get(i), Money.toCents(amounts[i]));
+            }
+        }
+        return Collections.unmodifiableMap(breakdown);
+    }
+}
@@ -0,0 +1,90 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative pricing rules as read from pricing/rules.json: the regions a compare can
+ * ask for, with each provider's name for them, and per provider the priced lines that
+ * make up a template component. {@link ProviderEstimator} compiles these against a
+ * template and a catalog; nothing here is looked at while a compare runs.
+ */
+public record PricingRules(Map<String, Map<CloudProvider, String>> regions,
+                           Map<CloudProvider, List<Line>> providers) {
+
+    // Strict whatever the application mapper allows: a misspelt key in the rules is an error, not a default
+    public static PricingRules load(InputStream input, JsonMapper jsonMapper) {
+        PricingRules rules = jsonMapper.readerFor(PricingRules.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(input);
+        rules.validate();
+        return rules;
+    }
+
+    private void validate() {
+        if (regions == null || regions.isEmpty() || providers == null) {
+            throw new IllegalStateException("Pricing rules need regions and providers");
+        }
+        regions.forEach((region, names) -> {
+            for (CloudProvider provider : CloudProvider.values()) {
+                if (names.get(provider) == null) {
+                    throw new IllegalStateException("Region " + region + " has no " + provider + " name");
+                }
+            }
+        });
+        providers.forEach((provider, lines) -> lines.forEach(line -> {
+            if (line.component() == null || line.service() == null || line.rate() == null) {
+                throw new IllegalStateException(provider + ": every line needs component, service and rate");
+            }
+            boolean single = line.sku() != null && line.reference() != null;
+            boolean sized = line.sizes() != null && !line.sizes().isEmpty();
+            if (single == sized) {
+                throw new IllegalStateException(provider + " " + line.component()
+                        + ": a line has either sku and reference or sizes");
+            }
+            if (Boolean.TRUE.equals(line.match()) && line.rate() != Rate.HOURLY) {
+                throw new IllegalStateException(provider + " " + line.component() + ": only hourly lines can match");
+            }
+        }));
+    }
+
+    /**
+     * How the catalog quotes a line: per hour (times {@link Line#hours}, 730 by default),
+     * per month, or per unit from pricingData.unitPrice.
+     */
+    public enum Rate {
+        HOURLY, MONTHLY, UNIT
+    }
+
+    /**
+     * One priced item of a component, e.g. the instance behind compute or the storage of
+     * database. The price is the catalog's for service/sku in the provider's region, or
+     * the reference list price when the catalog doesn't carry it. The monthly cost is
+     * price x hours x scale x the product of the quantity parameters.
+     *
+     * <p>A component the template doesn't declare is looked up as a feature instead
+     * (loadBalancer, cdn), and the line applies when that feature is on.
+     *
+     * <p>With match set, an hourly line is priced as the catalog's cheapest instance of the
+     * service that has at least the template's vcpus, memoryGb and gpus (see
+     * {@link com.cloudcompare.backend.service.catalog.InstanceIndex}); the sizes are the
+     * fallback where the catalog has no sized instances or none is large enough.
+     */
+    public record Line(String component, String description, Condition when, String service, Rate rate,
+                       Double hours, String sku, Double reference, List<Size> sizes, List<String> quantity,
+                       Double scale, Boolean match) {
+    }
+
+    // The first size whose capacity covers every capacity parameter the template declares is used
+    public record Size(String sku, Map<String, Double> capacity, double reference) {
+    }
+
+    // Applies the line only when a component setting equals (or doesn't equal) a value
+    public record Condition(String setting, String equals, String notEquals) {
+    }
+}
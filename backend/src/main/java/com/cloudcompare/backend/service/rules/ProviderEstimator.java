@@ -0,0 +1,362 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import com.cloudcompare.backend.service.template.TemplateComponent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One provider's pricing rules compiled against one template and one catalog version.
+ * Rule names are resolved to component/parameter/setting indexes and prices to a
+ * per-region array of {@link Money} amounts up front, so {@link #evaluate} is a loop over
+ * flat arrays with no map lookups, reflection or allocation.
+ */
+public final class ProviderEstimator {
+
+    private final CloudProvider provider;
+    private final List<String> parts;
+    private final LineEvaluator[] lines;
+
+    private ProviderEstimator(CloudProvider provider, List<String> parts, LineEvaluator[] lines) {
+        this.provider = provider;
+        this.parts = List.copyOf(parts);
+        this.lines = lines;
+    }
+
+    /**
+     * @param regions the provider's region name per region slot, see {@link CostEngine#regionSlot}
+     */
+    static ProviderEstimator compile(List<PricingRules.Line> rules, CloudProvider provider, List<String> regions,
+                                     CompiledTemplate template, PriceCatalog catalog, InstanceIndex instances) {
+        List<String> parts = new ArrayList<>();
+        List<LineEvaluator> lines = new ArrayList<>();
+        for (PricingRules.Line line : rules) {
+            LineEvaluator evaluator = compileLine(line, provider, regions, template, catalog, instances, parts);
+            if (evaluator != null) {
+                lines.add(evaluator);
+            }
+        }
+        return new ProviderEstimator(provider, parts, lines.toArray(LineEvaluator[]::new));
+    }
+
+    // Null when the line can never apply to this template
+    private static LineEvaluator compileLine(PricingRules.Line line, CloudProvider provider, List<String> regions,
+                                             CompiledTemplate template, PriceCatalog catalog, InstanceIndex instances,
+                                             List<String> parts) {
+        int component = template.componentIndex(line.component());
+        int feature = -1;
+        int conditionSetting = -1;
+        String conditionValue = null;
+        boolean conditionEquals = false;
+        int[] quantity = new int[0];
+        int[] capacityParameters = new int[0];
+        List<String> dimensions = new ArrayList<>();
+        InstanceIndex.Partition[] matches = null;
+        int[] matchParameters = new int[0];
+        List<PricingRules.Size> sizes = line.sizes() != null
+                ? line.sizes()
+                : List.of(new PricingRules.Size(line.sku(), Map.of(), line.reference()));
+
+        if (component < 0) {
+            feature = template.featureIndex(line.component());
+            if (feature < 0 || line.quantity() != null || line.when() != null) {
+                return null;
+            }
+        } else {
+            TemplateComponent declared = template.getComponents().get(component);
+            PricingRules.Condition when = line.when();
+            if (when != null) {
+                conditionSetting = declared.settingIndex(when.setting());
+                conditionEquals = when.equals() != null;
+                conditionValue = conditionEquals ? when.equals() : when.notEquals();
+                // An undeclared setting never equals anything
+                if (conditionSetting < 0 && conditionEquals) {
+                    return null;
+                }
+            }
+
+            List<String> quantityNames = line.quantity() != null ? line.quantity() : List.of();
+            quantity = new int[quantityNames.size()];
+            for (int i = 0; i < quantity.length; i++) {
+                quantity[i] = declared.parameterIndex(quantityNames.get(i));
+                if (quantity[i] < 0) {
+                    return null;
+                }
+            }
+
+            // Only the capacity dimensions the template has a parameter for take part in sizing
+            List<Integer> indexes = new ArrayList<>();
+            for (PricingRules.Size size : sizes) {
+                for (String dimension : size.capacity().keySet()) {
+                    int index = declared.parameterIndex(dimension);
+                    if (index >= 0 && !dimensions.contains(dimension)) {
+                        dimensions.add(dimension);
+                        indexes.add(index);
+                    }
+                }
+            }
+            capacityParameters = indexes.stream().mapToInt(Integer::intValue).toArray();
+
+            if (Boolean.TRUE.equals(line.match())) {
+                matches = matches(instances, provider, line.service(), regions);
+                matchParameters = new int[]{declared.parameterIndex("vcpus"), declared.parameterIndex("memoryGb"),
+                        declared.parameterIndex("gpus")};
+            }
+        }
+
+        return new LineEvaluator(part(parts, line.component()), component, feature, conditionSetting,
+                conditionValue, conditionEquals, quantity, multiplier(line), capacityParameters,
+                capacities(sizes, dimensions), prices(line, sizes, provider, regions, catalog), matches,
+                matchParameters);
+    }
+
+    // Null when the catalog has no sized instances of the service in any region
+    private static InstanceIndex.Partition[] matches(InstanceIndex instances, CloudProvider provider, String service,
+                                                     List<String> regions) {
+        InstanceIndex.Partition[] matches = new InstanceIndex.Partition[regions.size()];
+        boolean any = false;
+        for (int r = 0; r < regions.size(); r++) {
+            matches[r] = instances.partition(provider.name(), service, regions.get(r));
+            any |= matches[r] != null;
+        }
+        return any ? matches : null;
+    }
+
+    private static int part(List<String> parts, String name) {
+        int index = parts.indexOf(name);
+        if (index < 0) {
+            parts.add(name);
+            index = parts.size() - 1;
+        }
+        return index;
+    }
+
+    private static double multiplier(PricingRules.Line line) {
+        double hours = line.rate() == PricingRules.Rate.HOURLY
+                ? (line.hours() != null ? line.hours() : Money.HOURS_PER_MONTH)
+                : 1;
+        return hours * (line.scale() != null ? line.scale() : 1);
+    }
+
+    private static double[][] capacities(List<PricingRules.Size> sizes, List<String> dimensions) {
+        double[][] capacities = new double[sizes.size()][dimensions.size()];
+        for (int s = 0; s < sizes.size(); s++) {
+            for (int d = 0; d < dimensions.size(); d++) {
+                Double capacity = sizes.get(s).capacity().get(dimensions.get(d));
+                capacities[s][d] = capacity != null ? capacity : Double.POSITIVE_INFINITY;
+            }
+        }
+        return capacities;
+    }
+
+    private static long[][] prices(PricingRules.Line line, List<PricingRules.Size> sizes, CloudProvider provider,
+                                   List<String> regions, PriceCatalog catalog) {
+        long[][] prices = new long[sizes.size()][regions.size()];
+        for (int s = 0; s < sizes.size(); s++) {
+            PricingRules.Size size = sizes.get(s);
+            for (int r = 0; r < regions.size(); r++) {
+                BigDecimal price = catalog.find(provider.name(), line.service(), regions.get(r), size.sku())
+                        .map(snapshot -> catalogPrice(line.rate(), snapshot))
+                        .orElse(null);
+                prices[s][r] = price != null ? Money.of(price) : Money.of(size.reference());
+            }
+        }
+        return prices;
+    }
+
+    private static BigDecimal catalogPrice(PricingRules.Rate rate, PricingSnapshot snapshot) {
+        return switch (rate) {
+            case HOURLY -> snapshot.getPricePerHour();
+            case MONTHLY -> snapshot.getPricePerMonth();
+            case UNIT -> {
+                Object unitPrice = snapshot.getPricingData() != null ? snapshot.getPricingData().get("unitPrice") : null;
+                yield unitPrice != null ? new BigDecimal(unitPrice.toString()) : null;
+            }
+        };
+    }
+
+    public CloudProvider getProvider() {
+        return provider;
+    }
+
+    // Breakdown names (template components) in the order evaluate() fills them
+    public List<String> getParts() {
+        return parts;
+    }
+
+    /**
+     * Adds the monthly cost of every applicable line to {@code amounts} in {@link Money}
+     * micro-cents, indexed like {@link #getParts()}. The caller clears the array between
+     * evaluations.
+     */
+    public void evaluate(ResolvedConfiguration configuration, int region, long[] amounts) {
+        for (LineEvaluator line : lines) {
+            if (line.applies(configuration)) {
+                amounts[line.part] = Math.addExact(amounts[line.part], line.cost(configuration, region));
+            }
+        }
+    }
+
+    // Like evaluate, but only the lines of one template component
+    public void evaluate(ResolvedConfiguration configuration, int region, long[] amounts, int component) {
+        for (LineEvaluator line : lines) {
+            if (line.component == component && line.applies(configuration)) {
+                amounts[line.part] = Math.addExact(amounts[line.part], line.cost(configuration, region));
+            }
+        }
+    }
+
+    /**
+     * The instance-matched line this configuration would be priced by in a region, so a
+     * caller can weigh other instances of the same partition (e.g. several smaller ones)
+     * against the single cheapest one; null if no such line applies.
+     */
+    public InstanceLine instanceLine(ResolvedConfiguration configuration, int region) {
+        for (LineEvaluator line : lines) {
+            if (line.matches != null && line.matches[region] != null && line.applies(configuration)) {
+                return new InstanceLine(line.matches[region], line.part, line.requirement(configuration, 0),
+                        line.requirement(configuration, 1), line.requirement(configuration, 2),
+                        line.quantity(configuration));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param part     breakdown index the line adds to
+     * @param quantity hours x scale x quantity parameters; an instance costs its hourly price times this
+     */
+    public record InstanceLine(InstanceIndex.Partition partition, int part, double vcpus, double memoryGb,
+                               double gpus, double quantity) {
+    }
+
+    private static final class LineEvaluator {
+
+        final int part;
+        final int component;
+        final int feature;
+        final int conditionSetting;
+        final String conditionValue;
+        final boolean conditionEquals;
+        final int[] quantity;
+        final double multiplier;
+        final int[] capacityParameters;
+        final double[][] capacities; // [size][capacity parameter]
+        final long[][] prices;       // [size][region slot], micro-cents
+        final InstanceIndex.Partition[] matches; // [region slot], null entries fall back to the sizes
+        final int[] matchParameters;  // vcpus, memoryGb, gpus; -1 when the template has no such parameter
+
+        LineEvaluator(int part, int component, int feature, int conditionSetting, String conditionValue,
+                      boolean conditionEquals, int[] quantity, double multiplier, int[] capacityParameters,
+                      double[][] capacities, long[][] prices, InstanceIndex.Partition[] matches,
+                      int[] matchParameters) {
+            this.part = part;
+            this.component = component;
+            this.feature = feature;
+            this.conditionSetting = conditionSetting;
+            this.conditionValue = conditionValue;
+            this.conditionEquals = conditionEquals;
+            this.quantity = quantity;
+            this.multiplier = multiplier;
+            this.capacityParameters = capacityParameters;
+            this.capacities = capacities;
+            this.prices = prices;
+            this.matches = matches;
+            this.matchParameters = matchParameters;
+        }
+
+        boolean applies(ResolvedConfiguration configuration) {
+            if (component < 0) {
+                Object enabled = configuration.feature(feature);
+                return Boolean.TRUE.equals(enabled) || "true".equals(enabled);
+            }
+            if (conditionValue == null) {
+                return true;
+            }
+            Object value = conditionSetting >= 0 ? configuration.setting(component, conditionSetting) : null;
+            boolean equal = value != null && conditionValue.equals(value.toString());
+            return equal == conditionEquals;
+        }
+
+        // Zero when a quantity parameter has no value
+        double quantity(ResolvedConfiguration configuration) {
+            double amount = multiplier;
+            for (int parameter : quantity) {
+                double value = configuration.number(component, parameter);
+                if (Double.isNaN(value)) {
+                    return 0;
+                }
+                amount *= value;
+            }
+            return amount;
+        }
+
+        long cost(ResolvedConfiguration configuration, int region) {
+            double amount = quantity(configuration);
+            if (amount == 0) {
+                return 0;
+            }
+
+            if (matches != null && matches[region] != null) {
+                InstanceIndex.Partition partition = matches[region];
+                int instance = partition.cheapest(requirement(configuration, 0), requirement(configuration, 1),
+                        requirement(configuration, 2));
+                if (instance >= 0) {
+                    return Money.times(partition.pricePerHour(instance), amount);
+                }
+            }
+
+            // Smallest size that fits; past the largest, enough of the largest to cover the request
+            int size = 0;
+            double count = 1;
+            if (capacityParameters.length > 0) {
+                size = -1;
+                for (int s = 0; s < capacities.length && size < 0; s++) {
+                    if (fits(configuration, capacities[s])) {
+                        size = s;
+                    }
+                }
+                if (size < 0) {
+                    size = capacities.length - 1;
+                    count = instancesNeeded(configuration, capacities[size]);
+                }
+            }
+            return Money.times(prices[size][region], amount * count);
+        }
+
+        private double requirement(ResolvedConfiguration configuration, int dimension) {
+            int parameter = matchParameters[dimension];
+            return parameter >= 0 ? configuration.number(component, parameter) : Double.NaN;
+        }
+
+        private boolean fits(ResolvedConfiguration configuration, double[] capacity) {
+            for (int d = 0; d < capacityParameters.length; d++) {
+                // NaN (no value) compares false and so fits any size
+                if (configuration.number(component, capacityParameters[d]) > capacity[d]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private double instancesNeeded(ResolvedConfiguration configuration, double[] capacity) {
+            double count = 1;
+            for (int d = 0; d < capacityParameters.length; d++) {
+                double value = configuration.number(component, capacityParameters[d]);
+                if (value > capacity[d]) {
+                    count = Math.max(count, Math.ceil(value / capacity[d]));
+                }
+            }
+            return count;
+        }
+    }
+}
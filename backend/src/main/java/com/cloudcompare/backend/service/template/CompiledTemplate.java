@@ -0,0 +1,250 @@
+package com.cloudcompare.backend.service.template;
+
+import com.cloudcompare.backend.model.entity.Template;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, typed form of a {@link Template}, compiled once from its templateConfig.
+ * Each section becomes a {@link TemplateComponent}: defaultX/minX/maxX keys make up the
+ * numeric parameter x, other numbers are parameters with just a default, and strings or
+ * booleans are settings. Top-level scalars (loadBalancer, cdn) are features.
+ */
+public final class CompiledTemplate {
+
+    private final long id;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final boolean active;
+    private final Map<String, Object> templateConfig;
+    private final List<TemplateComponent> components;
+    private final List<TemplateSetting> features;
+
+    private CompiledTemplate(Template template, List<TemplateComponent> components, List<TemplateSetting> features) {
+        this.id = template.getId();
+        this.name = template.getName();
+        this.description = template.getDescription();
+        this.category = template.getCategory();
+        this.active = Boolean.TRUE.equals(template.getIsActive());
+        this.templateConfig = template.getTemplateConfig() != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(template.getTemplateConfig()))
+                : Map.of();
+        this.components = List.copyOf(components);
+        this.features = List.copyOf(features);
+    }
+
+    public static CompiledTemplate compile(Template template) {
+        List<TemplateComponent> components = new ArrayList<>();
+        List<TemplateSetting> features = new ArrayList<>();
+        Map<String, Object> config = template.getTemplateConfig() != null ? template.getTemplateConfig() : Map.of();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(config).entrySet()) {
+            if (entry.getValue() instanceof Map<?, ?> section) {
+                components.add(compileComponent(template, entry.getKey(), section));
+            } else {
+                features.add(new TemplateSetting(entry.getKey(), entry.getValue()));
+            }
+        }
+        return new CompiledTemplate(template, components, features);
+    }
+
+    private static TemplateComponent compileComponent(Template template, String componentName, Map<?, ?> section) {
+        Map<String, BigDecimal[]> parameters = new TreeMap<>(); // name -> default, min, max
+        Map<String, Object> settings = new TreeMap<>();
+        section.forEach((rawKey, value) -> {
+            String key = String.valueOf(rawKey);
+            if (!(value instanceof Number number)) {
+                settings.put(key, value);
+                return;
+            }
+            int slot = 0;
+            String parameter = key;
+            if (isPrefixed(key, "default")) {
+                parameter = decapitalize(key.substring("default".length()));
+            } else if (isPrefixed(key, "min")) {
+                parameter = decapitalize(key.substring("min".length()));
+                slot = 1;
+            } else if (isPrefixed(key, "max")) {
+                parameter = decapitalize(key.substring("max".length()));
+                slot = 2;
+            }
+            parameters.computeIfAbsent(parameter, p -> new BigDecimal[3])[slot] = decimal(number);
+        });
+
+        List<TemplateParameter> compiled = new ArrayList<>(parameters.size());
+        parameters.forEach((parameter, values) -> {
+            TemplateParameter compiledParameter = new TemplateParameter(parameter, values[0], values[1], values[2]);
+            if (values[0] != null && !compiledParameter.accepts(values[0])) {
+                throw new IllegalStateException("Template " + template.getId() + ": default " + componentName + "."
+                        + parameter + " is not " + compiledParameter.bounds());
+            }
+            compiled.add(compiledParameter);
+        });
+        List<TemplateSetting> compiledSettings = new ArrayList<>(settings.size());
+        settings.forEach((setting, value) -> compiledSettings.add(new TemplateSetting(setting, value)));
+        return new TemplateComponent(componentName, compiled, compiledSettings);
+    }
+
+    /**
+     * Validates a compare configuration against this template and fills in its defaults.
+     * Sections and keys the template doesn't declare don't affect pricing and are ignored.
+     */
+    public ResolvedConfiguration resolve(Map<String, Object> configuration) {
+        Map<String, Object> given = configuration != null ? configuration : Map.of();
+        BigDecimal[][] values = new BigDecimal[components.size()][];
+        Object[][] settings = new Object[components.size()][];
+        for (int c = 0; c < components.size(); c++) {
+            TemplateComponent component = components.get(c);
+            Object section = given.get(component.name());
+            if (section != null && !(section instanceof Map)) {
+                throw new InvalidConfigurationException(component.name() + " must be an object");
+            }
+            Map<?, ?> sectionValues = section != null ? (Map<?, ?>) section : Map.of();
+
+            List<TemplateParameter> parameters = component.parameters();
+            values[c] = new BigDecimal[parameters.size()];
+            for (int p = 0; p < parameters.size(); p++) {
+                TemplateParameter parameter = parameters.get(p);
+                Object value = sectionValues.get(parameter.name());
+                values[c][p] = value == null ? parameter.defaultValue() : checked(component, parameter, value);
+            }
+
+            List<TemplateSetting> componentSettings = component.settings();
+            settings[c] = new Object[componentSettings.size()];
+            for (int s = 0; s < componentSettings.size(); s++) {
+                TemplateSetting setting = componentSettings.get(s);
+                settings[c][s] = settingValue(component.name() + "." + setting.name(),
+                        sectionValues.get(setting.name()), setting.defaultValue());
+            }
+        }
+
+        Object[] featureValues = new Object[features.size()];
+        for (int f = 0; f < features.size(); f++) {
+            TemplateSetting feature = features.get(f);
+            featureValues[f] = settingValue(feature.name(), given.get(feature.name()), feature.defaultValue());
+        }
+        return new ResolvedConfiguration(this, values, settings, featureValues);
+    }
+
+    static BigDecimal checked(TemplateComponent component, TemplateParameter parameter, Object value) {
+        BigDecimal number;
+        try {
+            if (value instanceof Number n) {
+                number = decimal(n);
+            } else if (value instanceof String text) {
+                number = new BigDecimal(text.trim()).stripTrailingZeros();
+            } else {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException(component.name() + "." + parameter.name() + " must be a number");
+        }
+        if (!parameter.accepts(number)) {
+            throw new InvalidConfigurationException(component.name() + "." + parameter.name() + " must be "
+                    + parameter.bounds());
+        }
+        return number;
+    }
+
+    private static Object settingValue(String path, Object value, Object defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Map || value instanceof Iterable) {
+            throw new InvalidConfigurationException(path + " must be a single value");
+        }
+        // Coerced to the declared type, so true and "true" resolve, and key, the same
+        if (defaultValue instanceof Boolean) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+            String text = String.valueOf(value).trim();
+            if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+                return Boolean.valueOf(text);
+            }
+            throw new InvalidConfigurationException(path + " must be true or false");
+        }
+        return String.valueOf(value);
+    }
+
+    // Plain decimal without trailing zeros, so 2, 2.0 and 2.00 compare and hash the same
+    static BigDecimal decimal(Number number) {
+        BigDecimal decimal;
+        if (number instanceof BigDecimal big) {
+            decimal = big;
+        } else if (number instanceof BigInteger big) {
+            decimal = new BigDecimal(big);
+        } else if (number instanceof Double || number instanceof Float) {
+            decimal = BigDecimal.valueOf(number.doubleValue());
+        } else {
+            decimal = BigDecimal.valueOf(number.longValue());
+        }
+        return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+    }
+
+    private static boolean isPrefixed(String key, String prefix) {
+        return key.length() > prefix.length() && key.startsWith(prefix)
+                && Character.isUpperCase(key.charAt(prefix.length()));
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public int componentIndex(String component) {
+        for (int i = 0; i < components.size(); i++) {
+            if (components.get(i).name().equals(component)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int featureIndex(String feature) {
+        for (int i = 0; i < features.size(); i++) {
+            if (features.get(i).name().equals(feature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public Map<String, Object> getTemplateConfig() {
+        return templateConfig;
+    }
+
+    public List<TemplateComponent> getComponents() {
+        return components;
+    }
+
+    public List<TemplateSetting> getFeatures() {
+        return features;
+    }
+}
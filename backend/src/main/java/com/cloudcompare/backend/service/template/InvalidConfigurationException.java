@@ -0,0 +1,16 @@
+package com.cloudcompare.backend.service.template;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A compare configuration that doesn't fit its template, e.g. a value outside the
+ * template's min/max bounds.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidConfigurationException extends RuntimeException {
+
+    public InvalidConfigurationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,134 @@
+package com.cloudcompare.backend.service.template;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A compare configuration after {@link CompiledTemplate#resolve}: every declared
+ * parameter, setting and feature has a value (or null when the template gives no
+ * default), indexed in the template's component/parameter order.
+ */
+public final class ResolvedConfiguration {
+
+    private final CompiledTemplate template;
+    private final BigDecimal[][] values;
+    private final Object[][] settings;
+    private final Object[] features;
+    private final double[][] numbers;
+
+    ResolvedConfiguration(CompiledTemplate template, BigDecimal[][] values, Object[][] settings, Object[] features) {
+        this(template, values, settings, features, new double[values.length][]);
+        for (int c = 0; c < values.length; c++) {
+            numbers[c] = numbers(values[c]);
+        }
+    }
+
+    private ResolvedConfiguration(CompiledTemplate template, BigDecimal[][] values, Object[][] settings,
+                                  Object[] features, double[][] numbers) {
+        this.template = template;
+        this.values = values;
+        this.settings = settings;
+        this.features = features;
+        this.numbers = numbers;
+    }
+
+    private static double[] numbers(BigDecimal[] values) {
+        double[] numbers = new double[values.length];
+        for (int p = 0; p < values.length; p++) {
+            numbers[p] = values[p] != null ? values[p].doubleValue() : Double.NaN;
+        }
+        return numbers;
+    }
+
+    /**
+     * The same configuration with one parameter set to another value, checked against the
+     * template's bounds. Only that component's arrays are copied; the rest are shared.
+     */
+    public ResolvedConfiguration withValue(int component, int parameter, BigDecimal value) {
+        TemplateComponent declared = template.getComponents().get(component);
+        BigDecimal[][] changedValues = values.clone();
+        changedValues[component] = values[component].clone();
+        changedValues[component][parameter] = CompiledTemplate.checked(declared,
+                declared.parameters().get(parameter), value);
+        double[][] changedNumbers = numbers.clone();
+        changedNumbers[component] = numbers(changedValues[component]);
+        return new ResolvedConfiguration(template, changedValues, settings, features, changedNumbers);
+    }
+
+    public CompiledTemplate getTemplate() {
+        return template;
+    }
+
+    public BigDecimal value(int component, int parameter) {
+        return values[component][parameter];
+    }
+
+    // The same value as a double for cost evaluation, NaN when there is none
+    public double number(int component, int parameter) {
+        return numbers[component][parameter];
+    }
+
+    public Object setting(int component, int setting) {
+        return settings[component][setting];
+    }
+
+    public Object feature(int feature) {
+        return features[feature];
+    }
+
+    // By name, for callers off the hot path; null if the template doesn't declare it
+    public BigDecimal value(String component, String parameter) {
+        int c = template.componentIndex(component);
+        int p = c < 0 ? -1 : template.getComponents().get(c).parameterIndex(parameter);
+        return p < 0 ? null : values[c][p];
+    }
+
+    /**
+     * Stable text form used for cache keys: components, parameters and settings in the
+     * template's sorted order, numbers without trailing zeros, strings quoted.
+     */
+    public String canonical() {
+        StringBuilder out = new StringBuilder(128).append('{');
+        List<TemplateComponent> components = template.getComponents();
+        for (int c = 0; c < components.size(); c++) {
+            TemplateComponent component = components.get(c);
+            appendString(out, component.name());
+            out.append(":{");
+            for (int p = 0; p < values[c].length; p++) {
+                appendString(out, component.parameters().get(p).name());
+                out.append(':');
+                appendValue(out, values[c][p]);
+                out.append(',');
+            }
+            for (int s = 0; s < settings[c].length; s++) {
+                appendString(out, component.settings().get(s).name());
+                out.append(':');
+                appendValue(out, settings[c][s]);
+                out.append(',');
+            }
+            out.append("},");
+        }
+        List<TemplateSetting> declared = template.getFeatures();
+        for (int f = 0; f < features.length; f++) {
+            appendString(out, declared.get(f).name());
+            out.append(':');
+            appendValue(out, features[f]);
+            out.append(',');
+        }
+        return out.append('}').toString();
+    }
+
+    private static void appendValue(StringBuilder out, Object value) {
+        if (value instanceof BigDecimal decimal) {
+            out.append(decimal.toPlainString());
+        } else if (value instanceof String text) {
+            appendString(out, text);
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static void appendString(StringBuilder out, String text) {
+        out.append('"').append(text.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloudcompare.backend.service.template;
+
+import java.util.List;
+
+/**
+ * One section of a template (compute, database, storage, ...). Parameters and settings
+ * are sorted by name, and resolved configurations keep their values in the same order.
+ */
+public record TemplateComponent(String name, List<TemplateParameter> parameters, List<TemplateSetting> settings) {
+
+    public int parameterIndex(String parameter) {
+        for (int i = 0; i < parameters.size(); i++) {
+            if (parameters.get(i).name().equals(parameter)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int settingIndex(String setting) {
+        for (int i = 0; i < settings.size(); i++) {
+            if (settings.get(i).name().equals(setting)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cloudcompare.backend.service.template;
+
+import java.math.BigDecimal;
+
+/**
+ * A numeric input of a template component, e.g. compute.vcpus with its default and the
+ * bounds declared as defaultVcpus / minVcpus / maxVcpus. Any of the three may be null;
+ * without a declared minimum a parameter still can't be negative, since every one of
+ * them is a size or a count.
+ */
+public record TemplateParameter(String name, BigDecimal defaultValue, BigDecimal min, BigDecimal max) {
+
+    boolean accepts(BigDecimal value) {
+        return value.compareTo(lowerBound()) >= 0 && (max == null || value.compareTo(max) <= 0);
+    }
+
+    String bounds() {
+        if (max != null) {
+            return "between " + lowerBound().toPlainString() + " and " + max.toPlainString();
+        }
+        return "at least " + lowerBound().toPlainString();
+    }
+
+    private BigDecimal lowerBound() {
+        return min != null ? min : BigDecimal.ZERO;
+    }
+}
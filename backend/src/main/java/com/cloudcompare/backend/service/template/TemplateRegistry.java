@@ -0,0 +1,68 @@
+package com.cloudcompare.backend.service.template;
+
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.repository.TemplateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * All templates compiled into {@link CompiledTemplate}s and held in memory by id, so a
+ * compare resolves its template without touching the database. Loaded on first use and
+ * reloaded as a whole whenever templates change (see CacheInvalidationBus). A template
+ * that fails to compile is logged and left out. Lookups are counted as
+ * templates.registry.requests, a miss being an unknown (or uncompilable) template.
+ */
+@Service
+@Slf4j
+public class TemplateRegistry {
+
+    private final TemplateRepository templateRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Map<Long, CompiledTemplate> templates;
+
+    public TemplateRegistry(TemplateRepository templateRepository, MeterRegistry meterRegistry) {
+        this.templateRepository = templateRepository;
+        this.hits = Counter.builder("templates.registry.requests")
+                .description("Template lookups in the in-memory registry")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("templates.registry.requests")
+                .description("Template lookups in the in-memory registry")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public Optional<CompiledTemplate> find(long templateId) {
+        Map<Long, CompiledTemplate> loaded = templates;
+        if (loaded == null) {
+            loaded = reload();
+        }
+        CompiledTemplate template = loaded.get(templateId);
+        (template != null ? hits : misses).increment();
+        return Optional.ofNullable(template);
+    }
+
+    public synchronized Map<Long, CompiledTemplate> reload() {
+        List<Template> entities = templateRepository.findAll();
+        Map<Long, CompiledTemplate> compiled = new HashMap<>();
+        for (Template template : entities) {
+            try {
+                compiled.put(template.getId(), CompiledTemplate.compile(template));
+            } catch (RuntimeException e) {
+                log.error("Template {} could not be compiled, leaving it out", template.getId(), e);
+            }
+        }
+        templates = Map.copyOf(compiled);
+        log.info("Template registry loaded with {} templates", compiled.size());
+        return templates;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cloudcompare.backend.service.template;
+
+/**
+ * A non-numeric choice with the template's value as default, e.g. database.engine or the
+ * top-level loadBalancer flag. A given value takes the type of the default: a boolean
+ * when the default is one, a string otherwise.
+ */
+public record TemplateSetting(String name, Object defaultValue) {
+}
@@ -0,0 +1,22 @@
+package com.cloudcompare.backend.service.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Part of the readiness group (see application.properties), so /actuator/health/readiness
+// stays OUT_OF_SERVICE until warm-up is done
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        return warmupService.isComplete()
+                ? Health.up().build()
+                : Health.outOfService().withDetail("reason", "warming up").build();
+    }
+}
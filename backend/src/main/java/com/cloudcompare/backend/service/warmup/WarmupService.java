@@ -0,0 +1,162 @@
+package com.cloudcompare.backend.service.warmup;
+
+import com.cloudcompare.backend.model.dto.PricingRequest;
+import com.cloudcompare.backend.model.dto.TemplateResponse;
+import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.TemplateService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Gets a new node ready for traffic before the load balancer sends it any: opens the
+ * connection pool, loads templates into the cache and the price catalog into memory,
+ * then runs synthetic compares so the hot paths are JIT-compiled. Until it finishes,
+ * {@link WarmupHealthIndicator} keeps the readiness group OUT_OF_SERVICE.
+ *
+ * <p>Warm-up is best effort: a failure or running past the time limit is logged and the
+ * node reports ready anyway, serving cold rather than not at all.
+ */
+@Service
+@Slf4j
+public class WarmupService {
+
+    private final DataSource dataSource;
+    private final TemplateService templateService;
+    private final PriceCatalogService priceCatalogService;
+    private final CalculationService calculationService;
+    private final CostEngine costEngine;
+
+    @Value("${cloudcompare.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cloudcompare.warmup.compare-iterations:500}")
+    private int compareIterations;
+
+    @Value("${cloudcompare.warmup.time-limit:PT60S}")
+    private Duration timeLimit;
+
+    private volatile boolean complete;
+
+    public WarmupService(DataSource dataSource, TemplateService templateService,
+                         PriceCatalogService priceCatalogService, CalculationService calculationService,
+                         CostEngine costEngine) {
+        this.dataSource = dataSource;
+        this.templateService = templateService;
+        this.priceCatalogService = priceCatalogService;
+        this.calculationService = calculationService;
+        this.costEngine = costEngine;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long started = System.nanoTime();
+        long deadline = started + timeLimit.toNanos();
+        try {
+            primeConnectionPool();
+            List<TemplateResponse> templates = loadTemplates();
+            PriceCatalog catalog = loadCatalog();
+            int compares = runCompares(templates, catalog, deadline);
+            log.info("Warm-up finished in {} ms: {} templates, catalog version {}, {} synthetic compares",
+                    (System.nanoTime() - started) / 1_000_000, templates.size(), catalog.getVersion(), compares);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up failed after {} ms, reporting ready anyway",
+                    (System.nanoTime() - started) / 1_000_000, e);
+        } finally {
+            complete = true;
+        }
+    }
+
+    // Opens up to minimum-idle connections at once so the first requests don't pay for them
+    private void primeConnectionPool() {
+        int size = 1;
+        if (dataSource instanceof HikariDataSource hikari) {
+            size = Math.max(1, hikari.getMinimumIdle());
+        }
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not prime the connection pool", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error returning warm-up connection", e);
+                }
+            }
+        }
+    }
+
+    private List<TemplateResponse> loadTemplates() {
+        List<TemplateResponse> templates = templateService.getAllActiveTemplates();
+        templates.stream()
+                .map(TemplateResponse::getCategory)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(templateService::getTemplatesByCategory);
+        return templates;
+    }
+
+    // The startup rebuild runs asynchronously; build it here if it hasn't landed yet
+    private PriceCatalog loadCatalog() {
+        PriceCatalog catalog = priceCatalogService.current();
+        return catalog.getVersion() > 0 ? catalog : priceCatalogService.rebuild();
+    }
+
+    private int runCompares(List<TemplateResponse> templates, PriceCatalog catalog, long deadline) {
+        if (templates.isEmpty()) {
+            return 0;
+        }
+        List<String> regions = costEngine.regions();
+        int done = 0;
+        for (int i = 0; i < compareIterations; i++) {
+            if (System.nanoTime() > deadline) {
+                log.warn("Warm-up time limit {} reached after {} synthetic compares", timeLimit, done);
+                break;
+            }
+            TemplateResponse template = templates.get(i % templates.size());
+            calculationService.simulate(PricingRequest.builder()
+                    .templateId(template.getId())
+                    .region(regions.get(i % regions.size()))
+                    .configuration(Map.of())
+                    .build(), catalog);
+            done++;
+        }
+        return done;
+    }
+}
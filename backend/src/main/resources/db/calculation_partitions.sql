@@ -0,0 +1,45 @@
+-- calculations is range-partitioned by month on calculation_date so expired months can be
+-- archived and dropped whole (see CalculationPartitions). A plain table is converted once.
+-- Ids come from calculations_seq, which is not owned by the table and survives the swap.
+DO $$
+DECLARE
+    first_month date;
+    last_month  date;
+    month       date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('calculations')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE calculations RENAME TO calculations_unpartitioned;
+    -- Index and constraint names are schema-wide; free them for the new table
+    ALTER TABLE calculations_unpartitioned DROP CONSTRAINT IF EXISTS calculations_pkey;
+    DROP INDEX IF EXISTS idx_calculation_date;
+    DROP INDEX IF EXISTS idx_template_id;
+
+    -- Without INCLUDING IDENTITY, so an id column left over from the IDENTITY mapping becomes plain
+    CREATE TABLE calculations (LIKE calculations_unpartitioned INCLUDING DEFAULTS)
+        PARTITION BY RANGE (calculation_date);
+
+    SELECT date_trunc('month', LEAST(MIN(calculation_date), now()))::date,
+           date_trunc('month', GREATEST(MAX(calculation_date), now() + interval '3 months'))::date
+    INTO first_month, last_month
+    FROM calculations_unpartitioned;
+
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF calculations FOR VALUES FROM (%L) TO (%L)',
+                       'calculations_' || to_char(month, '"y"YYYY"m"MM'),
+                       month, (month + interval '1 month')::date);
+        month := (month + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO calculations SELECT * FROM calculations_unpartitioned;
+    DROP TABLE calculations_unpartitioned;
+
+    ALTER TABLE calculations ADD CONSTRAINT calculations_pkey PRIMARY KEY (id, calculation_date);
+    ALTER TABLE calculations ADD CONSTRAINT fk_calculations_template
+        FOREIGN KEY (template_id) REFERENCES templates (id);
+    CREATE INDEX idx_calculation_date ON calculations (calculation_date);
+    CREATE INDEX idx_template_id ON calculations (template_id);
+END $$^;
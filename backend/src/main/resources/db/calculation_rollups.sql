@@ -0,0 +1,20 @@
+-- Calculation counts per template, region and cheapest provider, pre-aggregated in process
+-- and added here by CalculationRollups. Analytics reads these instead of calculations.
+-- region is '' when the request did not name one.
+CREATE TABLE IF NOT EXISTS calculation_rollups_hourly (
+    bucket_start      timestamp    NOT NULL,
+    template_id       bigint       NOT NULL,
+    region            varchar(50)  NOT NULL,
+    cheapest_provider varchar(20)  NOT NULL,
+    calculations      bigint       NOT NULL,
+    PRIMARY KEY (bucket_start, template_id, region, cheapest_provider)
+)^;
+
+CREATE TABLE IF NOT EXISTS calculation_rollups_daily (
+    bucket_start      date         NOT NULL,
+    template_id       bigint       NOT NULL,
+    region            varchar(50)  NOT NULL,
+    cheapest_provider varchar(20)  NOT NULL,
+    calculations      bigint       NOT NULL,
+    PRIMARY KEY (bucket_start, template_id, region, cheapest_provider)
+)^;
@@ -0,0 +1,6 @@
+-- Keep calculations_seq ahead of ids written before the table switched from IDENTITY
+-- to a pooled sequence. Only moves the sequence when it was never used, or when some
+-- row lies beyond the block the sequence last handed out (block size 50).
+SELECT setval('calculations_seq', m.max_id + 1, false)
+FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM calculations) m, calculations_seq s
+WHERE (NOT s.is_called AND m.max_id >= s.last_value) OR m.max_id >= s.last_value + 50^;
@@ -0,0 +1,61 @@
+-- Current price of every key, kept in step with pricing_snapshots by a trigger in the same
+-- transaction as the write. "Latest" reads scan only this table, so their cost follows the
+-- number of priced keys and not the length of the price history.
+CREATE TABLE IF NOT EXISTS latest_pricing (
+    snapshot_id     bigint PRIMARY KEY,
+    provider        varchar(20)  NOT NULL,
+    service_type    varchar(50)  NOT NULL,
+    service_name    varchar(100) NOT NULL,
+    region          varchar(50)  NOT NULL,
+    instance_type   varchar(100),
+    price_per_hour  numeric(18,8),
+    price_per_month numeric(18,8),
+    currency        varchar(3),
+    pricing_data    jsonb,
+    effective_from  date         NOT NULL,
+    created_at      timestamp    NOT NULL,
+    updated_at      timestamp    NOT NULL DEFAULT now()
+)^;
+
+-- Point lookups by key are answered from the index alone. instance_type is nullable, so
+-- NULLS NOT DISTINCT (PostgreSQL 15) keeps a key without one unique as well
+CREATE UNIQUE INDEX IF NOT EXISTS ux_latest_pricing_key
+    ON latest_pricing (provider, service_name, region, instance_type)
+    INCLUDE (price_per_hour, price_per_month, currency, snapshot_id)
+    NULLS NOT DISTINCT^;
+
+CREATE OR REPLACE FUNCTION latest_pricing_sync() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM latest_pricing WHERE snapshot_id = OLD.id;
+    ELSIF NEW.effective_to IS NULL THEN
+        INSERT INTO latest_pricing (snapshot_id, provider, service_type, service_name, region, instance_type,
+                                    price_per_hour, price_per_month, currency, pricing_data, effective_from,
+                                    created_at, updated_at)
+        VALUES (NEW.id, NEW.provider, NEW.service_type, NEW.service_name, NEW.region, NEW.instance_type,
+                NEW.price_per_hour, NEW.price_per_month, NEW.currency, NEW.pricing_data, NEW.effective_from,
+                NEW.created_at, now())
+        ON CONFLICT (snapshot_id) DO UPDATE SET
+            service_type = EXCLUDED.service_type, price_per_hour = EXCLUDED.price_per_hour,
+            price_per_month = EXCLUDED.price_per_month, currency = EXCLUDED.currency,
+            pricing_data = EXCLUDED.pricing_data, effective_from = EXCLUDED.effective_from,
+            updated_at = EXCLUDED.updated_at;
+    ELSIF TG_OP = 'UPDATE' AND OLD.effective_to IS NULL THEN
+        -- Superseded; the row that replaces it is inserted by the same load
+        DELETE FROM latest_pricing WHERE snapshot_id = OLD.id;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql^;
+
+CREATE OR REPLACE TRIGGER pricing_snapshots_latest
+    AFTER INSERT OR UPDATE OR DELETE ON pricing_snapshots
+    FOR EACH ROW EXECUTE FUNCTION latest_pricing_sync()^;
+
+-- First start after the projection was introduced
+INSERT INTO latest_pricing (snapshot_id, provider, service_type, service_name, region, instance_type,
+                            price_per_hour, price_per_month, currency, pricing_data, effective_from, created_at)
+SELECT id, provider, service_type, service_name, region, instance_type,
+       price_per_hour, price_per_month, currency, pricing_data, effective_from, created_at
+FROM pricing_snapshots
+WHERE effective_to IS NULL AND NOT EXISTS (SELECT 1 FROM latest_pricing)^;
@@ -0,0 +1,56 @@
+-- Price history is range-partitioned by month on effective_from. A plain table, whether left
+-- by an older version or just created by Hibernate, is converted once; from then on
+-- PartitionManager creates upcoming months and detaches the ones past retention.
+-- Partitioned tables cannot have identity columns before PostgreSQL 17, so ids come from a
+-- plain sequence default, and every unique constraint has to include effective_from.
+DO $$
+DECLARE
+    first_month date;
+    last_month  date;
+    month       date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('pricing_snapshots')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE pricing_snapshots RENAME TO pricing_snapshots_unpartitioned;
+    -- Index and constraint names are schema-wide; free them for the new table
+    ALTER TABLE pricing_snapshots_unpartitioned DROP CONSTRAINT IF EXISTS pricing_snapshots_pkey;
+    ALTER TABLE pricing_snapshots_unpartitioned DROP CONSTRAINT IF EXISTS uk_pricing_snapshots_effective_from;
+    DROP INDEX IF EXISTS idx_provider_service_region;
+    DROP INDEX IF EXISTS ux_pricing_snapshots_current;
+
+    CREATE TABLE pricing_snapshots (LIKE pricing_snapshots_unpartitioned INCLUDING DEFAULTS)
+        PARTITION BY RANGE (effective_from);
+
+    SELECT date_trunc('month', LEAST(MIN(effective_from), current_date))::date,
+           date_trunc('month', GREATEST(MAX(effective_from), current_date + interval '3 months'))::date
+    INTO first_month, last_month
+    FROM pricing_snapshots_unpartitioned;
+
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF pricing_snapshots FOR VALUES FROM (%L) TO (%L)',
+                       'pricing_snapshots_' || to_char(month, '"y"YYYY"m"MM'),
+                       month, (month + interval '1 month')::date);
+        month := (month + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO pricing_snapshots SELECT * FROM pricing_snapshots_unpartitioned;
+    DROP TABLE pricing_snapshots_unpartitioned;
+
+    CREATE SEQUENCE IF NOT EXISTS pricing_snapshots_id_seq OWNED BY pricing_snapshots.id;
+    PERFORM setval('pricing_snapshots_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM pricing_snapshots;
+    ALTER TABLE pricing_snapshots ALTER COLUMN id SET DEFAULT nextval('pricing_snapshots_id_seq');
+
+    ALTER TABLE pricing_snapshots ADD CONSTRAINT pricing_snapshots_pkey PRIMARY KEY (id, effective_from);
+    ALTER TABLE pricing_snapshots ADD CONSTRAINT uk_pricing_snapshots_effective_from
+        UNIQUE (provider, service_name, region, instance_type, effective_from);
+    CREATE INDEX idx_provider_service_region ON pricing_snapshots (provider, service_type, region);
+END $$^;
+
+-- Current rows, for the merge and save lookups; one current row per key is enforced by
+-- the unique key on latest_pricing, since a unique index here would need effective_from
+CREATE INDEX IF NOT EXISTS idx_pricing_snapshots_current
+    ON pricing_snapshots (provider, service_name, region, instance_type)
+    WHERE effective_to IS NULL^;
@@ -0,0 +1,54 @@
+-- pricing_snapshots holds one row per price change, valid over [effective_from, effective_to);
+-- effective_to is NULL on the current row of each key. A table that still has the old
+-- daily snapshot_date column is converted once: consecutive days at the same price
+-- collapse into a single range and the repeated rows are deleted.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'pricing_snapshots'
+                 AND column_name = 'snapshot_date') THEN
+
+        ALTER TABLE pricing_snapshots ADD COLUMN IF NOT EXISTS effective_from date;
+        ALTER TABLE pricing_snapshots ADD COLUMN IF NOT EXISTS effective_to date;
+
+        -- Rows that open a range: the first of each key, or a price different from the day before
+        CREATE TEMP TABLE pricing_snapshot_ranges ON COMMIT DROP AS
+        SELECT id, snapshot_date AS effective_from,
+               lead(snapshot_date) OVER (PARTITION BY provider, service_name, region, instance_type
+                                         ORDER BY snapshot_date) AS effective_to
+        FROM (SELECT id, provider, service_name, region, instance_type, snapshot_date,
+                     lag(id) OVER w IS NULL
+                         OR (lag(price_per_hour) OVER w, lag(price_per_month) OVER w, lag(currency) OVER w)
+                            IS DISTINCT FROM (price_per_hour, price_per_month, currency) AS opens_range
+              FROM pricing_snapshots
+              WINDOW w AS (PARTITION BY provider, service_name, region, instance_type
+                           ORDER BY snapshot_date)) s
+        WHERE opens_range;
+
+        DELETE FROM pricing_snapshots p
+        WHERE NOT EXISTS (SELECT 1 FROM pricing_snapshot_ranges r WHERE r.id = p.id);
+
+        UPDATE pricing_snapshots p
+        SET effective_from = r.effective_from, effective_to = r.effective_to
+        FROM pricing_snapshot_ranges r
+        WHERE r.id = p.id;
+
+        ALTER TABLE pricing_snapshots ALTER COLUMN effective_from SET NOT NULL;
+        -- Also drops the old per-day unique constraint and idx_snapshot_date
+        ALTER TABLE pricing_snapshots DROP COLUMN snapshot_date;
+    END IF;
+
+    -- Prices used to be numeric(10,4) / numeric(10,2), which rounded per-GB prices such as 0.023
+    -- to the cent; rows already rounded are corrected by the next import of their price list
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'pricing_snapshots'
+                 AND column_name IN ('price_per_hour', 'price_per_month') AND numeric_scale < 8) THEN
+        ALTER TABLE pricing_snapshots ALTER COLUMN price_per_hour TYPE numeric(18,8),
+                                      ALTER COLUMN price_per_month TYPE numeric(18,8);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_pricing_snapshots_effective_from') THEN
+        ALTER TABLE pricing_snapshots ADD CONSTRAINT uk_pricing_snapshots_effective_from
+            UNIQUE (provider, service_name, region, instance_type, effective_from);
+    END IF;
+END $$^;
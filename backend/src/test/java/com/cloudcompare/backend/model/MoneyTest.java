@@ -0,0 +1,80 @@
+package com.cloudcompare.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Rounding must agree with what numeric(10,2) cost columns store: BigDecimal.setScale(2, HALF_UP)
+class MoneyTest {
+
+	@Test
+	void roundsHalfUpLikeTheCostColumns() {
+		assertCents("0.00", "0.00499999");
+		assertCents("0.01", "0.005");
+		assertCents("0.01", "0.00500001");
+		assertCents("1.23", "1.23499999");
+		assertCents("1.24", "1.235");
+		assertCents("-0.01", "-0.005");
+		assertCents("-0.00", "-0.00499999");
+		assertCents("99999999.99", "99999999.99499999");
+	}
+
+	@Test
+	void matchesBigDecimalForRandomAmounts() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			long amount = random.nextLong() % Money.MAX_COLUMN;
+			BigDecimal expected = Money.toDecimal(amount).setScale(2, RoundingMode.HALF_UP);
+			assertEquals(expected, Money.toCents(amount), () -> "amount " + Money.toDecimal(amount));
+		}
+	}
+
+	@Test
+	void monthlyCostMatchesBigDecimalArithmetic() {
+		Random random = new Random(7);
+		for (int i = 0; i < 100_000; i++) {
+			// price_per_hour is numeric(10,4)
+			BigDecimal hourly = BigDecimal.valueOf(random.nextInt(100_000_000), 4);
+			BigDecimal expected = hourly.multiply(BigDecimal.valueOf(Money.HOURS_PER_MONTH))
+					.setScale(2, RoundingMode.HALF_UP);
+			if (expected.precision() > 10) {
+				continue;
+			}
+			assertEquals(expected, Money.toCents(Money.times(Money.of(hourly), Money.HOURS_PER_MONTH)),
+					() -> "hourly " + hourly);
+		}
+	}
+
+	@Test
+	void keepsEightDecimalsAndRoundsFinerPrices() {
+		assertEquals(new BigDecimal("0.00000020"), Money.toDecimal(Money.of(new BigDecimal("0.0000002"))));
+		assertEquals(new BigDecimal("0.00001667"), Money.toDecimal(Money.of(new BigDecimal("0.0000166667"))));
+		assertEquals(new BigDecimal("0.00001667"), Money.toDecimal(Money.of(new BigDecimal("0.000016665"))));
+	}
+
+	@Test
+	void roundsProductsToTheNearestMicroCent() {
+		assertEquals(3, Money.times(5, 0.5));
+		assertEquals(-3, Money.times(-5, 0.5));
+		assertEquals(Money.of(new BigDecimal("30.368")), Money.times(Money.of(new BigDecimal("0.0416")), 730));
+	}
+
+	@Test
+	void rejectsAmountsTheColumnsCannotHold() {
+		assertEquals(new BigDecimal("99999999.99"), Money.toCents(Money.MAX_COLUMN));
+		assertThrows(ArithmeticException.class, () -> Money.toCents(Money.MAX_COLUMN + Money.ONE_CENT));
+		assertThrows(ArithmeticException.class, () -> Money.toCents(Money.of(new BigDecimal("99999999.995"))));
+		assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 4));
+	}
+
+	private static void assertCents(String expected, String amount) {
+		BigDecimal decimal = new BigDecimal(amount);
+		assertEquals(new BigDecimal(expected), decimal.setScale(2, RoundingMode.HALF_UP));
+		assertEquals(new BigDecimal(expected), Money.toCents(Money.of(decimal)));
+	}
+}
@@ -0,0 +1,127 @@
+package com.cloudcompare.backend.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// latest_pricing follows every write to pricing_snapshots: one row per key, always the current one
+class LatestPricingTriggerTest {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+	private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+	private PostgresTestDatabase database;
+
+	@AfterEach
+	void dropSchema() {
+		if (database != null) {
+			database.close();
+		}
+	}
+
+	@Test
+	void aNewKeyIsProjected() {
+		JdbcTemplate jdbc = createSchema();
+		long id = insert(jdbc, "t3.medium", "0.0416", JAN_1);
+
+		assertEquals(List.of(id), jdbc.queryForList("SELECT snapshot_id FROM latest_pricing", Long.class));
+		assertEquals(0, new BigDecimal("0.0416").compareTo(latestPrice(jdbc, "t3.medium")));
+	}
+
+	@Test
+	void closingARowReplacesItWithTheNewOne() {
+		JdbcTemplate jdbc = createSchema();
+		long old = insert(jdbc, "t3.medium", "0.0416", JAN_1);
+
+		jdbc.update("UPDATE pricing_snapshots SET effective_to = ? WHERE id = ?", FEB_1, old);
+		assertEquals(0, rows(jdbc));
+		long current = insert(jdbc, "t3.medium", "0.04", FEB_1);
+
+		assertEquals(List.of(current), jdbc.queryForList("SELECT snapshot_id FROM latest_pricing", Long.class));
+		assertEquals(0, new BigDecimal("0.04").compareTo(latestPrice(jdbc, "t3.medium")));
+	}
+
+	@Test
+	void aCorrectionUpdatesTheProjectedRow() {
+		JdbcTemplate jdbc = createSchema();
+		long id = insert(jdbc, "t3.medium", "0.0416", JAN_1);
+
+		jdbc.update("UPDATE pricing_snapshots SET price_per_hour = 0.0417 WHERE id = ?", id);
+
+		assertEquals(1, rows(jdbc));
+		assertEquals(0, new BigDecimal("0.0417").compareTo(latestPrice(jdbc, "t3.medium")));
+	}
+
+	@Test
+	void aDeletedRowLeavesTheProjection() {
+		JdbcTemplate jdbc = createSchema();
+		long id = insert(jdbc, "t3.medium", "0.0416", JAN_1);
+
+		jdbc.update("DELETE FROM pricing_snapshots WHERE id = ?", id);
+
+		assertEquals(0, rows(jdbc));
+	}
+
+	@Test
+	void subCentPricesAreProjectedExactly() {
+		JdbcTemplate jdbc = createSchema();
+		insert(jdbc, "TimedStorage-GDA-ByteHrs", "0.00000136", JAN_1);
+
+		assertEquals(0, new BigDecimal("0.00000136").compareTo(latestPrice(jdbc, "TimedStorage-GDA-ByteHrs")));
+	}
+
+	@Test
+	void aKeyWithoutAnInstanceTypeHasOneCurrentRow() {
+		JdbcTemplate jdbc = createSchema();
+		insert(jdbc, null, "0.0225", JAN_1);
+
+		assertThrows(DuplicateKeyException.class, () -> insert(jdbc, null, "0.03", FEB_1));
+		assertEquals(1, rows(jdbc));
+	}
+
+	@Test
+	void currentRowsAreBackfilledOnFirstStart() {
+		database = PostgresTestDatabase.create("db/pricing_snapshots_table.sql", "db/pricing_snapshots.sql");
+		JdbcTemplate jdbc = database.jdbcTemplate();
+		long closed = insert(jdbc, "t3.medium", "0.0416", JAN_1);
+		jdbc.update("UPDATE pricing_snapshots SET effective_to = ? WHERE id = ?", FEB_1, closed);
+		long current = insert(jdbc, "t3.medium", "0.04", FEB_1);
+
+		database.run("db/latest_pricing.sql");
+		assertEquals(List.of(current), jdbc.queryForList("SELECT snapshot_id FROM latest_pricing", Long.class));
+
+		// Running the scripts again on the next start changes nothing
+		database.run("db/latest_pricing.sql");
+		assertEquals(1, rows(jdbc));
+	}
+
+	private JdbcTemplate createSchema() {
+		database = PostgresTestDatabase.create("db/pricing_snapshots_table.sql", "db/pricing_snapshots.sql",
+				"db/latest_pricing.sql");
+		return database.jdbcTemplate();
+	}
+
+	private static long insert(JdbcTemplate jdbc, String instanceType, String pricePerHour, LocalDate effectiveFrom) {
+		return jdbc.queryForObject("INSERT INTO pricing_snapshots (provider, service_type, service_name, region, " +
+						"instance_type, price_per_hour, currency, effective_from, created_at) " +
+						"VALUES ('AWS', 'COMPUTE', 'EC2', 'us-east-1', ?, ?, 'USD', ?, now()) RETURNING id",
+				Long.class, instanceType, new BigDecimal(pricePerHour), effectiveFrom);
+	}
+
+	private static int rows(JdbcTemplate jdbc) {
+		return jdbc.queryForObject("SELECT count(*) FROM latest_pricing", Integer.class);
+	}
+
+	private static BigDecimal latestPrice(JdbcTemplate jdbc, String instanceType) {
+		return jdbc.queryForObject("SELECT price_per_hour FROM latest_pricing WHERE instance_type = ?",
+				BigDecimal.class, instanceType);
+	}
+}
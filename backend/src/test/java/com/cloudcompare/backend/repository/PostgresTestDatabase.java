@@ -0,0 +1,79 @@
+package com.cloudcompare.backend.repository;
+
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.UUID;
+
+// A throwaway schema on a real PostgreSQL (TEST_DATABASE_URL, or the local default from application.properties);
+// tests that use it are skipped when no database is reachable
+public final class PostgresTestDatabase implements AutoCloseable {
+
+	private static final String URL = env("TEST_DATABASE_URL", "jdbc:postgresql://localhost:5432/cloudcompare");
+	private static final String USERNAME = env("TEST_DATABASE_USERNAME", "postgres");
+	private static final String PASSWORD = env("TEST_DATABASE_PASSWORD", "postgres");
+
+	private final String schema;
+	private final DriverManagerDataSource dataSource;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	private PostgresTestDatabase(String schema) {
+		this.schema = schema;
+		this.dataSource = new DriverManagerDataSource(URL + (URL.contains("?") ? "&" : "?") + "currentSchema=" + schema,
+				USERNAME, PASSWORD);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	// Creates a fresh schema and runs the given classpath scripts in it, split on the app's "^;" separator
+	public static PostgresTestDatabase create(String... scripts) {
+		String schema = "test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toLowerCase(Locale.ROOT);
+		try (Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD)) {
+			connection.createStatement().execute("CREATE SCHEMA " + schema);
+		} catch (SQLException e) {
+			Assumptions.abort("No PostgreSQL at " + URL + ": " + e.getMessage());
+		}
+
+		PostgresTestDatabase database = new PostgresTestDatabase(schema);
+		database.run(scripts);
+		return database;
+	}
+
+	public void run(String... scripts) {
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+		populator.setSeparator("^;");
+		for (String script : scripts) {
+			populator.addScript(new ClassPathResource(script));
+		}
+		populator.execute(dataSource);
+	}
+
+	public JdbcTemplate jdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	// Repositories marked @Transactional rely on a surrounding transaction (ON COMMIT DROP temp tables)
+	public TransactionTemplate transactionTemplate() {
+		return transactionTemplate;
+	}
+
+	@Override
+	public void close() {
+		jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+	}
+
+	private static String env(String name, String fallback) {
+		String value = System.getenv(name);
+		return value != null && !value.isBlank() ? value : fallback;
+	}
+}
@@ -0,0 +1,145 @@
+package com.cloudcompare.backend.repository;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bulk merges write only price changes: unchanged keys are untouched, a later change closes and opens a range
+class PricingSnapshotJdbcRepositoryTest {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+	private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+	private PostgresTestDatabase database;
+	private PricingSnapshotJdbcRepository repository;
+
+	@BeforeEach
+	void createSchema() {
+		database = PostgresTestDatabase.create("db/pricing_snapshots_table.sql", "db/pricing_snapshots.sql");
+		repository = new PricingSnapshotJdbcRepository(database.jdbcTemplate(), JsonMapper.builder().build());
+	}
+
+	@AfterEach
+	void dropSchema() {
+		if (database != null) {
+			database.close();
+		}
+	}
+
+	@Test
+	void anUnchangedPriceIsNotWrittenAgain() {
+		assertResult(merge(snapshot("t3.medium", "0.0416", JAN_1), snapshot("t3.large", "0.0832", JAN_1)), 2, 0, 0);
+
+		assertResult(merge(snapshot("t3.medium", "0.0416", FEB_1), snapshot("t3.large", "0.0832", FEB_1)), 0, 0, 0);
+		assertEquals(2, rows());
+	}
+
+	@Test
+	void aLaterPriceClosesTheCurrentRangeAndOpensANewOne() {
+		merge(snapshot("t3.medium", "0.0416", JAN_1));
+
+		assertResult(merge(snapshot("t3.medium", "0.0400", FEB_1)), 1, 1, 0);
+		assertEquals(FEB_1, database.jdbcTemplate().queryForObject(
+				"SELECT effective_to FROM pricing_snapshots WHERE effective_from = ?", LocalDate.class, JAN_1));
+		assertEquals(0, new BigDecimal("0.04").compareTo(currentPrice("t3.medium")));
+	}
+
+	@Test
+	void aSecondImportOnTheSameDayCorrectsTheRow() {
+		merge(snapshot("t3.medium", "0.0416", JAN_1));
+
+		assertResult(merge(snapshot("t3.medium", "0.0417", JAN_1)), 0, 0, 1);
+		assertEquals(1, rows());
+		assertEquals(0, new BigDecimal("0.0417").compareTo(currentPrice("t3.medium")));
+	}
+
+	@Test
+	void anImportOlderThanTheCurrentRowIsIgnored() {
+		merge(snapshot("t3.medium", "0.0416", FEB_1));
+
+		assertResult(merge(snapshot("t3.medium", "0.05", JAN_1)), 0, 0, 0);
+		assertEquals(0, new BigDecimal("0.0416").compareTo(currentPrice("t3.medium")));
+	}
+
+	@Test
+	void subCentMonthlyPricesAreStoredExactly() {
+		PricingSnapshot storage = snapshot("TimedStorage-GDA-ByteHrs", null, JAN_1);
+		storage.setPricePerMonth(new BigDecimal("0.00099"));
+		merge(storage);
+
+		assertEquals(0, new BigDecimal("0.00099").compareTo(database.jdbcTemplate().queryForObject(
+				"SELECT price_per_month FROM pricing_snapshots", BigDecimal.class)));
+	}
+
+	@Test
+	void aKeyListedTwiceInOneFileIsWrittenOnce() {
+		assertResult(merge(snapshot("t3.medium", "0.0416", JAN_1), snapshot("t3.medium", "0.05", JAN_1)), 1, 0, 0);
+		assertEquals(0, new BigDecimal("0.0416").compareTo(currentPrice("t3.medium")));
+	}
+
+	@Test
+	void duplicatesAtTheSamePriceResolveToTheFirstInTheFile() {
+		PricingSnapshot first = snapshot("t3.medium", "0.0416", JAN_1);
+		first.setPricingData(Map.of("sku", "first"));
+		PricingSnapshot second = snapshot("t3.medium", "0.0416", JAN_1);
+		second.setPricingData(Map.of("sku", "second"));
+
+		assertResult(merge(first, second), 1, 0, 0);
+		// The same file again picks the same row, so nothing is corrected
+		assertResult(merge(first, second), 0, 0, 0);
+		assertEquals("first", database.jdbcTemplate().queryForObject(
+				"SELECT pricing_data ->> 'sku' FROM pricing_snapshots WHERE instance_type = 't3.medium'", String.class));
+	}
+
+	private PricingSnapshotJdbcRepository.BulkLoadResult merge(PricingSnapshot... snapshots) {
+		return database.transactionTemplate().execute(status -> {
+			try {
+				return repository.bulkMerge(sink -> List.of(snapshots).forEach(sink));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static void assertResult(PricingSnapshotJdbcRepository.BulkLoadResult result,
+									 long opened, long closed, long corrected) {
+		assertEquals(opened, result.rowsOpened(), "opened");
+		assertEquals(closed, result.rowsClosed(), "closed");
+		assertEquals(corrected, result.rowsCorrected(), "corrected");
+	}
+
+	private int rows() {
+		return database.jdbcTemplate().queryForObject("SELECT count(*) FROM pricing_snapshots", Integer.class);
+	}
+
+	private BigDecimal currentPrice(String instanceType) {
+		return database.jdbcTemplate().queryForObject(
+				"SELECT price_per_hour FROM pricing_snapshots WHERE instance_type = ? AND effective_to IS NULL",
+				BigDecimal.class, instanceType);
+	}
+
+	private static PricingSnapshot snapshot(String instanceType, String pricePerHour, LocalDate effectiveFrom) {
+		return PricingSnapshot.builder()
+				.provider("AWS")
+				.serviceType("COMPUTE")
+				.serviceName("EC2")
+				.region("us-east-1")
+				.instanceType(instanceType)
+				.pricePerHour(pricePerHour != null ? new BigDecimal(pricePerHour) : null)
+				.currency("USD")
+				.pricingData(Map.of("sku", instanceType))
+				.effectiveFrom(effectiveFrom)
+				.build();
+	}
+}
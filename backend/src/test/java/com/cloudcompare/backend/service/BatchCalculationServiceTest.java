@@ -0,0 +1,85 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.metrics.CompareMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A client that goes away mid-batch must stop the batch, not have the rest of it priced
+class BatchCalculationServiceTest {
+
+	private static final int ITEMS = 2000;
+	private static final int MAX_IN_FLIGHT = 4;
+
+	@Test
+	void stopsReadingAndPricingOnceTheClientIsGone() {
+		AtomicInteger priced = new AtomicInteger();
+		CalculationService calculationService = mock(CalculationService.class);
+		when(calculationService.calculateCosts(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			priced.incrementAndGet();
+			return PricingResponse.builder().build();
+		});
+		PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		when(priceCatalogService.current()).thenReturn(PriceCatalog.build(1, List.of()));
+		Validator validator = mock(Validator.class);
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(2);
+		executor.initialize();
+		BatchCalculationService service = new BatchCalculationService(calculationService, priceCatalogService, executor,
+				validator, JsonMapper.builder().build(),
+				new CompareMetrics(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5)));
+		ReflectionTestUtils.setField(service, "maxInFlight", MAX_IN_FLIGHT);
+
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < ITEMS; i++) {
+			input.append("{\"templateId\":1,\"region\":\"us-east-1\",\"configuration\":{}}\n");
+		}
+		AtomicInteger writes = new AtomicInteger();
+		OutputStream disconnected = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				writes.incrementAndGet();
+				throw new IOException("Broken pipe");
+			}
+		};
+
+		try {
+			service.calculateBatch(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)),
+					disconnected, "127.0.0.1", "test");
+		} finally {
+			executor.shutdown();
+		}
+
+		// Items already queued when the first write failed may still run; nothing after them does
+		assertTrue(priced.get() <= MAX_IN_FLIGHT + 2, "priced " + priced.get() + " of " + ITEMS);
+		assertTrue(writes.get() >= 1);
+		assertEquals(priced.get(), writes.get());
+	}
+}
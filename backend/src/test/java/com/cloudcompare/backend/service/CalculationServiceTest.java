@@ -0,0 +1,190 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.dto.PricingRequest;
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.analytics.CalculationRollups;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.compare.CompareResultCache;
+import com.cloudcompare.backend.service.metrics.CompareMetrics;
+import com.cloudcompare.backend.service.metrics.CompareStage;
+import com.cloudcompare.backend.service.metrics.CompareTrace;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Providers share one deadline; the ones that miss it or can't be scheduled are left out with a warning
+class CalculationServiceTest {
+
+	private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+	private final StallingExecutor executor = new StallingExecutor();
+
+	@AfterEach
+	void stop() {
+		executor.shutdown();
+	}
+
+	@Test
+	void aProviderPastTheDeadlineIsLeftOut() {
+		// Providers are submitted in declaration order: AWS, AZURE, GCP
+		executor.stall(3);
+
+		PricingResponse response = calculationService().calculateCosts(request(), "127.0.0.1", "test", trace());
+
+		assertNotNull(response.getAws());
+		assertNotNull(response.getAzure());
+		assertNull(response.getGcp());
+		assertEquals(List.of("GCP unavailable"), response.getWarnings());
+		assertEquals("AWS", response.getCheapestProvider());
+	}
+
+	@Test
+	void aRejectedProviderIsReportedAndTheRestArePriced() {
+		executor.reject(1);
+
+		PricingResponse response = calculationService().calculateCosts(request(), "127.0.0.1", "test", trace());
+
+		assertNull(response.getAws());
+		assertNotNull(response.getGcp());
+		assertEquals(List.of("AWS unavailable"), response.getWarnings());
+		assertEquals("AZURE", response.getCheapestProvider());
+	}
+
+	@Test
+	void theDeadlineIsSharedByEveryProvider() {
+		executor.stall(1, 2, 3);
+		CalculationService calculationService = calculationService();
+
+		long started = System.nanoTime();
+		RuntimeException failure = assertThrows(RuntimeException.class,
+				() -> calculationService.calculateCosts(request(), "127.0.0.1", "test", trace()));
+		long elapsed = System.nanoTime() - started;
+
+		assertEquals("Pricing is unavailable for all providers", failure.getMessage());
+		// One timeout in total, not one per provider
+		assertTrue(elapsed < TIMEOUT.toNanos() * 2, elapsed / 1_000_000 + " ms");
+	}
+
+	@Test
+	void theTemplateStageIsRecordedOncePerCompare() {
+		CompareTrace trace = spy(trace());
+
+		calculationService().calculateCosts(request(), "127.0.0.1", "test", trace);
+
+		verify(trace, times(1)).record(eq(CompareStage.TEMPLATE), anyLong());
+	}
+
+	private CalculationService calculationService() {
+		TemplateRegistry templateRegistry = mock(TemplateRegistry.class);
+		when(templateRegistry.find(1L)).thenReturn(Optional.of(
+				CompiledTemplate.compile(Template.builder().id(1L).name("web").build())));
+		CalculationIdAllocator calculationIdAllocator = mock(CalculationIdAllocator.class);
+		when(calculationIdAllocator.nextId()).thenReturn(42L);
+		PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		when(priceCatalogService.current()).thenReturn(PriceCatalog.build(1, List.of()));
+
+		CostEngine costEngine = mock(CostEngine.class);
+		when(costEngine.regionSlot("us-east-1")).thenReturn(0);
+		when(costEngine.regions()).thenReturn(List.of("us-east-1"));
+		// AWS is cheapest, then Azure, then GCP
+		when(costEngine.estimate(eq(CloudProvider.AWS), any(), anyInt(), any())).thenReturn(estimate("10.00"));
+		when(costEngine.estimate(eq(CloudProvider.AZURE), any(), anyInt(), any())).thenReturn(estimate("20.00"));
+		when(costEngine.estimate(eq(CloudProvider.GCP), any(), anyInt(), any())).thenReturn(estimate("30.00"));
+
+		CalculationService calculationService = new CalculationService(calculationIdAllocator,
+				mock(CalculationWriteBehind.class), mock(CalculationRollups.class),
+				new CompareResultCache(new ConcurrentMapCacheManager("calculations"), new SimpleMeterRegistry()),
+				templateRegistry, priceCatalogService, costEngine, executor);
+		ReflectionTestUtils.setField(calculationService, "providerTimeout", TIMEOUT);
+		return calculationService;
+	}
+
+	private static CostEstimate estimate(String total) {
+		long amount = Money.of(new BigDecimal(total));
+		return new CostEstimate(amount, List.of("compute"), new long[] {amount});
+	}
+
+	private static CompareTrace trace() {
+		return new CompareMetrics(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5)).start("compare");
+	}
+
+	private static PricingRequest request() {
+		return PricingRequest.builder()
+				.templateId(1L)
+				.region("us-east-1")
+				.configuration(Map.of())
+				.build();
+	}
+
+	// Runs submissions on its pool except the numbered ones (1-based), which never finish or are rejected
+	private static final class StallingExecutor extends ThreadPoolTaskExecutor {
+
+		private final AtomicInteger submitted = new AtomicInteger();
+		private List<Integer> stalled = List.of();
+		private List<Integer> rejected = List.of();
+
+		StallingExecutor() {
+			setCorePoolSize(3);
+			setThreadNamePrefix("provider-eval-test-");
+			initialize();
+		}
+
+		void stall(Integer... submissions) {
+			stalled = List.of(submissions);
+		}
+
+		void reject(Integer... submissions) {
+			rejected = List.of(submissions);
+		}
+
+		@Override
+		public <T> Future<T> submit(Callable<T> task) {
+			int submission = submitted.incrementAndGet();
+			if (rejected.contains(submission)) {
+				throw new TaskRejectedException("queue full");
+			}
+			if (stalled.contains(submission)) {
+				return new CompletableFuture<T>().orTimeout(1, TimeUnit.MINUTES);
+			}
+			return super.submit(task);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.entity.Calculation;
+import com.cloudcompare.backend.repository.CalculationJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Overflow policies decide what a full queue drops; a failing database must not drop anything until retries run out
+class CalculationWriteBehindTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private CalculationWriteBehind writeBehind;
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		if (writeBehind != null) {
+			writeBehind.stop();
+		}
+	}
+
+	@Test
+	void dropDropsAsSoonAsTheQueueIsFull() throws InterruptedException {
+		writeBehind = blockedWriter(CalculationWriteBehind.OverflowPolicy.DROP, 2, 0.8, 10);
+
+		assertTrue(writeBehind.enqueue(calculation(2)));
+		assertTrue(writeBehind.enqueue(calculation(3)));
+		assertFalse(writeBehind.enqueue(calculation(4)));
+		assertEquals(1, dropped("full"));
+	}
+
+	@Test
+	void blockWaitsForTheOfferTimeoutBeforeDropping() throws InterruptedException {
+		writeBehind = blockedWriter(CalculationWriteBehind.OverflowPolicy.BLOCK, 2, 0.8, 10);
+		assertTrue(writeBehind.enqueue(calculation(2)));
+		assertTrue(writeBehind.enqueue(calculation(3)));
+
+		long started = System.nanoTime();
+		assertFalse(writeBehind.enqueue(calculation(4)));
+		assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(40));
+		assertEquals(1, dropped("full"));
+	}
+
+	@Test
+	void sampleKeepsOneInSampleRateAboveTheHighWatermark() throws InterruptedException {
+		writeBehind = blockedWriter(CalculationWriteBehind.OverflowPolicy.SAMPLE, 100, 0.1, 4);
+		int kept = 0;
+		for (int i = 0; i < 10; i++) {
+			kept += writeBehind.enqueue(calculation(2 + i)) ? 1 : 0;
+		}
+		assertEquals(10, kept);
+
+		for (int i = 0; i < 40; i++) {
+			kept += writeBehind.enqueue(calculation(12 + i)) ? 1 : 0;
+		}
+		assertEquals(20, kept);
+		assertEquals(30, dropped("sampled"));
+		assertEquals(0, dropped("full"));
+	}
+
+	@Test
+	void failedBatchesAreRetriedUntilTheyAreWritten() throws InterruptedException {
+		AtomicInteger attempts = new AtomicInteger();
+		List<Long> written = new CopyOnWriteArrayList<>();
+		writeBehind = writer(CalculationWriteBehind.OverflowPolicy.BLOCK, 10, 0.8, 10, new CalculationJdbcRepository(null, null) {
+			@Override
+			public void insertBatch(List<Calculation> calculations) {
+				if (attempts.incrementAndGet() <= 2) {
+					throw new QueryTimeoutException("database restarting");
+				}
+				calculations.forEach(calculation -> written.add(calculation.getId()));
+			}
+		});
+
+		assertTrue(writeBehind.enqueue(calculation(1)));
+		writeBehind.stop();
+
+		assertEquals(List.of(1L), written);
+		assertEquals(3, attempts.get());
+		assertEquals(2, meterRegistry.get("calculations.writebehind.retried").counter().count());
+		assertEquals(0, meterRegistry.get("calculations.writebehind.failed").counter().count());
+	}
+
+	@Test
+	void batchesAreGivenUpOnOnceRetriesRunOut() throws InterruptedException {
+		AtomicInteger attempts = new AtomicInteger();
+		writeBehind = writer(CalculationWriteBehind.OverflowPolicy.BLOCK, 10, 0.8, 10, new CalculationJdbcRepository(null, null) {
+			@Override
+			public void insertBatch(List<Calculation> calculations) {
+				attempts.incrementAndGet();
+				throw new QueryTimeoutException("database down");
+			}
+		});
+
+		assertTrue(writeBehind.enqueue(calculation(1)));
+		writeBehind.stop();
+
+		assertEquals(3, attempts.get());
+		assertEquals(1, meterRegistry.get("calculations.writebehind.failed").counter().count());
+		assertEquals(0, meterRegistry.get("calculations.writebehind.written").counter().count());
+	}
+
+	@Test
+	void constraintViolationsAreNotRetried() throws InterruptedException {
+		AtomicInteger attempts = new AtomicInteger();
+		writeBehind = writer(CalculationWriteBehind.OverflowPolicy.BLOCK, 10, 0.8, 10, new CalculationJdbcRepository(null, null) {
+			@Override
+			public void insertBatch(List<Calculation> calculations) {
+				attempts.incrementAndGet();
+				throw new DataIntegrityViolationException("duplicate key");
+			}
+		});
+
+		assertTrue(writeBehind.enqueue(calculation(1)));
+		writeBehind.stop();
+
+		assertEquals(1, attempts.get());
+		assertEquals(1, meterRegistry.get("calculations.writebehind.failed").counter().count());
+	}
+
+	@Test
+	void aRejectedRowIsSplitOutAndTheRestOfItsBatchWritten() {
+		List<Long> written = new CopyOnWriteArrayList<>();
+		CalculationJdbcRepository repository = new CalculationJdbcRepository(null, null) {
+			@Override
+			public void insertBatch(List<Calculation> calculations) {
+				if (calculations.stream().anyMatch(calculation -> calculation.getId() == 3)) {
+					throw new DataIntegrityViolationException("duplicate key");
+				}
+				calculations.forEach(calculation -> written.add(calculation.getId()));
+			}
+		};
+		writeBehind = new CalculationWriteBehind(repository, meterRegistry, 10, 10, Duration.ofSeconds(1),
+				Duration.ofSeconds(5), CalculationWriteBehind.OverflowPolicy.BLOCK, Duration.ofMillis(50), 0.8, 10,
+				3, Duration.ofMillis(10));
+		writeBehind.start();
+
+		for (long id = 1; id <= 5; id++) {
+			assertTrue(writeBehind.enqueue(calculation(id)));
+		}
+		writeBehind.stop();
+
+		assertEquals(List.of(1L, 2L, 4L, 5L), written.stream().sorted().toList());
+		assertEquals(4, meterRegistry.get("calculations.writebehind.written").counter().count());
+		assertEquals(1, meterRegistry.get("calculations.writebehind.rejected").counter().count());
+		assertEquals(1, meterRegistry.get("calculations.writebehind.failed").counter().count());
+		assertEquals(0, meterRegistry.get("calculations.writebehind.retried").counter().count());
+	}
+
+	@Test
+	void stopsOnlyAfterTheWebServerHasStopped() {
+		writeBehind = writer(CalculationWriteBehind.OverflowPolicy.BLOCK, 10, 0.8, 10, new CalculationJdbcRepository(null, null));
+
+		assertTrue(writeBehind.getPhase() < WebServerApplicationContext.START_STOP_LIFECYCLE_PHASE);
+		assertTrue(writeBehind.getPhase() < WebServerApplicationContext.GRACEFUL_SHUTDOWN_PHASE);
+	}
+
+	// The writer takes calculation 1 and then blocks inside the insert, so the queue only fills
+	private CalculationWriteBehind blockedWriter(CalculationWriteBehind.OverflowPolicy policy, int capacity,
+												 double highWatermark, int sampleRate) throws InterruptedException {
+		CountDownLatch inserting = new CountDownLatch(1);
+		CalculationWriteBehind writer = writer(policy, capacity, highWatermark, sampleRate, new CalculationJdbcRepository(null, null) {
+			@Override
+			public void insertBatch(List<Calculation> calculations) {
+				inserting.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(writer.enqueue(calculation(1)));
+		assertTrue(inserting.await(5, TimeUnit.SECONDS));
+		return writer;
+	}
+
+	private CalculationWriteBehind writer(CalculationWriteBehind.OverflowPolicy policy, int capacity,
+										  double highWatermark, int sampleRate, CalculationJdbcRepository repository) {
+		CalculationWriteBehind writer = new CalculationWriteBehind(repository, meterRegistry, capacity, 1,
+				Duration.ofMillis(10), Duration.ofSeconds(5), policy, Duration.ofMillis(50), highWatermark, sampleRate,
+				3, Duration.ofMillis(10));
+		writer.start();
+		return writer;
+	}
+
+	private double dropped(String reason) {
+		return meterRegistry.get("calculations.writebehind.dropped").tag("reason", reason).counter().count();
+	}
+
+	private static Calculation calculation(long id) {
+		return Calculation.builder().id(id).build();
+	}
+}
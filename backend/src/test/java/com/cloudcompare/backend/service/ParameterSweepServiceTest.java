@@ -0,0 +1,168 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.dto.ParameterSweepRequest;
+import com.cloudcompare.backend.model.dto.ParameterSweepResponse;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.ingestion.AwsPriceListParser;
+import com.cloudcompare.backend.service.ingestion.AzureRetailPriceParser;
+import com.cloudcompare.backend.service.ingestion.GcpSkuParser;
+import com.cloudcompare.backend.service.ingestion.PriceListParser;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A sweep prices only the swept component per point; every point must still equal a full estimate
+class ParameterSweepServiceTest {
+
+	private static final int TRIALS = 300;
+
+	// component, parameter, min, max
+	private static final Object[][] SWEEPABLE = {
+			{"compute", "vcpus", 1, 96},
+			{"compute", "memoryGb", 1, 512},
+			{"compute", "gpus", 0, 8},
+			{"storage", "sizeGb", 1, 100_000},
+			{"database", "storageGb", 10, 10_000},
+			{"functions", "estimatedRequestsPerMonth", 0, 1_000_000_000},
+			{"functions", "memoryMb", 128, 10_240}};
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(5L)
+			.name("sweepable")
+			.templateConfig(Map.of(
+					"compute", Map.of("type", "general", "defaultVcpus", 2, "minVcpus", 1, "maxVcpus", 96,
+							"defaultMemoryGb", 4, "minMemoryGb", 1, "maxMemoryGb", 512,
+							"defaultGpus", 0, "minGpus", 0, "maxGpus", 8),
+					"storage", Map.of("defaultSizeGb", 100, "minSizeGb", 1, "maxSizeGb", 100_000),
+					"database", Map.of("type", "postgres", "defaultStorageGb", 20, "minStorageGb", 10,
+							"maxStorageGb", 10_000),
+					"functions", Map.of("defaultEstimatedRequestsPerMonth", 1_000_000,
+							"minEstimatedRequestsPerMonth", 0, "maxEstimatedRequestsPerMonth", 1_000_000_000,
+							"defaultMemoryMb", 256, "minMemoryMb", 128, "maxMemoryMb", 10_240),
+					"loadBalancer", true))
+			.build());
+
+	@Test
+	void everySweepPointEqualsAFullEstimate() throws IOException {
+		PriceCatalog catalog = catalog();
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		CalculationService calculationService = mock(CalculationService.class);
+		when(calculationService.findTemplate(TEMPLATE.getId())).thenReturn(TEMPLATE);
+		PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		when(priceCatalogService.current()).thenReturn(catalog);
+		ParameterSweepService sweeps = new ParameterSweepService(calculationService, priceCatalogService, costEngine);
+		ReflectionTestUtils.setField(sweeps, "maxPoints", 1000);
+
+		Random random = new Random(20261017L);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			Map<String, Object> configuration = randomConfiguration(random);
+			Object[] swept = SWEEPABLE[random.nextInt(SWEEPABLE.length)];
+			String component = (String) swept[0];
+			String parameter = (String) swept[1];
+			int min = (Integer) swept[2];
+			int max = (Integer) swept[3];
+			int from = between(random, min, max);
+			int to = between(random, from, max);
+			int step = Math.max(1, (to - from) / (1 + random.nextInt(20)));
+			String region = costEngine.regions().get(random.nextInt(costEngine.regions().size()));
+
+			ParameterSweepResponse response = sweeps.sweep(ParameterSweepRequest.builder()
+					.templateId(TEMPLATE.getId())
+					.configuration(configuration)
+					.region(region)
+					.component(component)
+					.parameter(parameter)
+					.from(BigDecimal.valueOf(from))
+					.to(BigDecimal.valueOf(to))
+					.step(BigDecimal.valueOf(step))
+					.build());
+
+			for (ParameterSweepResponse.Curve curve : response.getCurves()) {
+				CloudProvider provider = CloudProvider.valueOf(curve.getProvider());
+				for (int point = 0; point < response.getValues().size(); point++) {
+					Map<String, Object> pointConfiguration = with(configuration, component, parameter,
+							response.getValues().get(point));
+					CostEstimate expected = costEngine.estimate(provider, TEMPLATE.resolve(pointConfiguration),
+							costEngine.regionSlot(region), catalog);
+					String where = "trial " + trial + ": " + provider + " " + region + " " + component + "."
+							+ parameter + "=" + response.getValues().get(point) + " with " + configuration;
+					assertEquals(expected.totalInCents(), curve.getTotalMonthlyCost().get(point), where);
+					assertEquals(0, expected.breakdown().getOrDefault(component, BigDecimal.ZERO)
+							.compareTo(curve.getComponentCost().get(point)), where);
+				}
+			}
+		}
+	}
+
+	private static Map<String, Object> randomConfiguration(Random random) {
+		Map<String, Object> configuration = new HashMap<>();
+		configuration.put("compute", Map.of(
+				"type", random.nextInt(4) == 0 ? "gpu" : "general",
+				"vcpus", between(random, 1, 96),
+				"memoryGb", between(random, 1, 512),
+				"gpus", between(random, 0, 8)));
+		configuration.put("storage", Map.of("sizeGb", between(random, 1, 100_000)));
+		configuration.put("database", Map.of(
+				"type", random.nextBoolean() ? "postgres" : "nosql",
+				"storageGb", between(random, 10, 10_000)));
+		configuration.put("functions", Map.of(
+				"estimatedRequestsPerMonth", between(random, 0, 1_000_000_000),
+				"memoryMb", between(random, 128, 10_240)));
+		configuration.put("loadBalancer", random.nextBoolean());
+		return configuration;
+	}
+
+	private static Map<String, Object> with(Map<String, Object> configuration, String component, String parameter,
+											BigDecimal value) {
+		Map<String, Object> copy = new HashMap<>(configuration);
+		@SuppressWarnings("unchecked")
+		Map<String, Object> section = new HashMap<>((Map<String, Object>) configuration.get(component));
+		section.put(parameter, value);
+		copy.put(component, section);
+		return copy;
+	}
+
+	private static int between(Random random, int min, int max) {
+		return min + (int) (random.nextDouble() * ((long) max - min + 1));
+	}
+
+	// Real list prices for some lines and reference prices for the rest
+	private static PriceCatalog catalog() throws IOException {
+		List<PricingSnapshot> snapshots = new ArrayList<>();
+		parse(new AwsPriceListParser(), "aws-storage.json", snapshots);
+		parse(new AzureRetailPriceParser(), "azure-storage.json", snapshots);
+		parse(new GcpSkuParser(), "gcp-skus.json", snapshots);
+		return PriceCatalog.build(1, snapshots);
+	}
+
+	private static void parse(PriceListParser parser, String fixture, List<PricingSnapshot> snapshots) throws IOException {
+		try (InputStream input = new ClassPathResource("price-lists/" + fixture).getInputStream()) {
+			parser.parse(input, LocalDate.of(2026, 1, 1), snapshots::add);
+		}
+	}
+}
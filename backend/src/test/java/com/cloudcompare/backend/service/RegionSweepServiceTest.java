@@ -0,0 +1,110 @@
+package com.cloudcompare.backend.service;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.dto.RegionSweepRequest;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Each region is priced once however it is named, and a client that went away stops the sweep
+class RegionSweepServiceTest {
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(7L)
+			.name("storage")
+			.templateConfig(Map.of("storage", Map.of("defaultSizeGb", 100)))
+			.build());
+
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+	private final CalculationService calculationService = mock(CalculationService.class);
+	private final CostEngine costEngine;
+	private final RegionSweepService sweeps;
+
+	RegionSweepServiceTest() throws IOException {
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(2);
+		executor.setThreadNamePrefix("region-sweep-test-");
+		executor.initialize();
+		costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		when(priceCatalogService.current()).thenReturn(mock(PriceCatalog.class));
+		when(calculationService.findTemplate(TEMPLATE.getId())).thenReturn(TEMPLATE);
+		when(calculationService.calculateCloudCost(any(), any(), anyInt(), any()))
+				.thenReturn(new CostEstimate(1_000_000, List.of("storage"), new long[]{1_000_000}));
+		sweeps = new RegionSweepService(calculationService, priceCatalogService, costEngine, executor,
+				JsonMapper.builder().build());
+		ReflectionTestUtils.setField(sweeps, "maxInFlight", 1);
+	}
+
+	@AfterEach
+	void stop() {
+		executor.shutdown();
+	}
+
+	@Test
+	void repeatedRegionsAndAliasesArePricedOnce() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		sweeps.sweep(request(List.of("us-east-1", "eastus", "us-east-1", "us-west-2")), output);
+
+		String[] rows = output.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, rows.length);
+		assertTrue(rows[0].contains("\"region\":\"us-east-1\""));
+		assertTrue(rows[1].contains("\"region\":\"us-west-2\""));
+		verify(calculationService, times(2 * CloudProvider.values().length))
+				.calculateCloudCost(any(), any(), anyInt(), any());
+	}
+
+	@Test
+	void aClientThatWentAwayStopsTheSweep() {
+		assertTrue(costEngine.regions().size() > 1);
+		OutputStream closed = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+		};
+
+		sweeps.sweep(request(null), closed);
+
+		// Only the first region was priced; its write found the client gone
+		verify(calculationService, times(CloudProvider.values().length))
+				.calculateCloudCost(any(), any(), anyInt(), any());
+	}
+
+	private static RegionSweepRequest request(List<String> regions) {
+		return RegionSweepRequest.builder()
+				.templateId(TEMPLATE.getId())
+				.configuration(Map.of())
+				.regions(regions)
+				.build();
+	}
+}
@@ -0,0 +1,151 @@
+package com.cloudcompare.backend.service.analytics;
+
+import com.cloudcompare.backend.repository.CalculationRollupJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Closed minutes are folded into hour and day buckets; the last two minutes wait, and a failed flush keeps its counts
+class CalculationRollupsTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 23, 58, 30);
+
+	private final MutableClock clock = new MutableClock(START.toInstant(ZoneOffset.UTC));
+	private final CalculationRollupJdbcRepository repository = mock(CalculationRollupJdbcRepository.class);
+	private final List<RollupCount> hourly = new ArrayList<>();
+	private final List<RollupCount> daily = new ArrayList<>();
+	private final CalculationRollups rollups = new CalculationRollups(repository, new SimpleMeterRegistry(), clock);
+
+	CalculationRollupsTest() {
+		doAnswer(invocation -> {
+			hourly.addAll(invocation.getArgument(0));
+			daily.addAll(invocation.getArgument(1));
+			return null;
+		}).when(repository).addCounts(any(), any());
+	}
+
+	@Test
+	void theCurrentAndPreviousMinuteAreLeftToSettle() {
+		rollups.record(1, "us-east-1", "AWS");
+		clock.advanceSeconds(60);
+		rollups.record(1, "us-east-1", "AWS");
+
+		rollups.flush();
+		verify(repository, never()).addCounts(any(), any());
+
+		// Two minutes on, the first minute is closed; the second still waits
+		clock.advanceSeconds(60);
+		rollups.flush();
+		assertEquals(List.of(count(START.withMinute(0).withSecond(0), 1)), hourly);
+	}
+
+	@Test
+	void minutesAreFoldedIntoHourAndDayBuckets() {
+		rollups.record(1, "us-east-1", "AWS");
+		rollups.record(1, "us-east-1", "AWS");
+		clock.advanceSeconds(60);
+		rollups.record(1, "us-east-1", "AWS");
+		// 00:00:30 the next day: a new hour and a new day
+		clock.advanceSeconds(60);
+		rollups.record(1, "us-east-1", "AWS");
+		rollups.record(2, "eu-west-1", "GCP");
+
+		rollups.flushAll();
+
+		LocalDateTime nextDay = START.toLocalDate().plusDays(1).atStartOfDay();
+		assertEquals(List.of(count(START.withMinute(0).withSecond(0), 3), count(nextDay, 1),
+				new RollupCount(nextDay, 2, "eu-west-1", "GCP", 1)), sorted(hourly));
+		assertEquals(List.of(count(START.toLocalDate().atStartOfDay(), 3), count(nextDay, 1),
+				new RollupCount(nextDay, 2, "eu-west-1", "GCP", 1)), sorted(daily));
+	}
+
+	@Test
+	void aFailedFlushKeepsItsCountsForTheNextOne() {
+		rollups.record(1, "us-east-1", "AWS");
+		rollups.record(1, "us-east-1", "AWS");
+		clock.advanceSeconds(120);
+		doThrow(new QueryTimeoutException("database down")).when(repository).addCounts(any(), any());
+
+		rollups.flush();
+		assertTrue(hourly.isEmpty());
+
+		doAnswer(invocation -> {
+			hourly.addAll(invocation.getArgument(0));
+			daily.addAll(invocation.getArgument(1));
+			return null;
+		}).when(repository).addCounts(any(), any());
+		rollups.record(1, "us-east-1", "AWS");
+		clock.advanceSeconds(120);
+		rollups.flush();
+
+		// The two put back and the one recorded since are each added once
+		assertEquals(3, hourly.stream().mapToLong(RollupCount::calculations).sum());
+		assertEquals(3, daily.stream().mapToLong(RollupCount::calculations).sum());
+	}
+
+	@Test
+	void shutdownFlushesEveryMinute() {
+		rollups.record(1, null, "AWS");
+
+		rollups.flushAll();
+
+		assertEquals(List.of(new RollupCount(START.withMinute(0).withSecond(0), 1, "", "AWS", 1)), hourly);
+	}
+
+	private static RollupCount count(LocalDateTime bucketStart, long calculations) {
+		return new RollupCount(bucketStart, 1, "us-east-1", "AWS", calculations);
+	}
+
+	private static List<RollupCount> sorted(Collection<RollupCount> counts) {
+		return counts.stream()
+				.sorted(Comparator.comparing(RollupCount::bucketStart).thenComparing(RollupCount::templateId))
+				.toList();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now;
+
+		MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advanceSeconds(long seconds) {
+			now = now.plusSeconds(seconds);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Grid lookups must agree with a scan of every instance; unchanged partitions survive a new catalog version
+class InstanceIndexTest {
+
+	private static final int TRIALS = 2000;
+
+	@Test
+	void cheapestPicksTheCheapestInstanceThatFits() {
+		InstanceIndex.Partition partition = partition(1, List.of(
+				instance("us-east-1", "c5.large", 2, 4, 0, "0.085"),
+				instance("us-east-1", "t3.large", 2, 8, 0, "0.0832"),
+				instance("us-east-1", "m5.xlarge", 4, 16, 0, "0.192"),
+				instance("us-east-1", "g4dn.xlarge", 4, 16, 1, "0.526"),
+				instance("us-east-1", "g4dn.12xlarge", 48, 192, 4, "3.912")));
+
+		assertEquals("t3.large", type(partition, partition.cheapest(2, 4, 0)));
+		assertEquals("m5.xlarge", type(partition, partition.cheapest(3, 9, 0)));
+		assertEquals("g4dn.xlarge", type(partition, partition.cheapest(1, 1, 1)));
+		assertEquals("g4dn.12xlarge", type(partition, partition.cheapest(4, 16, 2)));
+		// NaN is no requirement at all
+		assertEquals("t3.large", type(partition, partition.cheapest(Double.NaN, Double.NaN, Double.NaN)));
+		assertEquals("m5.xlarge", type(partition, partition.cheapest(Double.NaN, 12, Double.NaN)));
+
+		assertEquals(-1, partition.cheapest(64, 4, 0));
+		assertEquals(-1, partition.cheapest(2, 256, 0));
+		assertEquals(-1, partition.cheapest(2, 4, 8));
+	}
+
+	@Test
+	void lookupsAgreeWithAScanOfEveryInstance() {
+		Random random = new Random(20261017L);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			List<PricingSnapshot> snapshots = new ArrayList<>();
+			int size = 1 + random.nextInt(30);
+			for (int i = 0; i < size; i++) {
+				snapshots.add(instance("us-east-1", "i" + i, 1 << random.nextInt(7), 1 + random.nextInt(256),
+						random.nextInt(4) == 0 ? 1 << random.nextInt(4) : 0,
+						BigDecimal.valueOf(1 + random.nextInt(5000), 3).toPlainString()));
+			}
+			InstanceIndex.Partition partition = partition(trial, snapshots);
+
+			double vcpus = random.nextInt(5) == 0 ? Double.NaN : random.nextInt(80);
+			double memoryGb = random.nextInt(5) == 0 ? Double.NaN : random.nextInt(300);
+			double gpus = random.nextInt(3) == 0 ? Double.NaN : random.nextInt(10);
+			long expected = Long.MAX_VALUE;
+			for (int i = 0; i < partition.size(); i++) {
+				if (fits(partition.vcpus(i), vcpus) && fits(partition.memoryGb(i), memoryGb)
+						&& fits(partition.gpus(i), gpus)) {
+					expected = Math.min(expected, partition.pricePerHour(i));
+				}
+			}
+
+			int found = partition.cheapest(vcpus, memoryGb, gpus);
+			String where = "trial " + trial + ": " + vcpus + " vCPUs, " + memoryGb + " GB, " + gpus + " GPUs";
+			if (expected == Long.MAX_VALUE) {
+				assertEquals(-1, found, where);
+				continue;
+			}
+			assertEquals(expected, partition.pricePerHour(found), where);
+			// No single instance that fits costs less than the floor
+			assertTrue(partition.floorPerHour(vcpus, memoryGb, gpus) <= expected, where);
+			for (int rank = 1; rank < partition.size(); rank++) {
+				assertTrue(partition.pricePerHour(partition.byPrice(rank - 1))
+						<= partition.pricePerHour(partition.byPrice(rank)), where);
+			}
+		}
+	}
+
+	@Test
+	void floorIsTheCheapestPricePerUnitOfTheScarcestResource() {
+		InstanceIndex.Partition partition = partition(1, List.of(
+				instance("us-east-1", "compute", 4, 8, 0, "0.2"),
+				instance("us-east-1", "memory", 2, 16, 0, "0.16"),
+				instance("us-east-1", "gpu", 8, 32, 2, "1.0")));
+
+		// 0.05 per vCPU, 0.01 per GB, 0.5 per GPU
+		assertEquals(Money.of(new BigDecimal("0.4")), partition.floorPerHour(8, 8, Double.NaN), 1e-6);
+		assertEquals(Money.of(new BigDecimal("1.0")), partition.floorPerHour(2, 100, 0), 1e-6);
+		assertEquals(Money.of(new BigDecimal("1.5")), partition.floorPerHour(1, 1, 3), 1e-6);
+		assertEquals(0, partition.floorPerHour(Double.NaN, Double.NaN, Double.NaN));
+	}
+
+	@Test
+	void unchangedPartitionsAreCarriedOverToANewCatalog() {
+		InstanceIndexService service = new InstanceIndexService();
+		PricingSnapshot east = instance("us-east-1", "t3.large", 2, 8, 0, "0.0832");
+		PricingSnapshot west = instance("us-west-2", "t3.large", 2, 8, 0, "0.0832");
+		InstanceIndex first = service.forCatalog(PriceCatalog.build(1, List.of(east, west)));
+		assertSame(first, service.forCatalog(PriceCatalog.build(1, List.of(east, west))));
+
+		InstanceIndex second = service.forCatalog(PriceCatalog.build(2, List.of(east,
+				instance("us-west-2", "t3.large", 2, 8, 0, "0.09"))));
+		assertSame(first.partition("AWS", "EC2", "us-east-1"), second.partition("AWS", "EC2", "us-east-1"));
+		assertNotSame(first.partition("AWS", "EC2", "us-west-2"), second.partition("AWS", "EC2", "us-west-2"));
+		assertEquals(Money.of(new BigDecimal("0.09")), second.partition("AWS", "EC2", "us-west-2").pricePerHour(0));
+		assertNull(second.partition("AWS", "EC2", "eu-west-1"));
+
+		// A request pinned to the old catalog doesn't replace the newer index
+		service.forCatalog(PriceCatalog.build(1, List.of(east, west)));
+		assertSame(second, service.forCatalog(PriceCatalog.build(2, List.of())));
+	}
+
+	@Test
+	void onlySizedComputeRowsAreIndexed() {
+		PricingSnapshot unsized = instance("us-east-1", "mystery", 2, 8, 0, "0.1");
+		unsized.setPricingData(Map.of("vcpus", 2));
+		PricingSnapshot storage = instance("us-east-1", "gp3", 2, 8, 0, "0.1");
+		storage.setServiceType("STORAGE");
+		// pricingData read back from jsonb may hold strings
+		PricingSnapshot text = instance("us-east-1", "t3.large", 2, 8, 0, "0.0832");
+		text.setPricingData(Map.of("vcpus", "2", "memoryGb", " 8 "));
+
+		InstanceIndex index = new InstanceIndexService().forCatalog(PriceCatalog.build(1, List.of(unsized, storage, text)));
+		InstanceIndex.Partition partition = index.partition("AWS", "EC2", "us-east-1");
+		assertEquals(1, partition.size());
+		assertEquals("t3.large", type(partition, partition.cheapest(2, 8, 0)));
+	}
+
+	private static InstanceIndex.Partition partition(long fingerprint, List<PricingSnapshot> snapshots) {
+		return InstanceIndex.Partition.build(fingerprint, snapshots);
+	}
+
+	// NaN is no requirement
+	private static boolean fits(double capacity, double required) {
+		return Double.isNaN(required) || capacity >= required;
+	}
+
+	private static String type(InstanceIndex.Partition partition, int index) {
+		return index < 0 ? null : partition.instance(index).getInstanceType();
+	}
+
+	private static PricingSnapshot instance(String region, String type, int vcpus, int memoryGb, int gpus,
+											String price) {
+		return PricingSnapshot.builder()
+				.provider("AWS")
+				.serviceType("COMPUTE")
+				.serviceName("EC2")
+				.region(region)
+				.instanceType(type)
+				.pricePerHour(new BigDecimal(price))
+				.pricingData(Map.of("vcpus", vcpus, "memoryGb", memoryGb, "gpus", gpus))
+				.build();
+	}
+}
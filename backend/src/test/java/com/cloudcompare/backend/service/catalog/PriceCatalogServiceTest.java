@@ -0,0 +1,123 @@
+package com.cloudcompare.backend.service.catalog;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.repository.PricingSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Every rebuild publishes a new version; the periodic check only rebuilds when the fingerprint moved
+class PriceCatalogServiceTest {
+
+	private static final LocalDateTime LOADED_AT = LocalDateTime.of(2026, 1, 1, 6, 0);
+
+	private final PricingSnapshotRepository repository = mock(PricingSnapshotRepository.class);
+	private final PriceCatalogService service = new PriceCatalogService(repository);
+
+	@AfterEach
+	void stop() {
+		service.shutdown();
+	}
+
+	@Test
+	void eachRebuildPublishesTheNextVersion() {
+		when(repository.findLatestSnapshots()).thenReturn(List.of(snapshot("t3.medium", "0.0416", 1)));
+		fingerprint(1, LOADED_AT);
+		assertEquals(0, service.current().getVersion());
+
+		PriceCatalog first = service.rebuild();
+		assertSame(first, service.current());
+		assertEquals(1, first.getVersion());
+		assertEquals(1, first.size());
+
+		when(repository.findLatestSnapshots()).thenReturn(List.of(snapshot("t3.medium", "0.0416", 1),
+				snapshot("t3.large", "0.0832", 1)));
+		PriceCatalog second = service.rebuild();
+		assertEquals(2, second.getVersion());
+		assertEquals(2, second.size());
+		// Readers holding the old version keep a complete catalog
+		assertEquals(1, first.size());
+	}
+
+	@Test
+	void refreshOnlyRebuildsWhenTheFingerprintChanged() throws InterruptedException {
+		when(repository.findLatestSnapshots()).thenReturn(List.of(snapshot("t3.medium", "0.0416", 1)));
+		fingerprint(1, LOADED_AT);
+		service.rebuild();
+
+		service.refreshIfChanged();
+		Thread.sleep(100);
+		assertEquals(1, service.current().getVersion());
+		verify(repository, times(1)).findLatestSnapshots();
+
+		fingerprint(2, LOADED_AT.plusMinutes(5));
+		service.refreshIfChanged();
+		awaitVersion(2);
+		verify(repository, times(2)).findLatestSnapshots();
+	}
+
+	@Test
+	void aFailedRebuildKeepsTheCurrentVersion() throws InterruptedException {
+		when(repository.findLatestSnapshots()).thenReturn(List.of(snapshot("t3.medium", "0.0416", 1)));
+		fingerprint(1, LOADED_AT);
+		PriceCatalog loaded = service.rebuild();
+
+		when(repository.findLatestSnapshots()).thenThrow(new IllegalStateException("database down"));
+		fingerprint(2, LOADED_AT.plusMinutes(5));
+		service.refreshIfChanged();
+		Thread.sleep(100);
+		assertSame(loaded, service.current());
+	}
+
+	@Test
+	void theNewestSnapshotOfAKeyWins() {
+		PriceCatalog catalog = PriceCatalog.build(1, List.of(snapshot("t3.medium", "0.0416", 2),
+				snapshot("t3.medium", "0.05", 1), snapshot(null, "0.0225", 1)));
+
+		assertEquals(2, catalog.size());
+		assertEquals(new BigDecimal("0.0416"), catalog.find("AWS", "EC2", "us-east-1", "t3.medium")
+				.orElseThrow().getPricePerHour());
+		// A null instance type is a key of its own
+		assertTrue(catalog.find("AWS", "EC2", "us-east-1", null).isPresent());
+		assertFalse(catalog.find("AWS", "EC2", "us-east-1", "t3.large").isPresent());
+		assertFalse(catalog.find("GCP", "EC2", "us-east-1", "t3.medium").isPresent());
+	}
+
+	private void fingerprint(long count, LocalDateTime lastUpdatedAt) {
+		when(repository.countLatest()).thenReturn(count);
+		when(repository.findLatestUpdatedAt()).thenReturn(Optional.of(lastUpdatedAt));
+	}
+
+	private void awaitVersion(long version) throws InterruptedException {
+		for (int i = 0; i < 100 && service.current().getVersion() < version; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(version, service.current().getVersion());
+	}
+
+	private static PricingSnapshot snapshot(String instanceType, String pricePerHour, int day) {
+		return PricingSnapshot.builder()
+				.provider("AWS")
+				.serviceType("COMPUTE")
+				.serviceName("EC2")
+				.region("us-east-1")
+				.instanceType(instanceType)
+				.pricePerHour(new BigDecimal(pricePerHour))
+				.effectiveFrom(LocalDate.of(2026, 1, day))
+				.build();
+	}
+}
@@ -0,0 +1,76 @@
+package com.cloudcompare.backend.service.compare;
+
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Requests that price the same thing must share a cache entry however they spell it
+class CompareKeyTest {
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(3L)
+			.name("web")
+			.templateConfig(Map.of(
+					"compute", Map.of("defaultVcpus", 2, "minVcpus", 1, "maxVcpus", 64, "defaultMemoryGb", 4),
+					"storage", Map.of("defaultSizeGb", 100)))
+			.build());
+
+	@Test
+	void reorderedConfigurationsAndSpelledOutDefaultsShareAKey() {
+		Map<String, Object> compute = new LinkedHashMap<>();
+		compute.put("vcpus", 4);
+		compute.put("memoryGb", 16);
+		Map<String, Object> first = new LinkedHashMap<>();
+		first.put("compute", compute);
+		first.put("storage", Map.of("sizeGb", 100));
+
+		Map<String, Object> reordered = new LinkedHashMap<>();
+		reordered.put("compute", Map.of("memoryGb", 16.0, "vcpus", 4.0));
+
+		assertEquals(key(7, "us-east-1", first), key(7, "us-east-1", reordered));
+	}
+
+	@Test
+	void regionConfigurationAndCatalogVersionAreAllPartOfTheKey() {
+		Map<String, Object> configuration = Map.of("compute", Map.of("vcpus", 4));
+		CompareKey key = key(7, "us-east-1", configuration);
+
+		assertNotEquals(key, key(7, "us-west-2", configuration));
+		assertNotEquals(key, key(7, "us-east-1", Map.of("compute", Map.of("vcpus", 8))));
+		assertNotEquals(key, key(8, "us-east-1", configuration));
+		assertEquals(key.digest(), key(8, "us-east-1", configuration).digest());
+	}
+
+	@Test
+	void aliasedRegionsShareAKey() throws IOException {
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		Map<String, Object> configuration = Map.of("compute", Map.of("vcpus", 4));
+
+		CompareKey key = key(7, canonical(costEngine, "us-east-1"), configuration);
+		assertEquals(key, key(7, canonical(costEngine, "eastus"), configuration));
+		assertEquals(key, key(7, canonical(costEngine, "us-east1"), configuration));
+		assertNotEquals(key, key(7, canonical(costEngine, "us-west-2"), configuration));
+	}
+
+	// The way CalculationService names the region it keys a compare by
+	private static String canonical(CostEngine costEngine, String region) {
+		return costEngine.regions().get(costEngine.regionSlot(region));
+	}
+
+	private static CompareKey key(long catalogVersion, String region, Map<String, Object> configuration) {
+		return CompareKey.of(catalogVersion, TEMPLATE.getId(), region, TEMPLATE.resolve(configuration));
+	}
+}
@@ -0,0 +1,52 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Usage types carry a region code outside us-east-1; the rules name them without it
+class AwsPriceListParserTest {
+
+	@Test
+	void usageTypesAreKeyedWithoutTheirRegionCode() throws IOException {
+		PriceCatalog catalog = PriceCatalog.build(1, PriceListPrecisionTest.parse(new AwsPriceListParser(), "aws-storage.json"));
+
+		assertTrue(catalog.find("AWS", "S3", "us-east-1", "TimedStorage-ByteHrs").isPresent());
+		assertEquals("EUC1-TimedStorage-ByteHrs", catalog.find("AWS", "S3", "eu-central-1", "TimedStorage-ByteHrs")
+				.orElseThrow().getPricingData().get("usagetype"));
+		assertTrue(catalog.find("AWS", "S3", "eu-west-1", "TimedStorage-ByteHrs").isPresent());
+		// The storage class part of the usage type is not a region code
+		assertTrue(catalog.find("AWS", "S3", "us-east-1", "TimedStorage-GDA-ByteHrs").isPresent());
+	}
+
+	@Test
+	void regionalStorageIsPricedFromTheCatalog() throws IOException {
+		PriceCatalog catalog = PriceCatalog.build(1, PriceListPrecisionTest.parse(new AwsPriceListParser(), "aws-storage.json"));
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		CompiledTemplate template = CompiledTemplate.compile(Template.builder()
+				.id(1L)
+				.name("storage")
+				.templateConfig(Map.of("storage", Map.of("defaultSizeGb", 1000)))
+				.build());
+
+		BigDecimal storage = costEngine.estimate(CloudProvider.AWS, template.resolve(Map.of()),
+				costEngine.regionSlot("eu-central-1"), catalog).breakdown().get("storage");
+		// 1000 GB at Frankfurt's 0.0245; the 0.023 reference would give 23.00
+		assertEquals(new BigDecimal("24.50"), storage);
+	}
+}
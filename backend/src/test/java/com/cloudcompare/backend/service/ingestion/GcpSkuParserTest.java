@@ -0,0 +1,107 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// GCP SKUs must come out under the names rules.json looks up, with machine types sized
+class GcpSkuParserTest {
+
+	@Test
+	void skusAreKeyedByTheRuleNames() throws IOException {
+		PriceCatalog catalog = PriceCatalog.build(1, PriceListPrecisionTest.parse(new GcpSkuParser(), "gcp-skus.json"));
+
+		assertPrice("0.02", catalog.find("GCP", "Cloud Storage", "us-east1", "Standard Storage")
+				.orElseThrow().getPricePerMonth());
+		assertPrice("0.17", catalog.find("GCP", "Cloud SQL", "us-east1", "Storage PD SSD")
+				.orElseThrow().getPricePerMonth());
+		assertPrice("0.025", catalog.find("GCP", "Compute Engine", "us-west1", "Network Load Balancing: Forwarding Rule")
+				.orElseThrow().getPricePerHour());
+		assertTrue(catalog.find("GCP", "Cloud CDN", "us-east1", "Cache Egress").isPresent());
+		// Only egress that stays within a continent is the rules' Cache Egress
+		assertTrue(catalog.find("GCP", "Cloud CDN", "us-east1",
+				"Networking Cloud CDN Traffic Cache Egress from Americas to EMEA").isPresent());
+	}
+
+	@Test
+	void machineTypesAreBuiltFromCoreRamAndGpuPrices() throws IOException {
+		List<PricingSnapshot> snapshots = PriceListPrecisionTest.parse(new GcpSkuParser(), "gcp-skus.json");
+		PriceCatalog catalog = PriceCatalog.build(1, snapshots);
+
+		// 4 x 0.021811 + 16 x 0.002923; the 1-year commitment SKU is not on-demand
+		PricingSnapshot e2 = catalog.find("GCP", "Compute Engine", "us-east1", "e2-standard-4").orElseThrow();
+		assertPrice("0.134012", e2.getPricePerHour());
+		assertEquals(4.0, InstanceIndex.vcpus(e2));
+		assertEquals(16.0, InstanceIndex.memoryGb(e2));
+		// Shared-core: billed for half a vCPU, sized as two
+		PricingSnapshot small = catalog.find("GCP", "Compute Engine", "us-west1", "e2-small").orElseThrow();
+		assertPrice("0.0167515", small.getPricePerHour());
+		assertEquals(2.0, InstanceIndex.vcpus(small));
+
+		// 48 x 0.02862 + 192 x 0.00335 + 4 x 0.559871
+		PricingSnapshot g2 = catalog.find("GCP", "Compute Engine", "us-east1", "g2-standard-48").orElseThrow();
+		assertPrice("4.256444", g2.getPricePerHour());
+		assertEquals(4.0, InstanceIndex.gpus(g2));
+		// No G2 prices in us-west1, so no G2 machines there
+		assertFalse(catalog.find("GCP", "Compute Engine", "us-west1", "g2-standard-4").isPresent());
+
+		// 2 x 0.0413 + 4 x 0.007
+		assertPrice("0.1106", catalog.find("GCP", "Cloud SQL", "us-east1", "db-custom-2-4096")
+				.orElseThrow().getPricePerHour());
+		assertEquals(1, snapshots.stream()
+				.filter(s -> s.getRegion().equals("us-east1") && s.getInstanceType().equals("E2 Instance Core"))
+				.count());
+	}
+
+	@Test
+	void gcpInstancesAreIndexedAndPriced() throws IOException {
+		PriceCatalog catalog = PriceCatalog.build(1, PriceListPrecisionTest.parse(new GcpSkuParser(), "gcp-skus.json"));
+		InstanceIndexService instances = new InstanceIndexService();
+
+		InstanceIndex.Partition partition = instances.forCatalog(catalog).partition("GCP", "Compute Engine", "us-east1");
+		assertNotNull(partition);
+		assertEquals("e2-standard-4", partition.instance(partition.cheapest(3, 12, 0)).getInstanceType());
+		assertEquals("g2-standard-4", partition.instance(partition.cheapest(4, 16, 1)).getInstanceType());
+		assertNull(instances.forCatalog(catalog).partition("GCP", "Compute Engine", "europe-west1"));
+
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), instances,
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		CompiledTemplate template = CompiledTemplate.compile(Template.builder()
+				.id(1L)
+				.name("web")
+				.templateConfig(Map.of(
+						"compute", Map.of("defaultVcpus", 4, "defaultMemoryGb", 16),
+						"database", Map.of("type", "postgres", "defaultStorageGb", 100)))
+				.build());
+		Map<String, BigDecimal> breakdown = costEngine.estimate(CloudProvider.GCP, template.resolve(Map.of()),
+				costEngine.regionSlot("us-east-1"), catalog).breakdown();
+		// 730 h at 0.134012; the 0.134 reference would give 97.82
+		assertEquals(new BigDecimal("97.83"), breakdown.get("compute"));
+		// 730 h at 0.1106 plus 100 GB at 0.17; the 0.1 reference would give 90.00
+		assertEquals(new BigDecimal("97.74"), breakdown.get("database"));
+	}
+
+	private static void assertPrice(String expected, BigDecimal actual) {
+		assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+	}
+}
@@ -0,0 +1,85 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Polling only hands the inbox to the import thread; a poll while an import runs, or without an inbox, is skipped
+class PriceListInboxTest {
+
+	@TempDir
+	Path inbox;
+
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+	PriceListInboxTest() {
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(0);
+		executor.setThreadNamePrefix("price-import-test-");
+		executor.initialize();
+	}
+
+	@AfterEach
+	void stop() {
+		executor.shutdown();
+	}
+
+	@Test
+	void importsRunOffThePollingThreadOneAtATime() throws Exception {
+		Path file = Files.writeString(inbox.resolve("aws-ec2.json"), "{}");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<String> importThread = new AtomicReference<>();
+		PriceListImportService importService = mock(PriceListImportService.class);
+		when(importService.importFile(eq(CloudProvider.AWS), any())).thenAnswer(invocation -> {
+			importThread.set(Thread.currentThread().getName());
+			started.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return null;
+		});
+		PriceListInbox priceListInbox = new PriceListInbox(importService, executor, inbox.toString());
+
+		priceListInbox.poll();
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		// Still importing: this poll neither blocks nor starts a second import
+		priceListInbox.poll();
+		release.countDown();
+
+		executor.getThreadPoolExecutor().shutdown();
+		assertTrue(executor.getThreadPoolExecutor().awaitTermination(10, TimeUnit.SECONDS));
+		assertTrue(importThread.get().startsWith("price-import-test-"));
+		verify(importService, times(1)).importFile(eq(CloudProvider.AWS), any());
+		assertFalse(Files.exists(file));
+		assertTrue(Files.exists(inbox.resolve("processed").resolve("aws-ec2.json")));
+	}
+
+	@Test
+	void withoutAnInboxPollingDoesNothing() {
+		PriceListImportService importService = mock(PriceListImportService.class);
+
+		new PriceListInbox(importService, executor, "").poll();
+
+		assertEquals(0, executor.getThreadPoolExecutor().getTaskCount());
+		verifyNoInteractions(importService);
+	}
+}
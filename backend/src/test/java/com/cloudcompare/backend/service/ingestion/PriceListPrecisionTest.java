@@ -0,0 +1,88 @@
+package com.cloudcompare.backend.service.ingestion;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Column;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Per-GB monthly prices are fractions of a cent; they must reach the estimate unrounded
+class PriceListPrecisionTest {
+
+	@Test
+	void subCentMonthlyPricesAreParsedExactly() throws IOException {
+		List<PricingSnapshot> aws = parse(new AwsPriceListParser(), "aws-storage.json");
+		assertMonthly("0.023", aws, "TimedStorage-ByteHrs");
+		assertMonthly("0.00099", aws, "TimedStorage-GDA-ByteHrs");
+
+		List<PricingSnapshot> azure = parse(new AzureRetailPriceParser(), "azure-storage.json");
+		assertEquals(2, azure.size());
+		assertEquals(0, new BigDecimal("0.0184").compareTo(azure.get(0).getPricePerMonth()));
+		assertEquals(0, new BigDecimal("0.00099").compareTo(azure.get(1).getPricePerMonth()));
+		// Non-VM meters are keyed by the meter name the storage rule looks up
+		assertEquals("Hot LRS Data Stored", azure.get(0).getInstanceType());
+	}
+
+	@Test
+	void priceColumnsKeepEveryDigitMoneyDoes() throws NoSuchFieldException {
+		for (String field : List.of("pricePerHour", "pricePerMonth")) {
+			Column column = PricingSnapshot.class.getDeclaredField(field).getAnnotation(Column.class);
+			assertEquals(Money.SCALE, column.scale(), field);
+		}
+		assertTrue(new BigDecimal("0.00099").scale() <= Money.SCALE);
+	}
+
+	@Test
+	void catalogPricesStorageFromTheExactMonthlyPrice() throws IOException {
+		PriceCatalog catalog = PriceCatalog.build(1, parse(new AwsPriceListParser(), "aws-storage.json"));
+		assertEquals(0, new BigDecimal("0.00099").compareTo(catalog.find("AWS", "S3", "us-east-1",
+				"TimedStorage-GDA-ByteHrs").orElseThrow().getPricePerMonth()));
+
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		CompiledTemplate template = CompiledTemplate.compile(Template.builder()
+				.id(1L)
+				.name("storage")
+				.templateConfig(Map.of("storage", Map.of("defaultSizeGb", 1000)))
+				.build());
+		BigDecimal storage = costEngine.estimate(CloudProvider.AWS, template.resolve(Map.of()),
+				costEngine.regionSlot("us-east-1"), catalog).breakdown().get("storage");
+		// 1000 GB at 0.023; a price rounded to 0.02 would give 20.00
+		assertEquals(new BigDecimal("23.00"), storage);
+	}
+
+	private static void assertMonthly(String expected, List<PricingSnapshot> snapshots, String instanceType) {
+		PricingSnapshot snapshot = snapshots.stream()
+				.filter(s -> s.getInstanceType().equals(instanceType))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No " + instanceType));
+		assertEquals(0, new BigDecimal(expected).compareTo(snapshot.getPricePerMonth()), instanceType);
+	}
+
+	static List<PricingSnapshot> parse(PriceListParser parser, String fixture) throws IOException {
+		List<PricingSnapshot> snapshots = new ArrayList<>();
+		try (InputStream input = new ClassPathResource("price-lists/" + fixture).getInputStream()) {
+			parser.parse(input, LocalDate.of(2026, 1, 1), snapshots::add);
+		}
+		return snapshots;
+	}
+}
@@ -0,0 +1,115 @@
+package com.cloudcompare.backend.service.invalidation;
+
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// A change clears its scope's caches locally and is broadcast unless disabled; other nodes apply it,
+// the sender and malformed payloads are ignored
+class CacheInvalidationBusTest {
+
+	private static final String CHANNEL = "cloudcompare_cache";
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+	@Test
+	void aTemplateChangeReloadsTemplatesAndClearsComparesButKeepsTheCatalog() {
+		Node node = new Node();
+		node.fillCaches();
+
+		node.bus.publish(InvalidationScope.TEMPLATES);
+
+		assertNull(node.cacheManager.getCache("templates").get(1L));
+		assertNull(node.cacheManager.getCache("calculations").get(1L));
+		verify(node.templateRegistry).reload();
+		verify(node.priceCatalogService, never()).requestRebuild();
+	}
+
+	@Test
+	void aBroadcastIsAppliedByOtherNodesOnly() {
+		Node sender = new Node();
+		Node receiver = new Node();
+		sender.bus.publish(InvalidationScope.PRICING);
+		String payload = broadcastPayload();
+		sender.fillCaches();
+		receiver.fillCaches();
+
+		sender.bus.handle(payload);
+		receiver.bus.handle(payload);
+
+		assertNotNull(sender.cacheManager.getCache("calculations").get(1L));
+		assertNull(receiver.cacheManager.getCache("calculations").get(1L));
+		// The template cache is outside the pricing scope
+		assertNotNull(receiver.cacheManager.getCache("templates").get(1L));
+		verify(receiver.priceCatalogService).requestRebuild();
+		verify(receiver.templateRegistry, never()).reload();
+	}
+
+	@Test
+	void malformedPayloadsAreIgnored() {
+		Node node = new Node();
+		node.fillCaches();
+
+		node.bus.handle("not json");
+		node.bus.handle("{\"origin\": \"other\", \"scope\": \"EVERYTHING\"}");
+		node.bus.handle("{\"origin\": \"other\"}");
+
+		assertNotNull(node.cacheManager.getCache("calculations").get(1L));
+		verify(node.priceCatalogService, never()).requestRebuild();
+	}
+
+	@Test
+	void whenDisabledAChangeIsOnlyAppliedLocally() {
+		Node node = new Node();
+		ReflectionTestUtils.setField(node.bus, "enabled", false);
+		node.fillCaches();
+
+		node.bus.publish(InvalidationScope.TEMPLATES);
+		node.bus.start();
+
+		assertNull(node.cacheManager.getCache("calculations").get(1L));
+		verify(node.templateRegistry).reload();
+		verifyNoInteractions(jdbcTemplate);
+		assertNull(ReflectionTestUtils.getField(node.bus, "listener"));
+	}
+
+	private String broadcastPayload() {
+		ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+		verify(jdbcTemplate).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class), eq(CHANNEL),
+				payload.capture());
+		return (String) payload.getValue();
+	}
+
+	private final class Node {
+
+		final CacheManager cacheManager = new ConcurrentMapCacheManager("templates", "calculations");
+		final PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		final TemplateRegistry templateRegistry = mock(TemplateRegistry.class);
+		final CacheInvalidationBus bus = new CacheInvalidationBus(cacheManager, priceCatalogService, templateRegistry,
+				jdbcTemplate, JsonMapper.builder().build());
+
+		Node() {
+			ReflectionTestUtils.setField(bus, "enabled", true);
+			ReflectionTestUtils.setField(bus, "channel", CHANNEL);
+		}
+
+		void fillCaches() {
+			cacheManager.getCache("templates").put(1L, "template");
+			cacheManager.getCache("calculations").put(1L, "compare");
+		}
+	}
+}
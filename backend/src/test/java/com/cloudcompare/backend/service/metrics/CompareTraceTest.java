@@ -0,0 +1,89 @@
+package com.cloudcompare.backend.service.metrics;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.dto.SlowCompare;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each stage that ran is timed once per compare, repeated records add up, and only completed compares count
+class CompareTraceTest {
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(1L)
+			.name("web")
+			.category("WEB_APP")
+			.build());
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CompareMetrics compareMetrics = new CompareMetrics(meterRegistry, 10, Duration.ofMinutes(5));
+
+	@Test
+	void stagesChainAndRepeatedRecordsAddUp() {
+		CompareTrace trace = compareMetrics.start("compare");
+		long started = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+		long now = trace.record(CompareStage.TEMPLATE, started);
+		trace.record(CompareStage.CACHE, now);
+		trace.record(CompareStage.CACHE, now - TimeUnit.MILLISECONDS.toNanos(3));
+
+		assertTrue(trace.stageNanos(CompareStage.TEMPLATE) >= TimeUnit.MILLISECONDS.toNanos(5));
+		assertTrue(trace.stageNanos(CompareStage.CACHE) >= TimeUnit.MILLISECONDS.toNanos(3));
+		assertEquals(-1, trace.stageNanos(CompareStage.PRICING));
+	}
+
+	@Test
+	void aCompletedCompareRecordsTheStagesThatRanAndThePricedProviders() {
+		CompareTrace trace = compareMetrics.start("compare");
+		trace.describe(TEMPLATE, "us-east-1");
+		long now = trace.record(CompareStage.TEMPLATE, trace.getStarted());
+		trace.cacheHit(false);
+		now = trace.record(CompareStage.CACHE, now);
+		trace.recordProvider(CloudProvider.AWS, TimeUnit.MILLISECONDS.toNanos(4));
+		trace.record(CompareStage.PRICING, now);
+		trace.completed(42L);
+		trace.handled();
+
+		compareMetrics.finish(trace);
+
+		assertEquals(1, timer("compare.request").count());
+		assertEquals(1, meterRegistry.get("compare.stage").tag("stage", "template").timer().count());
+		assertEquals(1, meterRegistry.get("compare.stage").tag("stage", "serialization").timer().count());
+		assertNull(meterRegistry.find("compare.stage").tag("stage", "record").timer());
+		assertEquals(1, meterRegistry.get("compare.provider").tag("provider", "AWS").timer().count());
+		assertNull(meterRegistry.find("compare.provider").tag("provider", "GCP").timer());
+
+		List<SlowCompare> slowest = compareMetrics.slowest();
+		assertEquals(1, slowest.size());
+		assertEquals(42L, slowest.get(0).getCalculationId());
+		assertEquals(List.of("template", "cache", "pricing", "serialization"),
+				List.copyOf(slowest.get(0).getStagesMs().keySet()));
+		assertEquals(List.of("AWS"), List.copyOf(slowest.get(0).getProvidersMs().keySet()));
+	}
+
+	@Test
+	void aCompareThatNeverCompletedIsNotRecorded() {
+		CompareTrace trace = compareMetrics.start("batch");
+		trace.describe(TEMPLATE, "us-east-1");
+		trace.record(CompareStage.TEMPLATE, trace.getStarted());
+
+		compareMetrics.finish(trace);
+
+		assertNull(meterRegistry.find("compare.request").timer());
+		assertTrue(compareMetrics.slowest().isEmpty());
+	}
+
+	private Timer timer(String name) {
+		return meterRegistry.get(name).tag("category", "WEB_APP").tag("region", "us-east-1").timer();
+	}
+}
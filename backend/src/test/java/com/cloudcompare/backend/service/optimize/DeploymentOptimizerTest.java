@@ -0,0 +1,189 @@
+package com.cloudcompare.backend.service.optimize;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.dto.OptimizeRequest;
+import com.cloudcompare.backend.model.dto.OptimizeResponse;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.CostEstimate;
+import com.cloudcompare.backend.service.rules.ProviderEstimator;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Branch-and-bound must return the same best totals as trying every instance, while skipping most of them
+class DeploymentOptimizerTest {
+
+	private static final int TRIALS = 40;
+	private static final int MAX_INSTANCES = 64;
+	private static final List<String> REGIONS = List.of("us-east-1", "us-west-2", "eu-west-1");
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(7L)
+			.name("optimizable")
+			.templateConfig(Map.of(
+					"compute", Map.of("type", "general", "defaultVcpus", 2, "minVcpus", 1, "maxVcpus", 256,
+							"defaultMemoryGb", 4, "minMemoryGb", 1, "maxMemoryGb", 1024),
+					"storage", Map.of("defaultSizeGb", 100, "minSizeGb", 10, "maxSizeGb", 10_000)))
+			.build());
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterEach
+	void stop() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void pruningKeepsTheExhaustiveOptimum() throws IOException {
+		Random random = new Random(20261017L);
+		PriceCatalog catalog = catalog(random);
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		DeploymentOptimizer optimizer = optimizer(costEngine, catalog);
+
+		long pruned = 0;
+		for (int trial = 0; trial < TRIALS; trial++) {
+			int topK = 1 + random.nextInt(5);
+			OptimizeResponse response = optimizer.optimize(OptimizeRequest.builder()
+					.templateId(TEMPLATE.getId())
+					.minimums(Map.of("compute", Map.of("vcpus", 1 + random.nextInt(128),
+							"memoryGb", 1 + random.nextInt(512))))
+					.regions(REGIONS)
+					.topK(topK)
+					.build());
+
+			List<BigDecimal> expected = exhaustive(costEngine, catalog, TEMPLATE.resolve(response.getConfiguration()),
+					topK);
+			List<BigDecimal> actual = response.getCandidates().stream()
+					.map(candidate -> candidate.getCost().getTotalMonthlyCost())
+					.toList();
+			assertEquals(expected, actual, "trial " + trial + " with " + response.getConfiguration());
+			assertTrue(response.isComplete());
+			pruned += response.getPruned();
+		}
+		assertTrue(pruned > 0, "nothing was pruned");
+	}
+
+	@Test
+	void theBoundSkipsMostInstances() throws IOException {
+		Random random = new Random(7L);
+		PriceCatalog catalog = catalog(random);
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+
+		OptimizeResponse response = optimizer(costEngine, catalog).optimize(OptimizeRequest.builder()
+				.templateId(TEMPLATE.getId())
+				.minimums(Map.of("compute", Map.of("vcpus", 16, "memoryGb", 64)))
+				.providers(List.of(CloudProvider.AWS))
+				.regions(REGIONS)
+				.topK(1)
+				.build());
+
+		long instances = 0;
+		for (String region : REGIONS) {
+			instances += new InstanceIndexService().forCatalog(catalog).partition("AWS", "EC2", region).size();
+		}
+		assertTrue(response.getPruned() > instances / 2, response.getPruned() + " of " + instances + " pruned");
+		// One estimate per region plus the instances actually priced
+		assertTrue(response.getEvaluated() - REGIONS.size() < instances / 2, response.getEvaluated() + " evaluated");
+	}
+
+	// Every candidate the optimizer could return: one per provider/region, or one per instance that can be used
+	private static List<BigDecimal> exhaustive(CostEngine costEngine, PriceCatalog catalog,
+											   ResolvedConfiguration configuration, int topK) {
+		List<CostEstimate> candidates = new ArrayList<>();
+		for (CloudProvider provider : CloudProvider.values()) {
+			for (String region : REGIONS) {
+				int slot = costEngine.regionSlot(region);
+				CostEstimate estimate = costEngine.estimate(provider, configuration, slot, catalog);
+				ProviderEstimator.InstanceLine line = costEngine.estimator(provider, TEMPLATE, catalog)
+						.instanceLine(configuration, slot);
+				if (line == null) {
+					candidates.add(estimate);
+					continue;
+				}
+				InstanceIndex.Partition partition = line.partition();
+				for (int instance = 0; instance < partition.size(); instance++) {
+					int count = instancesNeeded(partition, instance, line);
+					if (count > 0) {
+						candidates.add(estimate.withPart(line.part(), Money.roundToCents(
+								Money.times(partition.pricePerHour(instance), line.quantity() * count))));
+					}
+				}
+			}
+		}
+		return candidates.stream()
+				.map(CostEstimate::totalInCents)
+				.sorted()
+				.limit(topK)
+				.toList();
+	}
+
+	private static int instancesNeeded(InstanceIndex.Partition partition, int instance,
+									   ProviderEstimator.InstanceLine line) {
+		double count = Math.max(1, Math.max(Math.ceil(line.vcpus() / partition.vcpus(instance)),
+				Math.ceil(line.memoryGb() / partition.memoryGb(instance))));
+		return count <= MAX_INSTANCES ? (int) count : 0;
+	}
+
+	private DeploymentOptimizer optimizer(CostEngine costEngine, PriceCatalog catalog) {
+		CalculationService calculationService = mock(CalculationService.class);
+		when(calculationService.findTemplate(TEMPLATE.getId())).thenReturn(TEMPLATE);
+		PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+		when(priceCatalogService.current()).thenReturn(catalog);
+		DeploymentOptimizer optimizer = new DeploymentOptimizer(calculationService, priceCatalogService, costEngine,
+				pool);
+		ReflectionTestUtils.setField(optimizer, "timeLimit", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(optimizer, "maxInstances", MAX_INSTANCES);
+		return optimizer;
+	}
+
+	// A few hundred EC2 instances per AWS region; the other providers are priced from reference sizes
+	private static PriceCatalog catalog(Random random) {
+		List<PricingSnapshot> snapshots = new ArrayList<>();
+		for (String region : REGIONS) {
+			for (int i = 0; i < 300; i++) {
+				int vcpus = 1 << random.nextInt(8);
+				int memoryGb = vcpus * (1 << random.nextInt(4));
+				snapshots.add(PricingSnapshot.builder()
+						.provider("AWS")
+						.serviceType("COMPUTE")
+						.serviceName("EC2")
+						.region(region)
+						.instanceType("x" + i + "." + vcpus + "." + memoryGb)
+						.pricePerHour(BigDecimal.valueOf(vcpus * (20 + random.nextInt(30)) + memoryGb
+								* (2 + random.nextInt(6)), 4))
+						.pricingData(Map.of("vcpus", vcpus, "memoryGb", memoryGb))
+						.build());
+			}
+		}
+		return PriceCatalog.build(1, snapshots);
+	}
+}
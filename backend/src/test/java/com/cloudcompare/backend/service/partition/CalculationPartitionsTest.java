@@ -0,0 +1,131 @@
+package com.cloudcompare.backend.service.partition;
+
+import com.cloudcompare.backend.repository.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Months of calculations past retention are archived to NDJSON and dropped; a failed archive keeps the month
+class CalculationPartitionsTest {
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+	private static final YearMonth NOW = YearMonth.now();
+	private static final YearMonth EXPIRED = NOW.minusMonths(14);
+	private static final String EXPIRED_PARTITION = "calculations" + suffix(EXPIRED);
+
+	@TempDir
+	Path archiveDir;
+
+	private PostgresTestDatabase database;
+
+	@AfterEach
+	void dropSchema() {
+		if (database != null) {
+			database.close();
+		}
+	}
+
+	@Test
+	void aPlainTableIsConvertedWithItsRows() {
+		JdbcTemplate jdbc = plainTableWithHistory();
+
+		database.run("db/calculations.sql", "db/calculation_partitions.sql");
+
+		assertEquals("p", jdbc.queryForObject(
+				"SELECT relkind::text FROM pg_class WHERE oid = to_regclass('calculations')", String.class));
+		assertEquals(3, jdbc.queryForObject("SELECT count(*) FROM calculations", Integer.class));
+		assertTrue(partitions(jdbc).containsAll(List.of(EXPIRED_PARTITION, "calculations" + suffix(NOW.plusMonths(3)))));
+	}
+
+	@Test
+	void anExpiredMonthIsArchivedAndDropped() throws IOException {
+		JdbcTemplate jdbc = plainTableWithHistory();
+		database.run("db/calculations.sql", "db/calculation_partitions.sql");
+
+		maintain(jdbc, archiveDir);
+
+		assertNull(jdbc.queryForObject("SELECT to_regclass(?)::text", String.class, EXPIRED_PARTITION));
+		assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM calculations", Integer.class));
+		Path archive = archiveDir.resolve(EXPIRED_PARTITION + ".ndjson.gz");
+		List<JsonNode> rows = readArchive(archive);
+		assertEquals(2, rows.size());
+		assertEquals("web", rows.get(0).path("user_config").path("name").asString());
+		assertEquals(12.5, rows.get(0).path("aws_cost").asDouble());
+		assertFalse(Files.exists(archiveDir.resolve(EXPIRED_PARTITION + ".ndjson.gz.partial")));
+	}
+
+	@Test
+	void aFailedArchiveLeavesTheMonthAttached() throws IOException {
+		JdbcTemplate jdbc = plainTableWithHistory();
+		database.run("db/calculations.sql", "db/calculation_partitions.sql");
+		// A file where the archive directory should be
+		Path blocked = Files.createFile(archiveDir.resolve("blocked"));
+
+		maintain(jdbc, blocked);
+
+		assertTrue(partitions(jdbc).contains(EXPIRED_PARTITION));
+		assertEquals(3, jdbc.queryForObject("SELECT count(*) FROM calculations", Integer.class));
+	}
+
+	private void maintain(JdbcTemplate jdbc, Path archiveDir) {
+		CalculationPartitions policy = new CalculationPartitions(jdbc, new PartitionArchiver(jdbc, JSON_MAPPER), 3,
+				Period.ofMonths(12), archiveDir);
+		new PartitionManager(jdbc, database.transactionTemplate(), List.of(policy)).maintain();
+	}
+
+	// Two calculations in a month past a 12-month retention, one this month
+	private JdbcTemplate plainTableWithHistory() {
+		database = PostgresTestDatabase.create("db/calculations_table.sql");
+		JdbcTemplate jdbc = database.jdbcTemplate();
+		long templateId = jdbc.queryForObject("INSERT INTO templates (name, template_config, created_at) " +
+				"VALUES ('web', '{}', now()) RETURNING id", Long.class);
+		insert(jdbc, 1, templateId, EXPIRED.atDay(3).atStartOfDay());
+		insert(jdbc, 2, templateId, EXPIRED.atEndOfMonth().atTime(23, 59));
+		insert(jdbc, 3, templateId, NOW.atDay(1).atStartOfDay());
+		return jdbc;
+	}
+
+	private static void insert(JdbcTemplate jdbc, long id, long templateId, LocalDateTime calculationDate) {
+		jdbc.update("INSERT INTO calculations (id, template_id, user_config, aws_cost, calculation_date) " +
+				"VALUES (?, ?, '{\"name\": \"web\"}', 12.50, ?)", id, templateId, calculationDate);
+	}
+
+	private static List<String> partitions(JdbcTemplate jdbc) {
+		return jdbc.queryForList("SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+				"WHERE i.inhparent = to_regclass('calculations')", String.class);
+	}
+
+	private static List<JsonNode> readArchive(Path archive) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+			return reader.lines()
+					.map(JSON_MAPPER::readTree)
+					.sorted((a, b) -> Long.compare(a.path("id").asLong(), b.path("id").asLong()))
+					.toList();
+		}
+	}
+
+	private static String suffix(YearMonth month) {
+		return String.format("_y%04dm%02d", month.getYear(), month.getMonthValue());
+	}
+}
@@ -0,0 +1,119 @@
+package com.cloudcompare.backend.service.partition;
+
+import com.cloudcompare.backend.repository.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Price history is converted to monthly partitions once; maintenance adds months ahead and detaches old
+// ones without losing a price that is still in force
+class PricingHistoryPartitionsTest {
+
+	private static final YearMonth NOW = YearMonth.now();
+	private static final LocalDate TWO_YEARS_AGO = NOW.minusMonths(24).atDay(1);
+	private static final LocalDate EIGHTEEN_MONTHS_AGO = NOW.minusMonths(18).atDay(1);
+	private static final LocalDate HORIZON = NOW.minusMonths(12).atDay(1);
+
+	private PostgresTestDatabase database;
+
+	@AfterEach
+	void dropSchema() {
+		if (database != null) {
+			database.close();
+		}
+	}
+
+	@Test
+	void aPlainTableIsConvertedWithItsRows() {
+		JdbcTemplate jdbc = plainTableWithHistory();
+
+		database.run("db/pricing_partitions.sql", "db/latest_pricing.sql");
+
+		assertEquals("p", jdbc.queryForObject(
+				"SELECT relkind::text FROM pg_class WHERE oid = to_regclass('pricing_snapshots')", String.class));
+		assertEquals(3, jdbc.queryForObject("SELECT count(*) FROM pricing_snapshots", Integer.class));
+		assertTrue(partitions(jdbc).contains("pricing_snapshots" + suffix(NOW.plusMonths(3))));
+		// New rows take ids after the converted ones
+		long next = insert(jdbc, "t3.small", NOW.atDay(1), null);
+		assertTrue(next > jdbc.queryForObject("SELECT max(id) FROM pricing_snapshots WHERE id <> ?", Long.class, next));
+
+		// Running the scripts again on the next start changes nothing
+		database.run("db/pricing_snapshots.sql", "db/pricing_partitions.sql", "db/latest_pricing.sql");
+		assertEquals(4, jdbc.queryForObject("SELECT count(*) FROM pricing_snapshots", Integer.class));
+	}
+
+	@Test
+	void maintenanceCreatesMonthsAheadAndDetachesMonthsPastRetention() {
+		JdbcTemplate jdbc = plainTableWithHistory();
+		database.run("db/pricing_partitions.sql", "db/latest_pricing.sql");
+
+		PricingHistoryPartitions policy = new PricingHistoryPartitions(jdbc, 4, Period.ofYears(1));
+		new PartitionManager(jdbc, database.transactionTemplate(), List.of(policy)).maintain();
+
+		List<String> attached = partitions(jdbc);
+		assertTrue(attached.contains("pricing_snapshots" + suffix(NOW.plusMonths(4))));
+		assertTrue(attached.contains("pricing_snapshots" + suffix(YearMonth.from(HORIZON))));
+		assertFalse(attached.contains("pricing_snapshots" + suffix(YearMonth.from(TWO_YEARS_AGO))));
+		// Detached months are kept as standalone tables
+		assertEquals(2, jdbc.queryForObject("SELECT count(*) FROM pricing_snapshots" +
+				suffix(YearMonth.from(TWO_YEARS_AGO)), Integer.class));
+
+		// The price still in force moved to the horizon, and latest_pricing followed it
+		assertEquals(List.of(HORIZON), jdbc.queryForList(
+				"SELECT effective_from FROM pricing_snapshots WHERE instance_type = 't3.medium'", LocalDate.class));
+		assertEquals(List.of(HORIZON), jdbc.queryForList(
+				"SELECT effective_from FROM latest_pricing WHERE instance_type = 't3.medium'", LocalDate.class));
+		// A price that ended before the horizon is only in the detached partition
+		assertEquals(0, jdbc.queryForObject(
+				"SELECT count(*) FROM pricing_snapshots WHERE instance_type = 't3.large'", Integer.class));
+	}
+
+	@Test
+	void ensurePartitionAddsTheMonthOfADate() {
+		JdbcTemplate jdbc = plainTableWithHistory();
+		database.run("db/pricing_partitions.sql", "db/latest_pricing.sql");
+		LocalDate farAhead = NOW.plusMonths(20).atDay(15);
+
+		new PartitionManager(jdbc, database.transactionTemplate(), List.of())
+				.ensurePartition(PricingHistoryPartitions.TABLE, farAhead);
+
+		insert(jdbc, "t3.small", farAhead, null);
+		assertTrue(partitions(jdbc).contains("pricing_snapshots" + suffix(NOW.plusMonths(20))));
+	}
+
+	// t3.medium changed price 18 months ago and still has it; t3.large's only price ended 18 months ago
+	private JdbcTemplate plainTableWithHistory() {
+		database = PostgresTestDatabase.create("db/pricing_snapshots_table.sql", "db/pricing_snapshots.sql");
+		JdbcTemplate jdbc = database.jdbcTemplate();
+		insert(jdbc, "t3.large", TWO_YEARS_AGO, EIGHTEEN_MONTHS_AGO);
+		insert(jdbc, "t3.medium", TWO_YEARS_AGO.plusDays(1), EIGHTEEN_MONTHS_AGO);
+		insert(jdbc, "t3.medium", EIGHTEEN_MONTHS_AGO, null);
+		return jdbc;
+	}
+
+	private static long insert(JdbcTemplate jdbc, String instanceType, LocalDate effectiveFrom, LocalDate effectiveTo) {
+		return jdbc.queryForObject("INSERT INTO pricing_snapshots (provider, service_type, service_name, region, " +
+						"instance_type, price_per_hour, currency, effective_from, effective_to, created_at) " +
+						"VALUES ('AWS', 'COMPUTE', 'EC2', 'us-east-1', ?, ?, 'USD', ?, ?, now()) RETURNING id",
+				Long.class, instanceType, new BigDecimal("0.0416"), effectiveFrom, effectiveTo);
+	}
+
+	private static List<String> partitions(JdbcTemplate jdbc) {
+		return jdbc.queryForList("SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+				"WHERE i.inhparent = to_regclass('pricing_snapshots')", String.class);
+	}
+
+	private static String suffix(YearMonth month) {
+		return String.format("_y%04dm%02d", month.getYear(), month.getMonthValue());
+	}
+}
@@ -0,0 +1,92 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.InvalidConfigurationException;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Compiled rules are reused per template and catalog version, two versions at a time; a cost that overflows
+// is the configuration's fault
+class CostEngineTest {
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(1L)
+			.name("web")
+			.templateConfig(Map.of("compute", Map.of("defaultVcpus", 2, "defaultMemoryGb", 4)))
+			.build());
+
+	@Test
+	void aBatchOnThePreviousCatalogDoesNotEvictTheLiveOne() throws IOException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				meterRegistry, JsonMapper.builder().build());
+		PriceCatalog previous = PriceCatalog.build(1, List.of());
+		PriceCatalog live = PriceCatalog.build(2, List.of());
+
+		ProviderEstimator onPrevious = costEngine.estimator(CloudProvider.AWS, TEMPLATE, previous);
+		ProviderEstimator onLive = costEngine.estimator(CloudProvider.AWS, TEMPLATE, live);
+		assertNotSame(onPrevious, onLive);
+		for (int i = 0; i < 10; i++) {
+			assertSame(onPrevious, costEngine.estimator(CloudProvider.AWS, TEMPLATE, previous));
+			assertSame(onLive, costEngine.estimator(CloudProvider.AWS, TEMPLATE, live));
+		}
+		assertEquals(2, requests(meterRegistry, "miss"));
+		assertEquals(20, requests(meterRegistry, "hit"));
+
+		// A third version pushes out the oldest
+		costEngine.estimator(CloudProvider.AWS, TEMPLATE, PriceCatalog.build(3, List.of()));
+		assertSame(onLive, costEngine.estimator(CloudProvider.AWS, TEMPLATE, live));
+		assertNotSame(onPrevious, costEngine.estimator(CloudProvider.AWS, TEMPLATE, previous));
+	}
+
+	@Test
+	void aReloadedTemplateIsCompiledAgain() throws IOException {
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		PriceCatalog catalog = PriceCatalog.build(1, List.of());
+		CompiledTemplate reloaded = CompiledTemplate.compile(Template.builder()
+				.id(1L)
+				.name("web")
+				.templateConfig(Map.of("compute", Map.of("defaultVcpus", 4, "defaultMemoryGb", 8)))
+				.build());
+
+		ProviderEstimator before = costEngine.estimator(CloudProvider.GCP, TEMPLATE, catalog);
+		assertNotSame(before, costEngine.estimator(CloudProvider.GCP, reloaded, catalog));
+	}
+
+	@Test
+	void aCostTooLargeToHoldIsAnInvalidConfiguration() throws IOException {
+		CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+				new SimpleMeterRegistry(), JsonMapper.builder().build());
+		CompiledTemplate unbounded = CompiledTemplate.compile(Template.builder()
+				.id(2L)
+				.name("archive")
+				.templateConfig(Map.of("storage", Map.of("defaultSizeGb", 100)))
+				.build());
+		ResolvedConfiguration configuration = unbounded.resolve(Map.of("storage", Map.of("sizeGb", "1e20")));
+
+		InvalidConfigurationException e = assertThrows(InvalidConfigurationException.class, () -> costEngine.estimate(
+				CloudProvider.AWS, configuration, costEngine.regionSlot("us-east-1"), PriceCatalog.build(1, List.of())));
+		assertEquals("Configuration is too large to price", e.getMessage());
+	}
+
+	private static double requests(SimpleMeterRegistry meterRegistry, String result) {
+		return meterRegistry.get("pricing.rules.cache.requests").tag("result", result).counter().count();
+	}
+}
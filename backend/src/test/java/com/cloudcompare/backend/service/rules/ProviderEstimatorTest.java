@@ -0,0 +1,219 @@
+package com.cloudcompare.backend.service.rules;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.model.Money;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+import com.cloudcompare.backend.service.catalog.InstanceIndex;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Compiled lines must price a configuration exactly as the rules describe, per region slot
+class ProviderEstimatorTest {
+
+	// Region slot 0 has catalog prices, slot 1 only reference prices
+	private static final List<String> REGIONS = List.of("us-east-1", "us-west-2");
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(1L)
+			.name("web")
+			.templateConfig(Map.of(
+					"compute", Map.of("type", "general", "defaultVcpus", 2, "defaultMemoryGb", 4, "defaultGpus", 0),
+					"storage", Map.of("defaultSizeGb", 100),
+					"loadBalancer", true))
+			.build());
+
+	private static final PricingRules.Line GENERAL = new PricingRules.Line("compute", null,
+			new PricingRules.Condition("type", null, "gpu"), "EC2", PricingRules.Rate.HOURLY, null, null, null,
+			List.of(size("t3.medium", 2, 4, 0.04), size("m5.xlarge", 4, 16, 0.2)), null, null, null);
+
+	private static final PricingRules.Line MATCHED = new PricingRules.Line("compute", null, null, "EC2",
+			PricingRules.Rate.HOURLY, null, null, null, GENERAL.sizes(), null, null, true);
+
+	private static final PricingRules.Line STORAGE = new PricingRules.Line("storage", null, null, "S3",
+			PricingRules.Rate.MONTHLY, null, "TimedStorage-ByteHrs", 0.025, null, List.of("sizeGb"), null, null);
+
+	private static final PricingRules.Line LOAD_BALANCER = new PricingRules.Line("loadBalancer", null, null, "EC2",
+			PricingRules.Rate.HOURLY, null, "LoadBalancerUsage", 0.0225, null, null, null, null);
+
+	@Test
+	void catalogPricesWinOverReferencePrices() {
+		PriceCatalog catalog = PriceCatalog.build(1, List.of(
+				monthly("S3", "us-east-1", "TimedStorage-ByteHrs", "0.023")));
+		ProviderEstimator estimator = compile(List.of(STORAGE), catalog);
+
+		assertEquals(List.of("storage"), estimator.getParts());
+		assertDollars("2.3", evaluate(estimator, Map.of(), 0));
+		assertDollars("2.5", evaluate(estimator, Map.of(), 1));
+		// A quantity parameter of zero costs nothing
+		assertDollars("0", evaluate(estimator, Map.of("storage", Map.of("sizeGb", 0)), 0));
+	}
+
+	@Test
+	void sizesAreTheSmallestThatFitsOrEnoughOfTheLargest() {
+		ProviderEstimator estimator = compile(List.of(GENERAL), PriceCatalog.build(1, List.of()));
+
+		// 730 h at 0.04
+		assertDollars("29.2", evaluate(estimator, compute(2, 4), 0));
+		// 3 vCPUs don't fit t3.medium: 730 h at 0.2
+		assertDollars("146", evaluate(estimator, compute(3, 4), 0));
+		// 40 GB needs three m5.xlarge
+		assertDollars("438", evaluate(estimator, compute(4, 40), 0));
+	}
+
+	@Test
+	void matchedLinesUseTheCheapestCatalogInstanceThatFits() {
+		PriceCatalog catalog = PriceCatalog.build(1, List.of(
+				instance("us-east-1", "c5.large", 2, 4, 0, "0.085"),
+				instance("us-east-1", "t3.large", 2, 8, 0, "0.0832"),
+				instance("us-east-1", "m5.xlarge", 4, 16, 0, "0.192")));
+		ProviderEstimator estimator = compile(List.of(MATCHED), catalog);
+
+		// t3.large beats the smaller but dearer c5.large
+		assertDollars("60.736", evaluate(estimator, compute(2, 4), 0));
+		// No partition in slot 1: priced from the sizes
+		assertDollars("29.2", evaluate(estimator, compute(2, 4), 1));
+		// Larger than any catalog instance: three m5.xlarge sizes, at the catalog's 0.192
+		assertDollars("420.48", evaluate(estimator, compute(4, 40), 0));
+
+		ProviderEstimator.InstanceLine line = estimator.instanceLine(TEMPLATE.resolve(compute(2, 4)), 0);
+		assertNotNull(line);
+		assertEquals(Money.HOURS_PER_MONTH, line.quantity());
+		assertEquals(4.0, line.memoryGb());
+		assertNull(estimator.instanceLine(TEMPLATE.resolve(compute(2, 4)), 1));
+	}
+
+	@Test
+	void conditionsSelectLinesBySetting() {
+		PricingRules.Line gpu = new PricingRules.Line("compute", null,
+				new PricingRules.Condition("type", "gpu", null), "EC2", PricingRules.Rate.HOURLY, null,
+				"g4dn.xlarge", 0.5, null, null, null, null);
+		ProviderEstimator estimator = compile(List.of(GENERAL, gpu), PriceCatalog.build(1, List.of()));
+
+		assertDollars("29.2", evaluate(estimator, Map.of(), 0));
+		assertDollars("365", evaluate(estimator, Map.of("compute", Map.of("type", "gpu")), 0));
+
+		// Without a type setting, notEquals always applies and equals never does
+		CompiledTemplate untyped = CompiledTemplate.compile(Template.builder()
+				.id(2L)
+				.name("untyped")
+				.templateConfig(Map.of("compute", Map.of("defaultVcpus", 2, "defaultMemoryGb", 4)))
+				.build());
+		ProviderEstimator untypedEstimator = ProviderEstimator.compile(List.of(GENERAL, gpu), CloudProvider.AWS,
+				REGIONS, untyped, PriceCatalog.build(1, List.of()), InstanceIndex.empty());
+		long[] amounts = new long[untypedEstimator.getParts().size()];
+		untypedEstimator.evaluate(untyped.resolve(Map.of()), 0, amounts);
+		assertDollars("29.2", amounts[0]);
+	}
+
+	@Test
+	void hoursAndScaleMultiplyThePrice() {
+		PricingRules.Line nightly = new PricingRules.Line("compute", null, null, "EC2", PricingRules.Rate.HOURLY,
+				240.0, "t3.medium", 0.04, null, List.of("vcpus"), 0.5, null);
+		ProviderEstimator estimator = compile(List.of(nightly), PriceCatalog.build(1, List.of()));
+
+		// 0.04 x 240 h x 0.5 x 2 vCPUs
+		assertDollars("9.6", evaluate(estimator, Map.of(), 0));
+	}
+
+	@Test
+	void featureLinesApplyOnlyWhenTheFeatureIsOn() {
+		ProviderEstimator estimator = compile(List.of(STORAGE, LOAD_BALANCER), PriceCatalog.build(1, List.of()));
+
+		assertEquals(List.of("storage", "loadBalancer"), estimator.getParts());
+		long[] on = amounts(estimator, Map.of(), 0);
+		assertDollars("16.425", on[1]);
+		long[] off = amounts(estimator, Map.of("loadBalancer", false), 0);
+		assertDollars("0", off[1]);
+		assertDollars("2.5", off[0]);
+	}
+
+	@Test
+	void componentEvaluationsAddUpToTheFullEstimate() {
+		PriceCatalog catalog = PriceCatalog.build(1, List.of(
+				monthly("S3", "us-east-1", "TimedStorage-ByteHrs", "0.023"),
+				instance("us-east-1", "t3.large", 2, 8, 0, "0.0832")));
+		ProviderEstimator estimator = compile(List.of(MATCHED, STORAGE, LOAD_BALANCER), catalog);
+		Map<String, Object> configuration = Map.of("compute", Map.of("vcpus", 2, "memoryGb", 6),
+				"storage", Map.of("sizeGb", 1234));
+
+		for (int region = 0; region < REGIONS.size(); region++) {
+			long[] full = amounts(estimator, configuration, region);
+			long[] byComponent = new long[full.length];
+			for (int component = 0; component < TEMPLATE.getComponents().size(); component++) {
+				estimator.evaluate(TEMPLATE.resolve(configuration), region, byComponent, component);
+			}
+			// Features belong to no component and are only in the full estimate
+			assertEquals(full[0], byComponent[0]);
+			assertEquals(full[1], byComponent[1]);
+			assertEquals(0, byComponent[2]);
+		}
+	}
+
+	private static ProviderEstimator compile(List<PricingRules.Line> lines, PriceCatalog catalog) {
+		return ProviderEstimator.compile(lines, CloudProvider.AWS, REGIONS, TEMPLATE, catalog,
+				new InstanceIndexService().forCatalog(catalog));
+	}
+
+	// Total over every part
+	private static long evaluate(ProviderEstimator estimator, Map<String, Object> configuration, int region) {
+		long total = 0;
+		for (long amount : amounts(estimator, configuration, region)) {
+			total += amount;
+		}
+		return total;
+	}
+
+	private static long[] amounts(ProviderEstimator estimator, Map<String, Object> configuration, int region) {
+		long[] amounts = new long[estimator.getParts().size()];
+		estimator.evaluate(TEMPLATE.resolve(configuration), region, amounts);
+		return amounts;
+	}
+
+	private static Map<String, Object> compute(int vcpus, int memoryGb) {
+		return Map.of("compute", Map.of("vcpus", vcpus, "memoryGb", memoryGb), "loadBalancer", false);
+	}
+
+	private static PricingRules.Size size(String sku, double vcpus, double memoryGb, double reference) {
+		return new PricingRules.Size(sku, Map.of("vcpus", vcpus, "memoryGb", memoryGb), reference);
+	}
+
+	private static PricingSnapshot monthly(String service, String region, String sku, String price) {
+		return PricingSnapshot.builder()
+				.provider("AWS")
+				.serviceType("STORAGE")
+				.serviceName(service)
+				.region(region)
+				.instanceType(sku)
+				.pricePerMonth(new BigDecimal(price))
+				.build();
+	}
+
+	private static PricingSnapshot instance(String region, String type, int vcpus, int memoryGb, int gpus,
+											String price) {
+		return PricingSnapshot.builder()
+				.provider("AWS")
+				.serviceType("COMPUTE")
+				.serviceName("EC2")
+				.region(region)
+				.instanceType(type)
+				.pricePerHour(new BigDecimal(price))
+				.pricingData(Map.of("vcpus", vcpus, "memoryGb", memoryGb, "gpus", gpus))
+				.build();
+	}
+
+	private static void assertDollars(String expected, long amount) {
+		assertEquals(0, new BigDecimal(expected).compareTo(Money.toDecimal(amount)),
+				() -> expected + " != " + Money.toDecimal(amount));
+	}
+}
@@ -0,0 +1,116 @@
+package com.cloudcompare.backend.service.template;
+
+import com.cloudcompare.backend.model.entity.Template;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// resolve() is the only validation a compare gets; bounds are inclusive and defaults fill the gaps
+class CompiledTemplateTest {
+
+	private static final CompiledTemplate TEMPLATE = CompiledTemplate.compile(Template.builder()
+			.id(1L)
+			.name("web")
+			.templateConfig(Map.of(
+					"compute", Map.of("defaultVcpus", 2, "minVcpus", 1, "maxVcpus", 64, "type", "general"),
+					"storage", Map.of("defaultSizeGb", 100, "minSizeGb", 10),
+					"database", Map.of("defaultStorageGb", 20, "maxStorageGb", 1000),
+					"cdn", false))
+			.build());
+
+	@Test
+	void boundsAreInclusive() {
+		assertNumber("1", vcpus(1));
+		assertNumber("64", vcpus(64));
+		assertNumber("10", TEMPLATE.resolve(Map.of("storage", Map.of("sizeGb", 10)))
+				.value("storage", "sizeGb"));
+		assertNumber("1000", TEMPLATE.resolve(Map.of("database", Map.of("storageGb", 1000)))
+				.value("database", "storageGb"));
+	}
+
+	@Test
+	void valuesOutsideTheBoundsAreRejected() {
+		assertMessage("compute.vcpus must be between 1 and 64", Map.of("compute", Map.of("vcpus", 0)));
+		assertMessage("compute.vcpus must be between 1 and 64", Map.of("compute", Map.of("vcpus", 64.5)));
+		assertMessage("storage.sizeGb must be at least 10", Map.of("storage", Map.of("sizeGb", 9.99)));
+		assertMessage("database.storageGb must be between 0 and 1000", Map.of("database", Map.of("storageGb", "1001")));
+	}
+
+	@Test
+	void negativeValuesAreRejectedWithoutADeclaredMinimum() {
+		assertMessage("database.storageGb must be between 0 and 1000", Map.of("database", Map.of("storageGb", -1)));
+		assertNumber("0", TEMPLATE.resolve(Map.of("database", Map.of("storageGb", 0))).value("database", "storageGb"));
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> CompiledTemplate.compile(
+				Template.builder()
+						.id(9L)
+						.name("broken")
+						.templateConfig(Map.of("storage", Map.of("defaultSizeGb", -5)))
+						.build()));
+		assertEquals("Template 9: default storage.sizeGb is not at least 0", e.getMessage());
+	}
+
+	@Test
+	void defaultsFillInWhatIsNotGiven() {
+		ResolvedConfiguration resolved = TEMPLATE.resolve(null);
+		assertNumber("2", resolved.value("compute", "vcpus"));
+		assertNumber("100", resolved.value("storage", "sizeGb"));
+		assertEquals(TEMPLATE.resolve(Map.of("compute", Map.of("vcpus", 2.0))).canonical(), resolved.canonical());
+	}
+
+	@Test
+	void numbersMayBeGivenAsText() {
+		assertNumber("4", TEMPLATE.resolve(Map.of("compute", Map.of("vcpus", " 4.0 ")))
+				.value("compute", "vcpus"));
+		assertMessage("compute.vcpus must be a number", Map.of("compute", Map.of("vcpus", "four")));
+		assertMessage("compute.vcpus must be a number", Map.of("compute", Map.of("vcpus", true)));
+	}
+
+	@Test
+	void malformedSectionsAndSettingsAreRejected() {
+		assertMessage("compute must be an object", Map.of("compute", 4));
+		assertMessage("compute.type must be a single value", Map.of("compute", Map.of("type", Map.of())));
+		assertMessage("cdn must be a single value", Map.of("cdn", List.of(true)));
+	}
+
+	@Test
+	void settingsTakeTheTypeOfTheirDefault() {
+		String enabled = TEMPLATE.resolve(Map.of("cdn", true)).canonical();
+		assertEquals(enabled, TEMPLATE.resolve(Map.of("cdn", "true")).canonical());
+		assertEquals(enabled, TEMPLATE.resolve(Map.of("cdn", " TRUE ")).canonical());
+		assertEquals(TEMPLATE.resolve(null).canonical(), TEMPLATE.resolve(Map.of("cdn", "false")).canonical());
+		assertEquals(TEMPLATE.resolve(Map.of("compute", Map.of("type", "true"))).canonical(),
+				TEMPLATE.resolve(Map.of("compute", Map.of("type", true))).canonical());
+		assertMessage("cdn must be true or false", Map.of("cdn", "yes"));
+	}
+
+	@Test
+	void aDefaultOutsideItsOwnBoundsDoesNotCompile() {
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> CompiledTemplate.compile(
+				Template.builder()
+						.id(9L)
+						.name("broken")
+						.templateConfig(Map.of("compute", Map.of("defaultVcpus", 128, "maxVcpus", 64)))
+						.build()));
+		assertEquals("Template 9: default compute.vcpus is not between 0 and 64", e.getMessage());
+	}
+
+	private static BigDecimal vcpus(Object value) {
+		return TEMPLATE.resolve(Map.of("compute", Map.of("vcpus", value))).value("compute", "vcpus");
+	}
+
+	// Values are kept without trailing zeros, so 100 is held as 1E+2
+	private static void assertNumber(String expected, BigDecimal actual) {
+		assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+	}
+
+	private static void assertMessage(String expected, Map<String, Object> configuration) {
+		InvalidConfigurationException e = assertThrows(InvalidConfigurationException.class,
+				() -> TEMPLATE.resolve(configuration));
+		assertEquals(expected, e.getMessage());
+	}
+}
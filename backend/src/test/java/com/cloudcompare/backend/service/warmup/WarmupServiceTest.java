@@ -0,0 +1,118 @@
+package com.cloudcompare.backend.service.warmup;
+
+import com.cloudcompare.backend.model.dto.TemplateResponse;
+import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.TemplateService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Readiness stays OUT_OF_SERVICE while warm-up runs and turns UP once it ends, however it ends
+class WarmupServiceTest {
+
+	private static final Duration WAIT = Duration.ofSeconds(10);
+
+	private final TemplateService templateService = mock(TemplateService.class);
+	private final PriceCatalogService priceCatalogService = mock(PriceCatalogService.class);
+	private final CalculationService calculationService = mock(CalculationService.class);
+	private final WarmupService warmupService;
+	private final WarmupHealthIndicator healthIndicator;
+
+	WarmupServiceTest() throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+		when(templateService.getAllActiveTemplates()).thenReturn(List.of(
+				TemplateResponse.builder().id(1L).category("web").build(),
+				TemplateResponse.builder().id(2L).category("data").build()));
+		when(priceCatalogService.current()).thenReturn(PriceCatalog.build(1, List.of()));
+
+		CostEngine costEngine = mock(CostEngine.class);
+		when(costEngine.regions()).thenReturn(List.of("us-east-1", "eu-west-1"));
+
+		warmupService = new WarmupService(dataSource, templateService, priceCatalogService, calculationService,
+				costEngine);
+		ReflectionTestUtils.setField(warmupService, "enabled", true);
+		ReflectionTestUtils.setField(warmupService, "compareIterations", 10);
+		ReflectionTestUtils.setField(warmupService, "timeLimit", Duration.ofSeconds(60));
+		healthIndicator = new WarmupHealthIndicator(warmupService);
+	}
+
+	@Test
+	void readinessWaitsForTheSyntheticCompares() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			release.await(WAIT.toMillis(), TimeUnit.MILLISECONDS);
+			return null;
+		}).when(calculationService).simulate(any(), any());
+
+		warmupService.start();
+		assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+		release.countDown();
+		awaitComplete();
+		assertEquals(Status.UP, healthIndicator.health().getStatus());
+		verify(calculationService, times(10)).simulate(any(), any());
+		verify(templateService).getTemplatesByCategory("web");
+		verify(templateService).getTemplatesByCategory("data");
+	}
+
+	@Test
+	void aFailedWarmUpStillReportsReady() throws InterruptedException {
+		when(templateService.getAllActiveTemplates()).thenThrow(new IllegalStateException("database down"));
+
+		warmupService.start();
+
+		awaitComplete();
+		assertEquals(Status.UP, healthIndicator.health().getStatus());
+		verify(calculationService, never()).simulate(any(), any());
+	}
+
+	@Test
+	void theTimeLimitCutsTheComparesShort() throws InterruptedException {
+		ReflectionTestUtils.setField(warmupService, "timeLimit", Duration.ZERO);
+
+		warmupService.start();
+
+		awaitComplete();
+		verify(calculationService, never()).simulate(any(), any());
+	}
+
+	@Test
+	void aDisabledWarmUpIsReadyAtOnce() {
+		ReflectionTestUtils.setField(warmupService, "enabled", false);
+
+		warmupService.start();
+
+		assertEquals(Status.UP, healthIndicator.health().getStatus());
+		verify(templateService, never()).getAllActiveTemplates();
+	}
+
+	private void awaitComplete() throws InterruptedException {
+		long deadline = System.nanoTime() + WAIT.toNanos();
+		while (!warmupService.isComplete() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(warmupService.isComplete(), "warm-up did not finish");
+	}
+}
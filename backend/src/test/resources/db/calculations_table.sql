@@ -0,0 +1,29 @@
+-- templates and calculations as Hibernate's ddl-auto creates them from Template and Calculation,
+-- before the db/ scripts run
+CREATE TABLE templates (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(100) NOT NULL,
+    description text,
+    category varchar(50),
+    template_config jsonb NOT NULL,
+    is_active boolean,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6)
+)^;
+
+CREATE SEQUENCE calculations_seq START WITH 1 INCREMENT BY 50^;
+
+CREATE TABLE calculations (
+    id bigint NOT NULL PRIMARY KEY,
+    template_id bigint REFERENCES templates (id),
+    user_config jsonb NOT NULL,
+    aws_cost numeric(10,2),
+    azure_cost numeric(10,2),
+    gcp_cost numeric(10,2),
+    calculation_date timestamp(6) NOT NULL,
+    ip_address varchar(45),
+    user_agent text
+)^;
+
+CREATE INDEX idx_calculation_date ON calculations (calculation_date)^;
+CREATE INDEX idx_template_id ON calculations (template_id)^;
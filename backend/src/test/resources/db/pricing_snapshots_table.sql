@@ -0,0 +1,20 @@
+-- pricing_snapshots as Hibernate's ddl-auto creates it from PricingSnapshot, before the db/ scripts run
+CREATE TABLE pricing_snapshots (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    provider varchar(20) NOT NULL,
+    service_type varchar(50) NOT NULL,
+    service_name varchar(100) NOT NULL,
+    region varchar(50) NOT NULL,
+    instance_type varchar(100),
+    price_per_hour numeric(18,8),
+    price_per_month numeric(18,8),
+    currency varchar(3),
+    pricing_data jsonb,
+    effective_from date NOT NULL,
+    effective_to date,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT uk_pricing_snapshots_effective_from
+        UNIQUE (provider, service_name, region, instance_type, effective_from)
+)^;
+
+CREATE INDEX idx_provider_service_region ON pricing_snapshots (provider, service_type, region)^;
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Runs the JMH benchmarks and writes machine-readable results to results/<commit>.json, so runs
+# from different commits can be compared with CompareResults:
+#
+#   benchmarks/run.sh                       # everything that needs no database
+#   benchmarks/run.sh CompareBenchmark -prof gc
+#   java -cp benchmarks/target/benchmarks.jar com.cloudcompare.benchmarks.CompareResults \
+#       benchmarks/results/<before>.json benchmarks/results/<after>.json
+#
+# Arguments are passed to JMH. Build first: mvn install -DskipTests in backend/, mvn package here.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+commit=$(git rev-parse --short HEAD)
+if ! git diff --quiet HEAD -- ../backend ../benchmarks; then
+    commit="$commit-dirty"
+fi
+mkdir -p results
+
+if [[ $# -eq 0 ]]; then
+    # LatestPricingBenchmark needs PostgreSQL; run it by name
+    set -- -e LatestPricingBenchmark
+fi
+java -jar target/benchmarks.jar -rf json -rff "results/$commit.json" "$@"
+echo "results written to benchmarks/results/$commit.json"
@@ -0,0 +1,72 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.service.TemplateService;
+import com.cloudcompare.backend.service.compare.CompareKey;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building cache keys, per lookup:
+ * <ul>
+ *   <li>compareKey: the result-cache key of a compare, a SHA-256 over the resolved
+ *       configuration in canonical form ({@link CompareKey#of});</li>
+ *   <li>spelKey: key = "#category" on {@link TemplateService#getTemplatesByCategory}, a
+ *       parsed expression evaluated against a fresh method context, as Spring's cache
+ *       interceptor does on every call;</li>
+ *   <li>simpleKey: the default key Spring derives from the arguments.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CacheKeyBenchmark {
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final SimpleKeyGenerator simpleKeyGenerator = new SimpleKeyGenerator();
+
+    private ResolvedConfiguration configuration;
+    private Expression categoryKey;
+    private Method getTemplatesByCategory;
+    private Object[] arguments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        configuration = CompiledTemplate.compile(Fixtures.template(1L, "web-app"))
+                .resolve(Map.of("compute", Map.of("vcpus", 4, "memoryGb", 16),
+                        "storage", Map.of("sizeGb", 2000)));
+        categoryKey = new SpelExpressionParser().parseExpression("#category");
+        getTemplatesByCategory = TemplateService.class.getMethod("getTemplatesByCategory", String.class);
+        arguments = new Object[]{"web"};
+    }
+
+    @Benchmark
+    public CompareKey compareKey() {
+        return CompareKey.of(7, 1, "eu-west-1", configuration);
+    }
+
+    @Benchmark
+    public Object spelKey() {
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, getTemplatesByCategory,
+                arguments, parameterNames);
+        return categoryKey.getValue(context);
+    }
+
+    @Benchmark
+    public Object simpleKey() {
+        return simpleKeyGenerator.generate(null, getTemplatesByCategory, arguments);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.dto.InstanceMatchResponse;
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.repository.PricingSnapshotRepository;
+import com.cloudcompare.backend.service.PricingService;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link PricingService} lookups served from memory: latest price of one instance
+ * type (the price catalog) and the cheapest instance meeting a requirement (the instance
+ * index over it).
+ *
+ * <p>With catalog=warm the catalog and index are in place. With catalog=cold a new
+ * catalog version is published before every call, as after an import, so the first
+ * cheapest-instance lookup also derives the index for that version.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CatalogLookupBenchmark {
+
+    private static final List<String> REGIONS = List.of("us-east-1", "us-west-2", "eu-west-1", "eu-central-1",
+            "ap-southeast-1", "ap-northeast-1", "ap-south-1", "sa-east-1");
+
+    @Param({"warm", "cold"})
+    public String catalog;
+
+    @Param({"500"})
+    public int instancesPerRegion;
+
+    private PriceCatalogService priceCatalogService;
+    private PricingService pricingService;
+    private PricingSnapshot probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PricingSnapshot> snapshots = Fixtures.instances(REGIONS, instancesPerRegion);
+        priceCatalogService = new PriceCatalogService(Fixtures.stub(PricingSnapshotRepository.class, Map.of(
+                "findLatestSnapshots", snapshots,
+                "countLatest", (long) snapshots.size(),
+                "findLatestUpdatedAt", Optional.empty())));
+        priceCatalogService.rebuild();
+        pricingService = new PricingService(null, null, null, priceCatalogService, new InstanceIndexService(),
+                null, null);
+        probe = snapshots.get(snapshots.size() / 2);
+        pricingService.findCheapestInstance("AWS", "EC2", probe.getRegion(), 4.0, 16.0, null);
+    }
+
+    @Setup(Level.Invocation)
+    public void newCatalogVersion() {
+        if (catalog.equals("cold")) {
+            priceCatalogService.rebuild();
+        }
+    }
+
+    @Benchmark
+    public Optional<PricingSnapshot> latestPricing() {
+        return pricingService.getLatestPricing("AWS", "EC2", probe.getRegion(), probe.getInstanceType());
+    }
+
+    @Benchmark
+    public Optional<InstanceMatchResponse> cheapestInstance() {
+        return pricingService.findCheapestInstance("AWS", "EC2", probe.getRegion(), 4.0, 16.0, null);
+    }
+}
@@ -0,0 +1,149 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.dto.PricingRequest;
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.model.entity.Calculation;
+import com.cloudcompare.backend.repository.CalculationJdbcRepository;
+import com.cloudcompare.backend.repository.CalculationRollupJdbcRepository;
+import com.cloudcompare.backend.repository.PricingSnapshotRepository;
+import com.cloudcompare.backend.repository.TemplateRepository;
+import com.cloudcompare.backend.service.CalculationIdAllocator;
+import com.cloudcompare.backend.service.CalculationService;
+import com.cloudcompare.backend.service.CalculationWriteBehind;
+import com.cloudcompare.backend.service.analytics.CalculationRollups;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalogService;
+import com.cloudcompare.backend.service.compare.CompareResultCache;
+import com.cloudcompare.backend.service.metrics.CompareMetrics;
+import com.cloudcompare.backend.service.metrics.CompareTrace;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.template.TemplateRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A compare end to end through {@link CalculationService#calculateCosts}: template lookup,
+ * configuration resolution, the result cache, the per-provider fan-out, id allocation,
+ * the hand-off to the write-behind queue and recording the stage timers. Repositories are
+ * stubbed and the write-behind drops its batches, so no database is involved.
+ *
+ * <p>With cache=warm every request after the first is a result-cache hit; with cache=cold
+ * the cache never holds anything and every request prices all three providers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompareBenchmark {
+
+    @Param({"web-app", "ml-gpu"})
+    public String template;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private CalculationService calculationService;
+    private CompareMetrics compareMetrics;
+    private CalculationWriteBehind writeBehind;
+    private ThreadPoolTaskExecutor providerEvaluationExecutor;
+    private PricingRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ReflectiveOperationException {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CostEngine costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"),
+                new InstanceIndexService(), meterRegistry, JsonMapper.builder().build());
+        PriceCatalogService priceCatalogService = new PriceCatalogService(Fixtures.stub(
+                PricingSnapshotRepository.class, Map.of(
+                        "findLatestSnapshots", Fixtures.instances(costEngine.regions(), 200),
+                        "countLatest", 0L,
+                        "findLatestUpdatedAt", Optional.empty())));
+        priceCatalogService.rebuild();
+        TemplateRegistry templateRegistry = new TemplateRegistry(Fixtures.stub(TemplateRepository.class,
+                Map.of("findAll", List.of(Fixtures.template(1L, template)))), meterRegistry);
+        compareMetrics = new CompareMetrics(meterRegistry, 50, Duration.ofMinutes(5));
+
+        CacheManager cacheManager = cache.equals("warm")
+                ? new CaffeineCacheManager("calculations")
+                : new NoOpCacheManager();
+        CalculationJdbcRepository calculations = new DiscardingCalculationRepository();
+        writeBehind = new CalculationWriteBehind(calculations, meterRegistry, 10_000, 500, Duration.ofMillis(200),
+                Duration.ofSeconds(5), CalculationWriteBehind.OverflowPolicy.BLOCK, Duration.ofMillis(50), 0.8, 10, 5,
+                Duration.ofMillis(200));
+        writeBehind.start();
+
+        // Same shape as ExecutorConfig.providerEvaluationExecutor
+        providerEvaluationExecutor = new ThreadPoolTaskExecutor();
+        providerEvaluationExecutor.setCorePoolSize(16);
+        providerEvaluationExecutor.setMaxPoolSize(16);
+        providerEvaluationExecutor.setQueueCapacity(256);
+        providerEvaluationExecutor.setThreadNamePrefix("provider-eval-");
+        providerEvaluationExecutor.initialize();
+
+        calculationService = new CalculationService(new CalculationIdAllocator(calculations), writeBehind,
+                new CalculationRollups(new CalculationRollupJdbcRepository(null), meterRegistry),
+                new CompareResultCache(cacheManager, meterRegistry), templateRegistry, priceCatalogService,
+                costEngine, providerEvaluationExecutor);
+        Field providerTimeout = CalculationService.class.getDeclaredField("providerTimeout");
+        providerTimeout.setAccessible(true);
+        providerTimeout.set(calculationService, Duration.ofSeconds(2));
+
+        request = PricingRequest.builder()
+                .templateId(1L)
+                .region("eu-west-1")
+                .configuration(Map.of())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writeBehind.stop();
+        providerEvaluationExecutor.shutdown();
+    }
+
+    @Benchmark
+    public PricingResponse calculateCosts() {
+        CompareTrace trace = compareMetrics.start("compare");
+        PricingResponse response = calculationService.calculateCosts(request, "127.0.0.1", "jmh", trace);
+        trace.handled();
+        compareMetrics.finish(trace);
+        return response;
+    }
+
+    // Hands out ids without a sequence and drops the rows the write-behind flushes
+    private static final class DiscardingCalculationRepository extends CalculationJdbcRepository {
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        DiscardingCalculationRepository() {
+            super(null, null);
+        }
+
+        @Override
+        public long allocateIdBlock() {
+            return sequence.getAndAdd(ID_BLOCK_SIZE);
+        }
+
+        @Override
+        public void insertBatch(List<Calculation> calculations) {
+        }
+    }
+}
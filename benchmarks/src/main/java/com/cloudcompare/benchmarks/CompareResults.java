@@ -0,0 +1,88 @@
+package com.cloudcompare.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Side by side view of two JMH JSON result files (-rf json), e.g. from two commits:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.cloudcompare.benchmarks.CompareResults \
+ *     results/a1b2c3d.json results/e4f5a6b.json
+ * </pre>
+ *
+ * Benchmarks are matched by name and parameters. The change is relative to the first
+ * file and marked with * when the score intervals (99.9% confidence) don't overlap.
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> candidate = read(new File(args[1]));
+
+        System.out.printf(Locale.ROOT, "%-90s %16s %16s %9s  %s%n", "benchmark", "baseline", "candidate",
+                "change", "unit");
+        Map<String, JsonNode> all = new TreeMap<>(baseline);
+        candidate.forEach(all::putIfAbsent);
+        for (String name : all.keySet()) {
+            JsonNode before = baseline.get(name);
+            JsonNode after = candidate.get(name);
+            JsonNode any = before != null ? before : after;
+            String unit = any.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null || after == null) {
+                System.out.printf(Locale.ROOT, "%-90s %16s %16s %9s  %s%n", name, score(before), score(after),
+                        "", unit);
+                continue;
+            }
+            double from = before.path("primaryMetric").path("score").asDouble();
+            double to = after.path("primaryMetric").path("score").asDouble();
+            String change = String.format(Locale.ROOT, "%+.1f%%", (to - from) / from * 100);
+            System.out.printf(Locale.ROOT, "%-90s %16s %16s %9s%s %s%n", name, score(before), score(after),
+                    change, overlaps(before, after) ? " " : "*", unit);
+        }
+    }
+
+    // Keyed by benchmark and parameters, e.g. CompareBenchmark.calculateCosts(cache=warm,template=web-app)
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String benchmark = result.path("benchmark").asText()
+                    .replaceFirst("^com\\.cloudcompare\\.benchmarks\\.", "");
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").properties().forEach(p -> params.put(p.getKey(), p.getValue().asText()));
+            String mode = result.path("mode").asText();
+            results.put(benchmark + (params.isEmpty() ? "" : params.toString().replace('{', '(').replace('}', ')')
+                    .replace(", ", ",")) + " " + mode, result);
+        }
+        return results;
+    }
+
+    private static String score(JsonNode result) {
+        return result == null ? "-" : String.format(Locale.ROOT, "%.3f",
+                result.path("primaryMetric").path("score").asDouble());
+    }
+
+    private static boolean overlaps(JsonNode before, JsonNode after) {
+        JsonNode a = before.path("primaryMetric").path("scoreConfidence");
+        JsonNode b = after.path("primaryMetric").path("scoreConfidence");
+        // Too few iterations for an interval (NaN) says nothing either way
+        if (a.size() != 2 || b.size() != 2 || !a.get(0).isNumber() || !b.get(0).isNumber()) {
+            return true;
+        }
+        return a.get(0).asDouble() <= b.get(1).asDouble() && b.get(0).asDouble() <= a.get(1).asDouble();
+    }
+}
@@ -0,0 +1,81 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.CloudProvider;
+import com.cloudcompare.backend.service.catalog.InstanceIndexService;
+import com.cloudcompare.backend.service.catalog.PriceCatalog;
+import com.cloudcompare.backend.service.rules.CostEngine;
+import com.cloudcompare.backend.service.rules.ProviderEstimator;
+import com.cloudcompare.backend.service.template.CompiledTemplate;
+import com.cloudcompare.backend.service.template.ResolvedConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost evaluations per second on one core: a resolved configuration priced for one
+ * provider and region by a compiled {@link ProviderEstimator}, and the same through
+ * {@link CostEngine#estimate} including the rounded per-service breakdown.
+ *
+ * <p>Runs on the pricing rules' reference prices (an empty catalog), so it needs no
+ * database. Install the backend first: mvn install -DskipTests in backend/.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CostEngineBenchmark {
+
+    @Param({"web-app", "serverless", "ml-gpu"})
+    public String template;
+
+    @Param({"AWS", "AZURE", "GCP"})
+    public CloudProvider provider;
+
+    private CostEngine costEngine;
+    private ProviderEstimator estimator;
+    private ResolvedConfiguration configuration;
+    private PriceCatalog catalog;
+    private long[] amounts;
+    private int regions;
+    private int region;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        costEngine = new CostEngine(new ClassPathResource("pricing/rules.json"), new InstanceIndexService(),
+                new SimpleMeterRegistry(), JsonMapper.builder().build());
+        catalog = PriceCatalog.empty();
+        CompiledTemplate compiled = CompiledTemplate.compile(Fixtures.template(1L, template));
+        configuration = compiled.resolve(Map.of());
+        estimator = costEngine.estimator(provider, compiled, catalog);
+        amounts = new long[estimator.getParts().size()];
+        regions = costEngine.regions().size();
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        Arrays.fill(amounts, 0);
+        estimator.evaluate(configuration, nextRegion(), amounts);
+        blackhole.consume(amounts);
+    }
+
+    @Benchmark
+    public Object estimate() {
+        return costEngine.estimate(provider, configuration, nextRegion(), catalog);
+    }
+
+    // Walk the regions so every price array is touched
+    private int nextRegion() {
+        region = region + 1 == regions ? 0 : region + 1;
+        return region;
+    }
+}
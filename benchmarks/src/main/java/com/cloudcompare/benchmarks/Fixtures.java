@@ -0,0 +1,119 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.entity.PricingSnapshot;
+import com.cloudcompare.backend.model.entity.Template;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Templates, catalog entries and repository stubs shared by the benchmarks that need no database
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Template template(long id, String name) {
+        return Template.builder()
+                .id(id)
+                .name(name)
+                .description("Benchmark " + name + " template")
+                .category(name.equals("ml-gpu") ? "ml" : "web")
+                .templateConfig(templateConfig(name))
+                .isActive(true)
+                .build();
+    }
+
+    // Same shapes as the templates DataInitializer seeds
+    static Map<String, Object> templateConfig(String name) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        switch (name) {
+            case "web-app" -> {
+                config.put("compute", new HashMap<>(Map.of("type", "vm", "defaultVcpus", 2, "defaultMemoryGb", 4,
+                        "minVcpus", 1, "maxVcpus", 16, "minMemoryGb", 2, "maxMemoryGb", 64)));
+                config.put("database", new HashMap<>(Map.of("engine", "postgres", "defaultStorageGb", 100,
+                        "minStorageGb", 20, "maxStorageGb", 1000)));
+                config.put("storage", new HashMap<>(Map.of("defaultSizeGb", 500, "minSizeGb", 10,
+                        "maxSizeGb", 10000)));
+                config.put("loadBalancer", true);
+                config.put("cdn", true);
+            }
+            case "serverless" -> {
+                config.put("functions", new HashMap<>(Map.of("defaultMemoryMb", 512, "minMemoryMb", 128,
+                        "maxMemoryMb", 10240, "estimatedRequestsPerMonth", 1000000,
+                        "minEstimatedRequestsPerMonth", 0, "maxEstimatedRequestsPerMonth", 10000000000L)));
+                config.put("apiGateway", new HashMap<>(Map.of("enabled", true,
+                        "estimatedRequestsPerMonth", 1000000,
+                        "minEstimatedRequestsPerMonth", 0, "maxEstimatedRequestsPerMonth", 10000000000L)));
+                config.put("database", new HashMap<>(Map.of("type", "nosql", "defaultStorageGb", 25,
+                        "minStorageGb", 1, "maxStorageGb", 10000)));
+            }
+            case "ml-gpu" -> {
+                config.put("compute", new HashMap<>(Map.of("type", "gpu", "defaultGpus", 1, "minGpus", 1,
+                        "maxGpus", 8, "defaultVcpus", 4, "defaultMemoryGb", 16, "minVcpus", 4, "maxVcpus", 96,
+                        "minMemoryGb", 16, "maxMemoryGb", 768)));
+                config.put("storage", new HashMap<>(Map.of("defaultSizeGb", 500, "minSizeGb", 100,
+                        "maxSizeGb", 5000)));
+                config.put("endpoint", new HashMap<>(Map.of("enabled", true, "autoScaling", true)));
+            }
+            default -> throw new IllegalArgumentException("Unknown template " + name);
+        }
+        return config;
+    }
+
+    /**
+     * A synthetic AWS EC2 price list: {@code perRegion} sized instances (vcpus, memoryGb and
+     * for some gpus in pricingData) in each region, priced roughly by size.
+     */
+    static List<PricingSnapshot> instances(List<String> regions, int perRegion) {
+        Random random = new Random(42);
+        List<PricingSnapshot> snapshots = new ArrayList<>(regions.size() * perRegion);
+        for (String region : regions) {
+            for (int i = 0; i < perRegion; i++) {
+                int vcpus = 1 << random.nextInt(7);
+                int memoryGb = vcpus * (1 << random.nextInt(4));
+                int gpus = random.nextInt(8) == 0 ? 1 << random.nextInt(4) : 0;
+                double hourly = vcpus * 0.02 + memoryGb * 0.004 + gpus * 0.5 + random.nextInt(100) / 1000.0;
+                snapshots.add(PricingSnapshot.builder()
+                        .provider("AWS")
+                        .serviceType("COMPUTE")
+                        .serviceName("EC2")
+                        .region(region)
+                        .instanceType("bench" + i + "." + vcpus + "x" + memoryGb)
+                        .pricePerHour(BigDecimal.valueOf(hourly).setScale(4, RoundingMode.HALF_UP))
+                        .pricingData(Map.of("vcpus", vcpus, "memoryGb", memoryGb, "gpus", gpus))
+                        .effectiveFrom(LocalDate.now())
+                        .build());
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * A repository stub: methods named in {@code answers} return the given value, anything
+     * else the benchmark wasn't meant to reach throws.
+     */
+    static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            if (!answers.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answers.get(method.getName());
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,164 @@
+package com.cloudcompare.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Latest price" reads against a growing price history. Each trial builds its own schema
+ * with {@code keys} priced keys and {@code historyDepth} price changes per key, written
+ * through the same trigger that maintains latest_pricing in the application.
+ *
+ * <p>The latest_pricing reads should stay flat as historyDepth grows; the correlated
+ * MAX(...) subquery the catalog used to run is included for comparison.
+ *
+ * <p>Needs a PostgreSQL database (docker-compose up -d), see -Dbench.jdbc.url,
+ * -Dbench.jdbc.user and -Dbench.jdbc.password.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LatestPricingBenchmark {
+
+    @Param({"5000"})
+    public int keys;
+
+    @Param({"1", "30", "365"})
+    public int historyDepth;
+
+    private Connection connection;
+    private String schema;
+    private PreparedStatement scanLatest;
+    private PreparedStatement lookupLatest;
+    private PreparedStatement scanCorrelated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/cloudcompare"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        schema = "bench_latest_" + keys + "_" + historyDepth;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            createSchema(statement);
+            populate(statement);
+            statement.execute("VACUUM ANALYZE pricing_snapshots");
+            statement.execute("VACUUM ANALYZE latest_pricing");
+        }
+
+        scanLatest = connection.prepareStatement(
+                "SELECT snapshot_id, provider, service_name, region, instance_type, price_per_hour " +
+                        "FROM latest_pricing");
+        lookupLatest = connection.prepareStatement(
+                "SELECT price_per_hour FROM latest_pricing " +
+                        "WHERE provider = ? AND service_name = ? AND region = ? AND instance_type = ?");
+        scanCorrelated = connection.prepareStatement(
+                "SELECT p.id, p.provider, p.service_name, p.region, p.instance_type, p.price_per_hour " +
+                        "FROM pricing_snapshots p WHERE p.effective_from = " +
+                        "(SELECT MAX(p2.effective_from) FROM pricing_snapshots p2 WHERE " +
+                        "p2.provider = p.provider AND p2.service_name = p.service_name AND " +
+                        "p2.region = p.region AND p2.instance_type = p.instance_type)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+        connection.close();
+    }
+
+    // What a catalog rebuild reads
+    @Benchmark
+    public void latestPricingScan(Blackhole blackhole) throws SQLException {
+        drain(scanLatest, blackhole);
+    }
+
+    @Benchmark
+    public void latestPricingLookup(Blackhole blackhole) throws SQLException {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        lookupLatest.setString(1, provider(key));
+        lookupLatest.setString(2, "EC2");
+        lookupLatest.setString(3, region(key));
+        lookupLatest.setString(4, "i" + key);
+        drain(lookupLatest, blackhole);
+    }
+
+    @Benchmark
+    public void correlatedSubqueryScan(Blackhole blackhole) throws SQLException {
+        drain(scanCorrelated, blackhole);
+    }
+
+    private static void drain(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getBigDecimal("price_per_hour"));
+            }
+        }
+    }
+
+    // Same shape as the application's tables and trigger (see backend/src/main/resources/db)
+    private static void createSchema(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE pricing_snapshots (" +
+                "id bigserial PRIMARY KEY, provider varchar(20) NOT NULL, service_type varchar(50) NOT NULL, " +
+                "service_name varchar(100) NOT NULL, region varchar(50) NOT NULL, instance_type varchar(100), " +
+                "price_per_hour numeric(10,4), price_per_month numeric(10,2), currency varchar(3), " +
+                "pricing_data jsonb, effective_from date NOT NULL, effective_to date, " +
+                "created_at timestamp NOT NULL, " +
+                "UNIQUE (provider, service_name, region, instance_type, effective_from))");
+        statement.execute("CREATE INDEX ON pricing_snapshots (provider, service_type, region)");
+        statement.execute("CREATE UNIQUE INDEX ON pricing_snapshots (provider, service_name, region, instance_type) " +
+                "WHERE effective_to IS NULL");
+
+        statement.execute("CREATE TABLE latest_pricing (" +
+                "snapshot_id bigint PRIMARY KEY, provider varchar(20) NOT NULL, service_type varchar(50) NOT NULL, " +
+                "service_name varchar(100) NOT NULL, region varchar(50) NOT NULL, instance_type varchar(100), " +
+                "price_per_hour numeric(10,4), price_per_month numeric(10,2), currency varchar(3), " +
+                "pricing_data jsonb, effective_from date NOT NULL, created_at timestamp NOT NULL, " +
+                "updated_at timestamp NOT NULL DEFAULT now())");
+        statement.execute("CREATE UNIQUE INDEX ON latest_pricing (provider, service_name, region, instance_type) " +
+                "INCLUDE (price_per_hour, price_per_month, currency, snapshot_id)");
+        statement.execute("CREATE FUNCTION latest_pricing_sync() RETURNS trigger AS $$ BEGIN " +
+                "IF NEW.effective_to IS NULL THEN " +
+                "INSERT INTO latest_pricing (snapshot_id, provider, service_type, service_name, region, " +
+                "instance_type, price_per_hour, price_per_month, currency, pricing_data, effective_from, created_at) " +
+                "VALUES (NEW.id, NEW.provider, NEW.service_type, NEW.service_name, NEW.region, NEW.instance_type, " +
+                "NEW.price_per_hour, NEW.price_per_month, NEW.currency, NEW.pricing_data, NEW.effective_from, " +
+                "NEW.created_at); END IF; RETURN NULL; END $$ LANGUAGE plpgsql");
+        statement.execute("CREATE TRIGGER pricing_snapshots_latest AFTER INSERT ON pricing_snapshots " +
+                "FOR EACH ROW EXECUTE FUNCTION latest_pricing_sync()");
+    }
+
+    private void populate(Statement statement) throws SQLException {
+        // Day d of key k; only the last day of each key is current
+        statement.execute("INSERT INTO pricing_snapshots (provider, service_type, service_name, region, " +
+                "instance_type, price_per_hour, currency, effective_from, effective_to, created_at) " +
+                "SELECT (ARRAY['AWS','AZURE','GCP'])[k % 3 + 1], 'COMPUTE', 'EC2', 'region-' || (k % 40), 'i' || k, " +
+                "0.01 + (k % 500) * 0.001 + d * 0.0001, 'USD', DATE '2020-01-01' + d, " +
+                "CASE WHEN d < " + historyDepth + " - 1 THEN DATE '2020-01-01' + d + 1 END, now() " +
+                "FROM generate_series(0, " + (keys - 1) + ") k, generate_series(0, " + (historyDepth - 1) + ") d");
+    }
+
+    private static String provider(int key) {
+        return new String[]{"AWS", "AZURE", "GCP"}[key % 3];
+    }
+
+    private static String region(int key) {
+        return "region-" + (key % 40);
+    }
+}
@@ -0,0 +1,81 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of one compare (3 providers x 5 priced lines: price x quantity,
+ * rounded to cents per line, summed, cheapest provider and max savings) done with
+ * BigDecimal as before and with {@link Money} micro-cents as the cost path does now.
+ *
+ * <p>Run with -prof gc to see the allocation difference; the fixed-point version should
+ * report ~0 B/op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MoneyBenchmark {
+
+    private static final int PROVIDERS = 3;
+    private static final int LINES = 5;
+
+    private final BigDecimal[][] decimalPrices = new BigDecimal[PROVIDERS][LINES];
+    private final BigDecimal[] decimalQuantities = new BigDecimal[LINES];
+    private final long[][] prices = new long[PROVIDERS][LINES];
+    private final double[] quantities = new double[LINES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        // Hours of an instance, GB of storage and so on; hourly-style prices at catalog scale 4
+        double[] lineQuantities = {730, 730, 100, 500, 1};
+        for (int l = 0; l < LINES; l++) {
+            quantities[l] = lineQuantities[l];
+            decimalQuantities[l] = BigDecimal.valueOf(lineQuantities[l]);
+            for (int p = 0; p < PROVIDERS; p++) {
+                BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(20_000), 4);
+                decimalPrices[p][l] = price;
+                prices[p][l] = Money.of(price);
+            }
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal cheapest = null;
+        BigDecimal mostExpensive = null;
+        for (int p = 0; p < PROVIDERS; p++) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int l = 0; l < LINES; l++) {
+                total = total.add(decimalPrices[p][l].multiply(decimalQuantities[l]).setScale(2, RoundingMode.HALF_UP));
+            }
+            cheapest = cheapest == null ? total : cheapest.min(total);
+            mostExpensive = mostExpensive == null ? total : mostExpensive.max(total);
+        }
+        return mostExpensive.subtract(cheapest);
+    }
+
+    @Benchmark
+    public long fixedPoint() {
+        long cheapest = Long.MAX_VALUE;
+        long mostExpensive = Long.MIN_VALUE;
+        for (int p = 0; p < PROVIDERS; p++) {
+            long total = 0;
+            for (int l = 0; l < LINES; l++) {
+                total += Money.roundToCents(Money.times(prices[p][l], quantities[l]));
+            }
+            cheapest = Math.min(cheapest, total);
+            mostExpensive = Math.max(mostExpensive, total);
+        }
+        return mostExpensive - cheapest;
+    }
+}
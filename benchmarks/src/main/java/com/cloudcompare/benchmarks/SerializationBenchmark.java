@@ -0,0 +1,85 @@
+package com.cloudcompare.benchmarks;
+
+import com.cloudcompare.backend.model.dto.PricingResponse;
+import com.cloudcompare.backend.model.dto.TemplateResponse;
+import com.cloudcompare.backend.model.entity.Template;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the two responses the UI fetches most: a compare result and
+ * the template list. Uses a Jackson 3 JsonMapper with defaults, like the one Spring MVC
+ * writes responses with; bytes go to a discarding stream so only serialization is timed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private PricingResponse pricingResponse;
+    private List<TemplateResponse> templates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pricingResponse = PricingResponse.builder()
+                .calculationId(123_456L)
+                .aws(cost("36.50", "60.74", "11.50", "16.43"))
+                .azure(cost("41.10", "70.08", "9.20", "18.25"))
+                .gcp(cost("38.90", "63.51", "10.00", "18.00"))
+                .cheapestProvider("AWS")
+                .maxSavings(new BigDecimal("13.46"))
+                .region("eu-west-1")
+                .catalogVersion(42L)
+                .build();
+
+        long id = 1;
+        templates = new ArrayList<>();
+        for (String name : List.of("web-app", "serverless", "ml-gpu")) {
+            Template template = Fixtures.template(id++, name);
+            templates.add(TemplateResponse.builder()
+                    .id(template.getId())
+                    .name(template.getName())
+                    .description(template.getDescription())
+                    .category(template.getCategory())
+                    .templateConfig(template.getTemplateConfig())
+                    .isActive(template.getIsActive())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void pricingResponse() {
+        jsonMapper.writeValue(OutputStream.nullOutputStream(), pricingResponse);
+    }
+
+    @Benchmark
+    public void templateList() {
+        jsonMapper.writeValue(OutputStream.nullOutputStream(), templates);
+    }
+
+    private static PricingResponse.CloudCost cost(String compute, String database, String storage, String network) {
+        Map<String, BigDecimal> breakdown = new LinkedHashMap<>();
+        breakdown.put("compute", new BigDecimal(compute));
+        breakdown.put("database", new BigDecimal(database));
+        breakdown.put("storage", new BigDecimal(storage));
+        breakdown.put("loadBalancer", new BigDecimal(network));
+        return PricingResponse.CloudCost.builder()
+                .totalMonthlyCost(breakdown.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+                .breakdown(breakdown)
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Time from `docker run` to the first successful POST /api/pricing/compare, over several cold
+# starts of the backend image. Needs the local PostgreSQL (docker-compose up -d) and an image
+# built from backend/Dockerfile:
+#
+#   docker build -t cloud-compare-backend backend
+#   benchmarks/startup-time.sh cloud-compare-backend 5
+#
+# CPU is capped like the Fargate task (0.5 vCPU) unless STARTUP_CPUS says otherwise.
+set -euo pipefail
+
+image="${1:-cloud-compare-backend}"
+runs="${2:-5}"
+cpus="${STARTUP_CPUS:-0.5}"
+port="${STARTUP_PORT:-18080}"
+timeout_seconds="${STARTUP_TIMEOUT:-300}"
+request='{"templateId":1,"region":"us-east-1","configuration":{}}'
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+results=()
+for run in $(seq 1 "$runs"); do
+    started=$(now_ms)
+    container=$(docker run -d --rm --cpus "$cpus" -p "$port:8080" \
+        --add-host=host.docker.internal:host-gateway \
+        -e SPRING_PROFILES_ACTIVE=prod \
+        -e SPRING_DATASOURCE_URL=jdbc:postgresql://host.docker.internal:5432/cloudcompare \
+        -e SPRING_DATASOURCE_USERNAME=postgres \
+        -e SPRING_DATASOURCE_PASSWORD=postgres \
+        "$image")
+
+    elapsed=""
+    while (( $(now_ms) - started < timeout_seconds * 1000 )); do
+        if curl -sf -o /dev/null -X POST "http://localhost:$port/api/pricing/compare" \
+                -H 'Content-Type: application/json' -d "$request"; then
+            elapsed=$(( $(now_ms) - started ))
+            break
+        fi
+        sleep 0.1
+    done
+    docker stop "$container" > /dev/null
+
+    if [[ -z "$elapsed" ]]; then
+        echo "run $run: no successful compare within ${timeout_seconds}s" >&2
+        exit 1
+    fi
+    echo "run $run: first compare after ${elapsed} ms"
+    results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "median ${sorted[$(( ${#sorted[@]} / 2 ))]} ms, min ${sorted[0]} ms, max ${sorted[-1]} ms over $runs runs (--cpus $cpus)"
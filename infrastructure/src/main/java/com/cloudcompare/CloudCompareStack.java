@@ -165,6 +165,8 @@ public class CloudCompareStack extends Stack {
                         .cpu(512)
                         .memoryLimitMiB(1024)
                         .desiredCount(1)
+                        // Leaves room for warm-up before failed health checks replace the task
+                        .healthCheckGracePeriod(Duration.seconds(120))
                         .taskImageOptions(ApplicationLoadBalancedTaskImageOptions.builder()
                                 .containerName("cloud-compare-backend")
                                 .image(ContainerImage.fromEcrRepository(ecrRepository, "latest"))
@@ -192,9 +194,10 @@ public class CloudCompareStack extends Stack {
         // Health Check Configuration
         // ============================================
 
+        // Readiness stays OUT_OF_SERVICE until the task has warmed up (see WarmupService)
         fargateService.getTargetGroup().configureHealthCheck(HealthCheck.builder()
-                .path("/actuator/health")
-                .interval(Duration.seconds(60))
+                .path("/actuator/health/readiness")
+                .interval(Duration.seconds(15))
                 .timeout(Duration.seconds(5))
                 .healthyThresholdCount(2)
                 .unhealthyThresholdCount(3)
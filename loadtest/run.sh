@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Latency regression run: starts the local PostgreSQL from docker-compose.yml and the backend jar,
+# drives the synthetic request mix at a fixed rate and writes HdrHistogram reports to
+# loadtest/results. Options are passed through, e.g.
+#
+#   loadtest/run.sh --rate=300 --duration=PT2M
+#   cp loadtest/results/summary.json loadtest/baseline-300rps.json  # store a baseline
+#   loadtest/run.sh --rate=300 --duration=PT2M --baseline=loadtest/baseline-300rps.json
+#
+# Exits 1 when the run regressed against the baseline or had too many errors.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+docker compose up -d --wait postgres
+
+backend_jar=$(ls backend/target/backend-*-exec.jar 2>/dev/null | head -n 1 || true)
+if [[ -z "$backend_jar" ]]; then
+    (cd backend && mvn -B -q package -DskipTests)
+    backend_jar=$(ls backend/target/backend-*-exec.jar | head -n 1)
+fi
+if [[ ! -f loadtest/target/loadtest.jar ]]; then
+    (cd loadtest && mvn -B -q package)
+fi
+
+java -jar loadtest/target/loadtest.jar --backend-jar="$backend_jar" --output=loadtest/results "$@"
@@ -0,0 +1,81 @@
+package com.cloudcompare.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The backend jar started as a child process for the run, against the given PostgreSQL
+ * (docker-compose's by default), with its output in backend.log next to the reports.
+ */
+final class BackendProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+
+    private BackendProcess(Process process) {
+        this.process = process;
+    }
+
+    static BackendProcess start(LoadTestOptions options) throws IOException, InterruptedException {
+        Files.createDirectories(options.output());
+        Path log = options.output().resolve("backend.log");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(List.of(java, "-jar", options.backendJar().toString(),
+                "--server.port=" + options.port()))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        builder.environment().putAll(Map.of(
+                "SPRING_DATASOURCE_URL", options.jdbcUrl(),
+                "SPRING_DATASOURCE_USERNAME", options.jdbcUser(),
+                "SPRING_DATASOURCE_PASSWORD", options.jdbcPassword()));
+
+        BackendProcess backend = new BackendProcess(builder.start());
+        try {
+            backend.awaitHealthy(options.target(), log);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            backend.close();
+            throw e;
+        }
+        return backend;
+    }
+
+    private void awaitHealthy(URI target, Path log) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(target.resolve("/api/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Backend exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IOException("Backend not healthy after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
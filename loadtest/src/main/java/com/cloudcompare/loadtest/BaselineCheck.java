@@ -0,0 +1,67 @@
+package com.cloudcompare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pass/fail against a stored summary.json. A request type regresses when one of its
+ * response-time percentiles is more than {@code tolerance} (relative) and {@code slackMs}
+ * (absolute, so sub-millisecond noise doesn't fail a run) above the baseline, when its
+ * error rate exceeds {@code maxErrorRate} (checked with or without a baseline), or when it
+ * is missing from the run. Baselines taken at a different rate are rejected; the
+ * latencies would not be comparable.
+ */
+final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    // baseline may be null, then only the error rates are checked
+    static List<String> regressions(JsonNode baseline, JsonNode current, double tolerance, double slackMs,
+                                    double maxErrorRate) {
+        List<String> regressions = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> measured = current.path("types").fields();
+        while (measured.hasNext()) {
+            Map.Entry<String, JsonNode> type = measured.next();
+            long count = type.getValue().path("count").asLong();
+            double errorRate = count > 0 ? (double) type.getValue().path("errors").asLong() / count : 0;
+            if (errorRate > maxErrorRate) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.2f%% errors, at most %.2f%% allowed",
+                        type.getKey(), errorRate * 100, maxErrorRate * 100));
+            }
+        }
+        if (baseline == null) {
+            return regressions;
+        }
+        if (baseline.path("rate").asDouble() != current.path("rate").asDouble()) {
+            regressions.add(String.format(Locale.ROOT, "baseline was taken at %.0f req/s, this run at %.0f req/s",
+                    baseline.path("rate").asDouble(), current.path("rate").asDouble()));
+            return regressions;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> types = baseline.path("types").fields();
+        while (types.hasNext()) {
+            Map.Entry<String, JsonNode> type = types.next();
+            JsonNode now = current.path("types").get(type.getKey());
+            if (now == null) {
+                regressions.add(type.getKey() + ": no requests in this run");
+                continue;
+            }
+            for (double percentile : LatencyReport.PERCENTILES) {
+                String label = LatencyReport.label(percentile);
+                double before = type.getValue().path("responseMs").path(label).asDouble();
+                double after = now.path("responseMs").path(label).asDouble();
+                if (after > before * (1 + tolerance) && after - before > slackMs) {
+                    regressions.add(String.format(Locale.ROOT, "%s %s: %.2f ms, baseline %.2f ms (%+.0f%%)",
+                            type.getKey(), label, after, before, (after - before) / before * 100));
+                }
+            }
+        }
+        return regressions;
+    }
+}
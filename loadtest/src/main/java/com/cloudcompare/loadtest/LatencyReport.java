@@ -0,0 +1,133 @@
+package com.cloudcompare.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one run per request type, in microseconds, with the percentile files and
+ * the summary.json a later run is compared against (see {@link BaselineCheck}).
+ */
+final class LatencyReport {
+
+    static final List<Double> PERCENTILES = List.of(50.0, 90.0, 99.0, 99.9);
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final double rate;
+    private final Duration duration;
+    private final long maxSendLagMicros;
+    private final Map<String, Recording> recordings;
+
+    LatencyReport(double rate, Duration duration, long maxSendLagMicros, Map<String, Recording> recordings) {
+        this.rate = rate;
+        this.duration = duration;
+        this.maxSendLagMicros = maxSendLagMicros;
+        this.recordings = new TreeMap<>(recordings);
+    }
+
+    // Response time from when the request was due, service time from when it was sent; errors are non-2xx/3xx
+    static final class Recording {
+
+        final Histogram response = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        final Histogram service = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long responseNanos, long serviceNanos, boolean ok) {
+            response.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(responseNanos), HIGHEST_MICROS));
+            service.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(serviceNanos), HIGHEST_MICROS));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%.0f req/s for %s, sender fell behind by at most %.1f ms%n",
+                rate, duration, maxSendLagMicros / 1000.0);
+        out.printf(Locale.ROOT, "%-12s %9s %7s %10s %10s %10s %10s %10s   %s%n", "type", "count", "errors",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "service p99 ms");
+        recordings.forEach((type, recording) -> out.printf(Locale.ROOT,
+                "%-12s %9d %7d %10.2f %10.2f %10.2f %10.2f %10.2f   %.2f%n",
+                type, recording.response.getTotalCount(), recording.errors.sum(),
+                millis(recording.response, 50), millis(recording.response, 90), millis(recording.response, 99),
+                millis(recording.response, 99.9), recording.response.getMaxValue() / 1000.0,
+                millis(recording.service, 99)));
+    }
+
+    /**
+     * Writes a percentile distribution per type (&lt;type&gt;.hgrm, in milliseconds, the
+     * format HdrHistogram's plotter reads), the full histograms as an HdrHistogram log and
+     * summary.json. Returns the summary.
+     */
+    ObjectNode write(Path directory, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream log = new PrintStream(Files.newOutputStream(directory.resolve("latencies.hlog")))) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            for (Map.Entry<String, Recording> entry : recordings.entrySet()) {
+                writeDistribution(directory.resolve(entry.getKey() + ".hgrm"), entry.getValue().response);
+                writeDistribution(directory.resolve(entry.getKey() + ".service.hgrm"), entry.getValue().service);
+                entry.getValue().response.setTag(entry.getKey());
+                writer.outputIntervalHistogram(entry.getValue().response);
+            }
+        }
+        ObjectNode summary = summary(objectMapper);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("summary.json").toFile(), summary);
+        return summary;
+    }
+
+    ObjectNode summary(ObjectMapper objectMapper) {
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.put("rate", rate);
+        summary.put("duration", duration.toString());
+        summary.put("maxSendLagMs", maxSendLagMicros / 1000.0);
+        ObjectNode types = summary.putObject("types");
+        recordings.forEach((type, recording) -> {
+            ObjectNode node = types.putObject(type);
+            node.put("count", recording.response.getTotalCount());
+            node.put("errors", recording.errors.sum());
+            ObjectNode percentiles = node.putObject("responseMs");
+            for (double percentile : PERCENTILES) {
+                percentiles.put(label(percentile), millis(recording.response, percentile));
+            }
+            percentiles.put("max", recording.response.getMaxValue() / 1000.0);
+            ObjectNode service = node.putObject("serviceMs");
+            for (double percentile : PERCENTILES) {
+                service.put(label(percentile), millis(recording.service, percentile));
+            }
+        });
+        return summary;
+    }
+
+    // p50, p99, p99.9
+    static String label(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+                : String.valueOf(percentile));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.cloudcompare.loadtest;
+
+/**
+ * One request to send. Latencies are reported per type (compare, templates, batch or
+ * whatever a recording calls them).
+ *
+ * @param body JSON, or null for a GET
+ */
+record LoadRequest(String type, String method, String path, String body) {
+}
@@ -0,0 +1,87 @@
+package com.cloudcompare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency regression run for the backend: optionally starts it, drives a fixed-rate mix
+ * of compare, template and batch requests at it (see {@link OpenLoadGenerator}), writes
+ * HdrHistogram reports and exits 1 if a baseline check fails. Options are described in
+ * {@link LoadTestOptions}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        LatencyReport report;
+        if (options.backendJar() != null) {
+            System.out.println("Starting " + options.backendJar() + " on port " + options.port());
+            try (BackendProcess ignored = BackendProcess.start(options)) {
+                report = run(options, objectMapper);
+            }
+        } else {
+            report = run(options, objectMapper);
+        }
+
+        report.print(System.out);
+        ObjectNode summary = report.write(options.output(), objectMapper);
+        System.out.println("Reports written to " + options.output().toAbsolutePath());
+
+        JsonNode baseline = options.baseline() != null ? objectMapper.readTree(options.baseline().toFile()) : null;
+        List<String> regressions = BaselineCheck.regressions(baseline, summary, options.tolerance(),
+                options.slackMs(), options.maxErrorRate());
+        if (!regressions.isEmpty()) {
+            System.out.println("FAIL");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.println(baseline != null ? "PASS against " + options.baseline() : "PASS");
+    }
+
+    private static LatencyReport run(LoadTestOptions options, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        Workload workload = options.recording() != null
+                ? RecordedWorkload.read(options.recording())
+                : new SyntheticWorkload(templates(options, objectMapper), options.mix(), options.batchSize());
+        System.out.printf("Sending %.0f req/s to %s: %s warmup, %s measured%n",
+                options.rate(), options.target(), options.warmup(), options.duration());
+        return new OpenLoadGenerator(options.target(), options.timeout())
+                .run(workload, options.rate(), options.warmup(), options.duration());
+    }
+
+    private static List<JsonNode> templates(LoadTestOptions options, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(options.target().resolve("/api/templates"))
+                        .timeout(Duration.ofSeconds(10))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /api/templates returned " + response.statusCode());
+        }
+        List<JsonNode> templates = new ArrayList<>();
+        objectMapper.readTree(response.body()).forEach(templates::add);
+        return templates;
+    }
+}
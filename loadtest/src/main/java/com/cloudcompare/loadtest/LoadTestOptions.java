@@ -0,0 +1,97 @@
+package com.cloudcompare.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, all --name=value:
+ * <pre>
+ * --target=http://localhost:8080   backend to load, unless --backend-jar starts one
+ * --backend-jar=PATH               start this backend jar and load it
+ * --port=18080                     port for the started backend
+ * --jdbc-url, --jdbc-user, --jdbc-password   database for the started backend (docker-compose's)
+ * --rate=200                       requests per second, fixed arrival rate
+ * --warmup=PT15S --duration=PT60S  unrecorded warmup, then the measured run
+ * --mix=compare:80,templates:15,batch:5   synthetic request mix by weight
+ * --batch-size=20                  compare requests per batch request
+ * --recording=PATH                 replay recorded requests (NDJSON) instead of the synthetic mix
+ * --timeout=PT10S                  per request; a timed-out request counts as an error
+ * --output=results                 directory for the reports
+ * --baseline=PATH                  fail if latencies regressed against this summary.json
+ * --tolerance=0.10 --slack-ms=1 --max-error-rate=0.01   what counts as a regression
+ * </pre>
+ */
+record LoadTestOptions(URI target, Path backendJar, int port, String jdbcUrl, String jdbcUser, String jdbcPassword,
+                       double rate, Duration warmup, Duration duration, Map<String, Integer> mix, int batchSize,
+                       Path recording, Duration timeout, Path output, Path baseline, double tolerance,
+                       double slackMs, double maxErrorRate) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        Path backendJar = path(values.remove("backend-jar"));
+        int port = Integer.parseInt(values.getOrDefault("port", "18080"));
+        values.remove("port");
+        String target = values.remove("target");
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(target != null ? target : backendJar != null ? "http://localhost:" + port
+                        : "http://localhost:8080"),
+                backendJar,
+                port,
+                remove(values, "jdbc-url", "jdbc:postgresql://localhost:5432/cloudcompare"),
+                remove(values, "jdbc-user", "postgres"),
+                remove(values, "jdbc-password", "postgres"),
+                Double.parseDouble(remove(values, "rate", "200")),
+                Duration.parse(remove(values, "warmup", "PT15S")),
+                Duration.parse(remove(values, "duration", "PT60S")),
+                mix(remove(values, "mix", "compare:80,templates:15,batch:5")),
+                Integer.parseInt(remove(values, "batch-size", "20")),
+                path(values.remove("recording")),
+                Duration.parse(remove(values, "timeout", "PT10S")),
+                Path.of(remove(values, "output", "results")),
+                path(values.remove("baseline")),
+                Double.parseDouble(remove(values, "tolerance", "0.10")),
+                Double.parseDouble(remove(values, "slack-ms", "1")),
+                Double.parseDouble(remove(values, "max-error-rate", "0.01")));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        if (options.rate() <= 0 || options.batchSize() <= 0) {
+            throw new IllegalArgumentException("rate and batch-size must be positive");
+        }
+        return options;
+    }
+
+    private static String remove(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static Path path(String value) {
+        return value != null ? Path.of(value) : null;
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2 || !SyntheticWorkload.TYPES.contains(parts[0].trim())) {
+                throw new IllegalArgumentException("mix entries are type:weight with type one of "
+                        + SyntheticWorkload.TYPES + ", got " + entry);
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
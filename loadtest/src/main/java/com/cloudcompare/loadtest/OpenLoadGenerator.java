@@ -0,0 +1,93 @@
+package com.cloudcompare.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate whether or not earlier ones have completed (an
+ * open model): request i is due at start + i / rate and is sent then, however many are
+ * still in flight. Response time is measured from when a request was due, not from when
+ * it was actually sent, so a stalled backend or a late sender shows up in the latencies
+ * instead of silently lowering the rate (no coordinated omission). Service time, from the
+ * actual send, is kept alongside for comparison.
+ */
+final class OpenLoadGenerator {
+
+    private final HttpClient client;
+    private final URI target;
+    private final Duration timeout;
+    private final ConcurrentHashMap<String, LatencyReport.Recording> recordings = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    OpenLoadGenerator(URI target, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.target = target;
+        this.timeout = timeout;
+    }
+
+    LatencyReport run(Workload workload, double rate, Duration warmup, Duration duration) throws InterruptedException {
+        long interval = Math.round(TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measuredFrom = start + warmup.toNanos();
+        long end = measuredFrom + duration.toNanos();
+        long maxSendLag = 0;
+
+        for (long i = 0; ; i++) {
+            long due = start + i * interval;
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (due >= measuredFrom) {
+                maxSendLag = Math.max(maxSendLag, -wait);
+            }
+            send(workload.next(), due, due >= measuredFrom);
+        }
+
+        // Let the last requests finish (or time out) before reporting
+        long drainUntil = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        return new LatencyReport(rate, duration, TimeUnit.NANOSECONDS.toMicros(maxSendLag), recordings);
+    }
+
+    private void send(LoadRequest request, long due, boolean measured) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(request.path()))
+                .timeout(timeout)
+                .header("Accept", "application/json, application/x-ndjson");
+        if (request.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(request.method(), HttpRequest.BodyPublishers.ofString(request.body()));
+        } else {
+            builder.method(request.method(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        long sent = System.nanoTime();
+        inFlight.incrementAndGet();
+        // Batch responses stream; the request is done when the whole body has arrived
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long completed = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        boolean ok = failure == null && response.statusCode() < 400;
+                        recordings.computeIfAbsent(request.type(), type -> new LatencyReport.Recording())
+                                .record(completed - due, completed - sent, ok);
+                    }
+                });
+    }
+}
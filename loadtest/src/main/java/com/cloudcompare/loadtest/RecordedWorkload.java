@@ -0,0 +1,67 @@
+package com.cloudcompare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays requests from an NDJSON recording, one request per line, looping when the
+ * recording is shorter than the run:
+ * <pre>
+ * {"type": "compare", "method": "POST", "path": "/api/pricing/compare", "body": {"templateId": 1, ...}}
+ * {"type": "templates", "method": "GET", "path": "/api/templates"}
+ * </pre>
+ * type defaults to the path; arrival times come from --rate, not from the recording.
+ */
+final class RecordedWorkload implements Workload {
+
+    private final List<LoadRequest> requests;
+    private int next;
+
+    private RecordedWorkload(List<LoadRequest> requests) {
+        this.requests = requests;
+    }
+
+    static RecordedWorkload read(Path recording) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<LoadRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(recording)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode entry = objectMapper.readTree(line);
+                String path = entry.path("path").asText(null);
+                if (path == null) {
+                    throw new IOException(recording + " line " + number + ": path is required");
+                }
+                JsonNode body = entry.get("body");
+                requests.add(new LoadRequest(
+                        entry.path("type").asText(path),
+                        entry.path("method").asText(body != null ? "POST" : "GET"),
+                        path,
+                        body != null ? objectMapper.writeValueAsString(body) : null));
+            }
+        }
+        if (requests.isEmpty()) {
+            throw new IOException(recording + " has no requests");
+        }
+        return new RecordedWorkload(requests);
+    }
+
+    @Override
+    public LoadRequest next() {
+        LoadRequest request = requests.get(next);
+        next = next + 1 == requests.size() ? 0 : next + 1;
+        return request;
+    }
+}
@@ -0,0 +1,136 @@
+package com.cloudcompare.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A generated mix of compare, template and batch requests over the backend's own
+ * templates (GET /api/templates). Compares pick a template, a region and, for every
+ * parameter with min/max bounds, one of a few values in range, so the result cache sees
+ * repeats without every compare being the same hot key. Seeded, so two runs send the
+ * same sequence.
+ */
+final class SyntheticWorkload implements Workload {
+
+    static final Set<String> TYPES = Set.of("compare", "templates", "batch");
+
+    private static final List<String> REGIONS = List.of("us-east-1", "us-west-2", "eu-west-1", "eu-central-1",
+            "ap-southeast-1", "ap-northeast-1", "ap-south-1", "sa-east-1");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+    private final List<JsonNode> templates;
+    private final String[] types;
+    private final int[] cumulativeWeights;
+    private final int batchSize;
+
+    SyntheticWorkload(List<JsonNode> templates, Map<String, Integer> mix, int batchSize) {
+        if (templates.isEmpty()) {
+            throw new IllegalStateException("The backend has no active templates to compare");
+        }
+        this.templates = templates;
+        this.types = mix.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[types.length];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            total += mix.get(types[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("mix weights must add up to more than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public LoadRequest next() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int type = 0;
+        while (pick >= cumulativeWeights[type]) {
+            type++;
+        }
+        return switch (types[type]) {
+            case "compare" -> new LoadRequest("compare", "POST", "/api/pricing/compare", json(compareRequest()));
+            case "batch" -> {
+                ArrayNode batch = objectMapper.createArrayNode();
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(compareRequest());
+                }
+                yield new LoadRequest("batch", "POST", "/api/pricing/compare/batch", json(batch));
+            }
+            default -> templateRequest();
+        };
+    }
+
+    private LoadRequest templateRequest() {
+        JsonNode template = templates.get(random.nextInt(templates.size()));
+        return switch (random.nextInt(3)) {
+            case 0 -> new LoadRequest("templates", "GET", "/api/templates", null);
+            case 1 -> new LoadRequest("templates", "GET", "/api/templates/category/"
+                    + template.path("category").asText(), null);
+            default -> new LoadRequest("templates", "GET", "/api/templates/" + template.path("id").asLong(), null);
+        };
+    }
+
+    private ObjectNode compareRequest() {
+        JsonNode template = templates.get(random.nextInt(templates.size()));
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("templateId", template.path("id").asLong());
+        request.put("region", REGIONS.get(random.nextInt(REGIONS.size())));
+        ObjectNode configuration = request.putObject("configuration");
+
+        Iterator<Map.Entry<String, JsonNode>> components = template.path("templateConfig").fields();
+        while (components.hasNext()) {
+            Map.Entry<String, JsonNode> component = components.next();
+            if (!component.getValue().isObject()) {
+                continue;
+            }
+            ObjectNode values = objectMapper.createObjectNode();
+            for (String parameter : parameters(component.getValue())) {
+                long min = component.getValue().path("min" + parameter).asLong();
+                long max = component.getValue().path("max" + parameter).asLong();
+                if (max > min) {
+                    // One of 8 evenly spaced values, so repeats hit the result cache now and then
+                    values.put(decapitalize(parameter), min + (max - min) * random.nextInt(8) / 7);
+                }
+            }
+            if (!values.isEmpty()) {
+                configuration.set(component.getKey(), values);
+            }
+        }
+        return request;
+    }
+
+    // Parameters with both bounds, e.g. Vcpus for minVcpus/maxVcpus
+    private static List<String> parameters(JsonNode component) {
+        List<String> parameters = new ArrayList<>();
+        component.fieldNames().forEachRemaining(name -> {
+            if (name.startsWith("min") && name.length() > 3 && component.has("max" + name.substring(3))) {
+                parameters.add(name.substring(3));
+            }
+        });
+        return parameters;
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private String json(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
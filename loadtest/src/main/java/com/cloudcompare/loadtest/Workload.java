@@ -0,0 +1,7 @@
+package com.cloudcompare.loadtest;
+
+// Supplies requests in send order; only ever called from the generator's scheduling thread
+interface Workload {
+
+    LoadRequest next();
+}